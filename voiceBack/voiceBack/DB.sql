@@ -40,8 +40,75 @@ CREATE TABLE summary (
     FOREIGN KEY (user_id) REFERENCES users(id)
 );
 
+CREATE TABLE call_event (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    call_id VARCHAR(64) NOT NULL,
+    event_type VARCHAR(20) NOT NULL,
+    user_id VARCHAR(50) NOT NULL,
+    peer_id VARCHAR(50),
+    event_time DATETIME(6) NOT NULL,
+    duration_ms BIGINT,
+    INDEX idx_call_event_user_time (user_id, event_time)
+);
+
+-- 1:1 통화 (CallSession). 시작 시 INSERT, 종료 시 ended_at / duration_ms UPDATE
+CREATE TABLE call_session (
+    session_id VARCHAR(64) PRIMARY KEY,
+    user_a VARCHAR(50),
+    user_b VARCHAR(50),
+    started_at DATETIME(6),
+    ended_at DATETIME(6),
+    duration_ms BIGINT,
+    INDEX idx_call_session_user_a_time (user_a, started_at),
+    INDEX idx_call_session_user_b_time (user_b, started_at)
+);
+
 select * from refresh_token;
 select * from social_account;
 select * from summary;
 
-drop table summary;
\ No newline at end of file
+drop table summary;
+
+-- =============================
+-- prod 프로필 (orm-prod.xml) 용 pooled 시퀀스 (MariaDB 10.3+)
+-- INCREMENT BY 는 allocation-size(50)와 같아야 한다.
+-- 기존 데이터가 있으면 START WITH 를 각 테이블의 MAX(id) + 51 이상으로 지정.
+-- =============================
+CREATE SEQUENCE users_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE refresh_token_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE social_account_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE summary_seq START WITH 1 INCREMENT BY 50;
+
+-- =============================
+-- 통화 자막 (TranscriptService) / 서버 생성 요약 연결
+-- =============================
+CREATE TABLE transcript_segment (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    call_id VARCHAR(64) NOT NULL,
+    seq INT NOT NULL,
+    user_id VARCHAR(50) NOT NULL,
+    start_ms BIGINT,
+    end_ms BIGINT,
+    text VARCHAR(2000) NOT NULL,
+    created_at DATETIME(6) NOT NULL,
+    INDEX idx_transcript_call_seq (call_id, seq)
+);
+ALTER TABLE summary ADD COLUMN call_id VARCHAR(64);
+
+-- =============================
+-- 요약 압축 저장 (TextCodec). summary_data 가 있으면 summary_text 는 앞부분 미리보기
+-- 기존 행은 summary.compression.migrate-existing=true 로 띄우면 백그라운드에서 옮긴다
+-- =============================
+ALTER TABLE summary ADD COLUMN summary_data LONGBLOB;
+
+-- =============================
+-- 인증코드 (verification-code.backend=jdbc). 키(용도:email)당 한 행, 코드는 SHA-256 해시만 저장
+-- expires_at 은 epoch millis
+-- =============================
+CREATE TABLE verification_code (
+    code_key VARCHAR(320) PRIMARY KEY,
+    code_hash VARBINARY(32) NOT NULL,
+    attempts INT NOT NULL DEFAULT 0,
+    expires_at BIGINT NOT NULL,
+    INDEX idx_verification_code_expires (expires_at)
+);
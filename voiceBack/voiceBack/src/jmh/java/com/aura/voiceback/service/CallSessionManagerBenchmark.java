@@ -0,0 +1,51 @@
+package com.aura.voiceback.service;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 여러 스레드가 같은 방들에 동시에 참가/퇴장할 때의 처리량 (요청 스레드 -> 방 이벤트 루프 왕복 포함).
+ * 방마다 상주 인원 1명을 둬서 퇴장으로 방이 삭제되지 않게 한다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+public class CallSessionManagerBenchmark {
+
+    @Param({"1", "64"})
+    int rooms;
+
+    RoomEventLoops eventLoops;
+    CallSessionManager manager;
+    String[] roomIds;
+
+    @Setup
+    public void setup() {
+        eventLoops = new RoomEventLoops(4);
+        manager = new CallSessionManager(eventLoops);
+        roomIds = new String[rooms];
+        for (int i = 0; i < rooms; i++) {
+            roomIds[i] = manager.createRoom("host" + i, "room" + i);
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws InterruptedException {
+        eventLoops.shutdown();
+    }
+
+    @Benchmark
+    public boolean joinLeave() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        String roomId = roomIds[random.nextInt(rooms)];
+        String userId = "user" + random.nextInt(1024);
+        manager.joinRoom(userId, roomId);
+        return manager.leaveRoom(userId, roomId).roomExists();
+    }
+}
@@ -0,0 +1,75 @@
+package com.aura.voiceback.service;
+
+import com.aura.voiceback.util.BufferPool;
+import com.aura.voiceback.util.PooledBuffer;
+import com.aura.voiceback.websocket.PeerConnection;
+import com.aura.voiceback.websocket.DiscardingWebSocketSession;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 프레임 1개 중계 비용: 수신 복사 + PCM -> WAV 변환 + 방 인원수만큼 fan-out.
+ * 방 루프로 넘기는 단계는 빼고 루프에서 실행되는 relay() 를 직접 호출한다 (송신도 같은 스레드).
+ * payloadSize 1920 = 48kHz mono 16bit 20ms 프레임.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class VoIPServiceBenchmark {
+
+    @Param({"2", "8", "32"})
+    int roomSize;
+
+    @Param({"1920", "7680"})
+    int payloadSize;
+
+    RoomEventLoops eventLoops;
+    BufferPool bufferPool;
+    VoIPService voipService;
+    PeerConnection sender;
+    byte[] pcm;
+    long seq;
+
+    @Setup
+    public void setup() {
+        eventLoops = new RoomEventLoops(1);
+        bufferPool = new BufferPool(1024, false);
+        voipService = new VoIPService(VoIPService.Options.builder()
+                .metrics(new VoIPMetrics(new SimpleMeterRegistry()))
+                .latencyTracker(new CallLatencyTracker(10))
+                .bufferPool(bufferPool)
+                .eventLoops(eventLoops)
+                .sender(Runnable::run)
+                .build());
+        for (int i = 0; i < roomSize; i++) {
+            voipService.registerSession("s" + i, new DiscardingWebSocketSession("s" + i, "bench-room"));
+        }
+        eventLoops.call("bench-room", () -> null); // 등록 완료 대기
+        sender = voipService.peer("s0");
+        pcm = new byte[payloadSize];
+        ThreadLocalRandom.current().nextBytes(pcm);
+    }
+
+    @TearDown
+    public void tearDown() throws InterruptedException {
+        eventLoops.shutdown();
+    }
+
+    @Benchmark
+    public void forwardAudio() {
+        PooledBuffer frame = bufferPool.acquire(pcm.length);
+        frame.buffer().put(0, pcm);
+        voipService.relay(sender, frame, false, seq++, 0, System.nanoTime(), System.currentTimeMillis());
+    }
+
+    @Benchmark
+    public byte[] convertPCMToWAV() {
+        return voipService.convertPCMToWAV(pcm, 48000, 1);
+    }
+}
@@ -0,0 +1,47 @@
+package com.aura.voiceback.util;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JWT 발급 / 검증 / email 추출 (JwtAuthenticationFilter 가 요청마다 validate + getEmail 을 호출)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtTokenProviderBenchmark {
+
+    JwtTokenProvider provider;
+    String token;
+
+    @Setup
+    public void setup() {
+        provider = new JwtTokenProvider("ThisIsASecretKeyForJwtTokenExample1234567890", 1_800_000L);
+        token = provider.generateAccessToken("bench@aura.test");
+    }
+
+    @Benchmark
+    public String generate() {
+        return provider.generateAccessToken("bench@aura.test");
+    }
+
+    @Benchmark
+    public boolean validate() {
+        return provider.validateToken(token);
+    }
+
+    @Benchmark
+    public String getEmail() {
+        return provider.getEmail(token);
+    }
+
+    // 필터가 실제로 하는 일 (파싱 2회)
+    @Benchmark
+    public String validateThenGetEmail() {
+        return provider.validateToken(token) ? provider.getEmail(token) : null;
+    }
+}
@@ -0,0 +1,56 @@
+package com.aura.voiceback.util;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 인증 API 요청 제한 비용 (BCryptBenchmark.matches 와 비교: 429 는 BCrypt 한 번보다 훨씬 싸야 한다)
+ *   limited  : 이미 한도를 넘은 키 (공격 중인 IP) - CAS 없이 바로 거절
+ *   allowed  : 넉넉한 한도의 키 하나 - CAS 한 번
+ *   manyKeys : max-keys 보다 훨씬 많은 키가 돌아가며 들어옴 - 새 버킷 생성 + 가득 찬 버킷 eviction (자리가 없으면 거절)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+public class TokenBucketLimiterBenchmark {
+
+    private static final int KEY_SPACE = 1 << 20;
+
+    TokenBucketLimiter strict;
+    TokenBucketLimiter generous;
+    TokenBucketLimiter bounded;
+    String[] keys;
+    int next;
+
+    @Setup
+    public void setup() {
+        strict = new TokenBucketLimiter(0.5, 20, 100_000, 16);
+        generous = new TokenBucketLimiter(1e9, 1_000_000, 100_000, 16);
+        bounded = new TokenBucketLimiter(0.5, 20, 100_000, 16);
+        keys = new String[KEY_SPACE];
+        for (int i = 0; i < KEY_SPACE; i++) {
+            keys[i] = "ip:10." + (i >> 16) + '.' + ((i >> 8) & 0xff) + '.' + (i & 0xff);
+        }
+        for (int i = 0; i < 100; i++) strict.tryAcquire("ip:attacker", System.nanoTime());
+    }
+
+    @Benchmark
+    public long limited() {
+        return strict.tryAcquire("ip:attacker", System.nanoTime());
+    }
+
+    @Benchmark
+    public long allowed() {
+        return generous.tryAcquire("ip:user", System.nanoTime());
+    }
+
+    @Benchmark
+    public long manyKeys() {
+        next = (next + 1) & (KEY_SPACE - 1);
+        return bounded.tryAcquire(keys[next], System.nanoTime());
+    }
+}
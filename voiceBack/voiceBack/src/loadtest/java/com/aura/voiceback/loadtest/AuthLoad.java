@@ -0,0 +1,166 @@
+package com.aura.voiceback.loadtest;
+
+import com.aura.voiceback.util.LatencyHistogram;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 인증 API 부하: login / refresh 를 정해진 비율로 섞어 목표 RPS 로 보낸다 (open-loop).
+ * 사용자별 refresh token 은 rotate 되므로 같은 사용자에 대한 요청이 동시에 나가지 않게 한다.
+ * 동시 요청 수가 maxInFlight 를 넘거나 쉬는 사용자를 못 찾으면 보내지 않고 shed 로 센다.
+ */
+class AuthLoad {
+
+    private static final ObjectMapper mapper = new ObjectMapper();
+    private static final String PASSWORD = "loadtest-password";
+    private static final int TICK_MS = 10;
+
+    private final URI baseUrl;
+    private final int users;
+    private final double refreshRatio;
+    private final Semaphore inFlight;
+    private final HttpClient http;
+
+    private final AtomicReferenceArray<String> refreshTokens;
+    private final ConcurrentHashMap<Integer, Boolean> busy = new ConcurrentHashMap<>();
+    private volatile Window window = new Window();
+
+    AuthLoad(URI baseUrl, int users, double refreshRatio, int maxInFlight) {
+        this.baseUrl = baseUrl;
+        this.users = users;
+        this.refreshRatio = refreshRatio;
+        this.inFlight = new Semaphore(maxInFlight);
+        this.refreshTokens = new AtomicReferenceArray<>(users);
+        this.http = HttpClient.newBuilder()
+                .executor(Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors() * 2))
+                .build();
+    }
+
+    Report run(int[] rpsSteps, int warmupSeconds, int stepSeconds) throws Exception {
+        setupUsers();
+        Report report = new Report("auth",
+                "target_rps", "achieved_rps", "ok", "errors", "shed", "limited",
+                "p50_ms", "p95_ms", "p99_ms", "max_ms",
+                "login_p50_ms", "login_p99_ms", "refresh_p50_ms", "refresh_p99_ms");
+        ScheduledExecutorService ticker = Executors.newSingleThreadScheduledExecutor();
+        try {
+            for (int rps : rpsSteps) {
+                double perTick = rps * TICK_MS / 1000.0;
+                double[] carry = {0};
+                ScheduledFuture<?> task = ticker.scheduleAtFixedRate(() -> {
+                    carry[0] += perTick;
+                    for (; carry[0] >= 1; carry[0]--) fire();
+                }, 0, TICK_MS, TimeUnit.MILLISECONDS);
+                Thread.sleep(warmupSeconds * 1000L);
+                window = new Window();
+                Thread.sleep(stepSeconds * 1000L);
+                Window w = window;
+                task.cancel(false);
+                double seconds = (System.nanoTime() - w.startedAt) / 1e9;
+                report.add(rps, w.ok.sum() / seconds, w.ok.sum(), w.errors.sum(), w.shed.sum(), w.limited.sum(),
+                        ms(w.all, 50), ms(w.all, 95), ms(w.all, 99), w.all.getMax() / 1000.0,
+                        ms(w.login, 50), ms(w.login, 99), ms(w.refresh, 50), ms(w.refresh, 99));
+            }
+        } finally {
+            ticker.shutdownNow();
+        }
+        return report;
+    }
+
+    private void setupUsers() throws Exception {
+        for (int i = 0; i < users; i++) {
+            // 이미 등록된 사용자면 register 는 실패해도 된다
+            send("/auth/register", Map.of("name", "load" + i, "email", email(i), "phone", "010" + (10000000 + i),
+                    "password", PASSWORD)).join();
+            HttpResponse<String> res = send("/auth/login", Map.of("email", email(i), "password", PASSWORD)).join();
+            if (res.statusCode() / 100 != 2) {
+                throw new IllegalStateException("login failed for " + email(i) + ": " + res.statusCode());
+            }
+            refreshTokens.set(i, (String) mapper.readValue(res.body(), Map.class).get("refreshToken"));
+        }
+    }
+
+    private void fire() {
+        Window w = window;
+        if (!inFlight.tryAcquire()) {
+            w.shed.increment();
+            return;
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int user = random.nextInt(users);
+        for (int tries = 1; busy.putIfAbsent(user, Boolean.TRUE) != null; tries++) {
+            if (tries == 4) { // 사용자 수에 비해 RPS 가 너무 높음
+                inFlight.release();
+                w.shed.increment();
+                return;
+            }
+            user = random.nextInt(users);
+        }
+        int u = user;
+        boolean refresh = random.nextDouble() < refreshRatio;
+        long start = System.nanoTime();
+        send(refresh ? "/auth/refresh" : "/auth/login",
+                refresh ? Map.of("refreshToken", refreshTokens.get(u))
+                        : Map.of("email", email(u), "password", PASSWORD))
+                .whenComplete((res, e) -> {
+                    long us = (System.nanoTime() - start) / 1000;
+                    try {
+                        if (e == null && res.statusCode() / 100 == 2) {
+                            String token = (String) mapper.readValue(res.body(), Map.class).get("refreshToken");
+                            if (token != null) refreshTokens.set(u, token);
+                            w.ok.increment();
+                            w.all.record(us);
+                            (refresh ? w.refresh : w.login).record(us);
+                        } else if (e == null && res.statusCode() == 429) {
+                            w.limited.increment();
+                        } else {
+                            w.errors.increment();
+                        }
+                    } catch (Exception parse) {
+                        w.errors.increment();
+                    } finally {
+                        busy.remove(u);
+                        inFlight.release();
+                    }
+                });
+    }
+
+    private CompletableFuture<HttpResponse<String>> send(String path, Map<String, String> body) {
+        try {
+            HttpRequest req = HttpRequest.newBuilder(baseUrl.resolve(path))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(mapper.writeValueAsString(body)))
+                    .build();
+            return http.sendAsync(req, HttpResponse.BodyHandlers.ofString());
+        } catch (Exception e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private static String email(int i) {
+        return "loadtest-" + i + "@aura.test";
+    }
+
+    private static double ms(LatencyHistogram h, double p) {
+        return h.percentile(p) / 1000.0;
+    }
+
+    private static final class Window {
+        final LatencyHistogram all = new LatencyHistogram(60_000_000);
+        final LatencyHistogram login = new LatencyHistogram(60_000_000);
+        final LatencyHistogram refresh = new LatencyHistogram(60_000_000);
+        final LongAdder ok = new LongAdder();
+        final LongAdder errors = new LongAdder();
+        final LongAdder shed = new LongAdder();
+        final LongAdder limited = new LongAdder(); // 서버 요청 제한 (429)
+        final long startedAt = System.nanoTime();
+    }
+}
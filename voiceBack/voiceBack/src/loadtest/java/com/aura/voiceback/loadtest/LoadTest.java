@@ -0,0 +1,92 @@
+package com.aura.voiceback.loadtest;
+
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * voiceBack 부하 발생기 (localhost 에 띄운 서버 대상).
+ *
+ * ./gradlew loadTest -PloadArgs="--scenario=voip --room-size=2 --steps=50,100,200,500 --step-seconds=30"
+ * ./gradlew loadTest -PloadArgs="--scenario=voip --proto=2 --room-size=4 --steps=25,50"   (v2 프레임 클라이언트)
+ * ./gradlew loadTest -PloadArgs="--scenario=auth --auth-users=200 --auth-rps=50,100,200,400"
+ * ./gradlew loadTest -PloadArgs="--scenario=sockets --socket-steps=500,1000,2000,4000 --ws-url=ws://localhost:8081"
+ *
+ * 단계(step)마다 부하를 올리고, 단계별 처리량 대비 지연 표를 출력 + build/reports/loadtest/*.csv 로 저장한다.
+ */
+public class LoadTest {
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> opts = parse(args);
+        URI baseUrl = URI.create(opts.getOrDefault("base-url", "http://localhost:8080"));
+        // /ws/voip 만 다른 포트일 수 있다 (voip.engine=netty)
+        URI wsUrl = URI.create(opts.getOrDefault("ws-url", baseUrl.toString().replaceFirst("^http", "ws")));
+        String scenario = opts.getOrDefault("scenario", "voip");
+        Path outDir = Path.of(opts.getOrDefault("out", "build/reports/loadtest"));
+        Files.createDirectories(outDir);
+        String stamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss"));
+
+        List<Report> reports = new ArrayList<>();
+        if (scenario.equals("voip") || scenario.equals("mixed")) {
+            VoipLoad voip = new VoipLoad(baseUrl, wsUrl,
+                    intOpt(opts, "room-size", 2),
+                    intOpt(opts, "frame-bytes", 1920),
+                    intOpt(opts, "ptime-ms", 20),
+                    intOpt(opts, "connect-concurrency", 64),
+                    "2".equals(opts.get("proto")));
+            reports.add(voip.run(ints(opts.getOrDefault("steps", "10,50,100")),
+                    intOpt(opts, "warmup-seconds", 5), intOpt(opts, "step-seconds", 20)));
+        }
+        if (scenario.equals("sockets")) {
+            SocketRamp ramp = new SocketRamp(baseUrl, wsUrl,
+                    intOpt(opts, "room-size", 2),
+                    intOpt(opts, "connect-concurrency", 64),
+                    Long.parseLong(opts.getOrDefault("server-pid", "0")));
+            reports.add(ramp.run(ints(opts.getOrDefault("socket-steps", "250,500,1000,2000,4000")),
+                    intOpt(opts, "settle-seconds", 3)));
+        }
+        if (scenario.equals("auth") || scenario.equals("mixed")) {
+            AuthLoad auth = new AuthLoad(baseUrl,
+                    intOpt(opts, "auth-users", 100),
+                    Double.parseDouble(opts.getOrDefault("refresh-ratio", "0.8")),
+                    intOpt(opts, "auth-max-inflight", 256));
+            reports.add(auth.run(ints(opts.getOrDefault("auth-rps", "20,50,100")),
+                    intOpt(opts, "warmup-seconds", 5), intOpt(opts, "step-seconds", 20)));
+        }
+
+        for (Report report : reports) {
+            report.print(System.out);
+            Path csv = outDir.resolve(report.getName() + "-" + stamp + ".csv");
+            report.writeCsv(csv);
+            System.out.println("saved " + csv.toAbsolutePath());
+        }
+        System.exit(0); // HttpClient 스레드가 남아 있어도 종료
+    }
+
+    private static Map<String, String> parse(String[] args) {
+        Map<String, String> opts = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--")) throw new IllegalArgumentException("unknown argument: " + arg);
+            int eq = arg.indexOf('=');
+            if (eq < 0) opts.put(arg.substring(2), "true");
+            else opts.put(arg.substring(2, eq), arg.substring(eq + 1));
+        }
+        return opts;
+    }
+
+    private static int intOpt(Map<String, String> opts, String key, int def) {
+        String v = opts.get(key);
+        return v == null ? def : Integer.parseInt(v);
+    }
+
+    private static int[] ints(String csv) {
+        return Arrays.stream(csv.split(",")).map(String::trim).mapToInt(Integer::parseInt).toArray();
+    }
+}
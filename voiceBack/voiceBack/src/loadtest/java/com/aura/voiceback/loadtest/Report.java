@@ -0,0 +1,72 @@
+package com.aura.voiceback.loadtest;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * 단계별 결과 표. 열 이름과 행 값만 들고 있다가 표/CSV 로 출력.
+ */
+class Report {
+
+    private final String name;
+    private final String[] columns;
+    private final List<Object[]> rows = new ArrayList<>();
+
+    Report(String name, String... columns) {
+        this.name = name;
+        this.columns = columns;
+    }
+
+    String getName() { return name; }
+
+    void add(Object... row) {
+        if (row.length != columns.length) throw new IllegalArgumentException("expected " + columns.length + " values");
+        rows.add(row);
+        System.out.println("[" + name + "] " + String.join(" ", format(row)));
+    }
+
+    void print(PrintStream out) {
+        int[] widths = new int[columns.length];
+        for (int i = 0; i < columns.length; i++) widths[i] = columns[i].length();
+        List<String[]> cells = new ArrayList<>();
+        for (Object[] row : rows) {
+            String[] c = format(row);
+            for (int i = 0; i < c.length; i++) widths[i] = Math.max(widths[i], c[i].length());
+            cells.add(c);
+        }
+        out.println();
+        out.println("== " + name + " ==");
+        out.println(line(columns, widths));
+        for (String[] c : cells) out.println(line(c, widths));
+    }
+
+    void writeCsv(Path file) throws IOException {
+        List<String> lines = new ArrayList<>();
+        lines.add(String.join(",", columns));
+        for (Object[] row : rows) lines.add(String.join(",", format(row)));
+        Files.write(file, lines);
+    }
+
+    private static String[] format(Object[] row) {
+        String[] out = new String[row.length];
+        for (int i = 0; i < row.length; i++) {
+            Object v = row[i];
+            out[i] = v instanceof Double d ? String.format(Locale.ROOT, "%.2f", d) : String.valueOf(v);
+        }
+        return out;
+    }
+
+    private static String line(String[] cells, int[] widths) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < cells.length; i++) {
+            if (i > 0) sb.append("  ");
+            sb.append(" ".repeat(widths[i] - cells[i].length())).append(cells[i]);
+        }
+        return sb.toString();
+    }
+}
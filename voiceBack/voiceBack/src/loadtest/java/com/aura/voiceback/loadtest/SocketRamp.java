@@ -0,0 +1,136 @@
+package com.aura.voiceback.loadtest;
+
+import com.aura.voiceback.util.LatencyHistogram;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.WebSocket;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 동시 연결 수 한계: 오디오를 보내지 않는 /ws/voip 연결을 단계마다 늘리며 접속 성공/실패, 접속 지연,
+ * 서버 힙 / 스레드 수(/actuator/prometheus), 서버 RSS(--server-pid 를 주면)를 기록한다.
+ * 한 단계에서 접속 실패가 1% 를 넘거나 서버가 응답하지 않으면 거기서 멈추고, 마지막으로 다 붙은 단계가 한계다.
+ * 연결은 room-size 명씩 같은 방에 넣는다 (방 구조도 연결 수만큼 생긴다).
+ */
+class SocketRamp {
+
+    private final URI baseUrl;
+    private final URI wsUrl;
+    private final int roomSize;
+    private final long serverPid;
+    private final Semaphore connectPermits;
+    private final String runId = Long.toString(System.currentTimeMillis(), 36);
+    private final HttpClient http;
+    private final List<WebSocket> sockets = new ArrayList<>();
+    private final AtomicInteger closedByServer = new AtomicInteger();
+
+    SocketRamp(URI baseUrl, URI wsUrl, int roomSize, int connectConcurrency, long serverPid) {
+        this.baseUrl = baseUrl;
+        this.wsUrl = wsUrl;
+        this.roomSize = roomSize;
+        this.serverPid = serverPid;
+        this.connectPermits = new Semaphore(connectConcurrency);
+        int cores = Runtime.getRuntime().availableProcessors();
+        this.http = HttpClient.newBuilder().executor(Executors.newFixedThreadPool(cores * 2)).build();
+    }
+
+    Report run(int[] steps, int settleSeconds) throws Exception {
+        Report report = new Report("sockets",
+                "target", "connected", "connect_fail", "closed_by_server", "connect_p50_ms", "connect_p99_ms",
+                "heap_mb", "nonheap_mb", "threads", "rss_mb");
+        try {
+            for (int target : steps) {
+                LatencyHistogram connectMs = new LatencyHistogram(60_000);
+                int failures = open(target - sockets.size(), connectMs);
+                Thread.sleep(settleSeconds * 1000L);
+                double[] server = serverGauges();
+                int live = sockets.size() - closedByServer.get();
+                report.add(target, live, failures, closedByServer.get(),
+                        connectMs.percentile(50), connectMs.percentile(99),
+                        server[0] / 1e6, server[1] / 1e6, (long) server[2], rssMb());
+                if (failures > target / 100 || server[2] == 0) break;
+            }
+        } finally {
+            for (WebSocket ws : sockets) ws.abort();
+        }
+        return report;
+    }
+
+    private int open(int count, LatencyHistogram connectMs) throws InterruptedException {
+        List<CompletableFuture<WebSocket>> pending = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            int index = sockets.size() + i;
+            URI uri = URI.create(wsUrl + "/ws/voip?roomId=ramp-" + runId + "-" + index / roomSize
+                    + "&userId=ramp-" + runId + "-" + index);
+            connectPermits.acquire();
+            long start = System.nanoTime();
+            pending.add(http.newWebSocketBuilder().connectTimeout(Duration.ofSeconds(10))
+                    .buildAsync(uri, new WebSocket.Listener() {
+                        @Override
+                        public CompletionStage<?> onClose(WebSocket ws, int code, String reason) {
+                            closedByServer.incrementAndGet();
+                            return null;
+                        }
+                    })
+                    .whenComplete((ws, e) -> {
+                        connectPermits.release();
+                        if (e == null) connectMs.record(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+                    }));
+        }
+        int failures = 0;
+        for (CompletableFuture<WebSocket> f : pending) {
+            try {
+                sockets.add(f.join());
+            } catch (Exception e) {
+                failures++;
+            }
+        }
+        return failures;
+    }
+
+    // heap, nonheap, live threads (응답이 없으면 0)
+    private double[] serverGauges() {
+        double[] out = new double[3];
+        try {
+            HttpRequest req = HttpRequest.newBuilder(baseUrl.resolve("/actuator/prometheus"))
+                    .timeout(Duration.ofSeconds(10)).build();
+            for (String line : http.send(req, HttpResponse.BodyHandlers.ofString()).body().split("\n")) {
+                if (line.startsWith("jvm_memory_used_bytes{area=\"heap\"")) out[0] += value(line);
+                else if (line.startsWith("jvm_memory_used_bytes{area=\"nonheap\"")) out[1] += value(line);
+                else if (line.startsWith("jvm_threads_live_threads")) out[2] = value(line);
+            }
+        } catch (Exception e) {
+            System.out.println("[sockets] server metrics unavailable: " + e);
+        }
+        return out;
+    }
+
+    private static double value(String line) {
+        return Double.parseDouble(line.substring(line.lastIndexOf(' ') + 1));
+    }
+
+    private long rssMb() {
+        if (serverPid <= 0) return 0;
+        try {
+            for (String line : Files.readAllLines(Path.of("/proc", Long.toString(serverPid), "status"))) {
+                if (line.startsWith("VmRSS:")) return Long.parseLong(line.replaceAll("\\D+", "")) / 1024;
+            }
+        } catch (Exception ignored) {
+            // 서버가 죽었으면 0
+        }
+        return 0;
+    }
+}
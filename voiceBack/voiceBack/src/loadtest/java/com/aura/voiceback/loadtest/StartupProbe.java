@@ -0,0 +1,114 @@
+package com.aura.voiceback.loadtest;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 서버 시작 시간 측정. 주어진 명령으로 서버를 띄우고, 첫 요청이 응답할 때까지의 시간(프로세스 시작 기준)과
+ * 그 시점 / 요청 몇 개를 더 보낸 뒤의 RSS 를 잰 다음 종료한다. runs 번 반복해 중앙값을 출력한다.
+ *
+ * ./gradlew startupProbe -PprobeCmd="java -jar build/cds/voiceBack-0.0.1-SNAPSHOT.jar" -PprobeArgs="--runs=5"
+ *
+ * --url  : 첫 요청 대상 (기본 /actuator/health, 응답 코드는 상관없음)
+ * --warm : RSS 를 다시 재기 전에 보낼 요청 수 (기본 200)
+ * RSS 는 /proc/{pid}/status 의 VmRSS (Linux 전용)
+ */
+public class StartupProbe {
+
+    public static void main(String[] args) throws Exception {
+        int sep = Arrays.asList(args).indexOf("--");
+        if (sep < 0 || sep == args.length - 1) {
+            throw new IllegalArgumentException("usage: StartupProbe [--runs=5] [--url=...] [--warm=200] -- <server command>");
+        }
+        List<String> command = List.of(args).subList(sep + 1, args.length);
+        String url = "http://localhost:8080/actuator/health";
+        int runs = 5;
+        int warm = 200;
+        for (String arg : List.of(args).subList(0, sep)) {
+            if (arg.startsWith("--runs=")) runs = Integer.parseInt(arg.substring(7));
+            else if (arg.startsWith("--url=")) url = arg.substring(6);
+            else if (arg.startsWith("--warm=")) warm = Integer.parseInt(arg.substring(7));
+            else throw new IllegalArgumentException("unknown argument: " + arg);
+        }
+
+        HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofMillis(200)).build();
+        HttpRequest request = HttpRequest.newBuilder(URI.create(url)).timeout(Duration.ofSeconds(5)).build();
+        long[] ttfr = new long[runs];
+        long[] rssFirst = new long[runs];
+        long[] rssWarm = new long[runs];
+
+        System.out.println("command: " + String.join(" ", command));
+        for (int i = 0; i < runs; i++) {
+            File log = Files.createTempFile("startup-probe", ".log").toFile();
+            long start = System.nanoTime();
+            Process process = new ProcessBuilder(command).redirectErrorStream(true).redirectOutput(log).start();
+            try {
+                int status = waitForFirstResponse(client, request, process, log);
+                ttfr[i] = (System.nanoTime() - start) / 1_000_000;
+                rssFirst[i] = rssKb(process.pid());
+                for (int w = 0; w < warm; w++) {
+                    client.send(request, HttpResponse.BodyHandlers.discarding());
+                }
+                rssWarm[i] = rssKb(process.pid());
+                System.out.printf("run %d: first response %d ms (HTTP %d), RSS %d MB -> %d MB after %d requests%n",
+                        i + 1, ttfr[i], status, rssFirst[i] / 1024, rssWarm[i] / 1024, warm);
+            } finally {
+                process.destroy();
+                if (!process.waitFor(10, TimeUnit.SECONDS)) process.destroyForcibly().waitFor();
+                log.delete();
+            }
+        }
+        System.out.printf("median: first response %d ms, RSS %d MB (first) / %d MB (after %d requests)%n",
+                median(ttfr), median(rssFirst) / 1024, median(rssWarm) / 1024, warm);
+        System.exit(0);
+    }
+
+    private static int waitForFirstResponse(HttpClient client, HttpRequest request, Process process, File log)
+            throws IOException, InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofMinutes(3).toNanos();
+        while (System.nanoTime() < deadline) {
+            if (!process.isAlive()) {
+                throw new IllegalStateException("server exited (" + process.exitValue() + "):\n" + tail(log));
+            }
+            try {
+                return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+            } catch (IOException e) {
+                Thread.sleep(10); // 아직 포트가 안 열림
+            }
+        }
+        throw new IllegalStateException("no response within 3 minutes:\n" + tail(log));
+    }
+
+    private static long rssKb(long pid) throws IOException {
+        Path status = Path.of("/proc", Long.toString(pid), "status");
+        if (!Files.exists(status)) return 0;
+        for (String line : Files.readAllLines(status)) {
+            if (line.startsWith("VmRSS:")) {
+                return Long.parseLong(line.replaceAll("\\D+", ""));
+            }
+        }
+        return 0;
+    }
+
+    private static String tail(File log) throws IOException {
+        List<String> lines = Files.readAllLines(log.toPath());
+        return String.join("\n", new ArrayList<>(lines.subList(Math.max(0, lines.size() - 30), lines.size())));
+    }
+
+    private static long median(long[] values) {
+        long[] sorted = values.clone();
+        Arrays.sort(sorted);
+        return sorted[sorted.length / 2];
+    }
+}
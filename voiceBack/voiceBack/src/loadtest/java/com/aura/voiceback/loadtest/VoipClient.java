@@ -0,0 +1,242 @@
+package com.aura.voiceback.loadtest;
+
+import com.aura.voiceback.websocket.FrameCodec;
+import com.aura.voiceback.websocket.FrameView;
+import com.aura.voiceback.websocket.TraceHeader;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.WebSocket;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * /ws/voip?trace=1 가상 클라이언트 1개.
+ * ptime 마다 (추적 헤더 16B + PCM) 을 보내고, 받은 프레임의 추적 헤더로 지연/손실/지터를 잰다.
+ * framed(--proto=2)면 v2 프레임으로 보내고, 받은 메시지에 이어 붙은 프레임을 하나씩 센다 (서버의 이어 붙이기 확인용).
+ * 같은 머신에서 돌기 때문에 captureTs 와 수신 시각을 그대로 비교할 수 있다.
+ */
+class VoipClient implements WebSocket.Listener {
+
+    final String userId;
+    final String roomId;
+    private final byte[] pcm;
+    private final boolean framed;
+    private final VoipStats.Holder stats;
+
+    private volatile WebSocket ws;
+    private final AtomicBoolean sending = new AtomicBoolean();
+    private int seq;
+
+    // 수신 중인 메시지의 앞부분(추적 헤더)만 모은다. WAV 본문은 버린다.
+    private final byte[] header = new byte[TraceHeader.OUTBOUND_LENGTH];
+    private int headerFill;
+    // framed: 수신 중인 메시지 전체 (프레임이 여러 개 이어 붙어 올 수 있다)
+    private byte[] message = new byte[4096];
+    private int messageFill;
+    private final FrameView view = new FrameView();
+
+    // 발신자 streamId -> 수신 상태 (수신 스레드가 쓰고 pacer / 집계 스레드가 읽는다)
+    final Map<Integer, StreamState> streams = new ConcurrentHashMap<>();
+    // 이 클라이언트가 보낸 프레임 수 (방별 기대 수신량 계산용, 측정 구간마다 sentBase 부터 센다)
+    private final LongAdder sentFrames = new LongAdder();
+    private volatile long sentBase;
+
+    VoipClient(String userId, String roomId, byte[] pcm, boolean framed, VoipStats.Holder stats) {
+        this.userId = userId;
+        this.roomId = roomId;
+        this.pcm = pcm;
+        this.framed = framed;
+        this.stats = stats;
+    }
+
+    CompletableFuture<WebSocket> connect(HttpClient http, URI wsUri) {
+        return http.newWebSocketBuilder().buildAsync(wsUri, this).thenApply(w -> ws = w);
+    }
+
+    // 스케줄러가 ptime 마다 호출. 이전 전송이 아직 안 끝났으면 이번 프레임은 건너뛴다.
+    void sendFrame() {
+        WebSocket w = ws;
+        if (w == null || w.isOutputClosed()) return;
+        VoipStats s = stats.get();
+        if (!sending.compareAndSet(false, true)) {
+            s.sendBacklog.increment();
+            return;
+        }
+        ByteBuffer frame = framed
+                ? ByteBuffer.wrap(FrameCodec.encode(FrameCodec.TYPE_AUDIO, 0, FrameCodec.CODEC_PCM16, 0, seq++,
+                        System.currentTimeMillis(), ByteBuffer.wrap(pcm)))
+                : ByteBuffer.allocate(TraceHeader.INBOUND_LENGTH + pcm.length)
+                .put(TraceHeader.MAGIC).put(TraceHeader.VERSION).put((byte) 0).put((byte) 0)
+                .putInt(seq++)
+                .putLong(System.currentTimeMillis())
+                .put(pcm)
+                .flip();
+        w.sendBinary(frame, true).whenComplete((r, e) -> {
+            sending.set(false);
+            if (e != null) {
+                stats.get().sendErrors.increment();
+            } else {
+                stats.get().sent.increment();
+                sentFrames.increment();
+            }
+        });
+    }
+
+    // 측정 구간 시작: 수신 상태를 비우고 보낸 프레임 수를 다시 센다
+    void startStep() {
+        streams.clear();
+        sentBase = sentFrames.sum();
+    }
+
+    long sentInStep() {
+        return sentFrames.sum() - sentBase;
+    }
+
+    // {"type":"feedback"} : 지난 보고 이후 손실률과 발신자 중 가장 큰 지터
+    void sendFeedback() {
+        WebSocket w = ws;
+        if (w == null || w.isOutputClosed() || streams.isEmpty()) return;
+        // WebSocket 은 보내는 중인 메시지가 끝나야 다음을 보낼 수 있다. 프레임 전송 중이면 다음 주기에 보고
+        if (!sending.compareAndSet(false, true)) return;
+        long expected = 0, lost = 0;
+        double jitter = 0;
+        for (StreamState st : streams.values()) {
+            long[] delta = st.takeReport();
+            expected += delta[0];
+            lost += delta[1];
+            jitter = Math.max(jitter, st.jitterMs());
+        }
+        double lossPct = expected <= 0 ? 0 : Math.max(0, 100.0 * lost / expected);
+        w.sendText(String.format(Locale.ROOT,
+                "{\"type\":\"feedback\",\"lossPct\":%.2f,\"jitterMs\":%.2f}", lossPct, jitter), true)
+                .whenComplete((r, e) -> sending.set(false));
+    }
+
+    void close() {
+        WebSocket w = ws;
+        if (w != null) w.sendClose(WebSocket.NORMAL_CLOSURE, "done");
+    }
+
+    @Override
+    public CompletionStage<?> onBinary(WebSocket webSocket, ByteBuffer data, boolean last) {
+        if (framed) {
+            onFramed(data, last);
+            webSocket.request(1);
+            return null;
+        }
+        int n = Math.min(data.remaining(), header.length - headerFill);
+        data.get(header, headerFill, n);
+        headerFill += n;
+        if (last) {
+            if (headerFill == header.length) onFrame(ByteBuffer.wrap(header), System.currentTimeMillis());
+            headerFill = 0;
+        }
+        webSocket.request(1);
+        return null;
+    }
+
+    private void onFramed(ByteBuffer data, boolean last) {
+        if (messageFill + data.remaining() > message.length) {
+            message = Arrays.copyOf(message, Math.max(message.length * 2, messageFill + data.remaining()));
+        }
+        int n = data.remaining();
+        data.get(message, messageFill, n);
+        messageFill += n;
+        if (!last) return;
+        long now = System.currentTimeMillis();
+        VoipStats s = stats.get();
+        s.messages.increment();
+        ByteBuffer buf = ByteBuffer.wrap(message, 0, messageFill);
+        for (int at = 0; view.wrap(buf, at); at = view.next()) {
+            if (view.type() != FrameCodec.TYPE_AUDIO || (view.flags() & FrameCodec.FLAG_CONCEALED) != 0) continue;
+            s.received.increment();
+            s.latencyMs.record(now - view.timestamp());
+            streams.computeIfAbsent(view.streamId(), k -> new StreamState()).onFrame(view.seq(), now - view.timestamp());
+        }
+        messageFill = 0;
+    }
+
+    private void onFrame(ByteBuffer hdr, long now) {
+        if (!TraceHeader.isPresent(hdr)) return;
+        // 서버가 PLC 로 채운 프레임은 실제로 받은 프레임이 아니므로 지연/손실 통계에서 뺀다
+        if ((hdr.get(2) & TraceHeader.FLAG_CONCEALED) != 0) return;
+        long frameSeq = TraceHeader.seq(hdr);
+        long captureTs = TraceHeader.captureTs(hdr);
+        int streamId = hdr.getInt(16);
+
+        VoipStats s = stats.get();
+        s.received.increment();
+        s.messages.increment();
+        s.latencyMs.record(now - captureTs);
+        streams.computeIfAbsent(streamId, k -> new StreamState()).onFrame(frameSeq, now - captureTs);
+    }
+
+    @Override
+    public CompletionStage<?> onText(WebSocket webSocket, CharSequence data, boolean last) {
+        webSocket.request(1);
+        return null;
+    }
+
+    @Override
+    public void onError(WebSocket webSocket, Throwable error) {
+        stats.get().socketErrors.increment();
+    }
+
+    /**
+     * 발신자 1명에 대한 수신 통계 (RFC 3550 지터).
+     * 수신 스레드(onFrame), pacer(takeReport), 집계 스레드(received / lost)가 함께 보므로 synchronized.
+     */
+    static final class StreamState {
+        private long firstSeq = -1;
+        private long highestSeq = -1;
+        private long received;
+        private long lastTransit = Long.MIN_VALUE;
+        private double jitterMs;
+        private long reportedExpected;
+        private long reportedLost;
+
+        synchronized void onFrame(long seq, long transitMs) {
+            if (firstSeq < 0) firstSeq = seq;
+            highestSeq = Math.max(highestSeq, seq);
+            received++;
+            if (lastTransit != Long.MIN_VALUE) {
+                long d = Math.abs(transitMs - lastTransit);
+                jitterMs += (d - jitterMs) / 16.0;
+            }
+            lastTransit = transitMs;
+        }
+
+        synchronized long received() {
+            return received;
+        }
+
+        synchronized double jitterMs() {
+            return jitterMs;
+        }
+
+        synchronized long lost() {
+            return firstSeq < 0 ? 0 : Math.max(0, expected() - received);
+        }
+
+        /** 지난 보고 이후 늘어난 {expected, lost} */
+        synchronized long[] takeReport() {
+            long e = expected(), l = lost();
+            long[] delta = {e - reportedExpected, l - reportedLost};
+            reportedExpected = e;
+            reportedLost = l;
+            return delta;
+        }
+
+        private long expected() {
+            return firstSeq < 0 ? 0 : highestSeq - firstSeq + 1;
+        }
+    }
+}
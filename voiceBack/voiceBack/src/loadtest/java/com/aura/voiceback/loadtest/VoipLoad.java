@@ -0,0 +1,193 @@
+package com.aura.voiceback.loadtest;
+
+import com.aura.voiceback.util.LatencyHistogram;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+
+/**
+ * 통화방 부하: CallController 로 방을 만들고(create) 나머지 인원을 참가(join)시킨 뒤
+ * 인원수만큼 /ws/voip 클라이언트를 붙여 ptime 간격으로 PCM 을 보낸다. WebSocket 은 --ws-url (netty 엔진이면 그 포트).
+ * 단계마다 방 수를 늘리고 warm-up 후 측정 구간의 처리량/지연/손실/지터를 한 줄로 기록.
+ *
+ * expected_fps 는 실제로 붙은 방 인원 기준이다 (클라이언트가 보낸 프레임 x 같은 방의 다른 연결 수).
+ * loss_pct 는 그 기대량 대비 못 받은 비율이라 스트림 하나가 통째로 안 오는 경우도 잡고,
+ * gap_loss_pct 는 받은 스트림의 seq 누락만 본다. extra_streams 는 다른 방의 스트림을 받은 수 (0 이어야 한다).
+ */
+class VoipLoad {
+
+    private static final ObjectMapper mapper = new ObjectMapper();
+
+    private final URI baseUrl;
+    private final URI wsUrl;
+    private final int roomSize;
+    private final int ptimeMs;
+    private final byte[] pcm;
+    private final boolean framed;
+    private final Semaphore connectPermits;
+    private final String runId = Long.toString(System.currentTimeMillis(), 36);
+
+    private final HttpClient http;
+    private final ScheduledExecutorService pacer;
+    private final VoipStats.Holder stats = new VoipStats.Holder();
+    private final List<VoipClient> clients = new CopyOnWriteArrayList<>();
+    private int rooms;
+    private int connectFailures;
+    private int rejected; // 서버 통화 허용(CallAdmission)이 503 / 409 로 거절한 방 생성 / 참가
+
+    VoipLoad(URI baseUrl, URI wsUrl, int roomSize, int frameBytes, int ptimeMs, int connectConcurrency, boolean framed) {
+        this.baseUrl = baseUrl;
+        this.wsUrl = wsUrl;
+        this.roomSize = roomSize;
+        this.ptimeMs = ptimeMs;
+        this.pcm = new byte[frameBytes];
+        this.framed = framed;
+        ThreadLocalRandom.current().nextBytes(pcm);
+        this.connectPermits = new Semaphore(connectConcurrency);
+        int cores = Runtime.getRuntime().availableProcessors();
+        this.http = HttpClient.newBuilder().executor(Executors.newFixedThreadPool(cores * 2)).build();
+        this.pacer = Executors.newScheduledThreadPool(Math.max(2, cores / 2));
+    }
+
+    Report run(int[] steps, int warmupSeconds, int stepSeconds) throws Exception {
+        Report report = new Report("voip-" + roomSize + "p",
+                "rooms", "clients", "connect_fail", "sent_fps", "recv_fps", "recv_msg_ps", "expected_fps", "loss_pct", "gap_loss_pct", "extra_streams",
+                "lat_p50_ms", "lat_p95_ms", "lat_p99_ms", "lat_max_ms", "jitter_p50_ms", "jitter_p99_ms",
+                "send_backlog", "errors", "rejected");
+        try {
+            for (int target : steps) {
+                addRooms(target - rooms);
+                Thread.sleep(warmupSeconds * 1000L);
+                clients.forEach(VoipClient::startStep);
+                stats.reset();
+                Thread.sleep(stepSeconds * 1000L);
+                record(report, stats.reset());
+            }
+        } finally {
+            shutdown();
+        }
+        return report;
+    }
+
+    private void record(Report report, VoipStats s) {
+        double seconds = (System.nanoTime() - s.startedAt) / 1e9;
+        Map<String, Integer> connected = new HashMap<>();
+        for (VoipClient c : clients) connected.merge(c.roomId, 1, Integer::sum);
+
+        long lost = 0, received = 0, expected = 0, extraStreams = 0;
+        LatencyHistogram jitterUs = new LatencyHistogram(10_000_000);
+        for (VoipClient c : clients) {
+            int others = connected.get(c.roomId) - 1;
+            expected += c.sentInStep() * others;
+            extraStreams += Math.max(0, c.streams.size() - others);
+            for (VoipClient.StreamState st : c.streams.values()) {
+                lost += st.lost();
+                received += st.received();
+                jitterUs.record((long) (st.jitterMs() * 1000));
+            }
+        }
+        long delivered = s.received.sum();
+        report.add(rooms, clients.size(), connectFailures,
+                s.sent.sum() / seconds,
+                delivered / seconds,
+                s.messages.sum() / seconds,
+                expected / seconds,
+                expected == 0 ? 0.0 : Math.max(0, 100.0 * (expected - delivered) / expected),
+                received + lost == 0 ? 0.0 : 100.0 * lost / (received + lost),
+                extraStreams,
+                s.latencyMs.percentile(50), s.latencyMs.percentile(95), s.latencyMs.percentile(99), s.latencyMs.getMax(),
+                jitterUs.percentile(50) / 1000.0, jitterUs.percentile(99) / 1000.0,
+                s.sendBacklog.sum(),
+                s.sendErrors.sum() + s.socketErrors.sum(),
+                rejected);
+    }
+
+    private void addRooms(int count) throws Exception {
+        List<CompletableFuture<?>> pending = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            int index = rooms++;
+            String creator = user(index, 0);
+            Map<?, ?> created = post("/call/room/create", Map.of("creatorId", creator, "roomName", "load-" + runId + "-" + index));
+            if (created == null) {
+                rejected++;
+                continue;
+            }
+            String roomId = (String) created.get("id");
+            List<String> members = new ArrayList<>(List.of(creator));
+            for (int u = 1; u < roomSize; u++) {
+                if (post("/call/room/join", Map.of("userId", user(index, u), "roomId", roomId)) != null) {
+                    members.add(user(index, u));
+                } else {
+                    rejected++;
+                }
+            }
+            for (String member : members) {
+                pending.add(connect(new VoipClient(member, roomId, pcm, framed, stats)));
+            }
+        }
+        CompletableFuture.allOf(pending.toArray(CompletableFuture[]::new)).join();
+    }
+
+    private CompletableFuture<?> connect(VoipClient client) throws InterruptedException {
+        connectPermits.acquire();
+        URI wsUri = URI.create(wsUrl + (framed ? "/ws/voip?proto=2" : "/ws/voip?trace=1")
+                + "&roomId=" + URLEncoder.encode(client.roomId, StandardCharsets.UTF_8)
+                + "&userId=" + URLEncoder.encode(client.userId, StandardCharsets.UTF_8));
+        return client.connect(http, wsUri).handle((ws, e) -> {
+            connectPermits.release();
+            if (e != null) {
+                synchronized (this) { connectFailures++; }
+                return null;
+            }
+            clients.add(client);
+            // 클라이언트마다 시작 위상을 흩어서 모든 프레임이 같은 순간에 몰리지 않게 한다
+            pacer.scheduleAtFixedRate(client::sendFrame,
+                    ThreadLocalRandom.current().nextInt(ptimeMs), ptimeMs, TimeUnit.MILLISECONDS);
+            // 서버가 수신자별 profile 을 정할 수 있도록 수신 품질을 1초마다 보고
+            pacer.scheduleAtFixedRate(client::sendFeedback, 1000, 1000, TimeUnit.MILLISECONDS);
+            return null;
+        });
+    }
+
+    private void shutdown() {
+        pacer.shutdownNow();
+        for (VoipClient c : clients) {
+            c.close();
+            try {
+                post("/call/room/leave", Map.of("userId", c.userId, "roomId", c.roomId));
+            } catch (Exception ignored) {
+                // 정리 실패는 결과에 영향 없음
+            }
+        }
+    }
+
+    private String user(int room, int index) {
+        return "load-" + runId + "-r" + room + "-u" + index;
+    }
+
+    // 통화 허용 거절(503 / 409)이면 null
+    private Map<?, ?> post(String path, Map<String, String> body) throws Exception {
+        HttpRequest req = HttpRequest.newBuilder(baseUrl.resolve(path))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(mapper.writeValueAsString(body)))
+                .build();
+        HttpResponse<String> res = http.send(req, HttpResponse.BodyHandlers.ofString());
+        if (res.statusCode() == 503 || res.statusCode() == 409) {
+            return null;
+        }
+        if (res.statusCode() / 100 != 2) {
+            throw new IllegalStateException(path + " -> " + res.statusCode() + " " + res.body());
+        }
+        return mapper.readValue(res.body(), Map.class);
+    }
+}
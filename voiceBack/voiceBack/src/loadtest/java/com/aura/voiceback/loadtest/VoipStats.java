@@ -0,0 +1,29 @@
+package com.aura.voiceback.loadtest;
+
+import com.aura.voiceback.util.LatencyHistogram;
+
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 측정 구간 하나 동안의 VoIP 통계. 단계가 바뀔 때 Holder 가 새 인스턴스로 교체한다.
+ */
+class VoipStats {
+
+    final LongAdder sent = new LongAdder();
+    final LongAdder sendBacklog = new LongAdder();
+    final LongAdder sendErrors = new LongAdder();
+    final LongAdder received = new LongAdder();
+    final LongAdder messages = new LongAdder();
+    final LongAdder socketErrors = new LongAdder();
+    final LatencyHistogram latencyMs = new LatencyHistogram(60_000);
+    final long startedAt = System.nanoTime();
+
+    static final class Holder {
+        private final AtomicReference<VoipStats> current = new AtomicReference<>(new VoipStats());
+
+        VoipStats get() { return current.get(); }
+
+        VoipStats reset() { return current.getAndSet(new VoipStats()); }
+    }
+}
@@ -6,11 +6,13 @@ import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.List;
 
 @Component
 @RequiredArgsConstructor
@@ -39,8 +41,9 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
                 // 컨트롤러에서 email 접근 가능하게 저장
                 request.setAttribute("email", email);
 
-                // SecurityContext는 UserDetails 기반으로 세팅 가능 (간단히 비워둬도 동작)
-                SecurityContextHolder.clearContext();
+                // 인증이 필요한 경로(SecurityConfig 의 authenticated())를 통과하도록 email 을 principal 로
+                SecurityContextHolder.getContext().setAuthentication(
+                        new UsernamePasswordAuthenticationToken(email, null, List.of()));
             }
         }
 
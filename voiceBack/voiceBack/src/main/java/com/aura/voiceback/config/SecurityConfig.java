@@ -1,8 +1,10 @@
 package com.aura.voiceback.config;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpStatus;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
@@ -10,6 +12,7 @@ import org.springframework.security.config.Customizer;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.HttpStatusEntryPoint;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
@@ -23,9 +26,13 @@ public class SecurityConfig {
 
     private final JwtAuthenticationFilter jwtAuthenticationFilter;
 
+    // BCrypt cost (기본 10)
+    @Value("${security.bcrypt-strength:10}")
+    private int bcryptStrength;
+
     @Bean
     public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+        return new BCryptPasswordEncoder(bcryptStrength);
     }
 
     // AuthenticationManager Bean
@@ -40,10 +47,15 @@ public class SecurityConfig {
                 .csrf(csrf -> csrf.disable()) // CSRF 비활성화
                 .cors(Customizer.withDefaults()) // ✅ CORS 활성화
                 .authorizeHttpRequests(auth -> auth
+                        // /call/** 중 사용자 데이터를 읽고 쓰는 경로는 JWT 필요 (permitAll 보다 먼저 매칭)
+                        .requestMatchers("/call/history", "/call/end", "/call/*/transcript").authenticated()
                         .requestMatchers("/auth/**", "/call/**", "/ws/**").permitAll()
-                        .requestMatchers("/auth/social/link", "/auth/me", "/auth/update", "/auth/summary").authenticated()
+                        .requestMatchers("/actuator/health/**", "/actuator/prometheus").permitAll()
+                        .requestMatchers("/auth/social/link", "/auth/me", "/auth/update", "/auth/summary", "/auth/summary/**").authenticated()
                         .anyRequest().authenticated()
                 )
+                // 인증이 없으면 403 대신 401
+                .exceptionHandling(e -> e.authenticationEntryPoint(new HttpStatusEntryPoint(HttpStatus.UNAUTHORIZED)))
                 .addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class);
 
         return http.build();
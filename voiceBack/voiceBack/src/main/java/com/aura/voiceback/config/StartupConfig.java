@@ -0,0 +1,54 @@
+package com.aura.voiceback.config;
+
+import com.aura.voiceback.websocket.NettyVoIPServer;
+import com.aura.voiceback.websocket.UdpMediaServer;
+import com.aura.voiceback.websocket.VoIPWebSocketHandler;
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.aot.hint.TypeReference;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.ImportRuntimeHints;
+
+/**
+ * 시작 시간 설정 (README "시작 시간").
+ * prod 프로필의 spring.main.lazy-initialization=true 에서도 아래 빈은 시작할 때 만든다 (기본 프로필은 모두 시작할 때 만든다):
+ *  - VoIPWebSocketHandler: VoIPService, 방 이벤트 루프, 버퍼 풀, 메트릭이 딸려 온다. 첫 통화가 초기화 비용을 내지 않게
+ *  - NettyVoIPServer, UdpMediaServer: 켜져 있으면 시작할 때 포트를 연다
+ *  - EntityManagerFactory: 스키마 검증(prod 의 ddl-auto=validate) 실패를 첫 요청이 아니라 시작할 때 알 수 있게
+ * 컨트롤러와 그 뒤의 메일, 소셜 로그인, 요약 등은 처음 쓰일 때 만든다.
+ */
+@Configuration
+@ImportRuntimeHints(StartupConfig.NativeHints.class)
+public class StartupConfig {
+
+    @Bean
+    static LazyInitializationExcludeFilter eagerStartupBeans() {
+        return LazyInitializationExcludeFilter.forBeanTypes(VoIPWebSocketHandler.class, NettyVoIPServer.class,
+                UdpMediaServer.class, EntityManagerFactory.class);
+    }
+
+    /** native-image (-Pnative) 에서 AOT 가 스스로 찾지 못하는 리플렉션 / 리소스 */
+    static class NativeHints implements RuntimeHintsRegistrar {
+
+        @Override
+        public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+            // jjwt-api 는 구현 클래스를 이름으로 만든다 (Jwts.builder(), Jwts.parserBuilder() 등)
+            for (String type : new String[]{
+                    "io.jsonwebtoken.impl.DefaultJwtBuilder",
+                    "io.jsonwebtoken.impl.DefaultJwtParserBuilder",
+                    "io.jsonwebtoken.impl.DefaultJwtParser",
+                    "io.jsonwebtoken.impl.DefaultClaims",
+                    "io.jsonwebtoken.impl.DefaultHeader",
+                    "io.jsonwebtoken.impl.DefaultJwsHeader"}) {
+                hints.reflection().registerType(TypeReference.of(type), MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS);
+            }
+            hints.resources().registerPattern("compression/*.txt"); // TextCodec 사전
+            hints.resources().registerPattern("ehcache.xml");
+            hints.resources().registerPattern("META-INF/orm-prod.xml");
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package com.aura.voiceback.config;
 
+import com.aura.voiceback.util.BufferPool;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.socket.server.standard.ServletServerContainerFactoryBean;
@@ -7,11 +9,21 @@ import org.springframework.web.socket.server.standard.ServletServerContainerFact
 @Configuration
 public class WebSocketBufferConfig {
 
+    // servlet 엔진: 연결마다 이 크기의 수신 버퍼를 잡는다 (동시 연결 수 x 2 만큼 힙을 쓴다)
     @Bean
-    public ServletServerContainerFactoryBean createWebSocketContainer() {
+    public ServletServerContainerFactoryBean createWebSocketContainer(
+            @Value("${voip.servlet.max-text-buffer-bytes:1048576}") int maxTextBufferBytes,
+            @Value("${voip.servlet.max-binary-buffer-bytes:1048576}") int maxBinaryBufferBytes) {
         ServletServerContainerFactoryBean container = new ServletServerContainerFactoryBean();
-        container.setMaxTextMessageBufferSize(1024 * 1024);   // 1M
-        container.setMaxBinaryMessageBufferSize( 1024 * 1024); // 1M
+        container.setMaxTextMessageBufferSize(maxTextBufferBytes);
+        container.setMaxBinaryMessageBufferSize(maxBinaryBufferBytes);
         return container;
     }
+
+    // 중계 프레임용 direct 버퍼 풀 (테스트에서는 leak-detection=true)
+    @Bean
+    public BufferPool frameBufferPool(@Value("${voip.buffer-pool.max-pooled-per-class:1024}") int maxPooledPerClass,
+                                      @Value("${voip.buffer-pool.leak-detection:false}") boolean leakDetection) {
+        return new BufferPool(maxPooledPerClass, leakDetection);
+    }
 }
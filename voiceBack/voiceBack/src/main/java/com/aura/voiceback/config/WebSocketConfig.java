@@ -1,6 +1,9 @@
 package com.aura.voiceback.config;
 
+import com.aura.voiceback.websocket.NettyVoIPServer;
+import com.aura.voiceback.websocket.RoomHandshakeInterceptor;
 import com.aura.voiceback.websocket.VoIPWebSocketHandler;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.socket.config.annotation.EnableWebSocket;
 import org.springframework.web.socket.config.annotation.WebSocketConfigurer;
@@ -11,14 +14,19 @@ import org.springframework.web.socket.config.annotation.WebSocketHandlerRegistry
 public class WebSocketConfig implements WebSocketConfigurer {
 
     private final VoIPWebSocketHandler voipHandler;
+    private final String engine;
 
-    public WebSocketConfig(VoIPWebSocketHandler voipHandler) {
+    public WebSocketConfig(VoIPWebSocketHandler voipHandler, @Value("${voip.engine:servlet}") String engine) {
         this.voipHandler = voipHandler;
+        this.engine = engine;
     }
 
     @Override
     public void registerWebSocketHandlers(WebSocketHandlerRegistry registry) {
+        // voip.engine=netty 면 /ws/voip 는 NettyVoIPServer 가 받는다
+        if (!NettyVoIPServer.ENGINE_SERVLET.equals(engine)) return;
         registry.addHandler(voipHandler, "/ws/voip")
+                .addInterceptors(new RoomHandshakeInterceptor())
                 .setAllowedOrigins("*");
     }
 }
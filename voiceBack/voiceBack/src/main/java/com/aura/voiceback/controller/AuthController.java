@@ -3,19 +3,23 @@ package com.aura.voiceback.controller;
 import com.aura.voiceback.dto.*;
 import com.aura.voiceback.entity.User;
 import com.aura.voiceback.repository.UserRepository;
+import com.aura.voiceback.service.AuthRateLimiter;
 import com.aura.voiceback.service.SummaryService;
 import com.aura.voiceback.service.TokenService;
+import com.aura.voiceback.service.UserCache;
+import com.aura.voiceback.service.VerificationCodeStore;
 import com.aura.voiceback.service.SocialAuthService;
 import com.aura.voiceback.service.EmailService;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
 import java.util.Map;
-import java.util.Random;
-import java.util.concurrent.ConcurrentHashMap;
 
 @RestController
 @RequestMapping("/auth")
@@ -28,7 +32,9 @@ public class AuthController {
     private final SocialAuthService socialAuthService;
     private final EmailService emailService;
     private final SummaryService summaryService;
-    private final Map<String, String> resetCodeStore = new ConcurrentHashMap<>();
+    private final UserCache userCache;
+    private final AuthRateLimiter rateLimiter;
+    private final VerificationCodeStore verificationCodes;
 
     // 회원가입
     @PostMapping("/register")
@@ -53,7 +59,10 @@ public class AuthController {
 
     // 로그인
     @PostMapping("/login")
-    public ResponseEntity<TokenResponse> login(@RequestBody LoginRequest req) {
+    public ResponseEntity<TokenResponse> login(@RequestBody LoginRequest req, HttpServletRequest http) {
+        long retryAfter = rateLimiter.login(http.getRemoteAddr(), req.getEmail());
+        if (retryAfter > 0) return tooManyRequests(retryAfter);
+
         User user = userRepository.findByEmail(req.getEmail())
                 .orElseThrow(() -> new RuntimeException("사용자 없음"));
         if (!passwordEncoder.matches(req.getPassword(), user.getPassword())) throw new RuntimeException("비번 불일치");
@@ -65,7 +74,7 @@ public class AuthController {
     // 인증 확인 (JWT 필요)
     @GetMapping("/me")
     public ResponseEntity<MeResponse> me(@RequestAttribute("email") String email) {
-        User user = userRepository.findByEmail(email)
+        User user = userCache.findByEmail(email)
                 .orElseThrow(() -> new RuntimeException("사용자 없음"));
         return ResponseEntity.ok(new MeResponse(user.getEmail(), user.getName(), user.getPhone()));
     }
@@ -75,6 +84,7 @@ public class AuthController {
             @RequestAttribute("email") String email,
             @RequestBody Map<String, String> updateRequest // name, email, phone, password
     ) {
+        // 수정은 캐시가 아닌 DB 에서 다시 읽은 엔티티로
         User user = userRepository.findByEmail(email)
                 .orElseThrow(() -> new RuntimeException("사용자 없음"));
 
@@ -107,12 +117,16 @@ public class AuthController {
         }
 
         userRepository.save(user);
+        userCache.invalidate(user.getId(), email);
         return ResponseEntity.ok("사용자 정보가 업데이트되었습니다.");
     }
 
     // 소셜 로그인 (익명 접근 허용)
     @PostMapping("/social/login")
-    public ResponseEntity<TokenResponse> socialLogin(@RequestBody SocialLoginRequest req) {
+    public ResponseEntity<TokenResponse> socialLogin(@RequestBody SocialLoginRequest req, HttpServletRequest http) {
+        long retryAfter = rateLimiter.socialLogin(http.getRemoteAddr());
+        if (retryAfter > 0) return tooManyRequests(retryAfter);
+
         User user = socialAuthService.loginWithSocial(req.getProvider(), req.getAccessToken());
         TokenService.TokenPair pair = tokenService.createTokensForUser(user);
         return ResponseEntity.ok(new TokenResponse(pair.accessToken(), pair.refreshToken(), "Bearer " + pair.refreshToken()));
@@ -122,7 +136,7 @@ public class AuthController {
     @PostMapping("/social/link")
     public ResponseEntity<String> linkSocial(@RequestAttribute("email") String email,
                                              @RequestBody SocialLinkRequest req) {
-        User user = userRepository.findByEmail(email).orElseThrow();
+        User user = userCache.findByEmail(email).orElseThrow();
         socialAuthService.linkSocialAccount(user, req.getProvider(), req.getAccessToken());
         return ResponseEntity.ok("linked");
     }
@@ -138,19 +152,24 @@ public class AuthController {
     }
     //이메일 찾기
     @PostMapping("/find-email")
-    public ResponseEntity<String> findEmailByPhone(@RequestBody FindEmailRequest request) {
+    public ResponseEntity<String> findEmailByPhone(@RequestBody FindEmailRequest request, HttpServletRequest http) {
+        long retryAfter = rateLimiter.findEmail(http.getRemoteAddr(), request.getPhone());
+        if (retryAfter > 0) return tooManyRequests(retryAfter);
+
         User user = userRepository.findByPhone(request.getPhone())
                 .orElseThrow(() -> new RuntimeException("해당 전화번호로 가입된 사용자가 없습니다."));
         return ResponseEntity.ok(user.getEmail());
     }
     // 1. 비밀번호 재설정 요청 (이메일 → 인증코드 발송)
     @PostMapping("/password/reset/request")
-    public ResponseEntity<String> requestPasswordReset(@RequestBody PasswordResetRequest request) {
+    public ResponseEntity<String> requestPasswordReset(@RequestBody PasswordResetRequest request, HttpServletRequest http) {
+        long retryAfter = rateLimiter.passwordReset(http.getRemoteAddr(), request.getEmail());
+        if (retryAfter > 0) return tooManyRequests(retryAfter);
+
         User user = userRepository.findByEmail(request.getEmail())
                 .orElseThrow(() -> new RuntimeException("해당 이메일로 가입된 사용자가 없습니다."));
 
-        String code = String.format("%06d", new Random().nextInt(999999)); // 6자리 인증코드
-        resetCodeStore.put(request.getEmail(), code);
+        String code = verificationCodes.issue(VerificationCodeStore.PASSWORD_RESET, request.getEmail()); // 6자리 인증코드
 
         emailService.sendEmail(request.getEmail(), "비밀번호 재설정 코드", "인증코드: " + code);
 
@@ -160,17 +179,22 @@ public class AuthController {
     // 2. 인증코드 확인 후 비밀번호 재설정
     @PostMapping("/password/reset/confirm")
     public ResponseEntity<String> confirmPasswordReset(@RequestBody PasswordResetConfirmRequest request) {
-        String storedCode = resetCodeStore.get(request.getEmail());
-        if (storedCode == null || !storedCode.equals(request.getCode())) {
-            return ResponseEntity.badRequest().body("잘못된 인증코드입니다.");
+        // 맞으면 코드는 여기서 지워진다 (한 번만 사용)
+        VerificationCodeStore.Result result =
+                verificationCodes.verify(VerificationCodeStore.PASSWORD_RESET, request.getEmail(), request.getCode());
+        if (result != VerificationCodeStore.Result.OK) {
+            return ResponseEntity.badRequest().body(switch (result) {
+                case EXPIRED -> "인증코드가 만료되었습니다. 다시 요청해 주세요.";
+                case TOO_MANY_ATTEMPTS -> "인증 시도 횟수를 초과했습니다. 코드를 다시 요청해 주세요.";
+                default -> "잘못된 인증코드입니다.";
+            });
         }
 
         User user = userRepository.findByEmail(request.getEmail())
                 .orElseThrow(() -> new RuntimeException("사용자 없음"));
         user.setPassword(passwordEncoder.encode(request.getNewPassword()));
         userRepository.save(user);
-
-        resetCodeStore.remove(request.getEmail()); // 사용 후 코드 삭제
+        userCache.invalidate(user.getId(), user.getEmail());
 
         return ResponseEntity.ok("비밀번호가 성공적으로 재설정되었습니다.");
     }
@@ -184,11 +208,28 @@ public class AuthController {
         return ResponseEntity.ok(summaryService.saveSummary(email, request));
     }
 
-    // 요약 리스트 조회
+    // 요약 리스트 조회 (기본은 기존처럼 전체 텍스트, preview=true 면 압축된 요약은 미리보기만)
     @GetMapping("/summary")
     public ResponseEntity<List<SummaryResponse>> getSummaries(
-            @RequestAttribute("email") String email
+            @RequestAttribute("email") String email,
+            @RequestParam(defaultValue = "false") boolean preview
     ) {
-        return ResponseEntity.ok(summaryService.getSummaries(email));
+        return ResponseEntity.ok(summaryService.getSummaries(email, !preview));
+    }
+
+    // 요약 한 건 (전체 텍스트)
+    @GetMapping("/summary/{id}")
+    public ResponseEntity<SummaryResponse> getSummary(
+            @RequestAttribute("email") String email,
+            @PathVariable Long id
+    ) {
+        return ResponseEntity.ok(summaryService.getSummary(email, id));
+    }
+
+    // 요청 제한에 걸리면 DB 조회 / BCrypt / 메일 발송 전에 바로 429
+    private static <T> ResponseEntity<T> tooManyRequests(long retryAfterSeconds) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds))
+                .build();
     }
-}
\ No newline at end of file
+}
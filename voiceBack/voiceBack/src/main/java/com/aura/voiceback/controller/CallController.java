@@ -1,6 +1,18 @@
 package com.aura.voiceback.controller;
 
+import com.aura.voiceback.dto.CallEventResponse;
+import com.aura.voiceback.dto.DrainSnapshot;
+import com.aura.voiceback.dto.TranscriptAppend;
+import com.aura.voiceback.dto.TranscriptSegmentResponse;
+import com.aura.voiceback.service.CallAdmission;
+import com.aura.voiceback.service.CallHistoryService;
+import com.aura.voiceback.service.CallLatencyTracker;
 import com.aura.voiceback.service.CallSessionManager;
+import com.aura.voiceback.service.DrainService;
+import com.aura.voiceback.service.RoomEventLoops;
+import com.aura.voiceback.service.TranscriptService;
+import com.aura.voiceback.service.VoIPService;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -14,6 +26,24 @@ public class CallController {
     @Autowired
     private CallSessionManager callSessionManager;
 
+    @Autowired
+    private CallHistoryService callHistoryService;
+
+    @Autowired
+    private CallLatencyTracker callLatencyTracker;
+
+    @Autowired
+    private VoIPService voipService;
+
+    @Autowired
+    private TranscriptService transcriptService;
+
+    @Autowired
+    private DrainService drainService;
+
+    @Autowired
+    private CallAdmission callAdmission;
+
     /**
      * 1:1 통화 시작 요청
      * body: { "callerId": "user1", "calleeId": "user2" }
@@ -26,8 +56,16 @@ public class CallController {
         if (callerId == null || calleeId == null) {
             return ResponseEntity.badRequest().body(Map.of("error", "callerId and calleeId required"));
         }
+        if (drainService.isDraining()) {
+            return draining();
+        }
+        CallAdmission.Decision admission = callAdmission.admitCall();
+        if (!admission.admitted()) {
+            return rejected(admission);
+        }
 
         String sessionId = callSessionManager.createSession(callerId, calleeId);
+        callHistoryService.recordCallStart(sessionId, callerId, calleeId);
 
         return ResponseEntity.ok(Map.of(
                 "sessionId", sessionId,
@@ -38,17 +76,28 @@ public class CallController {
     }
 
     /**
-     * 통화 종료 요청
+     * 통화 종료 요청 (JWT 필요, 통화 당사자만)
      * body: { "sessionId": "..." }
      */
     @PostMapping("/end")
-    public ResponseEntity<?> endCall(@RequestBody Map<String, String> payload) {
+    public ResponseEntity<?> endCall(@RequestAttribute("email") String email,
+                                     @RequestBody Map<String, String> payload) {
         String sessionId = payload.get("sessionId");
         if (sessionId == null) {
             return ResponseEntity.badRequest().body(Map.of("error", "sessionId required"));
         }
 
-        callSessionManager.endSession(sessionId);
+        CallSessionManager.CallSession live = callSessionManager.getSession(sessionId);
+        if (live != null && !live.isParticipant(email)) {
+            return ResponseEntity.status(403).body(Map.of("error", "Not a participant of this call"));
+        }
+        // 양쪽이 동시에 끊어도 이력 / 요약은 실제로 세션을 닫은 요청에서 한 번만
+        CallSessionManager.CallSession session = live != null ? callSessionManager.endSession(sessionId) : null;
+        if (session != null) {
+            callHistoryService.recordCallEnd(sessionId, session.callerId, session.calleeId,
+                    System.currentTimeMillis() - session.startedAt);
+            transcriptService.finish(sessionId);
+        }
 
         return ResponseEntity.ok(Map.of(
                 "sessionId", sessionId,
@@ -67,8 +116,16 @@ public class CallController {
         if (creatorId == null || roomName == null) {
             return ResponseEntity.badRequest().body(Map.of("error", "creatorId and roomName required"));
         }
+        if (drainService.isDraining()) {
+            return draining();
+        }
+        CallAdmission.Decision admission = callAdmission.admitCall();
+        if (!admission.admitted()) {
+            return rejected(admission);
+        }
 
         String roomId = callSessionManager.createRoom(creatorId, roomName);
+        callHistoryService.recordRoomJoin(roomId, creatorId);
 
         return ResponseEntity.ok(Map.of(
                 "id", roomId,          // ✅ 프론트와 맞춤
@@ -105,12 +162,20 @@ public class CallController {
             return ResponseEntity.badRequest().body(Map.of("error", "userId and roomId required"));
         }
 
-        boolean joined = callSessionManager.joinRoom(userId, roomId);
-        if (!joined) {
-            return ResponseEntity.status(404).body(Map.of("error", "Room not found"));
+        // 참가 여부 / 예산 확인과 추가는 방 루프에서 한 번에 (동시 참가가 방 인원 한도를 넘지 않게). 이력은 실제로 새로 들어온 경우에만
+        CallAdmission.Decision[] admission = new CallAdmission.Decision[1];
+        CallSessionManager.JoinResult result = callSessionManager.joinRoom(userId, roomId,
+                participants -> (admission[0] = callAdmission.admitJoin(participants)).admitted());
+        if (result == CallSessionManager.JoinResult.FULL) {
+            return rejected(admission[0]);
         }
-
         CallSessionManager.Room room = callSessionManager.getRoom(roomId);
+        if (result == CallSessionManager.JoinResult.NOT_FOUND || room == null) {
+            return ResponseEntity.status(404).body(Map.of("error", "Room not found"));
+        }
+        if (result == CallSessionManager.JoinResult.JOINED) {
+            callHistoryService.recordRoomJoin(roomId, userId);
+        }
 
         return ResponseEntity.ok(Map.of(
                 "roomId", room.getId(),
@@ -130,15 +195,23 @@ public class CallController {
             return ResponseEntity.badRequest().body(Map.of("error", "userId and roomId required"));
         }
 
-        boolean exists = callSessionManager.leaveRoom(userId, roomId);
-        if (!exists) {
+        // 퇴장과 참가 시각 꺼내기는 방 루프에서 한 번에 (동시 퇴장 요청이 이력을 두 번 남기지 않게)
+        CallSessionManager.LeaveResult left = callSessionManager.leaveRoom(userId, roomId);
+        if (left.joinedAt() != null) {
+            callHistoryService.recordRoomLeave(roomId, userId, System.currentTimeMillis() - left.joinedAt());
+        }
+        CallSessionManager.Room room = left.roomExists() ? callSessionManager.getRoom(roomId) : null;
+        if (room == null) {
+            // 마지막 참가자가 이 요청으로 나가 방이 지워졌을 때만 요약 (없는 방 id 로 요약을 만들지 않게)
+            if (!left.roomExists() && left.joinedAt() != null) {
+                transcriptService.finish(roomId);
+            }
             return ResponseEntity.ok(Map.of(
                     "roomId", roomId,
                     "message", "Room deleted (no participants left)"
             ));
         }
 
-        CallSessionManager.Room room = callSessionManager.getRoom(roomId);
         return ResponseEntity.ok(Map.of(
                 "roomId", room.getId(),
                 "roomName", room.getName(),
@@ -147,4 +220,159 @@ public class CallController {
                 "message", "Left room"
         ));
     }
+
+    /**
+     * 로그인한 사용자의 통화 이력 조회 (최신순, JWT 필요)
+     * GET /call/history?limit=50
+     */
+    @GetMapping("/history")
+    public ResponseEntity<?> history(@RequestAttribute("email") String email,
+                                     @RequestParam(defaultValue = "50") int limit) {
+        List<CallEventResponse> events = callHistoryService.getHistory(email, Math.max(1, Math.min(limit, 500)));
+        return ResponseEntity.ok(Map.of("userId", email, "events", events));
+    }
+
+    /**
+     * 통화방 지연/손실 보고서 (trace=1 클라이언트 기준)
+     * GET /call/latency/{roomId}
+     */
+    @GetMapping("/latency/{roomId}")
+    public ResponseEntity<?> latency(@PathVariable String roomId) {
+        Map<String, Object> report = callLatencyTracker.report(roomId);
+        if (report == null) {
+            return ResponseEntity.status(404).body(Map.of("error", "No trace data for room"));
+        }
+        return ResponseEntity.ok(report);
+    }
+
+    /**
+     * 새 통화 허용 상태 (중계 CPU / egress / 소켓 수와 예산)
+     * GET /call/admission
+     */
+    @GetMapping("/admission")
+    public ResponseEntity<?> admission() {
+        return ResponseEntity.ok(callAdmission.status());
+    }
+
+    /**
+     * 통화방 화자 상태 (active speaker + 참가자별 음량 dBFS)
+     * GET /call/room/{roomId}/speakers
+     */
+    @GetMapping("/room/{roomId}/speakers")
+    public ResponseEntity<?> speakers(@PathVariable String roomId) {
+        Map<String, Object> speakers = voipService.speakers(roomId);
+        if (speakers == null) {
+            return ResponseEntity.status(404).body(Map.of("error", "Room not connected"));
+        }
+        return ResponseEntity.ok(speakers);
+    }
+
+    /**
+     * 통화방 수신자별 링크 상태 (RTT, profile, 이어 붙이기로 줄인 메시지 수와 늘어난 지연)
+     * GET /call/room/{roomId}/links
+     */
+    @GetMapping("/room/{roomId}/links")
+    public ResponseEntity<?> links(@PathVariable String roomId) {
+        Map<String, Object> links = voipService.links(roomId);
+        if (links == null) {
+            return ResponseEntity.status(404).body(Map.of("error", "Room not connected"));
+        }
+        return ResponseEntity.ok(links);
+    }
+
+    /**
+     * 통화 자막(STT 세그먼트) 추가. 여러 개를 한 번에 보내도 된다 (JWT 필요, 진행 중인 통화의 참가자만)
+     * 화자는 토큰의 email 이다 (body 의 userId 는 쓰지 않는다)
+     * body: [ { "text": "...", "startMs": 0, "endMs": 1800 }, ... ]
+     */
+    @PostMapping("/{callId}/transcript")
+    public ResponseEntity<?> appendTranscript(@RequestAttribute("email") String email,
+                                              @PathVariable String callId,
+                                              @RequestBody List<TranscriptAppend> segments) {
+        if (!callSessionManager.isParticipant(callId, email)) {
+            return ResponseEntity.status(403).body(Map.of("error", "Not a participant of this call"));
+        }
+        int accepted = 0;
+        for (TranscriptAppend s : segments) {
+            if (transcriptService.append(callId, email, s.getText(), s.getStartMs(), s.getEndMs())) {
+                accepted++;
+            }
+        }
+        return ResponseEntity.ok(Map.of("callId", callId, "accepted", accepted, "rejected", segments.size() - accepted));
+    }
+
+    /**
+     * 저장된 통화 자막 (순서대로). JWT 필요, 그 통화의 참가자만
+     * (진행 중이면 지금 참가 중인지, 끝났으면 통화 이력 또는 자막의 화자인지로 판단)
+     * GET /call/{callId}/transcript
+     */
+    @GetMapping("/{callId}/transcript")
+    public ResponseEntity<?> transcript(@RequestAttribute("email") String email,
+                                        @PathVariable String callId) {
+        List<TranscriptSegmentResponse> segments = transcriptService.getTranscript(callId);
+        boolean allowed = callSessionManager.isParticipant(callId, email)
+                || segments.stream().anyMatch(s -> email.equals(s.getUserId()))
+                || callHistoryService.wasParticipant(callId, email);
+        if (!allowed) {
+            return ResponseEntity.status(403).body(Map.of("error", "Not a participant of this call"));
+        }
+        return ResponseEntity.ok(Map.of("callId", callId, "segments", segments));
+    }
+
+    /**
+     * 롤링 배포: 이 노드를 드레인하고 방 / 재접속 토큰을 다음 노드로 넘긴다 (X-Drain-Secret 필요)
+     * body: { "peer": "http://next-node:8080", "ws": "ws://next-node:8080/ws/voip" (선택) }
+     */
+    @PostMapping("/drain")
+    public ResponseEntity<?> drain(@RequestBody(required = false) Map<String, String> payload,
+                                   HttpServletRequest request) {
+        if (!drainService.isAuthorized(request.getHeader(DrainService.SECRET_HEADER))) {
+            return ResponseEntity.status(403).body(Map.of("error", "Forbidden"));
+        }
+        Map<String, String> body = payload != null ? payload : Map.of();
+        return ResponseEntity.ok(drainService.drain(body.get("peer"), body.get("ws")));
+    }
+
+    /**
+     * 드레인한 노드의 스냅샷을 이어받는다 (X-Drain-Secret 필요)
+     */
+    @PostMapping("/drain/import")
+    public ResponseEntity<?> importDrain(@RequestBody DrainSnapshot snapshot, HttpServletRequest request) {
+        if (!drainService.isAuthorized(request.getHeader(DrainService.SECRET_HEADER))) {
+            return ResponseEntity.status(403).body(Map.of("error", "Forbidden"));
+        }
+        try {
+            return ResponseEntity.ok(drainService.load(snapshot));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    // 예산 초과: 방이 가득 찼으면 409, 노드가 포화면 503 (+ 다른 노드 주소)
+    private ResponseEntity<?> rejected(CallAdmission.Decision admission) {
+        if (admission.roomFull()) {
+            return ResponseEntity.status(409).body(Map.of("error", "Room is full", "reason", admission.reason()));
+        }
+        Map<String, Object> body = new HashMap<>();
+        body.put("error", "Node is over capacity");
+        body.put("reason", admission.reason());
+        if (!callAdmission.getRedirectUrl().isBlank()) {
+            body.put("peer", callAdmission.getRedirectUrl());
+        }
+        return ResponseEntity.status(503).header("Retry-After", "1").body(body);
+    }
+
+    // 방 루프가 밀려 제때 처리하지 못한 요청 (작업은 실행되지 않았다). 클라이언트는 잠시 뒤 다시 요청
+    @ExceptionHandler(RoomEventLoops.RoomBusyException.class)
+    public ResponseEntity<?> roomBusy(RoomEventLoops.RoomBusyException e) {
+        return ResponseEntity.status(503).header("Retry-After", "1").body(Map.of("error", "Room is busy"));
+    }
+
+    // 드레인 중인 노드는 새 통화를 받지 않는다. 클라이언트는 peer 로 다시 요청
+    private ResponseEntity<?> draining() {
+        Map<String, Object> body = new HashMap<>();
+        body.put("error", "Node is draining");
+        body.put("peer", drainService.getPeer());
+        return ResponseEntity.status(503).header("Retry-After", "1").body(body);
+    }
 }
@@ -0,0 +1,18 @@
+package com.aura.voiceback.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+@Getter
+@Setter
+@AllArgsConstructor
+public class CallEventResponse {
+    private String callId;
+    private String eventType;
+    private String peerId;
+    private LocalDateTime eventTime;
+    private Long durationMs;
+}
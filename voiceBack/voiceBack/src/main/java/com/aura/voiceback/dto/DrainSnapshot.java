@@ -0,0 +1,49 @@
+package com.aura.voiceback.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+// 드레인하는 노드가 후속 노드에 넘기는 상태 (POST /call/drain/import, voip.drain.snapshot-path). 프레임/버퍼는 넘기지 않는다
+@Getter
+@Setter
+public class DrainSnapshot {
+    public static final int VERSION = 1;
+
+    private int version = VERSION;
+    private long createdAt;              // epoch ms
+    private List<RoomState> rooms = new ArrayList<>();
+    private List<CallState> calls = new ArrayList<>();
+    private List<ResumeState> resume = new ArrayList<>();
+
+    // CallSessionManager 의 방: 참가자 userId -> 참가 시각 (통화 시간 계산이 이어지도록)
+    @Getter
+    @Setter
+    public static class RoomState {
+        private String id;
+        private String name;
+        private Map<String, Long> members;
+    }
+
+    // 1:1 통화 세션
+    @Getter
+    @Setter
+    public static class CallState {
+        private String id;
+        private String callerId;
+        private String calleeId;
+        private long startedAt;
+    }
+
+    // /ws/voip 재접속 토큰: 후속 노드에 ?resume=<token> 으로 붙으면 같은 방에 들어간다
+    @Getter
+    @Setter
+    public static class ResumeState {
+        private String token;
+        private String roomId;
+        private String userId;
+    }
+}
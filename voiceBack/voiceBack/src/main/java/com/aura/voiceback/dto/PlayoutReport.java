@@ -0,0 +1,16 @@
+package com.aura.voiceback.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+// 클라이언트가 추적 프레임을 재생한 시점 보고 (/ws/voip 텍스트 메시지)
+@Getter
+@Setter
+public class PlayoutReport {
+    private String type;         // "playout"
+    private int streamId;        // 발신자 streamId (서버 헤더 값)
+    private long seq;
+    private long captureTs;      // 발신 클라이언트 캡처 시각 (epoch ms)
+    private Long relayEgressTs;  // 서버 헤더의 relayEgressTs (선택)
+    private long playoutTs;      // 수신 클라이언트 재생 시각 (epoch ms)
+}
@@ -0,0 +1,13 @@
+package com.aura.voiceback.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+// 수신 클라이언트가 주기적으로 보내는 수신 품질 (/ws/voip 텍스트 메시지 또는 v2 CONTROL)
+@Getter
+@Setter
+public class ReceiverFeedback {
+    private String type;         // "feedback"
+    private Double lossPct;      // 지난 보고 이후 손실률 (%)
+    private Double jitterMs;     // RFC 3550 지터 (ms)
+}
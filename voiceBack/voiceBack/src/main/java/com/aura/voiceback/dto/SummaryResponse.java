@@ -13,4 +13,6 @@ public class SummaryResponse {
     private Long id;
     private String summaryText;
     private LocalDateTime dateTime;
+    // true 면 summaryText 는 미리보기이고 전체는 GET /auth/summary/{id}
+    private boolean truncated;
 }
\ No newline at end of file
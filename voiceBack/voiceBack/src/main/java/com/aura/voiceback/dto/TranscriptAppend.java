@@ -0,0 +1,14 @@
+package com.aura.voiceback.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+// STT 세그먼트 한 개 (POST /call/{callId}/transcript)
+@Getter
+@Setter
+public class TranscriptAppend {
+    private String userId;       // 무시한다. 화자는 JWT 의 email
+    private String text;
+    private Long startMs;        // 발화 시작/끝 (클라이언트 기준, 선택)
+    private Long endMs;
+}
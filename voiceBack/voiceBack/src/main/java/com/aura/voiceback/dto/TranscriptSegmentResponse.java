@@ -0,0 +1,16 @@
+package com.aura.voiceback.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+@AllArgsConstructor
+public class TranscriptSegmentResponse {
+    private Integer seq;
+    private String userId;
+    private Long startMs;
+    private Long endMs;
+    private String text;
+}
@@ -0,0 +1,52 @@
+package com.aura.voiceback.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * 통화 이력 이벤트 (시작/종료/방 참가/방 퇴장)
+ * INSERT 전용 로그 테이블이라 쓰기는 CallHistoryService 의 배치 버퍼를 통해서만 이루어진다.
+ * 1:1 통화 시작/종료는 버퍼에서만 이 타입으로 다니고, 저장은 call_session 한 행으로 한다 (call_event 에는 방 이벤트만).
+ */
+@Entity
+@Table(name = "call_event", indexes = {
+        @Index(name = "idx_call_event_user_time", columnList = "user_id, event_time")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CallEvent {
+
+    public enum Type { CALL_START, CALL_END, ROOM_JOIN, ROOM_LEAVE }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // 1:1 통화면 sessionId, 통화방이면 roomId
+    @Column(name = "call_id", nullable = false, length = 64)
+    private String callId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "event_type", nullable = false, length = 20)
+    private Type eventType;
+
+    // 이벤트 주체 (프론트에서 email 을 userId 로 사용)
+    @Column(name = "user_id", nullable = false, length = 50)
+    private String userId;
+
+    // 1:1 통화 상대방 (방 이벤트는 null)
+    @Column(name = "peer_id", length = 50)
+    private String peerId;
+
+    @Column(name = "event_time", nullable = false)
+    private LocalDateTime eventTime;
+
+    // 종료/퇴장 이벤트에만 기록
+    @Column(name = "duration_ms")
+    private Long durationMs;
+}
@@ -1,14 +1,37 @@
 package com.aura.voiceback.entity;
 
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
 
+import java.time.LocalDateTime;
+
+/**
+ * 1:1 통화 한 건. 시작 시 INSERT, 종료 시 ended_at / duration_ms 를 UPDATE (CallHistoryService 배치 버퍼)
+ */
 @Entity
+@Table(name = "call_session", indexes = {
+        @Index(name = "idx_call_session_user_a_time", columnList = "user_a, started_at"),
+        @Index(name = "idx_call_session_user_b_time", columnList = "user_b, started_at")
+})
 public class CallSession {
     @Id
+    @Column(name = "session_id", length = 64)
     private String sessionId;
+    // 발신자 / 수신자 (프론트에서 email 을 userId 로 사용)
+    @Column(name = "user_a", length = 50)
     private String userA;
+    @Column(name = "user_b", length = 50)
     private String userB;
+    @Column(name = "started_at")
+    private LocalDateTime startedAt;
+    // 통화 중이면 null
+    @Column(name = "ended_at")
+    private LocalDateTime endedAt;
+    @Column(name = "duration_ms")
+    private Long durationMs;
 
     // getters & setters
     public String getSessionId() { return sessionId; }
@@ -17,4 +40,10 @@ public class CallSession {
     public void setUserA(String userA) { this.userA = userA; }
     public String getUserB() { return userB; }
     public void setUserB(String userB) { this.userB = userB; }
+    public LocalDateTime getStartedAt() { return startedAt; }
+    public void setStartedAt(LocalDateTime startedAt) { this.startedAt = startedAt; }
+    public LocalDateTime getEndedAt() { return endedAt; }
+    public void setEndedAt(LocalDateTime endedAt) { this.endedAt = endedAt; }
+    public Long getDurationMs() { return durationMs; }
+    public void setDurationMs(Long durationMs) { this.durationMs = durationMs; }
 }
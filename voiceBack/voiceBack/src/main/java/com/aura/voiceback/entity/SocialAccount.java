@@ -2,12 +2,16 @@ package com.aura.voiceback.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 @Entity
 @Table(name = "social_account", uniqueConstraints = {
         @UniqueConstraint(columnNames = {"provider", "provider_user_id"})
 })
 @Getter @Setter
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE) // 2차 캐시 (prod 프로필)
 @NoArgsConstructor @AllArgsConstructor @Builder
 public class SocialAccount {
 
@@ -1,5 +1,6 @@
 package com.aura.voiceback.entity;
 
+import com.aura.voiceback.util.TextCodec;
 import jakarta.persistence.*;
 import lombok.*;
 
@@ -26,10 +27,26 @@ public class Summary {
     @Column(name = "date_time", nullable = false, updatable = false)
     private LocalDateTime dateTime;
 
+    // 서버가 통화 자막으로 만든 요약이면 그 통화 id (클라이언트가 직접 올린 요약은 null)
+    @Column(name = "call_id", length = 64)
+    private String callId;
+
+    // 압축 저장이면 앞부분 미리보기, 아니면 전체 텍스트
     @Lob // TEXT 매핑
     @Column(name = "summary_text", nullable = false)
     private String summaryText;
 
+    // 압축된 전체 텍스트 (TextCodec 형식, 첫 바이트가 버전). null 이면 summaryText 가 전체.
+    // 엔티티를 읽으면 같이 읽힌다 (바이트코드 강화 없이는 LAZY 가 먹지 않는다). 목록 미리보기는 findPreviewsByUser 로 빼고 읽는다
+    @Lob
+    @Column(name = "summary_data")
+    private byte[] summaryData;
+
+    /** 전체 텍스트. 압축 저장된 행은 여기서 처음 푼다 */
+    public String getFullText() {
+        return summaryData != null ? TextCodec.decode(summaryData) : summaryText;
+    }
+
     @PrePersist
     protected void onCreate() {
         this.dateTime = LocalDateTime.now();
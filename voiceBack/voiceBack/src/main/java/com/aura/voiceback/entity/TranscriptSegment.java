@@ -0,0 +1,50 @@
+package com.aura.voiceback.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * 통화 중 STT 세그먼트 (한 줄 = 한 발화).
+ * 통화 중에는 INSERT 만 하고 (TranscriptService 의 배치 버퍼), 통화가 끝나면 call_id 순서대로 읽어 요약을 만든다.
+ */
+@Entity
+@Table(name = "transcript_segment", indexes = {
+        @Index(name = "idx_transcript_call_seq", columnList = "call_id, seq")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TranscriptSegment {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // 1:1 통화면 sessionId, 통화방이면 roomId
+    @Column(name = "call_id", nullable = false, length = 64)
+    private String callId;
+
+    // 서버가 받은 순서 (통화별)
+    @Column(name = "seq", nullable = false)
+    private Integer seq;
+
+    @Column(name = "user_id", nullable = false, length = 50)
+    private String userId;
+
+    // 클라이언트 기준 발화 구간 (없으면 null)
+    @Column(name = "start_ms")
+    private Long startMs;
+
+    @Column(name = "end_ms")
+    private Long endMs;
+
+    @Column(name = "text", nullable = false, length = 2000)
+    private String text;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,36 @@
+package com.aura.voiceback.media;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * 패킷 손실 은닉(PLC): 빠진 프레임 자리를 직전 프레임 파형 반복 + 감쇠로 채운다 (16bit LE mono PCM).
+ * 연속으로 n 번째 채우는 프레임은 이득을 (1 - n/maxFrames) 에서 (1 - (n+1)/maxFrames) 까지 선형으로 낮춰서
+ * maxFrames 개째 끝에서 무음이 된다. 짧은 손실은 끊김 없이 들리고, 긴 손실은 자연스럽게 사라진다.
+ */
+public final class Concealer {
+
+    private Concealer() {
+    }
+
+    /**
+     * last 의 position ~ limit 을 감쇠해서 dst 의 offset 위치부터 같은 길이로 쓴다 (position 은 바꾸지 않음).
+     * @param index    연속으로 채우는 프레임 중 몇 번째인지 (0 부터)
+     * @param maxFrames 이만큼 채우면 무음
+     */
+    public static void conceal(ByteBuffer last, int index, int maxFrames, ByteBuffer dst, int offset) {
+        ByteBuffer in = last.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        ByteBuffer out = dst.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        int samples = in.remaining() / 2;
+        int from = in.position();
+        double start = Math.max(0, 1 - (double) index / maxFrames);
+        double end = Math.max(0, 1 - (double) (index + 1) / maxFrames);
+        for (int i = 0; i < samples; i++) {
+            double gain = start + (end - start) * i / samples;
+            out.putShort(offset + i * 2, (short) Math.round(in.getShort(from + i * 2) * gain));
+        }
+        if ((in.remaining() & 1) != 0) {
+            out.put(offset + samples * 2, (byte) 0);
+        }
+    }
+}
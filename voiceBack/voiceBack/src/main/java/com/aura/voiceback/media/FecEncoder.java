@@ -0,0 +1,105 @@
+package com.aura.voiceback.media;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * XOR parity FEC 인코더 (수신자 한 명 x 발신자 한 명, 방 루프 전용).
+ * 연속된 seq groupSize 개를 한 그룹으로 보고, 그룹의 payload / 길이 / timestamp 를 XOR 한 parity 를 만든다.
+ * 수신 측(클라이언트, 참고 구현은 테스트의 FecDecoder)은 그룹에서 한 프레임만 빠졌으면 나머지와 parity 로 그 프레임을 그대로 복원한다.
+ *
+ * parity payload (big-endian)
+ *   [0] groupSize  [1] mask (그룹 안에서 실제로 보낸 seq, bit i = firstSeq + i)
+ *   [2..3] length XOR  [4..11] timestamp XOR  [12..] payload XOR (그룹 최대 길이, 짧은 프레임은 0 으로 채운 셈)
+ * 그룹의 seq 는 parity 프레임 헤더의 seq(= firstSeq)로, 샘플레이트는 헤더 sampleRate 로 알린다.
+ */
+public final class FecEncoder {
+
+    public static final int HEADER_LENGTH = 12;
+    public static final int MAX_GROUP_SIZE = 8;
+
+    private final int groupSize;
+    private byte[] parity = new byte[0];
+    private long firstSeq = -1;
+    private int mask;
+    private int lastIndex;
+    private int lengthXor;
+    private long timestampXor;
+    private int maxLength;
+    private int sampleRate;
+    private boolean stale;
+
+    public FecEncoder(int groupSize) {
+        if (groupSize < 2 || groupSize > MAX_GROUP_SIZE) {
+            throw new IllegalArgumentException("FEC group size must be 2.." + MAX_GROUP_SIZE + ": " + groupSize);
+        }
+        this.groupSize = groupSize;
+    }
+
+    /** 현재 그룹에 넣을 수 있는 프레임인지 (아니면 먼저 parity 를 꺼내야 한다) */
+    public boolean fits(long seq, int sampleRate) {
+        return firstSeq < 0
+                || (seq > firstSeq + lastIndex && seq < firstSeq + groupSize && sampleRate == this.sampleRate);
+    }
+
+    public void add(long seq, long timestamp, ByteBuffer payload, int sampleRate) {
+        if (firstSeq < 0) {
+            firstSeq = seq;
+            this.sampleRate = sampleRate;
+        }
+        int index = (int) (seq - firstSeq);
+        int length = payload.remaining();
+        if (length > parity.length) {
+            parity = Arrays.copyOf(parity, length);
+        }
+        int from = payload.position();
+        for (int i = 0; i < length; i++) {
+            parity[i] ^= payload.get(from + i);
+        }
+        maxLength = Math.max(maxLength, length);
+        lengthXor ^= length;
+        timestampXor ^= timestamp;
+        mask |= 1 << index;
+        lastIndex = index;
+        stale = false;
+    }
+
+    /** 그룹 마지막 seq 까지 들어왔으면 true */
+    public boolean isFull() {
+        return firstSeq >= 0 && lastIndex == groupSize - 1;
+    }
+
+    public boolean isEmpty() {
+        return firstSeq < 0;
+    }
+
+    /** 주기마다 호출. 지난 주기 이후 새 프레임이 없었으면 true (그룹이 덜 찼어도 parity 를 보낼 때) */
+    public boolean markStale() {
+        boolean wasStale = stale;
+        stale = true;
+        return wasStale;
+    }
+
+    public long getFirstSeq() { return firstSeq; }
+    public int getSampleRate() { return sampleRate; }
+
+    public int parityLength() {
+        return HEADER_LENGTH + maxLength;
+    }
+
+    /** dst 의 offset 위치에 parity payload 를 쓰고 다음 그룹을 위해 비운다 */
+    public void writeParity(ByteBuffer dst, int offset) {
+        dst.put(offset, (byte) groupSize)
+                .put(offset + 1, (byte) mask)
+                .putShort(offset + 2, (short) lengthXor)
+                .putLong(offset + 4, timestampXor)
+                .put(offset + HEADER_LENGTH, parity, 0, maxLength);
+        Arrays.fill(parity, 0, maxLength, (byte) 0);
+        firstSeq = -1;
+        mask = 0;
+        lastIndex = 0;
+        lengthXor = 0;
+        timestampXor = 0;
+        maxLength = 0;
+    }
+}
@@ -0,0 +1,60 @@
+package com.aura.voiceback.media;
+
+import com.aura.voiceback.util.PooledBuffer;
+
+/**
+ * WAV 수신자 한 명에게 보낼, 한 발신자의 PCM 을 모으는 버퍼 (StreamProfile.framesPerMessage > 1 일 때).
+ * 방 루프에서만 쓰인다. 다 차거나 profile 이 바뀌거나 한 주기 동안 새 프레임이 없으면 WAV 하나로 보낸다.
+ * proto=2 수신자는 프레임을 그대로 대기열에 넣고 FrameCoalescer 가 송신 쪽에서 묶는다.
+ */
+public final class FrameBundle {
+
+    private final int streamId;
+    private final StreamProfile profile;
+    private final PooledBuffer buffer;
+    private final int start;
+    private int position;
+    private int frames;
+    private boolean stale;
+    // 추적(trace=1) 프레임의 서버 수신 시각 (nanoTime) - 실제로 보낼 때 relay 구간을 기록한다
+    private long[] tracedIngressNanos;
+    private int traced;
+
+    /** @param start 앞에 비워 둘 바이트 수 (보낼 때 채울 헤더 자리) */
+    public FrameBundle(int streamId, StreamProfile profile, PooledBuffer buffer, int start) {
+        this.streamId = streamId;
+        this.profile = profile;
+        this.buffer = buffer;
+        this.start = start;
+        this.position = start;
+    }
+
+    public void appended(int newPosition) {
+        position = newPosition;
+        frames++;
+        stale = false;
+    }
+
+    public void traced(long ingressNanos) {
+        if (tracedIngressNanos == null) tracedIngressNanos = new long[profile.framesPerMessage()];
+        if (traced < tracedIngressNanos.length) tracedIngressNanos[traced++] = ingressNanos;
+    }
+
+    /** 주기마다 호출. 지난 주기 이후 새 프레임이 없었으면 true (남은 프레임을 보낼 때) */
+    public boolean markStale() {
+        boolean wasStale = stale;
+        stale = true;
+        return wasStale;
+    }
+
+    public int getStreamId() { return streamId; }
+    public StreamProfile getProfile() { return profile; }
+    public PooledBuffer getBuffer() { return buffer; }
+    public int getStart() { return start; }
+    public int getPosition() { return position; }
+    public int getFrames() { return frames; }
+    public int getTraced() { return traced; }
+    public long getTracedIngressNanos(int i) { return tracedIngressNanos[i]; }
+    public int remaining() { return buffer.length() - position; }
+    public boolean isFull() { return frames >= profile.framesPerMessage(); }
+}
@@ -0,0 +1,58 @@
+package com.aura.voiceback.media;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * 발신자 한 명의 음량 (최근 windowFrames 프레임의 RMS, dBFS). 방 루프에서만 쓴다.
+ * 프레임마다 평균 제곱을 한 번 계산해 링 버퍼에 넣고 합계를 유지하므로 조회는 O(1).
+ * 에너지 추정에는 모든 샘플이 필요 없어 STRIDE 샘플마다 하나만 본다 (48kHz 20ms 프레임당 240 샘플).
+ */
+public final class LevelMeter {
+
+    public static final double SILENCE_DBFS = -100;
+    private static final int STRIDE = 4;
+    private static final double FULL_SCALE_SQUARED = 32768.0 * 32768.0;
+
+    private final double[] window;
+    private int next;
+    private int filled;
+    private double sum;
+    private long lastFrameNanos;
+
+    public LevelMeter(int windowFrames) {
+        this.window = new double[Math.max(1, windowFrames)];
+    }
+
+    public void add(ByteBuffer pcm, long nowNanos) {
+        ByteBuffer in = pcm.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        int from = in.position();
+        int samples = in.remaining() / 2;
+        double squares = 0;
+        int n = 0;
+        for (int i = 0; i < samples; i += STRIDE, n++) {
+            double s = in.getShort(from + i * 2);
+            squares += s * s;
+        }
+        double meanSquare = n == 0 ? 0 : squares / n;
+
+        sum += meanSquare - window[next];
+        window[next] = meanSquare;
+        if (++next == window.length) {
+            next = 0;
+            // 부동소수 누적 오차를 한 바퀴마다 정리
+            sum = 0;
+            for (double v : window) sum += v;
+        }
+        filled = Math.min(filled + 1, window.length);
+        lastFrameNanos = nowNanos;
+    }
+
+    /** @param staleNanos 이 시간 동안 프레임이 없으면 말을 멈춘 것으로 보고 무음 */
+    public double dbfs(long nowNanos, long staleNanos) {
+        if (filled == 0 || nowNanos - lastFrameNanos > staleNanos) return SILENCE_DBFS;
+        double meanSquare = sum / filled;
+        if (meanSquare <= 0) return SILENCE_DBFS;
+        return Math.max(SILENCE_DBFS, 10 * Math.log10(meanSquare / FULL_SCALE_SQUARED));
+    }
+}
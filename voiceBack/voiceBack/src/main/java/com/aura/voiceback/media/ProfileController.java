@@ -0,0 +1,88 @@
+package com.aura.voiceback.media;
+
+/**
+ * 수신자 한 명의 StreamProfile 을 정하는 상태 기계 (방 루프 타이머에서 주기적으로 update 호출).
+ *
+ * 매 주기마다 서버 쪽 신호(송신 대기열 사용률, 드롭 수, 소켓 전송 시간)와
+ * 클라이언트가 보고한 손실률/지터로 링크를 BAD / GOOD / 중간 으로 판정한다.
+ *  - BAD 가 degradeAfter 번 연속이면 한 단계 낮춘다.
+ *  - GOOD 가 upgradeAfter 번 연속이어야 한 단계 올린다 (올리는 쪽을 훨씬 느리게 - 왔다갔다 하지 않도록).
+ *  - 중간 판정은 두 카운터를 모두 초기화한다. BAD/GOOD 기준 사이에 간격을 둬서 경계에서 흔들리지 않는다.
+ *  - 단계를 바꾼 뒤 holdAfterChange 주기 동안은 판정을 쌓지 않는다 (바뀐 형식의 효과가 보일 때까지).
+ * 잘 연결된 수신자는 계속 GOOD 이라 HIGH 에 머문다.
+ */
+public class ProfileController {
+
+    // BAD 기준
+    static final double BAD_QUEUE_FILL = 0.25;
+    static final double BAD_SEND_MS = 20;
+    static final double BAD_LOSS_PCT = 5;
+    static final double BAD_JITTER_MS = 40;
+    // GOOD 기준 (모두 만족해야 GOOD)
+    static final double GOOD_QUEUE_FILL = 0.05;
+    static final double GOOD_SEND_MS = 5;
+    static final double GOOD_LOSS_PCT = 1;
+    static final double GOOD_JITTER_MS = 15;
+
+    private final int degradeAfter;
+    private final int upgradeAfter;
+    private final int holdAfterChange;
+
+    private StreamProfile profile = StreamProfile.HIGH;
+    private int badStreak;
+    private int goodStreak;
+    private int hold;
+
+    public ProfileController(int degradeAfter, int upgradeAfter, int holdAfterChange) {
+        this.degradeAfter = degradeAfter;
+        this.upgradeAfter = upgradeAfter;
+        this.holdAfterChange = holdAfterChange;
+    }
+
+    /**
+     * @param queueFill      송신 대기열 바이트 / 상한 (0 ~ 1)
+     * @param dropped        지난 주기 동안 대기열이 가득 차서 버린 프레임 수
+     * @param sendMs         소켓 전송 시간 이동 평균 (ms)
+     * @param lossPct        클라이언트 보고 손실률, 보고가 없었으면 NaN
+     * @param jitterMs       클라이언트 보고 지터, 보고가 없었으면 NaN
+     * @return 이번 주기 이후의 profile
+     */
+    public StreamProfile update(double queueFill, int dropped, double sendMs, double lossPct, double jitterMs) {
+        if (hold > 0) {
+            hold--;
+            return profile;
+        }
+        boolean bad = dropped > 0 || queueFill >= BAD_QUEUE_FILL || sendMs >= BAD_SEND_MS
+                || lossPct >= BAD_LOSS_PCT || jitterMs >= BAD_JITTER_MS;
+        // NaN 비교는 false 이므로 보고가 없는 항목은 판정에서 빠진다
+        boolean good = !bad && queueFill <= GOOD_QUEUE_FILL && sendMs <= GOOD_SEND_MS
+                && !(lossPct > GOOD_LOSS_PCT) && !(jitterMs > GOOD_JITTER_MS);
+
+        if (bad) {
+            goodStreak = 0;
+            if (++badStreak >= degradeAfter && profile != StreamProfile.MINIMAL) {
+                change(profile.lower());
+            }
+        } else if (good) {
+            badStreak = 0;
+            if (++goodStreak >= upgradeAfter && profile != StreamProfile.HIGH) {
+                change(profile.higher());
+            }
+        } else {
+            badStreak = 0;
+            goodStreak = 0;
+        }
+        return profile;
+    }
+
+    private void change(StreamProfile next) {
+        profile = next;
+        badStreak = 0;
+        goodStreak = 0;
+        hold = holdAfterChange;
+    }
+
+    public StreamProfile getProfile() {
+        return profile;
+    }
+}
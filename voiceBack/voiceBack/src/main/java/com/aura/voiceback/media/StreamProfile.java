@@ -0,0 +1,41 @@
+package com.aura.voiceback.media;
+
+/**
+ * 수신자에게 보내는 오디오 형식 단계. 입력은 항상 48kHz mono 16bit PCM (프레임당 보통 20ms).
+ * 링크가 나빠지면 샘플레이트를 낮춰 대역폭을 줄이고, 더 나빠지면 프레임 여러 개를 한 메시지로 묶어
+ * 메시지 수(= 소켓 쓰기 / 헤더 오버헤드)를 줄인다.
+ *
+ *   HIGH     48kHz  1 프레임/메시지  (768 kbps)
+ *   MEDIUM   24kHz  1 프레임/메시지  (384 kbps)
+ *   LOW      16kHz  2 프레임/메시지  (256 kbps, 40ms)
+ *   MINIMAL   8kHz  3 프레임/메시지  (128 kbps, 60ms)
+ */
+public enum StreamProfile {
+    HIGH(48000, 1),
+    MEDIUM(24000, 1),
+    LOW(16000, 2),
+    MINIMAL(8000, 3);
+
+    public static final int SOURCE_RATE = 48000;
+
+    private final int sampleRate;
+    private final int framesPerMessage;
+
+    StreamProfile(int sampleRate, int framesPerMessage) {
+        this.sampleRate = sampleRate;
+        this.framesPerMessage = framesPerMessage;
+    }
+
+    public int sampleRate() { return sampleRate; }
+    public int framesPerMessage() { return framesPerMessage; }
+    // 48kHz 입력을 몇 샘플씩 묶어 줄이는지
+    public int decimation() { return SOURCE_RATE / sampleRate; }
+
+    public StreamProfile lower() {
+        return this == MINIMAL ? MINIMAL : values()[ordinal() + 1];
+    }
+
+    public StreamProfile higher() {
+        return this == HIGH ? HIGH : values()[ordinal() - 1];
+    }
+}
@@ -0,0 +1,15 @@
+package com.aura.voiceback.repository;
+
+import com.aura.voiceback.entity.CallEvent;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+
+public interface CallEventRepository extends JpaRepository<CallEvent, Long> {
+    // idx_call_event_user_time 인덱스를 타는 사용자별 최신순 조회
+    List<CallEvent> findByUserIdOrderByEventTimeDesc(String userId, Pageable pageable);
+
+    // 끝난 통화방의 참가자였는지 (user_id 로 인덱스를 탄 뒤 call_id 로 거른다)
+    boolean existsByCallIdAndUserId(String callId, String userId);
+}
@@ -1,7 +1,12 @@
 package com.aura.voiceback.repository;
 
 import com.aura.voiceback.entity.CallSession;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 
+import java.util.List;
+
 public interface CallSessionRepository extends JpaRepository<CallSession, String> {
+    // 발신/수신 양쪽 (user_a, started_at) / (user_b, started_at) 인덱스를 타는 사용자별 최신순 조회
+    List<CallSession> findByUserAOrUserBOrderByStartedAtDesc(String userA, String userB, Pageable pageable);
 }
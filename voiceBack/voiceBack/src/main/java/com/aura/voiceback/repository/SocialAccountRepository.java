@@ -1,9 +1,13 @@
 package com.aura.voiceback.repository;
 
 import com.aura.voiceback.entity.SocialAccount;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import java.util.Optional;
 
 public interface SocialAccountRepository extends JpaRepository<SocialAccount, Long> {
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Optional<SocialAccount> findByProviderAndProviderUserId(String provider, String providerUserId);
 }
@@ -1,11 +1,18 @@
 package com.aura.voiceback.repository;
 
+import com.aura.voiceback.dto.SummaryResponse;
 import com.aura.voiceback.entity.Summary;
 import com.aura.voiceback.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
 import java.util.List;
 
 public interface SummaryRepository extends JpaRepository<Summary, Long> {
     List<Summary> findByUser(User user);
+
+    // 목록용: 압축된 summary_data 는 읽지 않고 미리보기(summary_text)만
+    @Query("select new com.aura.voiceback.dto.SummaryResponse(s.id, s.summaryText, s.dateTime, "
+            + "case when s.summaryData is not null then true else false end) from Summary s where s.user = ?1")
+    List<SummaryResponse> findPreviewsByUser(User user);
 }
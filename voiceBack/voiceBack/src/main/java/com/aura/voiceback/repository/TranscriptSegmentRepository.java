@@ -0,0 +1,16 @@
+package com.aura.voiceback.repository;
+
+import com.aura.voiceback.entity.TranscriptSegment;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.List;
+
+public interface TranscriptSegmentRepository extends JpaRepository<TranscriptSegment, Long> {
+    // idx_transcript_call_seq 인덱스를 타는 통화별 순서 조회
+    List<TranscriptSegment> findByCallIdOrderBySeqAscIdAsc(String callId);
+
+    // 서버 재시작 후 같은 통화에 이어 쓸 때 seq 시작점
+    @Query("select max(t.seq) from TranscriptSegment t where t.callId = ?1")
+    Integer findMaxSeq(String callId);
+}
@@ -0,0 +1,107 @@
+package com.aura.voiceback.service;
+
+import com.aura.voiceback.util.TokenBucketLimiter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 익명으로 부를 수 있는 인증 API 의 요청 제한 (credential stuffing / 메일 폭탄 방지).
+ * 컨트롤러가 DB 조회나 BCrypt, 메일 발송보다 먼저 호출하고, 0 이 아니면 바로 429 를 돌려준다.
+ *  - ip      : 엔드포인트 구분 없이 IP 하나가 쓰는 양
+ *  - account : 같은 email(로그인) / 전화번호(이메일 찾기)를 노리는 시도. IP 를 바꿔 가며 와도 막힌다
+ *  - mail    : 비밀번호 재설정 메일 (같은 주소로 메일이 쏟아지지 않게)
+ * 메트릭: auth.ratelimit.requests{endpoint, result=hit|miss} (hit = 한도에 걸려 거절), 키 수 / 버린 키 수 /
+ *        키 상한에 걸려 거절한 새 키 수 (활성 버킷은 버리지 않으므로 max-keys 가 모자라면 이 값이 오른다)
+ * clientIp 는 request.getRemoteAddr(). 프록시 뒤에서는 server.forward-headers-strategy=native 로
+ * 신뢰하는 프록시(server.tomcat.remoteip.internal-proxies)가 붙인 X-Forwarded-For 만 반영된다.
+ */
+@Component
+public class AuthRateLimiter {
+
+    private final boolean enabled;
+    private final TokenBucketLimiter ip;
+    private final TokenBucketLimiter account;
+    private final TokenBucketLimiter mail;
+    private final MeterRegistry registry;
+    private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+
+    public AuthRateLimiter(MeterRegistry registry,
+                           @Value("${rate-limit.enabled:true}") boolean enabled,
+                           @Value("${rate-limit.max-keys:100000}") int maxKeys,
+                           @Value("${rate-limit.stripes:16}") int stripes,
+                           @Value("${rate-limit.ip.per-minute:30}") double ipPerMinute,
+                           @Value("${rate-limit.ip.burst:20}") int ipBurst,
+                           @Value("${rate-limit.account.per-minute:5}") double accountPerMinute,
+                           @Value("${rate-limit.account.burst:10}") int accountBurst,
+                           @Value("${rate-limit.mail.per-hour:5}") double mailPerHour,
+                           @Value("${rate-limit.mail.burst:3}") int mailBurst) {
+        this.registry = registry;
+        this.enabled = enabled;
+        this.ip = new TokenBucketLimiter(ipPerMinute / 60, ipBurst, maxKeys, stripes);
+        this.account = new TokenBucketLimiter(accountPerMinute / 60, accountBurst, maxKeys, stripes);
+        this.mail = new TokenBucketLimiter(mailPerHour / 3600, mailBurst, maxKeys, stripes);
+
+        bind("ip", ip);
+        bind("account", account);
+        bind("mail", mail);
+    }
+
+    /** @return 0 이면 통과, 아니면 Retry-After (초) */
+    public long login(String clientIp, String email) {
+        return check("login", clientIp, account, "email:" + normalize(email));
+    }
+
+    public long socialLogin(String clientIp) {
+        return check("social-login", clientIp, null, null);
+    }
+
+    public long findEmail(String clientIp, String phone) {
+        return check("find-email", clientIp, account, "phone:" + normalize(phone));
+    }
+
+    public long passwordReset(String clientIp, String email) {
+        return check("password-reset", clientIp, mail, "email:" + normalize(email));
+    }
+
+    private long check(String endpoint, String clientIp, TokenBucketLimiter keyed, String key) {
+        if (!enabled) return 0;
+        long now = System.nanoTime();
+        long wait = ip.tryAcquire("ip:" + clientIp, now);
+        if (wait == 0 && keyed != null) {
+            wait = keyed.tryAcquire(key, now);
+        }
+        counter(endpoint, wait == 0 ? "miss" : "hit").increment();
+        return wait == 0 ? 0 : Math.max(1, TimeUnit.NANOSECONDS.toSeconds(wait + 999_999_999));
+    }
+
+    private Counter counter(String endpoint, String result) {
+        return counters.computeIfAbsent(endpoint + '|' + result, k -> Counter.builder("auth.ratelimit.requests")
+                .description("Rate-limited auth endpoint checks (hit = rejected with 429)")
+                .tag("endpoint", endpoint)
+                .tag("result", result)
+                .register(registry));
+    }
+
+    private void bind(String name, TokenBucketLimiter limiter) {
+        Gauge.builder("auth.ratelimit.keys", limiter, TokenBucketLimiter::size)
+                .description("Buckets currently tracked").tag("limiter", name).register(registry);
+        FunctionCounter.builder("auth.ratelimit.evictions", limiter, TokenBucketLimiter::getEvictions)
+                .description("Refilled buckets dropped to stay under rate-limit.max-keys").tag("limiter", name).register(registry);
+        FunctionCounter.builder("auth.ratelimit.overflows", limiter, TokenBucketLimiter::getOverflows)
+                .description("New keys refused because rate-limit.max-keys was full of active buckets").tag("limiter", name).register(registry);
+    }
+
+    // 대소문자/공백만 다른 email 로 한도를 피하지 못하게
+    private static String normalize(String value) {
+        return value == null ? "" : value.strip().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,200 @@
+package com.aura.voiceback.service;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadInfo;
+import java.lang.management.ThreadMXBean;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.DoubleSupplier;
+import java.util.function.IntSupplier;
+import java.util.function.LongSupplier;
+
+/**
+ * 새 통화 / 방 참가 허용 여부 (POST /call/start, /call/room/create, /call/room/join).
+ * 노드가 포화되면 기존 통화가 다 같이 나빠지므로, 예산을 넘으면 새 요청을 바로 거절하고(503, redirect-url 이 있으면 그 주소) 기존 통화를 지킨다.
+ *  - relay CPU: 중계 스레드(방 루프 room-loop-*, voip-* 송신/이어 붙이기/UDP/netty I/O)의 CPU 시간 / 전체 코어. servlet 엔진의 수신은 Tomcat 스레드라 빠진다
+ *  - egress: 수신자에게 넘긴 오디오 + FEC bytes/s
+ *  - sockets: 열린 /ws/voip 연결 수 (재접속 유예 중 포함)
+ *  - 방 참가자 수: 넘으면 409 (그 방만 가득 찬 것이라 redirect 하지 않는다)
+ * CPU / egress 는 sample-interval-ms 마다 잰 값을 쓰고(요청 경로에서는 volatile 읽기만), 예산이 0 이면 그 항목은 보지 않는다.
+ */
+@Component
+public class CallAdmission {
+
+    /** 거절이면 reason 이 cpu / egress / sockets / room-full */
+    public record Decision(boolean admitted, String reason) {
+        static final Decision ADMITTED = new Decision(true, null);
+
+        public boolean roomFull() {
+            return "room-full".equals(reason);
+        }
+    }
+
+    private final boolean enabled;
+    private final double maxRelayCpu;
+    private final long maxEgressBytesPerSec;
+    private final int maxSockets;
+    private final int maxRoomParticipants;
+    private final String redirectUrl;
+    private final VoIPMetrics metrics;
+    private final LongSupplier relayCpuNanos;
+    private final DoubleSupplier egressBytes;
+    private final IntSupplier sockets;
+    private final int cores;
+    private final ScheduledExecutorService sampler;
+    // 마지막 표본 (sampler 스레드가 쓰고 요청 스레드가 읽는다)
+    private volatile double relayCpu;
+    private volatile double egressPerSec;
+    private long lastNanos;
+    private long lastCpuNanos;
+    private double lastEgressBytes;
+
+    @Autowired
+    public CallAdmission(VoIPMetrics metrics,
+                         VoIPService voipService,
+                         @Value("${voip.admission.enabled:true}") boolean enabled,
+                         @Value("${voip.admission.sample-interval-ms:1000}") long sampleIntervalMs,
+                         @Value("${voip.admission.max-relay-cpu:0.8}") double maxRelayCpu,
+                         @Value("${voip.admission.max-egress-bytes-per-sec:0}") long maxEgressBytesPerSec,
+                         @Value("${voip.admission.max-sockets:2000}") int maxSockets,
+                         @Value("${voip.admission.max-room-participants:50}") int maxRoomParticipants,
+                         @Value("${voip.admission.redirect-url:}") String redirectUrl) {
+        this(metrics, new RelayThreadCpu(ManagementFactory.getThreadMXBean()), metrics::egressBytes,
+                voipService::getSessionCount, Runtime.getRuntime().availableProcessors(), enabled, sampleIntervalMs,
+                maxRelayCpu, maxEgressBytesPerSec, maxSockets, maxRoomParticipants, redirectUrl);
+    }
+
+    // 테스트에서는 부하 값을 직접 넘기고 sample() 을 부른다 (sampleIntervalMs 0 이면 sampler 스레드 없음)
+    CallAdmission(VoIPMetrics metrics, LongSupplier relayCpuNanos, DoubleSupplier egressBytes, IntSupplier sockets,
+                  int cores, boolean enabled, long sampleIntervalMs, double maxRelayCpu, long maxEgressBytesPerSec,
+                  int maxSockets, int maxRoomParticipants, String redirectUrl) {
+        this.metrics = metrics;
+        this.relayCpuNanos = relayCpuNanos;
+        this.egressBytes = egressBytes;
+        this.sockets = sockets;
+        this.cores = Math.max(cores, 1);
+        this.enabled = enabled;
+        this.maxRelayCpu = maxRelayCpu;
+        this.maxEgressBytesPerSec = maxEgressBytesPerSec;
+        this.maxSockets = maxSockets;
+        this.maxRoomParticipants = maxRoomParticipants;
+        this.redirectUrl = redirectUrl;
+        // 꺼져 있어도 GET /call/admission 으로 부하를 볼 수 있게 표본은 잰다
+        this.sampler = sampleIntervalMs > 0 ? Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "call-admission-sampler");
+            t.setDaemon(true);
+            return t;
+        }) : null;
+        if (sampler != null) {
+            sampler.scheduleAtFixedRate(() -> sample(System.nanoTime()), 0, sampleIntervalMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (sampler != null) sampler.shutdownNow();
+    }
+
+    /** 새 1:1 통화 / 새 방 */
+    public Decision admitCall() {
+        return record(overBudget());
+    }
+
+    /** 참가자가 participants 명인 방에 한 명 더 */
+    public Decision admitJoin(int participants) {
+        if (enabled && maxRoomParticipants > 0 && participants >= maxRoomParticipants) {
+            return record("room-full");
+        }
+        return admitCall();
+    }
+
+    private String overBudget() {
+        if (!enabled) return null;
+        if (maxRelayCpu > 0 && relayCpu > maxRelayCpu) return "cpu";
+        if (maxEgressBytesPerSec > 0 && egressPerSec > maxEgressBytesPerSec) return "egress";
+        if (maxSockets > 0 && sockets.getAsInt() >= maxSockets) return "sockets";
+        return null;
+    }
+
+    private Decision record(String reason) {
+        metrics.admission(reason != null ? reason : "admitted");
+        return reason == null ? Decision.ADMITTED : new Decision(false, reason);
+    }
+
+    // 직전 표본 이후의 중계 CPU 비율과 egress bytes/s
+    void sample(long nowNanos) {
+        long cpu = relayCpuNanos.getAsLong();
+        double egress = egressBytes.getAsDouble();
+        long elapsed = nowNanos - lastNanos;
+        if (lastNanos != 0 && elapsed > 0) {
+            relayCpu = (double) (cpu - lastCpuNanos) / elapsed / cores;
+            egressPerSec = (egress - lastEgressBytes) * TimeUnit.SECONDS.toNanos(1) / elapsed;
+        }
+        lastNanos = nowNanos;
+        lastCpuNanos = cpu;
+        lastEgressBytes = egress;
+    }
+
+    public String getRedirectUrl() {
+        return redirectUrl;
+    }
+
+    /** 현재 부하와 예산 (GET /call/admission) */
+    public Map<String, Object> status() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("enabled", enabled);
+        status.put("relayCpu", Math.round(relayCpu * 1000) / 1000.0);
+        status.put("maxRelayCpu", maxRelayCpu);
+        status.put("egressBytesPerSec", Math.round(egressPerSec));
+        status.put("maxEgressBytesPerSec", maxEgressBytesPerSec);
+        status.put("sockets", sockets.getAsInt());
+        status.put("maxSockets", maxSockets);
+        status.put("maxRoomParticipants", maxRoomParticipants);
+        String over = overBudget();
+        status.put("accepting", over == null);
+        if (over != null) status.put("reason", over);
+        return status;
+    }
+
+    /**
+     * 중계 스레드의 누적 CPU 시간. 스레드마다 직전 값과의 차이만 더하므로 끝난 스레드가 빠져도 줄지 않는다.
+     * sampler 스레드에서만 부른다.
+     */
+    static final class RelayThreadCpu implements LongSupplier {
+        private final ThreadMXBean threads;
+        private Map<Long, Long> previous = new HashMap<>();
+        private long total;
+
+        RelayThreadCpu(ThreadMXBean threads) {
+            this.threads = threads;
+        }
+
+        static boolean isRelayThread(String name) {
+            return name.startsWith("room-loop-") || name.startsWith("voip-");
+        }
+
+        @Override
+        public long getAsLong() {
+            if (!threads.isThreadCpuTimeSupported() || !threads.isThreadCpuTimeEnabled()) return 0;
+            Map<Long, Long> current = new HashMap<>();
+            for (ThreadInfo info : threads.getThreadInfo(threads.getAllThreadIds(), 0)) {
+                if (info == null || !isRelayThread(info.getThreadName())) continue;
+                long cpu = threads.getThreadCpuTime(info.getThreadId());
+                if (cpu < 0) continue;
+                current.put(info.getThreadId(), cpu);
+                total += Math.max(cpu - previous.getOrDefault(info.getThreadId(), 0L), 0);
+            }
+            previous = current;
+            return total;
+        }
+    }
+}
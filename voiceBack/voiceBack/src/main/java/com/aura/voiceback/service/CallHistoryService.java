@@ -0,0 +1,154 @@
+package com.aura.voiceback.service;
+
+import com.aura.voiceback.dto.CallEventResponse;
+import com.aura.voiceback.entity.CallEvent;
+import com.aura.voiceback.entity.CallSession;
+import com.aura.voiceback.repository.CallEventRepository;
+import com.aura.voiceback.repository.CallSessionRepository;
+import com.aura.voiceback.util.WriteBehindBuffer;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * 통화 이력 기록.
+ *  - 1:1 통화: call_session 한 행 (시작 시 INSERT, 종료 시 ended_at / duration_ms UPDATE)
+ *  - 통화방 참가/퇴장: call_event 행
+ * 요청 스레드에서는 버퍼에 넣기만 하고, 실제 쓰기는 JDBC 배치로 모아서 수행한다.
+ */
+@Service
+public class CallHistoryService {
+
+    private static final String INSERT_EVENT_SQL =
+            "INSERT INTO call_event (call_id, event_type, user_id, peer_id, event_time, duration_ms) VALUES (?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_SESSION_SQL =
+            "INSERT INTO call_session (session_id, user_a, user_b, started_at) VALUES (?, ?, ?, ?)";
+    private static final String END_SESSION_SQL =
+            "UPDATE call_session SET ended_at = ?, duration_ms = ? WHERE session_id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final CallEventRepository callEventRepository;
+    private final CallSessionRepository callSessionRepository;
+    // CALL_START / CALL_END 는 call_session 으로, ROOM_* 는 call_event 로 간다
+    private final WriteBehindBuffer<CallEvent> buffer;
+
+    public CallHistoryService(JdbcTemplate jdbcTemplate,
+                              CallEventRepository callEventRepository,
+                              CallSessionRepository callSessionRepository,
+                              @Value("${call.history.queue-capacity:10000}") int queueCapacity,
+                              @Value("${call.history.batch-size:100}") int batchSize,
+                              @Value("${call.history.flush-interval-ms:1000}") long flushIntervalMs) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.callEventRepository = callEventRepository;
+        this.callSessionRepository = callSessionRepository;
+        this.buffer = new WriteBehindBuffer<>("call-history", queueCapacity, batchSize, flushIntervalMs, this::insertBatch);
+    }
+
+    public void recordCallStart(String sessionId, String callerId, String calleeId) {
+        buffer.offer(event(sessionId, CallEvent.Type.CALL_START, callerId, calleeId, LocalDateTime.now(), null));
+    }
+
+    public void recordCallEnd(String sessionId, String callerId, String calleeId, long durationMs) {
+        buffer.offer(event(sessionId, CallEvent.Type.CALL_END, callerId, calleeId, LocalDateTime.now(), durationMs));
+    }
+
+    public void recordRoomJoin(String roomId, String userId) {
+        buffer.offer(event(roomId, CallEvent.Type.ROOM_JOIN, userId, null, LocalDateTime.now(), null));
+    }
+
+    public void recordRoomLeave(String roomId, String userId, Long durationMs) {
+        buffer.offer(event(roomId, CallEvent.Type.ROOM_LEAVE, userId, null, LocalDateTime.now(), durationMs));
+    }
+
+    /**
+     * 사용자별 최신 이력 (1:1 통화는 CALL 한 건, 통화방은 ROOM_JOIN / ROOM_LEAVE).
+     * 아직 flush 되지 않은 이벤트는 다음 flush 후 보인다
+     */
+    public List<CallEventResponse> getHistory(String userId, int limit) {
+        PageRequest page = PageRequest.of(0, limit);
+        List<CallEventResponse> history = new ArrayList<>();
+        for (CallSession s : callSessionRepository.findByUserAOrUserBOrderByStartedAtDesc(userId, userId, page)) {
+            String peer = userId.equals(s.getUserA()) ? s.getUserB() : s.getUserA();
+            history.add(new CallEventResponse(s.getSessionId(), "CALL", peer, s.getStartedAt(), s.getDurationMs()));
+        }
+        for (CallEvent e : callEventRepository.findByUserIdOrderByEventTimeDesc(userId, page)) {
+            history.add(new CallEventResponse(e.getCallId(), e.getEventType().name(), e.getPeerId(),
+                    e.getEventTime(), e.getDurationMs()));
+        }
+        history.sort(Comparator.comparing(CallEventResponse::getEventTime).reversed());
+        return history.size() > limit ? new ArrayList<>(history.subList(0, limit)) : history;
+    }
+
+    /** 끝난 통화의 참가자였는지 (1:1 은 call_session 양쪽, 통화방은 call_event). 아직 flush 전이면 false */
+    public boolean wasParticipant(String callId, String userId) {
+        boolean inSession = callSessionRepository.findById(callId)
+                .map(s -> userId.equals(s.getUserA()) || userId.equals(s.getUserB()))
+                .orElse(false);
+        return inSession || callEventRepository.existsByCallIdAndUserId(callId, userId);
+    }
+
+    private CallEvent event(String callId, CallEvent.Type type, String userId, String peerId,
+                            LocalDateTime time, Long durationMs) {
+        return CallEvent.builder()
+                .callId(callId)
+                .eventType(type)
+                .userId(userId)
+                .peerId(peerId)
+                .eventTime(time)
+                .durationMs(durationMs)
+                .build();
+    }
+
+    // 같은 배치 안에서도 통화 INSERT 가 종료 UPDATE 보다 먼저 (큐 순서상 시작이 종료보다 앞선다)
+    private void insertBatch(List<CallEvent> events) {
+        List<CallEvent> starts = new ArrayList<>();
+        List<CallEvent> ends = new ArrayList<>();
+        List<CallEvent> rooms = new ArrayList<>();
+        for (CallEvent e : events) {
+            switch (e.getEventType()) {
+                case CALL_START -> starts.add(e);
+                case CALL_END -> ends.add(e);
+                default -> rooms.add(e);
+            }
+        }
+        if (!starts.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_SESSION_SQL, starts, starts.size(), (ps, e) -> {
+                ps.setString(1, e.getCallId());
+                ps.setString(2, e.getUserId());
+                ps.setString(3, e.getPeerId());
+                ps.setTimestamp(4, Timestamp.valueOf(e.getEventTime()));
+            });
+        }
+        if (!ends.isEmpty()) {
+            jdbcTemplate.batchUpdate(END_SESSION_SQL, ends, ends.size(), (ps, e) -> {
+                ps.setTimestamp(1, Timestamp.valueOf(e.getEventTime()));
+                ps.setLong(2, e.getDurationMs());
+                ps.setString(3, e.getCallId());
+            });
+        }
+        if (rooms.isEmpty()) return;
+        jdbcTemplate.batchUpdate(INSERT_EVENT_SQL, rooms, rooms.size(), (ps, e) -> {
+            ps.setString(1, e.getCallId());
+            ps.setString(2, e.getEventType().name());
+            ps.setString(3, e.getUserId());
+            ps.setString(4, e.getPeerId());
+            ps.setTimestamp(5, Timestamp.valueOf(e.getEventTime()));
+            if (e.getDurationMs() != null) ps.setLong(6, e.getDurationMs());
+            else ps.setNull(6, Types.BIGINT);
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        buffer.close(); // 남은 이벤트 flush
+    }
+}
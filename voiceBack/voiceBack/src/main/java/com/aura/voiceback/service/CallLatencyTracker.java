@@ -0,0 +1,171 @@
+package com.aura.voiceback.service;
+
+import com.aura.voiceback.dto.PlayoutReport;
+import com.aura.voiceback.util.LatencyHistogram;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 통화(방)별 입-귀(mouth-to-ear) 지연 / 손실 집계.
+ * 구간별로 나눠 어디서 지연이 생기는지 본다:
+ *   uplink     : 발신 캡처 -> 서버 수신 (클라이언트 버퍼 + 네트워크, 클라이언트 시계 기준)
+ *   relay      : 서버 수신 -> 수신자별 송신 (서버 내부, 정확)
+ *   downlink   : 서버 송신 -> 수신 클라이언트 재생 (네트워크 + 재생 버퍼)
+ *   mouthToEar : 발신 캡처 -> 수신 재생
+ * uplink/downlink/mouthToEar 는 서로 다른 시계를 비교하므로 클라이언트 시계가 NTP 로 맞춰져 있다고 가정한다.
+ * 손실은 발신 스트림의 seq 누락을 50 프레임 창 단위로 기록해 분위수로 보여준다.
+ */
+@Service
+public class CallLatencyTracker {
+
+    private static final long MAX_MICROS = 10_000_000L; // 10초
+    private static final int LOSS_WINDOW = 50;          // 20ms 프레임 기준 1초
+
+    private final Map<String, CallTrace> active = new ConcurrentHashMap<>();
+    private final Map<String, CallTrace> completed;
+
+    public CallLatencyTracker(@Value("${voip.trace.completed-retention:200}") int retention) {
+        this.completed = Collections.synchronizedMap(new LinkedHashMap<>() {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CallTrace> eldest) {
+                return size() > retention;
+            }
+        });
+    }
+
+    // 집계는 여기서만 열린다. 방 루프에서 방이 열려 있을 때만 부를 것 (complete 뒤에 부르면 다시 열려 남는다)
+    public void onIngress(String roomId, int streamId, long seq, long captureTs, long ingressTs) {
+        CallTrace trace = trace(roomId);
+        trace.uplink.record((ingressTs - captureTs) * 1000);
+        trace.streams.computeIfAbsent(streamId, id -> new StreamStats()).onSeq(seq, trace.lossWindow);
+    }
+
+    // 송신 쪽은 이미 열린 집계에만 더한다 (방이 닫힌 뒤 flush 된 묶음이 닫힌 방의 집계를 되살리지 않게)
+    public void onRelay(String roomId, long residencyNanos) {
+        CallTrace trace = active.get(roomId);
+        if (trace != null) trace.relay.record(residencyNanos / 1000);
+    }
+
+    public void onRelayDrop(String roomId) {
+        CallTrace trace = active.get(roomId);
+        if (trace != null) trace.relayDrops.incrementAndGet();
+    }
+
+    /**
+     * 추적하지 않은 발신자(trace=1 아님)의 프레임은 captureTs 가 없거나(0) 서버 수신 시각이라
+     * 입-귀 지연으로 볼 수 없으니 건너뛴다.
+     */
+    public void onPlayout(String roomId, PlayoutReport report) {
+        CallTrace trace = active.get(roomId);
+        if (trace == null || report.getCaptureTs() <= 0 || !trace.streams.containsKey(report.getStreamId())) return;
+        trace.playoutReports.incrementAndGet();
+        trace.mouthToEar.record((report.getPlayoutTs() - report.getCaptureTs()) * 1000);
+        if (report.getRelayEgressTs() != null && report.getRelayEgressTs() > 0) {
+            trace.downlink.record((report.getPlayoutTs() - report.getRelayEgressTs()) * 1000);
+        }
+    }
+
+    // 방의 마지막 연결이 끊기면 호출 - 보고서는 completed 에 보관
+    public void complete(String roomId) {
+        CallTrace trace = active.remove(roomId);
+        if (trace != null) {
+            completed.put(roomId, trace);
+        }
+    }
+
+    public Map<String, Object> report(String roomId) {
+        CallTrace trace = active.get(roomId);
+        boolean live = trace != null;
+        if (trace == null) trace = completed.get(roomId);
+        if (trace == null) return null;
+
+        long received = 0, lost = 0, reordered = 0;
+        List<Map<String, Object>> streams = new ArrayList<>();
+        for (Map.Entry<Integer, StreamStats> e : trace.streams.entrySet()) {
+            StreamStats s = e.getValue();
+            synchronized (s) {
+                received += s.received;
+                lost += s.lost;
+                reordered += s.reordered;
+                streams.add(Map.of("streamId", e.getKey(), "received", s.received, "lost", s.lost));
+            }
+        }
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("roomId", roomId);
+        report.put("active", live);
+        report.put("framesReceived", received);
+        report.put("framesLost", lost);
+        report.put("lossPct", received + lost == 0 ? 0.0 : lost * 100.0 / (received + lost));
+        report.put("reordered", reordered);
+        report.put("relayDrops", trace.relayDrops.get());
+        report.put("playoutReports", trace.playoutReports.get());
+        report.put("uplinkMs", millis(trace.uplink));
+        report.put("relayMs", millis(trace.relay));
+        report.put("downlinkMs", millis(trace.downlink));
+        report.put("mouthToEarMs", millis(trace.mouthToEar));
+        report.put("lossWindowPct", Map.of(
+                "p50", trace.lossWindow.percentile(50) / 100.0,
+                "p95", trace.lossWindow.percentile(95) / 100.0,
+                "p99", trace.lossWindow.percentile(99) / 100.0));
+        report.put("streams", streams);
+        return report;
+    }
+
+    private CallTrace trace(String roomId) {
+        CallTrace trace = active.get(roomId);
+        return trace != null ? trace : active.computeIfAbsent(roomId, id -> new CallTrace());
+    }
+
+    private static Map<String, Object> millis(LatencyHistogram h) {
+        return Map.of(
+                "count", h.getCount(),
+                "p50", h.percentile(50) / 1000.0,
+                "p95", h.percentile(95) / 1000.0,
+                "p99", h.percentile(99) / 1000.0,
+                "max", h.getMax() / 1000.0);
+    }
+
+    private static final class CallTrace {
+        final LatencyHistogram uplink = new LatencyHistogram(MAX_MICROS);
+        final LatencyHistogram relay = new LatencyHistogram(MAX_MICROS);
+        final LatencyHistogram downlink = new LatencyHistogram(MAX_MICROS);
+        final LatencyHistogram mouthToEar = new LatencyHistogram(MAX_MICROS);
+        final LatencyHistogram lossWindow = new LatencyHistogram(10_000); // basis points
+        final Map<Integer, StreamStats> streams = new ConcurrentHashMap<>();
+        final AtomicLong relayDrops = new AtomicLong();
+        final AtomicLong playoutReports = new AtomicLong();
+    }
+
+    // 발신 스트림별 seq 추적 (한 세션의 메시지는 순차 처리되지만 report() 와의 가시성 때문에 synchronized)
+    private static final class StreamStats {
+        long lastSeq = -1;
+        long received;
+        long lost;
+        long reordered;
+        int windowExpected;
+        int windowLost;
+
+        synchronized void onSeq(long seq, LatencyHistogram lossWindow) {
+            received++;
+            if (lastSeq >= 0 && seq <= lastSeq) {
+                reordered++;
+                return;
+            }
+            long gap = lastSeq < 0 ? 0 : seq - lastSeq - 1;
+            lastSeq = seq;
+            lost += gap;
+            windowLost += (int) Math.min(gap, LOSS_WINDOW);
+            windowExpected += (int) Math.min(gap, LOSS_WINDOW) + 1;
+            if (windowExpected >= LOSS_WINDOW) {
+                lossWindow.record(windowLost * 10_000L / windowExpected);
+                windowExpected = 0;
+                windowLost = 0;
+            }
+        }
+    }
+}
@@ -1,17 +1,25 @@
 package com.aura.voiceback.service;
 
+import com.aura.voiceback.dto.DrainSnapshot;
 import org.springframework.stereotype.Service;
 
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.IntPredicate;
 
 @Service
 public class CallSessionManager {
 
     // sessionId -> callerId, calleeId
     private final Map<String, CallSession> sessions = new ConcurrentHashMap<>();
-    // 방 정보 저장
-    private final Map<String, Room> rooms = new HashMap<>();
+    // 방 정보 저장. 변경(생성/참가/퇴장/삭제)은 그 방의 이벤트 루프에서만, 조회는 아무 스레드에서나
+    private final Map<String, Room> rooms = new ConcurrentHashMap<>();
+
+    private final RoomEventLoops eventLoops;
+
+    public CallSessionManager(RoomEventLoops eventLoops) {
+        this.eventLoops = eventLoops;
+    }
 
     public String createSession(String callerId, String calleeId) {
         String sessionId = UUID.randomUUID().toString();
@@ -19,30 +27,53 @@ public class CallSessionManager {
         return sessionId;
     }
 
-    public void endSession(String sessionId) {
-        sessions.remove(sessionId);
+    // 종료된 세션 반환 (없으면 null)
+    public CallSession endSession(String sessionId) {
+        return sessions.remove(sessionId);
     }
 
     public CallSession getSession(String sessionId) {
         return sessions.get(sessionId);
     }
 
+    // 지금 진행 중인 1:1 통화(sessionId)의 발신/수신자이거나 방(roomId)에 들어와 있는 사용자인지
+    public boolean isParticipant(String callId, String userId) {
+        if (callId == null || userId == null) return false;
+        CallSession session = sessions.get(callId);
+        if (session != null) return session.isParticipant(userId);
+        Room room = rooms.get(callId);
+        return room != null && room.getParticipants().contains(userId);
+    }
+
     public static class CallSession {
         public final String callerId;
         public final String calleeId;
+        public final long startedAt;
 
         public CallSession(String callerId, String calleeId) {
+            this(callerId, calleeId, System.currentTimeMillis());
+        }
+
+        // 드레인 스냅샷에서 옮겨 온 통화는 원래 시작 시각을 유지
+        public CallSession(String callerId, String calleeId, long startedAt) {
             this.callerId = callerId;
             this.calleeId = calleeId;
+            this.startedAt = startedAt;
+        }
+
+        public boolean isParticipant(String userId) {
+            return userId.equals(callerId) || userId.equals(calleeId);
         }
     }
 
     public String createRoom(String creatorId, String roomName) {
         String roomId = UUID.randomUUID().toString();
-        Room room = new Room(roomId, roomName, new HashSet<>());
-        room.getParticipants().add(creatorId);
-        rooms.put(roomId, room);
-        return roomId;
+        Room room = new Room(roomId, roomName, ConcurrentHashMap.newKeySet());
+        return eventLoops.call(roomId, () -> {
+            room.join(creatorId);
+            rooms.put(roomId, room);
+            return roomId;
+        });
     }
 
     public List<Map<String, Object>> listRooms() {
@@ -57,17 +88,34 @@ public class CallSessionManager {
         return list;
     }
 
-    public boolean joinRoom(String userId, String roomId) {
-        Room room = rooms.get(roomId);
-        if (room == null) return false;
-        room.getParticipants().add(userId);
-        return true;
+    /** 참가 결과. 이미 참가 중인지 확인과 추가를 방 루프에서 한 번에 하므로 동시 요청도 JOINED 는 한 번만 */
+    public enum JoinResult { JOINED, ALREADY_JOINED, NOT_FOUND, FULL }
+
+    public JoinResult joinRoom(String userId, String roomId) {
+        return joinRoom(userId, roomId, participants -> true);
+    }
+
+    /**
+     * admit 은 새로 들어오는 경우에만 현재 참가자 수로 방 루프에서 불린다. 확인과 추가 사이에 다른 참가가 끼어들지 않으므로
+     * 동시에 들어와도 한도를 넘지 않는다. false 면 FULL
+     */
+    public JoinResult joinRoom(String userId, String roomId, IntPredicate admit) {
+        return eventLoops.call(roomId, () -> {
+            Room room = rooms.get(roomId);
+            if (room == null) return JoinResult.NOT_FOUND;
+            if (room.getParticipants().contains(userId)) return JoinResult.ALREADY_JOINED;
+            if (!admit.test(room.getParticipants().size())) return JoinResult.FULL;
+            room.join(userId);
+            return JoinResult.JOINED;
+        });
     }
 
     public static class Room {
         private final String id;
         private final String name;
         private final Set<String> participants;
+        // userId -> 참가 시각 (퇴장 시 통화 시간 계산용)
+        private final Map<String, Long> joinedAt = new ConcurrentHashMap<>();
 
         public Room(String id, String name, Set<String> participants) {
             this.id = id;
@@ -75,23 +123,46 @@ public class CallSessionManager {
             this.participants = participants;
         }
 
+        void join(String userId) {
+            join(userId, System.currentTimeMillis());
+        }
+
+        void join(String userId, long at) {
+            joinedAt.putIfAbsent(userId, at);
+            participants.add(userId);
+        }
+
+        Long leave(String userId) {
+            participants.remove(userId);
+            return joinedAt.remove(userId);
+        }
+
         public String getId() { return id; }
         public String getName() { return name; }
         public Set<String> getParticipants() { return participants; }
+        public Long getJoinedAt(String userId) { return joinedAt.get(userId); }
     }
 
-    public boolean leaveRoom(String userId, String roomId) {
-        Room room = rooms.get(roomId);
-        if (room == null) return false;
+    /**
+     * 퇴장 결과. joinedAt 은 이 호출에서 실제로 나간 경우에만 (참가 중이 아니었으면 null)
+     * roomExists 가 false 면 방이 없었거나 마지막 참가자가 나가 삭제됨
+     */
+    public record LeaveResult(boolean roomExists, Long joinedAt) {}
 
-        room.getParticipants().remove(userId);
+    public LeaveResult leaveRoom(String userId, String roomId) {
+        return eventLoops.call(roomId, () -> {
+            Room room = rooms.get(roomId);
+            if (room == null) return new LeaveResult(false, null);
 
-        if (room.getParticipants().isEmpty()) {
-            rooms.remove(roomId);
-            return false; // 방 삭제됨
-        }
+            Long joinedAt = room.leave(userId);
+
+            if (room.getParticipants().isEmpty()) {
+                rooms.remove(roomId, room);
+                return new LeaveResult(false, joinedAt); // 방 삭제됨
+            }
 
-        return true; // 방은 여전히 존재
+            return new LeaveResult(true, joinedAt); // 방은 여전히 존재
+        });
     }
 
     public Room getRoom(String roomId) {
@@ -102,4 +173,44 @@ public class CallSessionManager {
     public List<Room> getAllRooms() {
         return new ArrayList<>(rooms.values());
     }
+
+    // 드레인: 방 / 1:1 통화 상태를 스냅샷으로 (조회만 하므로 방 루프를 거치지 않는다)
+    public void exportTo(DrainSnapshot snapshot) {
+        for (Room room : rooms.values()) {
+            DrainSnapshot.RoomState state = new DrainSnapshot.RoomState();
+            state.setId(room.getId());
+            state.setName(room.getName());
+            Map<String, Long> members = new HashMap<>();
+            for (String userId : room.getParticipants()) {
+                Long at = room.getJoinedAt(userId);
+                members.put(userId, at != null ? at : snapshot.getCreatedAt());
+            }
+            state.setMembers(members);
+            snapshot.getRooms().add(state);
+        }
+        sessions.forEach((id, call) -> {
+            DrainSnapshot.CallState state = new DrainSnapshot.CallState();
+            state.setId(id);
+            state.setCallerId(call.callerId);
+            state.setCalleeId(call.calleeId);
+            state.setStartedAt(call.startedAt);
+            snapshot.getCalls().add(state);
+        });
+    }
+
+    // 드레인한 노드의 스냅샷을 이어받는다. 같은 방이 이미 있으면 참가자만 합친다
+    public void importFrom(DrainSnapshot snapshot) {
+        for (DrainSnapshot.CallState call : snapshot.getCalls()) {
+            sessions.putIfAbsent(call.getId(), new CallSession(call.getCallerId(), call.getCalleeId(), call.getStartedAt()));
+        }
+        for (DrainSnapshot.RoomState state : snapshot.getRooms()) {
+            if (state.getMembers() == null || state.getMembers().isEmpty()) continue;
+            eventLoops.call(state.getId(), () -> {
+                Room room = rooms.computeIfAbsent(state.getId(),
+                        id -> new Room(id, state.getName(), ConcurrentHashMap.newKeySet()));
+                state.getMembers().forEach(room::join);
+                return null;
+            });
+        }
+    }
 }
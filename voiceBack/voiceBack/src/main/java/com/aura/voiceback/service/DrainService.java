@@ -0,0 +1,192 @@
+package com.aura.voiceback.service;
+
+import com.aura.voiceback.dto.DrainSnapshot;
+import com.aura.voiceback.util.JsonUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 롤링 배포용 드레인. POST /call/drain {"peer":"http://다음 노드"} 를 받으면
+ *  1. 새 방 / 1:1 통화를 받지 않고(503 + peer) readiness 를 REFUSING_TRAFFIC 로 바꿔 로드밸런서에서 빠진다.
+ *  2. 방 참가자(CallSessionManager)와 /ws/voip 재접속 토큰을 스냅샷으로 만들어 다음 노드의 POST /call/drain/import 로 보낸다
+ *     (snapshot-path 가 있으면 파일로도 쓴다).
+ *  3. proto=2 연결에 CONTROL {"type":"migrate","url":..,"token":..} 를 보내고 close-delay-ms 뒤 모든 연결을 1012 로 닫는다.
+ *     클라이언트가 url?resume=<token> 으로 다시 붙으면 다음 노드가 같은 방에 넣는다 (SessionResumption).
+ * 스냅샷 파일이 시작 시 있으면 트래픽을 받기 전에 읽어 들이고 지운다 (같은 호스트에서 내렸다 올리는 배포).
+ * /call/** 는 인증 없이 열려 있으므로 드레인 / 가져오기는 X-Drain-Secret 헤더가 secret 과 맞을 때만 받는다.
+ * secret 을 설정하지 않으면 둘 다 거절한다 (프록시 뒤에서는 원격 주소가 loopback 으로 보일 수 있어 주소로는 믿지 않는다).
+ */
+@Slf4j
+@Service
+@Order(Ordered.HIGHEST_PRECEDENCE) // 워밍업(StartupWarmUp)보다 먼저 스냅샷을 읽는다
+public class DrainService implements ApplicationRunner {
+
+    public static final String SECRET_HEADER = "X-Drain-Secret";
+
+    private final CallSessionManager callSessionManager;
+    private final VoIPService voipService;
+    private final SessionResumption resumption;
+    private final ApplicationEventPublisher events;
+    private final String snapshotPath;
+    private final String secret;
+    private final long closeDelayMs;
+    private final HttpClient client;
+    private volatile boolean draining;
+    private volatile String peer;
+
+    public DrainService(CallSessionManager callSessionManager,
+                        VoIPService voipService,
+                        SessionResumption resumption,
+                        ApplicationEventPublisher events,
+                        @Value("${voip.drain.snapshot-path:}") String snapshotPath,
+                        @Value("${voip.drain.secret:}") String secret,
+                        @Value("${voip.drain.close-delay-ms:2000}") long closeDelayMs,
+                        @Value("${voip.drain.timeout-ms:3000}") long timeoutMs) {
+        this.callSessionManager = callSessionManager;
+        this.voipService = voipService;
+        this.resumption = resumption;
+        this.events = events;
+        this.snapshotPath = snapshotPath;
+        this.secret = secret;
+        this.closeDelayMs = closeDelayMs;
+        this.client = HttpClient.newBuilder().connectTimeout(Duration.ofMillis(timeoutMs)).build();
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        if (snapshotPath.isBlank()) return;
+        Path path = Path.of(snapshotPath);
+        if (!Files.exists(path)) return;
+        DrainSnapshot snapshot = JsonUtil.fromJson(Files.readString(path), DrainSnapshot.class);
+        Map<String, Object> loaded = load(snapshot);
+        Files.move(path, path.resolveSibling(path.getFileName() + ".loaded"), StandardCopyOption.REPLACE_EXISTING);
+        log.info("drain snapshot {} loaded: {}", path, loaded);
+    }
+
+    public boolean isDraining() {
+        return draining;
+    }
+
+    public String getPeer() {
+        return peer;
+    }
+
+    /** 드레인 / 가져오기 요청을 받아도 되는지 */
+    public boolean isAuthorized(String secretHeader) {
+        if (secret.isBlank() || secretHeader == null) return false;
+        return MessageDigest.isEqual(
+                secret.getBytes(StandardCharsets.UTF_8), secretHeader.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @param peerUrl 다음 노드 http 주소 (예: http://10.0.0.7:8080). 없으면 스냅샷만 만든다
+     * @param wsUrl   클라이언트가 다시 붙을 주소. 없으면 peerUrl 에서 만든다 (ws://.../ws/voip)
+     */
+    public synchronized Map<String, Object> drain(String peerUrl, String wsUrl) {
+        String target = wsUrl != null && !wsUrl.isBlank() ? wsUrl : toWsUrl(peerUrl);
+        this.peer = target;
+        if (!draining) {
+            draining = true;
+            AvailabilityChangeEvent.publish(events, this, ReadinessState.REFUSING_TRAFFIC);
+        }
+        DrainSnapshot snapshot = snapshot();
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("rooms", snapshot.getRooms().size());
+        result.put("calls", snapshot.getCalls().size());
+        result.put("tokens", snapshot.getResume().size());
+        result.put("written", write(snapshot));
+        boolean imported = peerUrl != null && !peerUrl.isBlank() && push(peerUrl, snapshot);
+        result.put("imported", imported);
+        // 다음 노드가 토큰을 모르면 옮겨 가도 새 연결이 되므로, 넘기지 못했으면 클라이언트에 주소만 알리지 않는다
+        result.put("notified", voipService.migrate(imported ? target : null, closeDelayMs));
+        result.put("peer", target);
+        log.info("drained: {}", result);
+        return result;
+    }
+
+    public DrainSnapshot snapshot() {
+        DrainSnapshot snapshot = new DrainSnapshot();
+        snapshot.setCreatedAt(System.currentTimeMillis());
+        callSessionManager.exportTo(snapshot);
+        voipService.exportTo(snapshot);
+        return snapshot;
+    }
+
+    public Map<String, Object> load(DrainSnapshot snapshot) {
+        if (snapshot.getVersion() != DrainSnapshot.VERSION) {
+            throw new IllegalStateException("unsupported drain snapshot version " + snapshot.getVersion());
+        }
+        callSessionManager.importFrom(snapshot);
+        int tokens = 0;
+        if (resumption.isEnabled()) {
+            for (DrainSnapshot.ResumeState state : snapshot.getResume()) {
+                resumption.importToken(state.getToken(), state.getRoomId(), state.getUserId());
+                tokens++;
+            }
+        }
+        return Map.of("rooms", snapshot.getRooms().size(), "calls", snapshot.getCalls().size(), "tokens", tokens);
+    }
+
+    private boolean write(DrainSnapshot snapshot) {
+        if (snapshotPath.isBlank()) return false;
+        try {
+            Path path = Path.of(snapshotPath);
+            Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+            Files.writeString(tmp, JsonUtil.toJson(snapshot));
+            Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            return true;
+        } catch (Exception e) {
+            log.warn("drain snapshot write to {} failed: {}", snapshotPath, e.toString());
+            return false;
+        }
+    }
+
+    private boolean push(String peerUrl, DrainSnapshot snapshot) {
+        try {
+            HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(strip(peerUrl) + "/call/drain/import"))
+                    .timeout(client.connectTimeout().orElse(Duration.ofSeconds(3)))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(JsonUtil.toJson(snapshot)));
+            if (!secret.isBlank()) request.header(SECRET_HEADER, secret);
+            HttpResponse<String> response = client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() / 100 == 2) return true;
+            log.warn("drain snapshot push to {} failed: {} {}", peerUrl, response.statusCode(), response.body());
+        } catch (Exception e) {
+            log.warn("drain snapshot push to {} failed: {}", peerUrl, e.toString());
+        }
+        return false;
+    }
+
+    private static String toWsUrl(String peerUrl) {
+        if (peerUrl == null || peerUrl.isBlank()) return null;
+        String base = strip(peerUrl);
+        if (base.startsWith("https://")) return "wss://" + base.substring(8) + "/ws/voip";
+        if (base.startsWith("http://")) return "ws://" + base.substring(7) + "/ws/voip";
+        return base + "/ws/voip";
+    }
+
+    private static String strip(String url) {
+        return url.endsWith("/") ? url.substring(0, url.length() - 1) : url;
+    }
+}
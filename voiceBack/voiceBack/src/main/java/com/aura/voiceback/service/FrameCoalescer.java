@@ -0,0 +1,96 @@
+package com.aura.voiceback.service;
+
+import com.aura.voiceback.util.BufferPool;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * proto=2 수신자의 송신 대기열 프레임을 WebSocket 메시지 하나로 이어 붙이는 정책 (v2 프레임은 이어 붙여도 파싱된다).
+ *  - 대기열에 프레임이 2개 이상 쌓여 있으면 기다리지 않고 max-frames / max-bytes 까지 한 메시지로 보낸다
+ *    (메시지마다 드는 프레이밍 / 시스템 콜 / TCP 세그먼트를 줄여 밀린 대기열을 빨리 비운다).
+ *  - WebSocket ping 으로 잰 RTT 가 rtt-threshold-ms 이상이면 프레임이 하나뿐이어도 max-delay-ms 까지 붙잡아
+ *    다음 프레임과 같이 보낸다. 붙잡은 시간이 수신자 통계의 "늘어난 지연"이다.
+ *  - 수신자 StreamProfile 이 메시지당 프레임 여러 개(LOW / MINIMAL)면 그 수가 모일 때까지 붙잡는다
+ *    (늦어도 max-delay-ms x (프레임 수 - 1)). proto=2 의 프레임 묶음은 이 한 곳에서만 한다.
+ * 대기열 / RTT 는 PeerConnection 이 갖고, 이 클래스는 설정과 붙잡은 프레임을 깨울 타이머 스레드만 갖는다.
+ */
+@Component
+public class FrameCoalescer {
+
+    private final boolean enabled;
+    private final int maxFrames;
+    private final int maxBytes;
+    private final long maxDelayNanos;
+    private final long rttThresholdNanos;
+    private final long pingIntervalNanos;
+    private final BufferPool bufferPool;
+    private final ScheduledExecutorService timer;
+
+    public FrameCoalescer(BufferPool bufferPool,
+                          @Value("${voip.coalesce.enabled:true}") boolean enabled,
+                          @Value("${voip.coalesce.max-frames:5}") int maxFrames,
+                          @Value("${voip.coalesce.max-bytes:16384}") int maxBytes,
+                          @Value("${voip.coalesce.max-delay-ms:40}") long maxDelayMs,
+                          @Value("${voip.coalesce.rtt-threshold-ms:150}") long rttThresholdMs,
+                          @Value("${voip.coalesce.ping-interval-ms:1000}") long pingIntervalMs) {
+        this.enabled = enabled && maxFrames > 1;
+        this.maxFrames = maxFrames;
+        this.maxBytes = maxBytes;
+        this.maxDelayNanos = TimeUnit.MILLISECONDS.toNanos(maxDelayMs);
+        this.rttThresholdNanos = TimeUnit.MILLISECONDS.toNanos(rttThresholdMs);
+        this.pingIntervalNanos = TimeUnit.MILLISECONDS.toNanos(pingIntervalMs);
+        this.bufferPool = bufferPool;
+        this.timer = this.enabled && maxDelayMs > 0 ? Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "voip-coalesce");
+            t.setDaemon(true);
+            return t;
+        }) : null;
+    }
+
+    // 이어 붙이기를 끈 설정 (테스트 / 벤치마크용)
+    static FrameCoalescer disabled() {
+        return new FrameCoalescer(null, false, 1, 0, 0, 0, 0);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 대기열 맨 앞 프레임을 지금 보내지 않고 더 기다릴지. 한 메시지를 다 채우지 못했을 때만 기다린다.
+     *  - profile 묶음(minFrames > 1)이 덜 모였으면 맨 앞 프레임이 max-delay x (minFrames - 1) 보다 덜 기다린 동안
+     *  - 아니면 RTT 가 기준 이상이고 맨 앞 프레임이 max-delay 보다 덜 기다린 동안
+     */
+    public boolean shouldHold(int queuedFrames, int queuedBytes, long rttNanos, long waitedNanos, int minFrames) {
+        if (timer == null || queuedFrames >= maxFrames || queuedBytes >= maxBytes) return false;
+        if (queuedFrames < minFrames) {
+            return waitedNanos < maxDelayNanos * (minFrames - 1);
+        }
+        return isRttHigh(rttNanos) && waitedNanos < maxDelayNanos;
+    }
+
+    /** 붙잡은 프레임을 늦어도 remainingNanos 뒤에 보내도록 깨운다 */
+    public void wakeAfter(long remainingNanos, Runnable wake) {
+        timer.schedule(wake, Math.max(remainingNanos, 0), TimeUnit.NANOSECONDS);
+    }
+
+    public boolean isRttHigh(long rttNanos) {
+        return timer != null && rttNanos >= rttThresholdNanos;
+    }
+
+    public int getMaxFrames() { return maxFrames; }
+    public int getMaxBytes() { return maxBytes; }
+    public long getMaxDelayNanos() { return maxDelayNanos; }
+    public long getPingIntervalNanos() { return pingIntervalNanos; }
+    public BufferPool getBufferPool() { return bufferPool; }
+
+    @PreDestroy
+    public void shutdown() {
+        if (timer != null) timer.shutdownNow();
+    }
+}
@@ -0,0 +1,58 @@
+package com.aura.voiceback.service;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+/**
+ * verification_code 테이블 인증코드 저장소 (DB.sql). 키당 한 행이라 테이블은 코드를 요청한 계정 수 이상 커지지 않고,
+ * 만료된 행은 VerificationCodeStore 가 주기적으로 지운다.
+ */
+public class JdbcVerificationCodeBackend implements VerificationCodeBackend {
+
+    private static final String UPSERT_SQL =
+            "INSERT INTO verification_code (code_key, code_hash, attempts, expires_at) VALUES (?, ?, 0, ?) "
+                    + "ON DUPLICATE KEY UPDATE code_hash = VALUES(code_hash), attempts = 0, expires_at = VALUES(expires_at)";
+    private static final String ATTEMPT_SQL =
+            "UPDATE verification_code SET attempts = attempts + 1 WHERE code_key = ? AND attempts < ? AND expires_at > ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public JdbcVerificationCodeBackend(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void put(String key, byte[] codeHash, long expiresAtMs) {
+        jdbcTemplate.update(UPSERT_SQL, key, codeHash, expiresAtMs);
+    }
+
+    @Override
+    public Attempt attempt(String key, int maxAttempts, long nowMs) {
+        if (jdbcTemplate.update(ATTEMPT_SQL, key, maxAttempts, nowMs) == 1) {
+            List<byte[]> hash = jdbcTemplate.query("SELECT code_hash FROM verification_code WHERE code_key = ?",
+                    (rs, i) -> rs.getBytes(1), key);
+            return hash.isEmpty() ? null : new Attempt(hash.get(0), false);
+        }
+        // 갱신 안 됨: 없거나, 만료되었거나, 시도 초과
+        List<Long> expiresAt = jdbcTemplate.query("SELECT expires_at FROM verification_code WHERE code_key = ?",
+                (rs, i) -> rs.getLong(1), key);
+        return expiresAt.isEmpty() || expiresAt.get(0) <= nowMs ? null : new Attempt(null, true);
+    }
+
+    @Override
+    public boolean remove(String key, byte[] codeHash) {
+        return jdbcTemplate.update("DELETE FROM verification_code WHERE code_key = ? AND code_hash = ?", key, codeHash) == 1;
+    }
+
+    @Override
+    public int expire(long nowMs) {
+        return jdbcTemplate.update("DELETE FROM verification_code WHERE expires_at <= ?", nowMs);
+    }
+
+    @Override
+    public long size() {
+        Long count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM verification_code", Long.class);
+        return count == null ? 0 : count;
+    }
+}
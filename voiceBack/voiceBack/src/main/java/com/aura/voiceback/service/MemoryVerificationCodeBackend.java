@@ -0,0 +1,88 @@
+package com.aura.voiceback.service;
+
+import com.aura.voiceback.util.TimerWheel;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 메모리 인증코드 저장소. 만료는 TimerWheel 로 지우고, maxEntries 를 넘으면 가장 먼저 발급된 코드부터 버린다.
+ * 재설정 요청이 쏟아져도 maxEntries 개 이상은 들고 있지 않는다. 호출 빈도가 낮아 lock 하나로 충분하다.
+ */
+public class MemoryVerificationCodeBackend implements VerificationCodeBackend {
+
+    private final int maxEntries;
+    private final Map<String, Entry> entries = new LinkedHashMap<>(); // 발급 순서
+    private final TimerWheel<String> wheel;
+    private long evictions;
+
+    public MemoryVerificationCodeBackend(int maxEntries, long tickMs, long ttlMs, long nowMs) {
+        this.maxEntries = maxEntries;
+        // 휠 한 바퀴가 TTL 을 덮게 해서 칸을 두 번 이상 건너뛰는 타이머가 없게 한다
+        this.wheel = new TimerWheel<>(tickMs, (int) Math.min(1 << 16, ttlMs / tickMs + 1), nowMs);
+    }
+
+    @Override
+    public synchronized void put(String key, byte[] codeHash, long expiresAtMs) {
+        Entry old = entries.remove(key);
+        if (old != null) {
+            wheel.cancel(old.timeout);
+        }
+        while (entries.size() >= maxEntries) {
+            Iterator<Entry> it = entries.values().iterator();
+            wheel.cancel(it.next().timeout);
+            it.remove();
+            evictions++;
+        }
+        entries.put(key, new Entry(codeHash, expiresAtMs, wheel.schedule(key, expiresAtMs)));
+    }
+
+    @Override
+    public synchronized Attempt attempt(String key, int maxAttempts, long nowMs) {
+        Entry entry = entries.get(key);
+        if (entry == null || entry.expiresAtMs <= nowMs) return null;
+        if (entry.attempts >= maxAttempts) return new Attempt(null, true);
+        entry.attempts++;
+        return new Attempt(entry.codeHash, false);
+    }
+
+    @Override
+    public synchronized boolean remove(String key, byte[] codeHash) {
+        Entry entry = entries.get(key);
+        if (entry == null || !Arrays.equals(entry.codeHash, codeHash)) {
+            return false;
+        }
+        entries.remove(key);
+        wheel.cancel(entry.timeout);
+        return true;
+    }
+
+    @Override
+    public synchronized int expire(long nowMs) {
+        return wheel.advance(nowMs, entries::remove);
+    }
+
+    @Override
+    public synchronized long size() {
+        return entries.size();
+    }
+
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+
+    private static final class Entry {
+        final byte[] codeHash;
+        final long expiresAtMs;
+        final TimerWheel.Timeout<String> timeout;
+        int attempts;
+
+        Entry(byte[] codeHash, long expiresAtMs, TimerWheel.Timeout<String> timeout) {
+            this.codeHash = codeHash;
+            this.expiresAtMs = expiresAtMs;
+            this.timeout = timeout;
+        }
+    }
+}
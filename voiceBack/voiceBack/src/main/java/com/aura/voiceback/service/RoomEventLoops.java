@@ -0,0 +1,124 @@
+package com.aura.voiceback.service;
+
+import com.aura.voiceback.util.EventLoop;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * 방(roomId)마다 이벤트 루프 하나를 고정 배정 (roomId 해시 % N).
+ * 방의 참가/퇴장, 프레임 중계, 타이머는 모두 그 방의 루프에서 실행되므로
+ * 방 상태는 한 스레드만 건드린다 - lock 없이 처리하고, 방이 많아지면 루프(코어) 수만큼 나눠진다.
+ */
+@Component
+public class RoomEventLoops {
+
+    private final EventLoop[] loops;
+    private final long callTimeoutMs;
+
+    public RoomEventLoops(int count) {
+        this(count, 2000);
+    }
+
+    @Autowired
+    public RoomEventLoops(@Value("${voip.event-loops:0}") int count,
+                          @Value("${voip.event-loops.call-timeout-ms:2000}") long callTimeoutMs) {
+        this.callTimeoutMs = callTimeoutMs;
+        int n = count > 0 ? count : Runtime.getRuntime().availableProcessors();
+        this.loops = new EventLoop[n];
+        for (int i = 0; i < n; i++) {
+            loops[i] = new EventLoop("room-loop-" + i);
+        }
+    }
+
+    public EventLoop loopFor(String roomId) {
+        return loops[Math.floorMod(roomId.hashCode(), loops.length)];
+    }
+
+    public void execute(String roomId, Runnable task) {
+        loopFor(roomId).execute(task);
+    }
+
+    public <T> CompletableFuture<T> submit(String roomId, Supplier<T> task) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        execute(roomId, () -> {
+            try {
+                future.complete(task.get());
+            } catch (Throwable t) {
+                future.completeExceptionally(t);
+            }
+        });
+        return future;
+    }
+
+    /**
+     * 방 루프에서 실행하고 결과를 기다린다 (이미 그 루프 안이면 바로 실행).
+     * 루프가 밀려 call-timeout-ms 안에 시작하지 못하면 작업을 취소하고 RoomBusyException - 요청 스레드를 오래 잡지 않는다.
+     * 이미 시작한 작업은 끝까지 기다린다 (참가 같은 변경이 반쯤 반영된 채 실패로 응답하지 않게).
+     */
+    public <T> T call(String roomId, Supplier<T> task) {
+        EventLoop loop = loopFor(roomId);
+        if (loop.inLoop()) return task.get();
+
+        AtomicBoolean claimed = new AtomicBoolean();
+        CompletableFuture<T> future = new CompletableFuture<>();
+        loop.execute(() -> {
+            if (!claimed.compareAndSet(false, true)) return; // 기다리던 쪽이 포기했다
+            try {
+                future.complete(task.get());
+            } catch (Throwable t) {
+                future.completeExceptionally(t);
+            }
+        });
+        try {
+            try {
+                return future.get(callTimeoutMs, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                if (claimed.compareAndSet(false, true)) throw new RoomBusyException(roomId);
+                return future.get(); // 실행 중 - 곧 끝난다
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RoomBusyException(roomId);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException r) throw r;
+            if (e.getCause() instanceof Error err) throw err;
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    public EventLoop.Timer schedule(String roomId, long delayMs, Runnable task) {
+        return loopFor(roomId).schedule(delayMs, task);
+    }
+
+    public int size() {
+        return loops.length;
+    }
+
+    // 모든 루프에 쌓인 작업 수 (메트릭용)
+    public int getPending() {
+        int sum = 0;
+        for (EventLoop loop : loops) sum += loop.getPending();
+        return sum;
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        for (EventLoop loop : loops) loop.shutdown();
+    }
+
+    /** 방 루프가 제때 작업을 시작하지 못했다 (컨트롤러는 503 + Retry-After) */
+    public static class RoomBusyException extends RuntimeException {
+        public RoomBusyException(String roomId) {
+            super("room loop busy: " + roomId);
+        }
+    }
+}
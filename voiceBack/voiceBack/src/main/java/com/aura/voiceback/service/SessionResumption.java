@@ -0,0 +1,112 @@
+package com.aura.voiceback.service;
+
+import com.aura.voiceback.websocket.PeerConnection;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * /ws/voip 재접속 (proto=2). 접속하면 재접속 토큰을 CONTROL {"type":"session","token":..,"graceMs":..} 로 알려 주고,
+ * 소켓이 비정상으로 끊기면(1000 / 1001 이 아닌 종료) 방 자리와 최근 보낸 메시지(buffer-frames 개)를 grace-ms 동안 남겨 둔다.
+ * 그 사이 ?proto=2&resume=<token>&since=<마지막으로 받은 프레임의 relayIngressTs> 로 다시 붙으면 같은 연결(streamId, profile, FEC)을
+ * 이어받고, since 이후 프레임 중 replay-max-ms 안의 것은 다시 보내고 더 오래된 것은 건너뛴다 (실시간 음성이라 늦은 프레임은 버린다).
+ * 토큰 -> 연결 맵만 여기서 갖고, 유예 타이머 / 다시 보내기는 VoIPService 가 방 루프에서 한다.
+ * claim() 으로 토큰을 먼저 꺼낸 쪽(재접속 또는 유예 만료)만 그 연결을 다룬다.
+ * 드레인한 노드에서 넘어온 토큰(importToken)은 연결 없이 (방, userId) 만 grace-ms 동안 기억했다가, 그 토큰으로 붙은 연결을 같은 방에 넣는다.
+ */
+@Component
+public class SessionResumption {
+
+    private final boolean enabled;
+    private final long graceMs;
+    private final int bufferFrames;
+    private final long replayMaxNanos;
+    private final SecureRandom random = new SecureRandom();
+    private final Map<String, PeerConnection> byToken = new ConcurrentHashMap<>();
+    private final Map<String, Migrated> migrated = new ConcurrentHashMap<>();
+
+    /** 다른 노드에서 넘어온 토큰의 방 / 사용자 */
+    public record Migrated(String roomId, String userId, long expiresAt) {}
+
+    public SessionResumption(@Value("${voip.resume.enabled:true}") boolean enabled,
+                             @Value("${voip.resume.grace-ms:15000}") long graceMs,
+                             @Value("${voip.resume.buffer-frames:50}") int bufferFrames,
+                             @Value("${voip.resume.replay-max-ms:500}") long replayMaxMs) {
+        this.enabled = enabled && graceMs > 0 && bufferFrames > 0;
+        this.graceMs = graceMs;
+        this.bufferFrames = bufferFrames;
+        this.replayMaxNanos = TimeUnit.MILLISECONDS.toNanos(replayMaxMs);
+    }
+
+    // 재접속을 끈 설정 (테스트 / 벤치마크용)
+    static SessionResumption disabled() {
+        return new SessionResumption(false, 0, 0, 0);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /** 새 토큰을 발급해 연결에 묶는다 */
+    public String register(PeerConnection peer) {
+        byte[] bytes = new byte[16];
+        random.nextBytes(bytes);
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+        byToken.put(token, peer);
+        return token;
+    }
+
+    /** 토큰의 연결 (꺼내지 않는다). 본인 확인은 꺼내기 전에 해서, 거절된 시도가 유예 만료(forget)와 엇갈리지 않게 한다 */
+    public PeerConnection peek(String token) {
+        return token == null ? null : byToken.get(token);
+    }
+
+    /** peek 로 본 연결을 꺼낸다. 그새 유예 만료 / 다른 재접속이 가져갔으면 false. 다 쓰면 restore() 또는 버린다 */
+    public boolean claim(String token, PeerConnection peer) {
+        return token != null && byToken.remove(token, peer);
+    }
+
+    public void restore(String token, PeerConnection peer) {
+        byToken.put(token, peer);
+    }
+
+    /** 연결이 정상 종료 / 유예 만료로 끝날 때. 재접속이 먼저 꺼내 갔으면 false */
+    public boolean forget(String token, PeerConnection peer) {
+        return token != null && byToken.remove(token, peer);
+    }
+
+    /** 드레인한 노드의 토큰을 받아 둔다 (만료된 것은 이때 정리) */
+    public void importToken(String token, String roomId, String userId) {
+        long now = System.currentTimeMillis();
+        migrated.values().removeIf(m -> m.expiresAt() < now);
+        migrated.put(token, new Migrated(roomId, userId, now + graceMs));
+    }
+
+    /** 넘어온 토큰을 꺼낸다. 없거나 만료됐거나 userId 가 다르면 null */
+    public Migrated claimMigrated(String token, String userId) {
+        Migrated m = migrated.get(token);
+        if (m == null) return null;
+        // 양쪽 userId 가 모두 있고 같아야 한다. 다른 사용자가 토큰을 써 보는 것으로 본인의 토큰이 없어지지 않게 지우지 않는다
+        if (userId == null || !userId.equals(m.userId())) return null;
+        if (!migrated.remove(token, m) || m.expiresAt() < System.currentTimeMillis()) return null;
+        return m;
+    }
+
+    public String sessionJson(String token) {
+        return "{\"type\":\"session\",\"token\":\"" + token + "\",\"graceMs\":" + graceMs + "}";
+    }
+
+    public String resumedJson(String token, int replayed, int skipped, boolean migrated) {
+        return "{\"type\":\"resumed\",\"token\":\"" + token + "\",\"replayed\":" + replayed
+                + ",\"skipped\":" + skipped + ",\"migrated\":" + migrated + "}";
+    }
+
+    public long getGraceMs() { return graceMs; }
+    public int getBufferFrames() { return bufferFrames; }
+    public long getReplayMaxNanos() { return replayMaxNanos; }
+}
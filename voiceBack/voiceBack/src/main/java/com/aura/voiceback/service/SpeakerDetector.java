@@ -0,0 +1,174 @@
+package com.aura.voiceback.service;
+
+import com.aura.voiceback.media.LevelMeter;
+import com.aura.voiceback.websocket.PeerConnection;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 방별 화자 감지. 발신자마다 LevelMeter(최근 window-frames 프레임 RMS)를 두고,
+ * 방 루프 타이머(interval-ms)마다 음량 순위를 매긴다.
+ *  - 가장 큰 발신자가 threshold-dbfs 이상으로 hold-ms 동안 1위를 지키면 active speaker 로 바꾸고,
+ *    변경 이벤트는 min-event-interval-ms 에 한 번까지만 낸다 (말이 겹칠 때 이벤트가 쏟아지지 않게).
+ *  - 참가자가 large-room-size 보다 많은 방에서는 큰 순서로 top-k 명만 중계한다. 순위 밖의 발신자도 k 번째보다
+ *    PROMOTE_MARGIN_DB 이상 크면 다음 주기를 기다리지 않고 바로 중계한다 (말 첫머리가 잘리지 않게).
+ * 상태(Speakers)는 방마다 하나이고 그 방의 루프에서만 쓴다.
+ */
+@Component
+public class SpeakerDetector {
+
+    static final double PROMOTE_MARGIN_DB = 6;
+
+    private final long intervalMs;
+    private final int windowFrames;
+    private final double thresholdDbfs;
+    private final long minEventIntervalNanos;
+    private final long holdNanos;
+    private final int topK;
+    private final int largeRoomSize;
+    private final long staleNanos;
+
+    public SpeakerDetector(@Value("${voip.speaker.interval-ms:100}") long intervalMs,
+                           @Value("${voip.speaker.window-frames:15}") int windowFrames,
+                           @Value("${voip.speaker.threshold-dbfs:-50}") double thresholdDbfs,
+                           @Value("${voip.speaker.min-event-interval-ms:500}") long minEventIntervalMs,
+                           @Value("${voip.speaker.hold-ms:200}") long holdMs,
+                           @Value("${voip.speaker.top-k:3}") int topK,
+                           @Value("${voip.speaker.large-room-size:8}") int largeRoomSize) {
+        this.intervalMs = intervalMs;
+        this.windowFrames = windowFrames;
+        this.thresholdDbfs = thresholdDbfs;
+        this.minEventIntervalNanos = TimeUnit.MILLISECONDS.toNanos(minEventIntervalMs);
+        this.holdNanos = TimeUnit.MILLISECONDS.toNanos(holdMs);
+        this.topK = topK;
+        this.largeRoomSize = largeRoomSize;
+        // 20ms 프레임 기준 창 길이만큼 프레임이 안 오면 무음
+        this.staleNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(100, windowFrames * 20L));
+    }
+
+    // 감지를 끈 설정 (테스트 / 벤치마크용)
+    static SpeakerDetector disabled() {
+        return new SpeakerDetector(0, 15, -50, 500, 200, 0, 0);
+    }
+
+    public boolean isEnabled() {
+        return intervalMs > 0;
+    }
+
+    public long getIntervalMs() {
+        return intervalMs;
+    }
+
+    public LevelMeter newMeter() {
+        return new LevelMeter(windowFrames);
+    }
+
+    /** 방 루프에서 프레임마다: 이 발신자의 프레임을 중계할지 */
+    public boolean shouldForward(Speakers speakers, PeerConnection sender, long nowNanos) {
+        if (!speakers.limited || speakers.isForwarded(sender.getStreamId())) return true;
+        return sender.getLevel().dbfs(nowNanos, staleNanos) >= speakers.cutoffDbfs;
+    }
+
+    /**
+     * 방 루프 타이머에서: 순위를 다시 매기고 top-k 를 정한다.
+     * @return active speaker 가 바뀌었으면 이벤트 내용, 아니면 null
+     */
+    public Map<String, Object> update(Speakers speakers, List<PeerConnection> peers, long nowNanos) {
+        List<Level> levels = new ArrayList<>(peers.size());
+        for (PeerConnection p : peers) {
+            levels.add(new Level(p, p.getLevel().dbfs(nowNanos, staleNanos)));
+        }
+        levels.sort(Comparator.comparingDouble(Level::dbfs).reversed());
+        speakers.ranking = levels;
+
+        if (topK > 0 && levels.size() > Math.max(topK, largeRoomSize)) {
+            speakers.limited = true;
+            speakers.forwarded = new int[topK];
+            for (int i = 0; i < topK; i++) {
+                speakers.forwarded[i] = levels.get(i).peer().getStreamId();
+            }
+            speakers.cutoffDbfs = levels.get(topK - 1).dbfs() + PROMOTE_MARGIN_DB;
+        } else {
+            speakers.limited = false;
+        }
+
+        // 말하는 사람이 없으면 마지막 active speaker 를 유지
+        if (levels.isEmpty() || levels.get(0).dbfs() < thresholdDbfs) {
+            speakers.candidate = null;
+            return null;
+        }
+        PeerConnection loudest = levels.get(0).peer();
+        if (loudest == speakers.active) {
+            speakers.candidate = null;
+            return null;
+        }
+        if (loudest != speakers.candidate) {
+            speakers.candidate = loudest;
+            speakers.candidateSince = nowNanos;
+        }
+        if (nowNanos - speakers.candidateSince < holdNanos
+                || (speakers.lastEventNanos != 0 && nowNanos - speakers.lastEventNanos < minEventIntervalNanos)) {
+            return null;
+        }
+        speakers.active = loudest;
+        speakers.candidate = null;
+        speakers.lastEventNanos = nowNanos;
+        return snapshot(speakers, "activeSpeaker");
+    }
+
+    /** 현재 active speaker 와 음량 순위 */
+    public Map<String, Object> snapshot(Speakers speakers, String type) {
+        Map<String, Object> out = new LinkedHashMap<>();
+        out.put("type", type);
+        PeerConnection active = speakers.active;
+        out.put("streamId", active != null ? active.getStreamId() : null);
+        out.put("userId", active != null ? active.getUserId() : null);
+        List<Map<String, Object>> ranking = new ArrayList<>();
+        for (Level level : speakers.ranking) {
+            Map<String, Object> item = new LinkedHashMap<>();
+            item.put("streamId", level.peer().getStreamId());
+            item.put("userId", level.peer().getUserId());
+            item.put("dbfs", Math.round(level.dbfs() * 10) / 10.0);
+            item.put("forwarded", !speakers.limited || speakers.isForwarded(level.peer().getStreamId()));
+            ranking.add(item);
+        }
+        out.put("speakers", ranking);
+        return out;
+    }
+
+    /** 방 하나의 화자 상태 (방 루프 전용) */
+    public static final class Speakers {
+        private List<Level> ranking = List.of();
+        private PeerConnection active;
+        private PeerConnection candidate;
+        private long candidateSince;
+        private long lastEventNanos;
+        private boolean limited;
+        private int[] forwarded = new int[0];
+        private double cutoffDbfs;
+
+        boolean isForwarded(int streamId) {
+            for (int id : forwarded) {
+                if (id == streamId) return true;
+            }
+            return false;
+        }
+
+        // 나간 참가자를 붙잡고 있지 않도록
+        void remove(PeerConnection peer) {
+            if (active == peer) active = null;
+            if (candidate == peer) candidate = null;
+            ranking = ranking.stream().filter(l -> l.peer() != peer).toList();
+        }
+    }
+
+    private record Level(PeerConnection peer, double dbfs) {
+    }
+}
@@ -0,0 +1,303 @@
+package com.aura.voiceback.service;
+
+import com.aura.voiceback.dto.DrainSnapshot;
+import com.aura.voiceback.util.BufferPool;
+import com.aura.voiceback.util.JwtTokenProvider;
+import com.aura.voiceback.websocket.DiscardingWebSocketSession;
+import com.aura.voiceback.websocket.FrameCodec;
+import com.aura.voiceback.websocket.RoomHandshakeInterceptor;
+import com.aura.voiceback.websocket.TraceHeader;
+import com.aura.voiceback.websocket.VoIPWebSocketHandler;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.PongMessage;
+import org.springframework.web.socket.TextMessage;
+
+import java.lang.management.CompilationMXBean;
+import java.lang.management.ManagementFactory;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 배포 직후 첫 통화가 인터프리터로 도는 중계/인증 코드를 타지 않도록, 트래픽을 받기 전에 핫 경로를 JIT 컴파일시킨다.
+ * ApplicationRunner 라서 끝날 때까지 readiness(/actuator/health/readiness)가 REFUSING_TRAFFIC 이고,
+ * 로드밸런서는 그 뒤에야 이 노드로 요청을 보낸다.
+ *  - 중계: 워밍업 전용 VoIPService / VoIPWebSocketHandler 인스턴스(자체 방 루프, 버퍼 풀, SimpleMeterRegistry)에 가짜 세션을 붙이고
+ *    WAV / trace=1 / proto=2 / proto=2&fec=1 형식 프레임과 수신 품질 보고를 흘린다. 9 명 방도 하나 열어 화자 선별 경로도 태운다.
+ *    proto=2 수신자에게는 RTT 가 높았다 낮았다 하는 pong 을 넣어 이어 붙이기(FrameCoalescer) 경로를 태우고,
+ *    라운드마다 proto=2 연결 하나를 비정상으로 끊고 같은 토큰으로 다시 붙여 재접속(SessionResumption) 경로도 태운다.
+ *    JIT 는 메서드 단위로 컴파일하므로 실제 빈도 같은 코드를 쓰고, 실제 방/세션/풀/메트릭에는 아무것도 남지 않는다.
+ *  - 인증: 합성 이메일로 만든 토큰을 loopback HTTP 로 보내 보안 필터 체인과 JwtAuthenticationFilter 를 태운다.
+ *    대상은 DB 를 건드리지 않는 /actuator/health/liveness.
+ * 라운드마다 그 라운드 동안 늘어난 JIT 컴파일 시간을 라운드 시간과 비교해, settle-rounds 번 연속으로 settle-ratio 이하이면 끝낸다.
+ * (절대값 기준은 CPU 수에 따라 너무 빡빡하거나 느슨해진다.) max-ms 를 넘기면 거기서 끝낸다.
+ */
+@Slf4j
+@Component
+public class StartupWarmUp implements ApplicationRunner {
+
+    private static final String MIXED_ROOM = "warmup-mixed";
+    private static final String LARGE_ROOM = "warmup-large";
+    private static final int PCM_BYTES = 1920; // 48kHz mono 16bit 20ms
+    private static final int FRAMES_PER_ROUND = 200;
+    private static final int REQUESTS_PER_ROUND = 100;
+    private static final int MIN_ROUNDS = 3;
+
+    private final SpeakerDetector speakerDetector;
+    private final JwtTokenProvider jwtTokenProvider;
+    private final Environment environment;
+    private final boolean enabled;
+    private final long maxMs;
+    private final double settleRatio;
+    private final int settleRounds;
+
+    public StartupWarmUp(SpeakerDetector speakerDetector,
+                         JwtTokenProvider jwtTokenProvider,
+                         Environment environment,
+                         @Value("${warmup.enabled:true}") boolean enabled,
+                         @Value("${warmup.max-ms:20000}") long maxMs,
+                         @Value("${warmup.settle-ratio:0.05}") double settleRatio,
+                         @Value("${warmup.settle-rounds:2}") int settleRounds) {
+        this.speakerDetector = speakerDetector;
+        this.jwtTokenProvider = jwtTokenProvider;
+        this.environment = environment;
+        this.enabled = enabled;
+        this.maxMs = maxMs;
+        this.settleRatio = settleRatio;
+        this.settleRounds = settleRounds;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        if (!enabled) return;
+        long start = System.nanoTime();
+        long deadline = start + maxMs * 1_000_000;
+        CompilationMXBean jit = ManagementFactory.getCompilationMXBean();
+        boolean monitored = jit != null && jit.isCompilationTimeMonitoringSupported();
+
+        RoomEventLoops eventLoops = new RoomEventLoops(1);
+        BufferPool pool = new BufferPool(64, false);
+        // 설정 기본값과 같은 값의 워밍업 전용 인스턴스 (타이머 스레드는 끝나면 닫는다)
+        FrameCoalescer coalescer = new FrameCoalescer(pool, true, 5, 16384, 40, 150, 1000);
+        SessionResumption resumption = new SessionResumption(true, 15_000, 50, 500);
+        VoIPService voip = new VoIPService(VoIPService.Options.builder()
+                .metrics(new VoIPMetrics(new SimpleMeterRegistry()))
+                .latencyTracker(new CallLatencyTracker(10))
+                .bufferPool(pool)
+                .eventLoops(eventLoops)
+                .sender(Runnable::run)
+                .adaptIntervalMs(20)
+                .degradeAfter(1)
+                .upgradeAfter(2)
+                .holdAfterChange(0)
+                .plcMaxFrames(3)
+                .speakerDetector(speakerDetector)
+                .coalescer(coalescer)
+                .resumption(resumption)
+                .build());
+        VoIPWebSocketHandler handler = new VoIPWebSocketHandler(voip);
+        Traffic traffic = new Traffic(handler, voip);
+        Integer port = environment.getProperty("local.server.port", Integer.class);
+        Auth auth = port == null ? null : new Auth(port, jwtTokenProvider);
+
+        int rounds = 0;
+        int quiet = 0;
+        long compileMs = monitored ? jit.getTotalCompilationTime() : 0;
+        String stopReason = "time limit";
+        try {
+            traffic.open();
+            while (System.nanoTime() < deadline) {
+                long roundStart = System.nanoTime();
+                traffic.round(rounds);
+                traffic.resume(rounds);
+                eventLoops.call(MIXED_ROOM, () -> null);
+                eventLoops.call(LARGE_ROOM, () -> null);
+                if (auth != null) auth.round();
+                rounds++;
+
+                if (!monitored) {
+                    if (rounds >= MIN_ROUNDS * 3) {
+                        stopReason = "fixed rounds (no JIT monitoring)";
+                        break;
+                    }
+                    continue;
+                }
+                long now = jit.getTotalCompilationTime();
+                long roundMs = (System.nanoTime() - roundStart) / 1_000_000;
+                log.debug("[warmup] round {}: {} ms, JIT +{} ms", rounds, roundMs, now - compileMs);
+                quiet = now - compileMs <= roundMs * settleRatio ? quiet + 1 : 0;
+                compileMs = now;
+                if (rounds >= MIN_ROUNDS && quiet >= settleRounds) {
+                    stopReason = "compilation settled";
+                    break;
+                }
+            }
+        } catch (Exception e) {
+            // 워밍업 실패로 노드가 안 뜨면 안 된다
+            log.warn("[warmup] stopped early", e);
+            stopReason = "error";
+        } finally {
+            traffic.close();
+            eventLoops.call(MIXED_ROOM, () -> null);
+            eventLoops.call(LARGE_ROOM, () -> null);
+            eventLoops.shutdown();
+            voip.shutdown();
+            coalescer.shutdown();
+        }
+        log.info("[warmup] {} rounds in {} ms ({}), JIT total {} ms", rounds,
+                (System.nanoTime() - start) / 1_000_000, stopReason, monitored ? jit.getTotalCompilationTime() : -1);
+    }
+
+    // 가짜 세션으로 핸들러에 메시지를 넣는다
+    private static final class Traffic {
+
+        private final VoIPWebSocketHandler handler;
+        private final VoIPService voip;
+        private final List<DiscardingWebSocketSession> mixed = new ArrayList<>();
+        private final List<DiscardingWebSocketSession> large = new ArrayList<>();
+        private final byte[] pcm = new byte[PCM_BYTES];
+        private final byte[] quiet = new byte[PCM_BYTES];
+        private long seq;
+
+        Traffic(VoIPWebSocketHandler handler, VoIPService voip) {
+            this.handler = handler;
+            this.voip = voip;
+            // 말소리 비슷한 크기의 잡음 (화자 감지 임계값을 넘게)
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            for (int i = 0; i < PCM_BYTES; i += 2) {
+                short s = (short) random.nextInt(-4000, 4000);
+                pcm[i] = (byte) s;
+                pcm[i + 1] = (byte) (s >> 8);
+            }
+        }
+
+        void open() throws Exception {
+            mixed.add(session("warmup-wav", MIXED_ROOM, false, false, false));
+            mixed.add(session("warmup-trace", MIXED_ROOM, true, false, false));
+            mixed.add(session("warmup-framed", MIXED_ROOM, false, true, false));
+            mixed.add(session("warmup-fec", MIXED_ROOM, false, true, true));
+            for (int i = 0; i < 9; i++) {
+                large.add(session("warmup-large-" + i, LARGE_ROOM, false, false, false));
+            }
+            for (DiscardingWebSocketSession s : mixed) handler.afterConnectionEstablished(s);
+            for (DiscardingWebSocketSession s : large) handler.afterConnectionEstablished(s);
+        }
+
+        void round(int round) throws Exception {
+            // 수신 품질이 나빴다 좋았다 하게 보내 샘플레이트/ptime 조정(리샘플링) 경로도 태운다
+            double loss = round % 4 < 2 ? 20.0 : 0.0;
+            String feedback = "{\"type\":\"feedback\",\"lossPct\":" + loss + ",\"jitterMs\":5}";
+            for (DiscardingWebSocketSession s : mixed) handler.handleMessage(s, new TextMessage(feedback));
+            // proto=2 수신자의 RTT: 높으면 프레임을 붙잡아 이어 붙이고, 낮으면 쌓인 것만 묶는다
+            long rttNanos = round % 2 == 0 ? 200_000_000L : 5_000_000L;
+            for (DiscardingWebSocketSession s : mixed.subList(2, 4)) {
+                handler.handleMessage(s, new PongMessage(
+                        ByteBuffer.allocate(Long.BYTES).putLong(0, System.nanoTime() - rttNanos)));
+            }
+
+            for (int f = 0; f < FRAMES_PER_ROUND; f++) {
+                long frameSeq = seq++;
+                // 가끔 seq 를 건너뛰어 PLC 경로도 태운다
+                long sentSeq = frameSeq % 50 == 0 ? frameSeq + 1 : frameSeq;
+                long now = System.currentTimeMillis();
+                handler.handleMessage(mixed.get(0), new BinaryMessage(pcm));
+                handler.handleMessage(mixed.get(1), new BinaryMessage(traced(sentSeq, now)));
+                handler.handleMessage(mixed.get(2), new BinaryMessage(framed(sentSeq, now)));
+                handler.handleMessage(mixed.get(3), new BinaryMessage(framed(sentSeq, now)));
+                for (int i = 0; i < large.size(); i++) {
+                    // 큰 방은 몇 명만 말한다
+                    handler.handleMessage(large.get(i), new BinaryMessage(i < 4 ? pcm : quiet));
+                }
+            }
+        }
+
+        // proto=2 연결을 비정상으로 끊고 같은 userId / 토큰으로 다시 붙인다 (유예, recent 보관, 재전송)
+        void resume(int round) throws Exception {
+            DiscardingWebSocketSession old = mixed.get(2);
+            Object userId = old.getAttributes().get(RoomHandshakeInterceptor.USER_ID);
+            DrainSnapshot snapshot = new DrainSnapshot();
+            voip.exportTo(snapshot);
+            String token = snapshot.getResume().stream()
+                    .filter(r -> userId.equals(r.getUserId()))
+                    .map(DrainSnapshot.ResumeState::getToken)
+                    .findFirst().orElse(null);
+            if (token == null) return;
+
+            handler.afterConnectionClosed(old, CloseStatus.SESSION_NOT_RELIABLE);
+            DiscardingWebSocketSession next = session("warmup-framed-" + round, MIXED_ROOM, false, true, false);
+            next.getAttributes().put(RoomHandshakeInterceptor.USER_ID, userId);
+            next.getAttributes().put(RoomHandshakeInterceptor.RESUME, token);
+            next.getAttributes().put(RoomHandshakeInterceptor.RESUME_SINCE, System.currentTimeMillis() - 100);
+            handler.afterConnectionEstablished(next);
+            mixed.set(2, next);
+        }
+
+        void close() throws Exception {
+            for (DiscardingWebSocketSession s : mixed) handler.afterConnectionClosed(s, CloseStatus.GOING_AWAY);
+            for (DiscardingWebSocketSession s : large) handler.afterConnectionClosed(s, CloseStatus.GOING_AWAY);
+        }
+
+        private byte[] traced(long seq, long captureTs) {
+            return ByteBuffer.allocate(TraceHeader.INBOUND_LENGTH + pcm.length)
+                    .put(TraceHeader.MAGIC).put(TraceHeader.VERSION).put((byte) 0).put((byte) 0)
+                    .putInt((int) seq).putLong(captureTs).put(pcm)
+                    .array();
+        }
+
+        private byte[] framed(long seq, long captureTs) {
+            return FrameCodec.encode(FrameCodec.TYPE_AUDIO, 0, FrameCodec.CODEC_PCM16, 0, seq, captureTs,
+                    ByteBuffer.wrap(pcm));
+        }
+
+        private static DiscardingWebSocketSession session(String id, String roomId,
+                                                          boolean traced, boolean framed, boolean fec) {
+            DiscardingWebSocketSession session = new DiscardingWebSocketSession(id, roomId);
+            session.getAttributes().put(RoomHandshakeInterceptor.USER_ID, id);
+            if (traced) session.getAttributes().put(RoomHandshakeInterceptor.TRACE, true);
+            if (framed) session.getAttributes().put(RoomHandshakeInterceptor.FRAMED, true);
+            if (fec) session.getAttributes().put(RoomHandshakeInterceptor.FEC, true);
+            return session;
+        }
+    }
+
+    // loopback HTTP 로 보안 필터 체인 + JWT 검증
+    private static final class Auth {
+
+        private final HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(1)).build();
+        private final URI uri;
+        private final JwtTokenProvider jwtTokenProvider;
+        private int next;
+
+        Auth(int port, JwtTokenProvider jwtTokenProvider) {
+            this.uri = URI.create("http://127.0.0.1:" + port + "/actuator/health/liveness");
+            this.jwtTokenProvider = jwtTokenProvider;
+        }
+
+        void round() throws Exception {
+            for (int i = 0; i < REQUESTS_PER_ROUND; i++) {
+                // 합성 이메일 (가입된 사용자와 겹치지 않는 도메인), 가끔 위조 토큰으로 거절 경로도
+                String token = jwtTokenProvider.generateAccessToken("warmup-" + (next++ % 16) + "@warmup.invalid");
+                if (i % 10 == 0) token = token.substring(0, token.length() - 2) + "xx";
+                HttpRequest request = HttpRequest.newBuilder(uri)
+                        .timeout(Duration.ofSeconds(2))
+                        .header("Authorization", "Bearer " + token)
+                        .build();
+                client.send(request, HttpResponse.BodyHandlers.discarding());
+            }
+        }
+    }
+}
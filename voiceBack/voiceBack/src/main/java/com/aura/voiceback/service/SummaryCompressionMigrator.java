@@ -0,0 +1,106 @@
+package com.aura.voiceback.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 압축 저장 이전에 들어간 요약 행을 백그라운드에서 압축 형식으로 옮긴다 (summary.compression.migrate-existing).
+ * id 순으로 batch-size 행씩 읽어 SummaryService 와 같은 규칙으로 압축하고, 배치마다 pause-ms 쉬어 DB 부하를 나눈다.
+ * UPDATE 조건에 summary_data IS NULL 을 넣어 두었으므로 여러 인스턴스가 동시에 돌거나 중간에 재시작해도 안전하다.
+ */
+@Slf4j
+@Component
+public class SummaryCompressionMigrator {
+
+    private static final String SELECT_SQL =
+            "SELECT id, summary_text FROM summary WHERE id > ? AND summary_data IS NULL AND CHAR_LENGTH(summary_text) > ? ORDER BY id LIMIT ?";
+    private static final String UPDATE_SQL =
+            "UPDATE summary SET summary_data = ?, summary_text = ? WHERE id = ? AND summary_data IS NULL";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final SummaryService summaryService;
+    private final boolean enabled;
+    private final int previewChars;
+    private final int batchSize;
+    private final long pauseMs;
+    private final AtomicBoolean stopped = new AtomicBoolean();
+
+    public SummaryCompressionMigrator(JdbcTemplate jdbcTemplate,
+                                      SummaryService summaryService,
+                                      @Value("${summary.compression.enabled:true}") boolean compression,
+                                      @Value("${summary.compression.migrate-existing:false}") boolean migrateExisting,
+                                      @Value("${summary.compression.preview-chars:200}") int previewChars,
+                                      @Value("${summary.compression.migrate-batch-size:200}") int batchSize,
+                                      @Value("${summary.compression.migrate-pause-ms:100}") long pauseMs) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.summaryService = summaryService;
+        this.enabled = compression && migrateExisting;
+        this.previewChars = previewChars;
+        this.batchSize = batchSize;
+        this.pauseMs = pauseMs;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) return;
+        Thread t = new Thread(this::migrate, "summary-compression-migrator");
+        t.setDaemon(true);
+        t.start();
+    }
+
+    /** @return 옮긴 행 수 */
+    public long migrate() {
+        long migrated = 0;
+        long bytesBefore = 0;
+        long bytesAfter = 0;
+        long lastId = 0;
+        try {
+            while (!stopped.get()) {
+                List<Object[]> rows = jdbcTemplate.query(SELECT_SQL,
+                        (rs, i) -> new Object[]{rs.getLong(1), rs.getString(2)}, lastId, previewChars, batchSize);
+                if (rows.isEmpty()) break;
+
+                List<Object[]> updates = new ArrayList<>(rows.size());
+                for (Object[] row : rows) {
+                    String text = (String) row[1];
+                    byte[] data = summaryService.encode(text);
+                    if (data == null) continue;
+                    String preview = text.substring(0, previewChars);
+                    updates.add(new Object[]{data, preview, row[0]});
+                    bytesBefore += text.getBytes(StandardCharsets.UTF_8).length;
+                    bytesAfter += data.length + preview.getBytes(StandardCharsets.UTF_8).length;
+                }
+                if (!updates.isEmpty()) {
+                    for (int n : jdbcTemplate.batchUpdate(UPDATE_SQL, updates)) {
+                        if (n != 0) migrated++; // 드라이버에 따라 SUCCESS_NO_INFO(-2)
+                    }
+                }
+                lastId = (Long) rows.get(rows.size() - 1)[0];
+                if (pauseMs > 0) Thread.sleep(pauseMs);
+            }
+            if (migrated > 0) {
+                log.info("[summary] compressed {} existing rows: {} -> {} bytes", migrated, bytesBefore, bytesAfter);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            log.error("[summary] compression migration stopped after {} rows (next run resumes)", migrated, e);
+        }
+        return migrated;
+    }
+
+    @PreDestroy
+    public void stop() {
+        stopped.set(true);
+    }
+}
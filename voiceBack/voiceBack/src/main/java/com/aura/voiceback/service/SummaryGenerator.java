@@ -0,0 +1,79 @@
+package com.aura.voiceback.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * 통화 자막으로 요약문 생성.
+ * summary.generator.url 이 있으면 ChatAIBackend 의 POST /v1/chat 에 자막을 넘겨 answer 를 쓰고,
+ * 설정이 없거나 호출이 실패하면 자막 앞부분을 그대로 잘라 쓴다 (요약이 아예 없는 것보다는 낫다).
+ */
+@Slf4j
+@Service
+public class SummaryGenerator {
+
+    private static final String PROMPT = "다음 통화 내용을 3~5문장으로 요약해 주세요. 금전 요구나 기관 사칭이 있으면 함께 적어 주세요.\n\n";
+
+    private final WebClient webClient = WebClient.builder().build();
+
+    private final String url;
+    private final String token;
+    private final Duration timeout;
+    private final int maxInputChars;
+    private final int fallbackLines;
+
+    public SummaryGenerator(@Value("${summary.generator.url:}") String url,
+                            @Value("${summary.generator.token:}") String token,
+                            @Value("${summary.generator.timeout-ms:20000}") long timeoutMs,
+                            @Value("${summary.generator.max-input-chars:12000}") int maxInputChars,
+                            @Value("${summary.generator.fallback-lines:5}") int fallbackLines) {
+        this.url = url;
+        this.token = token;
+        this.timeout = Duration.ofMillis(timeoutMs);
+        this.maxInputChars = maxInputChars;
+        this.fallbackLines = fallbackLines;
+    }
+
+    public String summarize(String transcript) {
+        if (!url.isBlank()) {
+            try {
+                Map<?, ?> response = webClient.post()
+                        .uri(url)
+                        .bodyValue(Map.of("query", PROMPT + clip(transcript), "use_rag", false, "token", token))
+                        .retrieve()
+                        .bodyToMono(Map.class)
+                        .block(timeout);
+                Object answer = response != null ? response.get("answer") : null;
+                if (answer instanceof String text && !text.isBlank()) {
+                    return text.strip();
+                }
+                log.warn("summary backend returned no answer, using transcript excerpt");
+            } catch (RuntimeException e) {
+                log.warn("summary backend call failed, using transcript excerpt: {}", e.toString());
+            }
+        }
+        return excerpt(transcript);
+    }
+
+    // 너무 긴 통화는 앞/뒤 절반씩만 넘긴다 (모델 입력 한도)
+    private String clip(String transcript) {
+        if (transcript.length() <= maxInputChars) return transcript;
+        int half = maxInputChars / 2;
+        return transcript.substring(0, half) + "\n...\n" + transcript.substring(transcript.length() - half);
+    }
+
+    private String excerpt(String transcript) {
+        String[] lines = transcript.split("\n");
+        if (lines.length <= fallbackLines) return transcript;
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < fallbackLines; i++) {
+            sb.append(lines[i]).append('\n');
+        }
+        return sb.append("... (총 ").append(lines.length).append("줄)").toString();
+    }
+}
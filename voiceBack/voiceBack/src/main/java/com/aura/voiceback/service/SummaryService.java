@@ -5,39 +5,102 @@ import com.aura.voiceback.dto.SummaryResponse;
 import com.aura.voiceback.entity.Summary;
 import com.aura.voiceback.entity.User;
 import com.aura.voiceback.repository.SummaryRepository;
-import com.aura.voiceback.repository.UserRepository;
-import lombok.RequiredArgsConstructor;
+import com.aura.voiceback.util.TextCodec;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.stream.Collectors;
 
+/**
+ * 요약 저장/조회.
+ * summary.compression.enabled 이면 preview-chars 보다 긴 요약은 summary_data 에 압축(TextCodec)해서 넣고
+ * summary_text 에는 앞부분 미리보기만 남긴다. 미리보기 목록(preview=true)은 summary_data 를 읽지 않고,
+ * 전체 텍스트는 전체 목록 / 한 건을 요청할 때만 푼다.
+ */
 @Service
-@RequiredArgsConstructor
 public class SummaryService {
 
     private final SummaryRepository summaryRepository;
-    private final UserRepository userRepository;
+    private final UserCache userCache;
+    private final boolean compression;
+    private final int previewChars;
+
+    public SummaryService(SummaryRepository summaryRepository,
+                          UserCache userCache,
+                          @Value("${summary.compression.enabled:true}") boolean compression,
+                          @Value("${summary.compression.preview-chars:200}") int previewChars) {
+        this.summaryRepository = summaryRepository;
+        this.userCache = userCache;
+        this.compression = compression;
+        this.previewChars = previewChars;
+    }
 
     public SummaryResponse saveSummary(String email, SummaryRequest request) {
-        User user = userRepository.findByEmail(email)
+        User user = userCache.findByEmail(email)
                 .orElseThrow(() -> new RuntimeException("사용자 없음"));
 
         Summary summary = Summary.builder()
                 .user(user)
-                .summaryText(request.getSummaryText())
                 .build();
+        applyText(summary, request.getSummaryText(), encode(request.getSummaryText()));
 
         Summary saved = summaryRepository.save(summary);
-        return new SummaryResponse(saved.getId(), saved.getSummaryText(), saved.getDateTime());
+        return new SummaryResponse(saved.getId(), request.getSummaryText(), saved.getDateTime(), false);
+    }
+
+    /**
+     * 통화 종료 후 서버가 만든 요약을 참가자마다 저장 (userId 는 프론트에서 쓰는 email).
+     * 가입하지 않은 참가자는 건너뛰고, 저장한 건수를 돌려준다.
+     */
+    public int saveCallSummary(String callId, Collection<String> emails, String summaryText) {
+        byte[] data = encode(summaryText); // 참가자 수와 상관없이 한 번만 압축
+        int saved = 0;
+        for (String email : emails) {
+            User user = userCache.findByEmail(email).orElse(null);
+            if (user == null) continue;
+            Summary summary = Summary.builder()
+                    .user(user)
+                    .callId(callId)
+                    .build();
+            applyText(summary, summaryText, data);
+            summaryRepository.save(summary);
+            saved++;
+        }
+        return saved;
     }
 
-    public List<SummaryResponse> getSummaries(String email) {
-        User user = userRepository.findByEmail(email)
+    /** @param full false 면 압축된 요약은 미리보기만 (truncated=true) */
+    public List<SummaryResponse> getSummaries(String email, boolean full) {
+        User user = userCache.findByEmail(email)
                 .orElseThrow(() -> new RuntimeException("사용자 없음"));
 
+        if (!full) {
+            return summaryRepository.findPreviewsByUser(user);
+        }
         return summaryRepository.findByUser(user).stream()
-                .map(s -> new SummaryResponse(s.getId(), s.getSummaryText(), s.getDateTime()))
+                .map(s -> new SummaryResponse(s.getId(), s.getFullText(), s.getDateTime(), false))
                 .collect(Collectors.toList());
     }
-}
\ No newline at end of file
+
+    public SummaryResponse getSummary(String email, Long id) {
+        User user = userCache.findByEmail(email)
+                .orElseThrow(() -> new RuntimeException("사용자 없음"));
+        Summary summary = summaryRepository.findById(id)
+                .filter(s -> s.getUser().getId().equals(user.getId()))
+                .orElseThrow(() -> new RuntimeException("요약 없음"));
+        return new SummaryResponse(summary.getId(), summary.getFullText(), summary.getDateTime(), false);
+    }
+
+    // 압축할 만큼 긴 요약이면 TextCodec 형식, 아니면 null
+    byte[] encode(String text) {
+        if (!compression || text == null || text.length() <= previewChars) return null;
+        return TextCodec.encode(text);
+    }
+
+    private void applyText(Summary summary, String text, byte[] data) {
+        summary.setSummaryData(data);
+        summary.setSummaryText(data != null ? text.substring(0, previewChars) : text);
+    }
+}
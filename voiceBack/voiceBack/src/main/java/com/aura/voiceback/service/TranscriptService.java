@@ -0,0 +1,224 @@
+package com.aura.voiceback.service;
+
+import com.aura.voiceback.dto.TranscriptSegmentResponse;
+import com.aura.voiceback.entity.TranscriptSegment;
+import com.aura.voiceback.repository.TranscriptSegmentRepository;
+import com.aura.voiceback.util.WriteBehindBuffer;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+/**
+ * 통화 중 STT 세그먼트를 서버에 쌓고, 통화가 끝나면 한 번 요약을 만든다.
+ *  - 세그먼트는 transcript_segment 에 한 줄씩 INSERT 만 한다 (요약 TEXT 를 세그먼트마다 UPDATE 하지 않음).
+ *    요청 스레드는 버퍼에 넣기만 하고, batch-size 개 또는 flush-interval-ms 마다 JDBC 배치로 저장한다.
+ *    그래서 브라우저가 통화 중에 죽어도 마지막 flush 까지의 자막은 DB 에 남는다.
+ *  - 통화 종료(/call/end, 마지막 참가자 퇴장) 또는 idle-timeout-ms 동안 새 세그먼트가 없으면
+ *    남은 버퍼를 비우고 DB 에서 자막을 순서대로 읽어 SummaryGenerator 로 요약, 참가자마다 Summary 로 저장한다.
+ * 요약 생성은 전용 스레드에서 하므로 종료 요청을 막지 않는다.
+ */
+@Slf4j
+@Service
+public class TranscriptService {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO transcript_segment (call_id, seq, user_id, start_ms, end_ms, text, created_at) VALUES (?, ?, ?, ?, ?, ?, ?)";
+    private static final int MAX_TEXT_LENGTH = 2000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TranscriptSegmentRepository repository;
+    private final SummaryGenerator summaryGenerator;
+    private final SummaryService summaryService;
+    private final WriteBehindBuffer<TranscriptSegment> buffer;
+    private final ScheduledExecutorService finisher;
+    private final long idleTimeoutMs;
+
+    // 진행 중인 통화 (callId -> 다음 seq / 마지막 세그먼트 시각)
+    private final Map<String, OpenTranscript> open = new ConcurrentHashMap<>();
+    // 요약까지 끝난 통화. 늦게 도착한 세그먼트로 요약이 두 번 만들어지지 않게 잠시 기억한다
+    private final Cache<String, Boolean> finished = Caffeine.newBuilder()
+            .expireAfterWrite(Duration.ofHours(1))
+            .build();
+
+    public TranscriptService(JdbcTemplate jdbcTemplate,
+                             TranscriptSegmentRepository repository,
+                             SummaryGenerator summaryGenerator,
+                             SummaryService summaryService,
+                             @Value("${transcript.queue-capacity:20000}") int queueCapacity,
+                             @Value("${transcript.batch-size:200}") int batchSize,
+                             @Value("${transcript.flush-interval-ms:1000}") long flushIntervalMs,
+                             @Value("${transcript.idle-timeout-ms:600000}") long idleTimeoutMs) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.repository = repository;
+        this.summaryGenerator = summaryGenerator;
+        this.summaryService = summaryService;
+        this.idleTimeoutMs = idleTimeoutMs;
+        this.buffer = new WriteBehindBuffer<>("transcript", queueCapacity, batchSize, flushIntervalMs, this::insertBatch);
+        this.finisher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "transcript-summary");
+            t.setDaemon(true);
+            return t;
+        });
+        long sweepMs = Math.max(1000, Math.min(idleTimeoutMs / 4, 60_000));
+        this.finisher.scheduleWithFixedDelay(this::finishIdle, sweepMs, sweepMs, TimeUnit.MILLISECONDS);
+    }
+
+    /** @return false 면 버린 세그먼트 (빈 텍스트, 이미 끝난 통화, 버퍼 가득 참) */
+    public boolean append(String callId, String userId, String text, Long startMs, Long endMs) {
+        if (callId == null || userId == null || text == null || text.isBlank()) return false;
+        if (finished.getIfPresent(callId) != null) return false;
+
+        // 새 통화면 DB 조회는 맵 락 밖에서 미리 (compute 안에서 DB 를 타면 같은 bin 의 다른 통화까지 막힌다)
+        OpenTranscript created = open.containsKey(callId) ? null : new OpenTranscript(nextSeq(callId));
+        String trimmed = text.strip();
+        String clipped = trimmed.length() > MAX_TEXT_LENGTH ? trimmed.substring(0, MAX_TEXT_LENGTH) : trimmed;
+        long now = System.currentTimeMillis();
+        boolean[] accepted = {false};
+
+        // 끝났는지 확인 / 열기 / seq 발급 / 버퍼 적재를 finish 와 같은 키 락 안에서 한 번에.
+        // 그래서 finish 뒤에 통화가 다시 열리거나, 요약이 읽은 뒤에 버퍼에 들어가는 세그먼트가 없다
+        open.compute(callId, (id, transcript) -> {
+            if (transcript == null) {
+                // 확인 사이에 다른 스레드가 열었다가 닫았거나, 끝난 통화
+                if (created == null || finished.getIfPresent(id) != null) return null;
+                transcript = created;
+            }
+            transcript.lastAppendMs = now;
+            accepted[0] = buffer.offer(TranscriptSegment.builder()
+                    .callId(id)
+                    .seq(transcript.seq++)
+                    .userId(userId)
+                    .startMs(startMs)
+                    .endMs(endMs)
+                    .text(clipped)
+                    .createdAt(LocalDateTime.now())
+                    .build());
+            return transcript;
+        });
+        return accepted[0];
+    }
+
+    /** 통화 종료: 이 통화의 요약을 한 번 예약한다 (받은 자막이 없으면 요약은 없고, 이후 자막만 거절) */
+    public void finish(String callId) {
+        if (callId == null) return;
+        finishIf(callId, t -> true);
+    }
+
+    // 닫기와 finished 표시를 append 와 같은 키 락 안에서. condition 이 false 면 열어 둔다
+    private void finishIf(String callId, Predicate<OpenTranscript> condition) {
+        boolean[] closed = {false};
+        open.compute(callId, (id, transcript) -> {
+            if (transcript != null && !condition.test(transcript)) return transcript;
+            finished.put(id, Boolean.TRUE);
+            closed[0] = transcript != null;
+            return null;
+        });
+        if (!closed[0]) return;
+        try {
+            finisher.execute(() -> summarize(callId));
+        } catch (RuntimeException e) {
+            log.warn("[transcript] summary for {} not scheduled (shutting down)", callId);
+        }
+    }
+
+    // 아직 flush 되지 않은 세그먼트는 다음 flush 후 보인다
+    public List<TranscriptSegmentResponse> getTranscript(String callId) {
+        return repository.findByCallIdOrderBySeqAscIdAsc(callId).stream()
+                .map(s -> new TranscriptSegmentResponse(s.getSeq(), s.getUserId(), s.getStartMs(), s.getEndMs(), s.getText()))
+                .collect(Collectors.toList());
+    }
+
+    private void summarize(String callId) {
+        try {
+            buffer.drain(); // 이 통화의 마지막 세그먼트까지 DB 에
+            List<TranscriptSegment> segments = repository.findByCallIdOrderBySeqAscIdAsc(callId);
+            if (segments.isEmpty()) return;
+
+            StringBuilder text = new StringBuilder();
+            Set<String> participants = new LinkedHashSet<>();
+            for (TranscriptSegment s : segments) {
+                text.append(s.getUserId()).append(": ").append(s.getText()).append('\n');
+                participants.add(s.getUserId());
+            }
+            String summary = summaryGenerator.summarize(text.toString());
+            int saved = summaryService.saveCallSummary(callId, participants, summary);
+            log.info("[transcript] call {} summarized: {} segments, {} summaries saved", callId, segments.size(), saved);
+        } catch (RuntimeException e) {
+            log.error("[transcript] summary for {} failed", callId, e);
+        }
+    }
+
+    // 종료 신호 없이 끊긴 통화 (모든 클라이언트가 죽은 경우 등)
+    private void finishIdle() {
+        long now = System.currentTimeMillis();
+        for (String callId : open.keySet()) {
+            // 확인하는 사이 새 자막이 오면 닫지 않도록 idle 판정도 키 락 안에서 다시
+            finishIf(callId, t -> {
+                long idle = now - t.lastAppendMs;
+                if (idle <= idleTimeoutMs) return false;
+                log.info("[transcript] call {} idle for {} ms, summarizing", callId, idle);
+                return true;
+            });
+        }
+    }
+
+    private void insertBatch(List<TranscriptSegment> segments) {
+        jdbcTemplate.batchUpdate(INSERT_SQL, segments, segments.size(), (ps, s) -> {
+            ps.setString(1, s.getCallId());
+            ps.setInt(2, s.getSeq());
+            ps.setString(3, s.getUserId());
+            if (s.getStartMs() != null) ps.setLong(4, s.getStartMs());
+            else ps.setNull(4, Types.BIGINT);
+            if (s.getEndMs() != null) ps.setLong(5, s.getEndMs());
+            else ps.setNull(5, Types.BIGINT);
+            ps.setString(6, s.getText());
+            ps.setTimestamp(7, Timestamp.valueOf(s.getCreatedAt()));
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        finisher.shutdown();
+        try {
+            finisher.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        buffer.close(); // 남은 세그먼트 flush (진행 중이던 통화는 자막만 남고 요약은 만들지 않는다)
+    }
+
+    // 서버가 재시작된 뒤 이어지는 통화면 DB 에 있던 다음 번호부터
+    private int nextSeq(String callId) {
+        Integer max = repository.findMaxSeq(callId);
+        return max != null ? max + 1 : 0;
+    }
+
+    // 필드는 open 맵의 키 락 안에서만 바꾼다 (lastAppendMs 는 idle 스윕이 락 밖에서도 읽는다)
+    private static final class OpenTranscript {
+        int seq;
+        volatile long lastAppendMs;
+
+        OpenTranscript(int firstSeq) {
+            this.seq = firstSeq;
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.aura.voiceback.service;
+
+import com.aura.voiceback.entity.User;
+import com.aura.voiceback.repository.UserRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * JWT 필터가 꺼낸 email 로 매 요청마다 하던 userRepository.findByEmail 을 줄이기 위한 사용자 캐시.
+ * id -> User, email -> id 두 단계로 저장해서 email 이 바뀌어도 옛 email 로는 조회되지 않는다.
+ * 캐시된 User 는 detached 상태라 읽기 전용으로만 쓰고, 수정은 반드시 repository 에서 다시 읽어서 한다.
+ */
+@Service
+public class UserCache {
+
+    private final UserRepository userRepository;
+    private final Cache<Integer, User> byId;
+    private final Cache<String, Integer> idByEmail;
+    // 무효화가 일어날 때마다 증가: DB 조회 중에 무효화되면 조회 결과를 캐시에 넣지 않는다
+    private final AtomicLong invalidations = new AtomicLong();
+
+    public UserCache(UserRepository userRepository,
+                     @Value("${user-cache.max-size:10000}") long maxSize,
+                     @Value("${user-cache.ttl-seconds:300}") long ttlSeconds) {
+        this.userRepository = userRepository;
+        this.byId = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .build();
+        this.idByEmail = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .build();
+    }
+
+    public Optional<User> findByEmail(String email) {
+        Integer id = idByEmail.getIfPresent(email);
+        if (id != null) {
+            User cached = byId.getIfPresent(id);
+            if (cached != null && email.equals(cached.getEmail())) {
+                return Optional.of(cached);
+            }
+            idByEmail.invalidate(email); // email 이 바뀌었거나 User 가 만료됨
+        }
+
+        long seen = invalidations.get();
+        Optional<User> loaded = userRepository.findByEmail(email);
+        loaded.ifPresent(user -> put(user, seen));
+        return loaded;
+    }
+
+    public Optional<User> findById(Integer id) {
+        User cached = byId.getIfPresent(id);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+
+        long seen = invalidations.get();
+        Optional<User> loaded = userRepository.findById(id);
+        loaded.ifPresent(user -> put(user, seen));
+        return loaded;
+    }
+
+    // 정보 변경 후 호출 (oldEmail: 변경 전 email)
+    public void invalidate(Integer id, String oldEmail) {
+        invalidations.incrementAndGet();
+        if (id != null) byId.invalidate(id);
+        if (oldEmail != null) idByEmail.invalidate(oldEmail);
+    }
+
+    // 무효화 횟수 확인과 쓰기를 같은 키의 compute 안에서 한다. invalidate() 는 횟수를 올린 뒤 같은 키를 지우므로
+    // 확인 직후에 무효화가 끼어들어도 그 삭제가 이 쓰기 뒤에 일어나 옛 User 가 남지 않는다
+    private void put(User user, long seen) {
+        User stored = byId.asMap().compute(user.getId(), (id, current) -> invalidations.get() == seen ? user : current);
+        if (stored != user) return;
+        idByEmail.asMap().compute(user.getEmail(), (email, current) -> invalidations.get() == seen ? user.getId() : current);
+    }
+}
@@ -0,0 +1,30 @@
+package com.aura.voiceback.service;
+
+/**
+ * 인증코드 저장소 (VerificationCodeStore 가 쓴다). 코드는 평문이 아니라 해시로만 넘어온다.
+ *  - memory : 인스턴스 하나 안에서만 (재시작하면 사라짐)
+ *  - jdbc   : verification_code 테이블. 재시작 후에도 남고 로드밸런서 뒤 여러 인스턴스가 같은 코드를 본다
+ */
+public interface VerificationCodeBackend {
+
+    /** 같은 key 의 이전 코드는 대체되고 시도 횟수도 0 으로 돌아간다 */
+    void put(String key, byte[] codeHash, long expiresAtMs);
+
+    /**
+     * 시도 횟수를 하나 올리고 저장된 해시를 돌려준다. 해시 비교 전에 먼저 세므로 동시에 여러 번 찔러도 maxAttempts 를 넘지 못한다.
+     * @return 없거나 만료되었으면 null
+     */
+    Attempt attempt(String key, int maxAttempts, long nowMs);
+
+    /** 맞는 코드를 한 번만 쓰게: 같은 해시일 때만 지운다. @return 지웠으면 true */
+    boolean remove(String key, byte[] codeHash);
+
+    /** 만료된 코드 정리. @return 지운 수 */
+    int expire(long nowMs);
+
+    long size();
+
+    /** @param codeHash exhausted 면 null */
+    record Attempt(byte[] codeHash, boolean exhausted) {
+    }
+}
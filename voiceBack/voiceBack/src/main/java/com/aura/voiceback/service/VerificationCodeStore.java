@@ -0,0 +1,143 @@
+package com.aura.voiceback.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 메일로 보내는 6자리 인증코드 (비밀번호 재설정 등). 코드마다 TTL 과 시도 횟수 제한이 있고, 맞히면 바로 지워져 한 번만 쓸 수 있다.
+ * 저장소는 verification-code.backend 로 고른다 (memory: 크기 상한 + 타이머 휠, jdbc: verification_code 테이블).
+ * 저장소에는 코드 대신 SHA-256(key:code) 만 넣는다.
+ * 메트릭: verification.codes{purpose, result=issued|ok|invalid|expired|too-many-attempts}, verification.codes.stored / evicted
+ */
+@Slf4j
+@Service
+public class VerificationCodeStore {
+
+    public static final String PASSWORD_RESET = "password-reset";
+
+    public enum Result { OK, INVALID, EXPIRED, TOO_MANY_ATTEMPTS }
+
+    private final VerificationCodeBackend backend;
+    private final long ttlMs;
+    private final int maxAttempts;
+    private final MeterRegistry registry;
+    private final SecureRandom random = new SecureRandom();
+    private final ScheduledExecutorService sweeper;
+    private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+
+    public VerificationCodeStore(JdbcTemplate jdbcTemplate,
+                                 MeterRegistry registry,
+                                 @Value("${verification-code.backend:memory}") String backendName,
+                                 @Value("${verification-code.ttl-seconds:600}") long ttlSeconds,
+                                 @Value("${verification-code.max-attempts:5}") int maxAttempts,
+                                 @Value("${verification-code.max-entries:100000}") int maxEntries,
+                                 @Value("${verification-code.tick-ms:1000}") long tickMs,
+                                 @Value("${verification-code.jdbc-sweep-seconds:60}") long jdbcSweepSeconds) {
+        this.ttlMs = TimeUnit.SECONDS.toMillis(ttlSeconds);
+        this.maxAttempts = maxAttempts;
+        this.registry = registry;
+        long sweepMs;
+        if ("jdbc".equals(backendName)) {
+            this.backend = new JdbcVerificationCodeBackend(jdbcTemplate);
+            sweepMs = TimeUnit.SECONDS.toMillis(jdbcSweepSeconds);
+        } else if ("memory".equals(backendName)) {
+            this.backend = new MemoryVerificationCodeBackend(maxEntries, tickMs, ttlMs, System.currentTimeMillis());
+            sweepMs = tickMs;
+        } else {
+            throw new IllegalStateException("알 수 없는 verification-code.backend: " + backendName);
+        }
+
+        Gauge.builder("verification.codes.stored", backend, VerificationCodeBackend::size)
+                .description("Verification codes currently stored").tag("backend", backendName).register(registry);
+        if (backend instanceof MemoryVerificationCodeBackend memory) {
+            FunctionCounter.builder("verification.codes.evicted", memory, MemoryVerificationCodeBackend::getEvictions)
+                    .description("Codes dropped to stay under verification-code.max-entries").register(registry);
+        }
+
+        this.sweeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "verification-code-sweeper");
+            t.setDaemon(true);
+            return t;
+        });
+        this.sweeper.scheduleWithFixedDelay(this::sweep, sweepMs, sweepMs, TimeUnit.MILLISECONDS);
+    }
+
+    /** 새 코드를 만들어 저장하고 돌려준다 (같은 대상의 이전 코드는 무효) */
+    public String issue(String purpose, String subject) {
+        String key = key(purpose, subject);
+        String code = String.format("%06d", random.nextInt(1_000_000));
+        backend.put(key, hash(key, code), System.currentTimeMillis() + ttlMs);
+        counter(purpose, "issued").increment();
+        return code;
+    }
+
+    /** OK 면 코드는 이미 지워졌다 */
+    public Result verify(String purpose, String subject, String code) {
+        Result result = check(key(purpose, subject), code);
+        counter(purpose, result.name().toLowerCase(Locale.ROOT).replace('_', '-')).increment();
+        return result;
+    }
+
+    private Result check(String key, String code) {
+        VerificationCodeBackend.Attempt attempt = backend.attempt(key, maxAttempts, System.currentTimeMillis());
+        if (attempt == null) return Result.EXPIRED;
+        if (attempt.exhausted()) return Result.TOO_MANY_ATTEMPTS;
+        if (code == null || !MessageDigest.isEqual(attempt.codeHash(), hash(key, code.strip()))) {
+            return Result.INVALID;
+        }
+        // 같은 코드로 동시에 두 번 들어오면 하나만 지울 수 있다
+        return backend.remove(key, attempt.codeHash()) ? Result.OK : Result.EXPIRED;
+    }
+
+    private void sweep() {
+        try {
+            backend.expire(System.currentTimeMillis());
+        } catch (RuntimeException e) {
+            log.warn("[verification-code] sweep failed", e);
+        }
+    }
+
+    private Counter counter(String purpose, String result) {
+        return counters.computeIfAbsent(purpose + '|' + result, k -> Counter.builder("verification.codes")
+                .description("Verification codes issued and checked")
+                .tag("purpose", purpose)
+                .tag("result", result)
+                .register(registry));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        sweeper.shutdownNow();
+    }
+
+    // 대소문자/공백만 다른 email 도 같은 대상
+    private static String key(String purpose, String subject) {
+        return purpose + ':' + (subject == null ? "" : subject.strip().toLowerCase(Locale.ROOT));
+    }
+
+    private static byte[] hash(String key, String code) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest((key + ':' + code).getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
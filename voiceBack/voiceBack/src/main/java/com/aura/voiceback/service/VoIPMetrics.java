@@ -0,0 +1,234 @@
+package com.aura.voiceback.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * /ws/voip 중계 경로 메트릭. (REST 지연은 actuator 의 http.server.requests 가 담당)
+ * 미터는 생성 시점에 한 번만 등록해 두고 핫패스에서는 Counter/Timer 의 increment/record 만 호출한다.
+ * 방별 미터(room 태그)는 방 루프가 방을 열 때(openRoom) 만들고 닫을 때(removeRoom) 레지스트리에서 제거한다.
+ * roomId 는 클라이언트가 정하는 값이라 태그를 붙이는 방은 max-room-tags 개까지만이고, 나머지 방과 열리지 않은 방의
+ * 프레임은 room="other" 로 합친다. frameIn / frameOut 은 미터를 만들지 않으므로 방이 닫힌 뒤 늦게 온 프레임이 미터를 되살리지 않는다.
+ */
+@Component
+public class VoIPMetrics {
+
+    private final MeterRegistry registry;
+
+    private final Counter bytesIn;
+    private final Counter bytesRelayed;
+    private final Counter sendFailures;
+    private final Counter droppedFrames;
+    private final Counter concealedFrames;
+    private final Counter suppressedFrames;
+    private final Counter speakerChanges;
+    private final Counter fecFrames;
+    private final Counter fecBytes;
+    private final Counter coalescedMessages;
+    private final Timer fanOut;
+    private final Timer recipientSend;
+    private final Timer coalesceDelay;
+
+    private final Map<String, RoomMeters> rooms = new ConcurrentHashMap<>();
+    private final RoomMeters otherRooms;
+    private final int maxRoomTags;
+    private final AtomicInteger taggedRooms = new AtomicInteger();
+
+    public VoIPMetrics(MeterRegistry registry) {
+        this(registry, 100);
+    }
+
+    @Autowired
+    public VoIPMetrics(MeterRegistry registry,
+                       @Value("${voip.metrics.max-room-tags:100}") int maxRoomTags) {
+        this.registry = registry;
+        this.maxRoomTags = maxRoomTags;
+        this.otherRooms = new RoomMeters("other");
+        this.bytesIn = Counter.builder("voip.bytes.in").baseUnit("bytes")
+                .description("Audio bytes received from senders").register(registry);
+        this.bytesRelayed = Counter.builder("voip.bytes.relayed").baseUnit("bytes")
+                .description("Audio bytes handed to recipients").register(registry);
+        this.sendFailures = Counter.builder("voip.send.failures")
+                .description("Recipient sends that threw").register(registry);
+        this.droppedFrames = Counter.builder("voip.frames.dropped")
+                .description("Frames dropped because the recipient send queue was full").register(registry);
+        this.concealedFrames = Counter.builder("voip.frames.concealed")
+                .description("Frames synthesized by packet-loss concealment for gaps in a sender's sequence").register(registry);
+        this.suppressedFrames = Counter.builder("voip.frames.suppressed")
+                .description("Frames not relayed because the sender was outside the room's top-k loudest").register(registry);
+        this.speakerChanges = Counter.builder("voip.speaker.changes")
+                .description("Active speaker change events").register(registry);
+        this.fecFrames = Counter.builder("voip.fec.frames")
+                .description("XOR parity frames sent to fec=1 recipients").register(registry);
+        this.fecBytes = Counter.builder("voip.fec.bytes").baseUnit("bytes")
+                .description("XOR parity payload bytes sent to fec=1 recipients").register(registry);
+        this.coalescedMessages = Counter.builder("voip.coalesce.saved")
+                .description("WebSocket messages saved by sending queued frames to a recipient as one message").register(registry);
+        this.coalesceDelay = Timer.builder("voip.coalesce.delay")
+                .description("Time a frame was held for a high-RTT recipient to be sent together with the next one")
+                .publishPercentileHistogram()
+                .maximumExpectedValue(Duration.ofMillis(200))
+                .register(registry);
+        this.fanOut = Timer.builder("voip.fanout.latency")
+                .description("Time to dispatch one inbound frame to every recipient")
+                .publishPercentileHistogram()
+                .maximumExpectedValue(Duration.ofSeconds(1))
+                .register(registry);
+        this.recipientSend = Timer.builder("voip.send.latency")
+                .description("Time spent in WebSocketSession.sendMessage per recipient")
+                .publishPercentileHistogram()
+                .maximumExpectedValue(Duration.ofSeconds(1))
+                .register(registry);
+    }
+
+    // 활성 소켓 수 / 송신 대기열 깊이는 스크레이프 시점에 읽는다
+    public void bindGauges(Supplier<Number> activeSockets, Supplier<Number> queuedFrames, Supplier<Number> queuedBytes) {
+        Gauge.builder("voip.sockets.active", activeSockets).register(registry);
+        Gauge.builder("voip.send.queue.frames", queuedFrames).register(registry);
+        Gauge.builder("voip.send.queue.bytes", queuedBytes).baseUnit("bytes").register(registry);
+    }
+
+    // 방 이벤트 루프에 쌓인 작업 수 (계속 늘면 루프가 밀리고 있는 것)
+    public void bindEventLoopGauge(Supplier<Number> pending) {
+        Gauge.builder("voip.eventloop.pending", pending).register(registry);
+    }
+
+    // 발신자 seq 가 건너뛴 자리를 PLC 로 채워 보낸 프레임
+    public void frameConcealed() {
+        concealedFrames.increment();
+    }
+
+    // 큰 방에서 음량 순위 밖이라 중계하지 않은 프레임
+    public void frameSuppressed() {
+        suppressedFrames.increment();
+    }
+
+    public void speakerChanged() {
+        speakerChanges.increment();
+    }
+
+    // fec=1 수신자에게 보낸 parity
+    public void fecOut(int bytes) {
+        fecFrames.increment();
+        fecBytes.increment(bytes);
+    }
+
+    // 수신자 대기열의 프레임 frames+1 개를 한 메시지로 보냈다 (frames 개 메시지를 아낌)
+    public void framesCoalesced(int frames) {
+        coalescedMessages.increment(frames);
+    }
+
+    // RTT 가 높은 수신자에게 다음 프레임과 같이 보내려고 붙잡은 시간
+    public void coalesceHeld(long nanos) {
+        coalesceDelay.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    // 48kHz 20ms 보다 낮은 profile 을 받고 있는 수신자 수
+    public void bindAdaptationGauge(Supplier<Number> degradedPeers) {
+        Gauge.builder("voip.adapt.degraded", degradedPeers).register(registry);
+    }
+
+    // 수신자 profile 변경 (direction: down / up)
+    public void profileChanged(String direction) {
+        Counter.builder("voip.adapt.changes").tag("direction", direction)
+                .description("Recipient stream profile changes").register(registry).increment();
+    }
+
+    // 재접속 결과: resumed / migrated(드레인한 노드에서 넘어옴) / unknown(없는 토큰) / rejected(다른 userId) / expired(유예 만료)
+    public void sessionResume(String result) {
+        Counter.builder("voip.resume").tag("result", result)
+                .description("Session resumption outcomes").register(registry).increment();
+    }
+
+    // 새 통화 / 참가 요청 결과: admitted / cpu / egress / sockets / room-full (CallAdmission)
+    public void admission(String result) {
+        Counter.builder("voip.admission").tag("result", result)
+                .description("Call admission decisions").register(registry).increment();
+    }
+
+    // 지금까지 수신자에게 넘긴 오디오 + FEC bytes (CallAdmission 이 초당 값으로 바꾼다)
+    public double egressBytes() {
+        return bytesRelayed.count() + fecBytes.count();
+    }
+
+    public void frameIn(String roomId, int bytes) {
+        room(roomId).framesIn.increment();
+        bytesIn.increment(bytes);
+    }
+
+    public void frameOut(String roomId, int bytes) {
+        room(roomId).framesOut.increment();
+        bytesRelayed.increment(bytes);
+    }
+
+    public void fanOut(long nanos) {
+        fanOut.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recipientSend(long nanos) {
+        recipientSend.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void sendFailed() {
+        sendFailures.increment();
+    }
+
+    public void frameDropped() {
+        droppedFrames.increment();
+    }
+
+    // 수신 프레임을 처리하지 않고 건너뜀 (reason: type / codec / malformed)
+    public void frameSkipped(String reason) {
+        Counter.builder("voip.frames.skipped").tag("reason", reason)
+                .description("Inbound frames skipped because of unknown type, codec or a malformed header")
+                .register(registry).increment();
+    }
+
+    // 방 루프가 방을 열 때. 태그 수가 한도면 그 방은 other 로 센다
+    public void openRoom(String roomId) {
+        rooms.compute(roomId, (id, current) -> {
+            if (current != null) return current;
+            if (taggedRooms.incrementAndGet() > maxRoomTags) {
+                taggedRooms.decrementAndGet();
+                return null;
+            }
+            return new RoomMeters(id);
+        });
+    }
+
+    public void removeRoom(String roomId) {
+        rooms.computeIfPresent(roomId, (id, meters) -> {
+            registry.remove(meters.framesIn);
+            registry.remove(meters.framesOut);
+            taggedRooms.decrementAndGet();
+            return null;
+        });
+    }
+
+    private RoomMeters room(String roomId) {
+        RoomMeters meters = rooms.get(roomId);
+        return meters != null ? meters : otherRooms;
+    }
+
+    private final class RoomMeters {
+        final Counter framesIn;
+        final Counter framesOut;
+
+        RoomMeters(String roomId) {
+            this.framesIn = Counter.builder("voip.frames.in").tag("room", roomId).register(registry);
+            this.framesOut = Counter.builder("voip.frames.out").tag("room", roomId).register(registry);
+        }
+    }
+}
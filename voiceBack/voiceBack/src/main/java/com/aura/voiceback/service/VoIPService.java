@@ -1,108 +1,893 @@
 package com.aura.voiceback.service;
 
+import com.aura.voiceback.dto.DrainSnapshot;
+import com.aura.voiceback.dto.PlayoutReport;
+import com.aura.voiceback.dto.ReceiverFeedback;
+import com.aura.voiceback.media.Concealer;
+import com.aura.voiceback.media.FecEncoder;
+import com.aura.voiceback.media.FrameBundle;
+import com.aura.voiceback.media.ProfileController;
+import com.aura.voiceback.media.Resampler;
+import com.aura.voiceback.media.StreamProfile;
+import com.aura.voiceback.util.BufferPool;
+import com.aura.voiceback.util.EventLoop;
+import com.aura.voiceback.util.JsonUtil;
+import com.aura.voiceback.util.PooledBuffer;
+import com.aura.voiceback.websocket.FrameCodec;
+import com.aura.voiceback.websocket.PeerConnection;
+import com.aura.voiceback.websocket.RoomHandshakeInterceptor;
+import com.aura.voiceback.websocket.TraceHeader;
+import jakarta.annotation.PreDestroy;
+import lombok.Builder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.CloseStatus;
 import org.springframework.web.socket.WebSocketSession;
 
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 
+/**
+ * /ws/voip 중계. 연결은 방 단위로 묶이고, 방의 참가/퇴장과 프레임 중계는 그 방의 이벤트 루프(RoomEventLoops)에서 실행된다.
+ * WebSocket 수신 스레드는 프레임을 풀 버퍼에 복사해 방 루프에 넘기기만 한다.
+ *
+ * 수신자마다 StreamProfile(샘플레이트 / 메시지당 프레임 수)을 따로 정한다. 방 루프 타이머가 adapt-interval-ms 마다
+ * 수신 링크 신호로 profile 을 다시 정하고, 중계할 때는 (수신자 형식, profile) 조합마다 프레임당 한 번만 인코딩한다.
+ * 링크가 좋은 수신자는 계속 48kHz 20ms 를 그대로 받는다.
+ *
+ * 손실 대비: 발신자 seq 가 plc.max-frames 이하로 건너뛰면 빠진 자리를 직전 프레임 반복 + 감쇠(PLC)로 채워 보내고,
+ * fec=1 수신자에게는 fec.group-size 프레임마다 XOR parity 프레임을 보내 수신 측에서 한 프레임 손실을 복원하게 한다.
+ *
+ * 화자 감지(SpeakerDetector): 발신자별 음량을 중계할 때 같이 재고, active speaker 가 바뀌면 proto=2 클라이언트에게
+ * CONTROL 이벤트를 보낸다. 큰 방에서는 음량 상위 top-k 발신자의 프레임만 중계한다.
+ *
+ * 재접속(SessionResumption): proto=2 연결이 비정상으로 끊기면 방 자리를 grace-ms 동안 남겨 두고(suspendSession),
+ * 같은 토큰으로 다시 붙으면 새 세션ID 로 옮겨 놓친 프레임을 다시 보낸다.
+ */
+@Slf4j
 @Service
 public class VoIPService {
 
-    // 세션ID -> WebSocketSession
-    private final Map<String, WebSocketSession> sessions = new ConcurrentHashMap<>();
+    // 세션ID -> 연결 (송신 대기열 포함). 수신 스레드에서 조회
+    private final Map<String, PeerConnection> sessions = new ConcurrentHashMap<>();
+    // roomId -> 방 (연결 목록 등). Room 의 내용은 그 방의 루프에서만 읽고 쓴다
+    private final Map<String, Room> rooms = new ConcurrentHashMap<>();
 
-    private byte[] convertPCMToWAV(byte[] pcmBytes, int sampleRate, int channels) {
-        int byteRate = sampleRate * channels * 2; // 16bit
-        int dataSize = pcmBytes.length;
-        int totalSize = 44 + dataSize;
+    private static final int WAV_HEADER_LENGTH = 44;
+    private static final int FRAMED_AUDIO_FLAGS = FrameCodec.FLAG_OUTBOUND | FrameCodec.FLAG_RELAY_TS;
+    private static final int FRAMED_AUDIO_HEADER = FrameCodec.headerLength(FRAMED_AUDIO_FLAGS);
+
+    // 수신자 형식
+    private static final int FORMAT_WAV = 0;     // 기존 클라이언트: WAV
+    private static final int FORMAT_TRACED = 1;  // trace=1: 추적 헤더 + WAV
+    private static final int FORMAT_FRAMED = 2;  // proto=2: v2 프레임 + PCM
+    private static final int FORMATS = 3;
+    private static final int PROFILES = StreamProfile.values().length;
+
+    private final AtomicInteger nextStreamId = new AtomicInteger();
+
+    private final VoIPMetrics metrics;
+    private final CallLatencyTracker latencyTracker;
+    private final BufferPool bufferPool;
+    private final RoomEventLoops eventLoops;
+    private final Executor sender;
+    private final ExecutorService ownedSender;
+    private final int sendQueueLimitBytes;
+    private final long adaptIntervalMs;
+    private final int degradeAfter;
+    private final int upgradeAfter;
+    private final int holdAfterChange;
+    private final int plcMaxFrames;
+    private final int fecGroupSize;
+    private final SpeakerDetector speakerDetector;
+    private final FrameCoalescer coalescer;
+    private final SessionResumption resumption;
+
+    @Autowired
+    public VoIPService(VoIPMetrics metrics,
+                       CallLatencyTracker latencyTracker,
+                       BufferPool bufferPool,
+                       RoomEventLoops eventLoops,
+                       SpeakerDetector speakerDetector,
+                       FrameCoalescer coalescer,
+                       SessionResumption resumption,
+                       @Value("${voip.sender-threads:0}") int senderThreads,
+                       @Value("${voip.send-queue-limit-bytes:262144}") int sendQueueLimitBytes,
+                       @Value("${voip.adapt.interval-ms:500}") long adaptIntervalMs,
+                       @Value("${voip.adapt.degrade-after:2}") int degradeAfter,
+                       @Value("${voip.adapt.upgrade-after:10}") int upgradeAfter,
+                       @Value("${voip.adapt.hold-after-change:4}") int holdAfterChange,
+                       @Value("${voip.plc.max-frames:3}") int plcMaxFrames,
+                       @Value("${voip.fec.group-size:4}") int fecGroupSize) {
+        this(Options.builder()
+                .metrics(metrics)
+                .latencyTracker(latencyTracker)
+                .bufferPool(bufferPool)
+                .eventLoops(eventLoops)
+                .sender(senderPool(senderThreads))
+                .sendQueueLimitBytes(sendQueueLimitBytes)
+                .adaptIntervalMs(adaptIntervalMs)
+                .degradeAfter(degradeAfter)
+                .upgradeAfter(upgradeAfter)
+                .holdAfterChange(holdAfterChange)
+                .plcMaxFrames(plcMaxFrames)
+                .fecGroupSize(fecGroupSize)
+                .speakerDetector(speakerDetector)
+                .coalescer(coalescer)
+                .resumption(resumption)
+                .build());
+    }
+
+    // 테스트 / 벤치마크 / 워밍업: 송신 executor 를 직접 넘기고 (예: Runnable::run) 필요한 기능만 켠다
+    public VoIPService(Options options) {
+        this.metrics = Objects.requireNonNull(options.metrics, "metrics");
+        this.latencyTracker = Objects.requireNonNull(options.latencyTracker, "latencyTracker");
+        this.bufferPool = Objects.requireNonNull(options.bufferPool, "bufferPool");
+        this.eventLoops = Objects.requireNonNull(options.eventLoops, "eventLoops");
+        this.sender = Objects.requireNonNull(options.sender, "sender");
+        this.ownedSender = sender instanceof ExecutorService es ? es : null;
+        this.sendQueueLimitBytes = options.sendQueueLimitBytes;
+        this.adaptIntervalMs = options.adaptIntervalMs;
+        this.degradeAfter = options.degradeAfter;
+        this.upgradeAfter = options.upgradeAfter;
+        this.holdAfterChange = options.holdAfterChange;
+        this.plcMaxFrames = options.plcMaxFrames;
+        this.fecGroupSize = options.fecGroupSize;
+        this.speakerDetector = options.speakerDetector;
+        this.coalescer = options.coalescer;
+        this.resumption = options.resumption;
+        metrics.bindGauges(sessions::size,
+                () -> sessions.values().stream().mapToInt(PeerConnection::getQueuedFrames).sum(),
+                () -> sessions.values().stream().mapToInt(PeerConnection::getQueuedBytes).sum());
+        metrics.bindEventLoopGauge(eventLoops::getPending);
+        metrics.bindAdaptationGauge(
+                () -> sessions.values().stream().filter(p -> p.getProfile() != StreamProfile.HIGH).count());
+    }
+
+    private static ExecutorService senderPool(int threads) {
+        int n = threads > 0 ? threads : Runtime.getRuntime().availableProcessors() * 2;
+        AtomicInteger seq = new AtomicInteger();
+        return Executors.newFixedThreadPool(n, r -> {
+            Thread t = new Thread(r, "voip-sender-" + seq.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
 
-        byte[] wav = new byte[totalSize];
+    /**
+     * 생성 옵션. metrics / latencyTracker / bufferPool / eventLoops / sender 는 필수이고,
+     * 나머지를 지정하지 않으면 profile 조정 / PLC / 화자 감지 / 이어 붙이기 / 재접속은 꺼져 있다.
+     * sender 가 ExecutorService 면 shutdown() 에서 같이 닫는다
+     */
+    @Builder
+    public static final class Options {
+        private final VoIPMetrics metrics;
+        private final CallLatencyTracker latencyTracker;
+        private final BufferPool bufferPool;
+        private final RoomEventLoops eventLoops;
+        private final Executor sender;
+        @Builder.Default private final int sendQueueLimitBytes = 1 << 20;
+        @Builder.Default private final long adaptIntervalMs = 0;
+        @Builder.Default private final int degradeAfter = 2;
+        @Builder.Default private final int upgradeAfter = 10;
+        @Builder.Default private final int holdAfterChange = 4;
+        @Builder.Default private final int plcMaxFrames = 0;
+        @Builder.Default private final int fecGroupSize = 4;
+        @Builder.Default private final SpeakerDetector speakerDetector = SpeakerDetector.disabled();
+        @Builder.Default private final FrameCoalescer coalescer = FrameCoalescer.disabled();
+        @Builder.Default private final SessionResumption resumption = SessionResumption.disabled();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (ownedSender != null) ownedSender.shutdown();
+    }
+
+    byte[] convertPCMToWAV(byte[] pcmBytes, int sampleRate, int channels) {
+        return convertPCMToWAV(ByteBuffer.wrap(pcmBytes), sampleRate, channels);
+    }
+
+    byte[] convertPCMToWAV(ByteBuffer pcm, int sampleRate, int channels) {
+        byte[] wav = new byte[WAV_HEADER_LENGTH + pcm.remaining()];
+        writeWAV(ByteBuffer.wrap(wav), 0, pcm, sampleRate, channels);
+        return wav;
+    }
+
+    /** dst 의 offset 위치에 WAV 헤더(44 bytes) + PCM 을 쓴다 (절대 위치, position 은 바꾸지 않음) */
+    static void writeWAV(ByteBuffer dst, int offset, ByteBuffer pcm, int sampleRate, int channels) {
+        int dataSize = pcm.remaining();
+        writeWAVHeader(dst, offset, dataSize, sampleRate, channels);
+
+        // PCM 데이터 복사
+        dst.put(offset + WAV_HEADER_LENGTH, pcm, pcm.position(), dataSize);
+    }
+
+    static void writeWAVHeader(ByteBuffer dst, int offset, int dataSize, int sampleRate, int channels) {
+        int byteRate = sampleRate * channels * 2; // 16bit
+        int totalSize = WAV_HEADER_LENGTH + dataSize;
+        ByteBuffer h = dst.duplicate().order(ByteOrder.LITTLE_ENDIAN);
 
         // RIFF 헤더
-        wav[0] = 'R';
-        wav[1] = 'I';
-        wav[2] = 'F';
-        wav[3] = 'F';
-        int chunkSize = totalSize - 8;
-        wav[4] = (byte) (chunkSize & 0xff);
-        wav[5] = (byte) ((chunkSize >> 8) & 0xff);
-        wav[6] = (byte) ((chunkSize >> 16) & 0xff);
-        wav[7] = (byte) ((chunkSize >> 24) & 0xff);
-
-        wav[8] = 'W';
-        wav[9] = 'A';
-        wav[10] = 'V';
-        wav[11] = 'E';
+        h.putInt(offset, 0x46464952);          // "RIFF"
+        h.putInt(offset + 4, totalSize - 8);   // chunk size
+        h.putInt(offset + 8, 0x45564157);      // "WAVE"
 
         // fmt subchunk
-        wav[12] = 'f';
-        wav[13] = 'm';
-        wav[14] = 't';
-        wav[15] = ' ';
-        wav[16] = 16; // PCM subchunk size
-        wav[17] = 0;
-        wav[18] = 0;
-        wav[19] = 0;
-        wav[20] = 1; // audio format PCM
-        wav[21] = 0;
-        wav[22] = (byte) channels;
-        wav[23] = 0;
-        wav[24] = (byte) (sampleRate & 0xff);
-        wav[25] = (byte) ((sampleRate >> 8) & 0xff);
-        wav[26] = (byte) ((sampleRate >> 16) & 0xff);
-        wav[27] = (byte) ((sampleRate >> 24) & 0xff);
-        int byteRateLE = byteRate;
-        wav[28] = (byte) (byteRateLE & 0xff);
-        wav[29] = (byte) ((byteRateLE >> 8) & 0xff);
-        wav[30] = (byte) ((byteRateLE >> 16) & 0xff);
-        wav[31] = (byte) ((byteRateLE >> 24) & 0xff);
-        short blockAlign = (short) (channels * 2);
-        wav[32] = (byte) (blockAlign & 0xff);
-        wav[33] = (byte) ((blockAlign >> 8) & 0xff);
-        short bitsPerSample = 16;
-        wav[34] = (byte) (bitsPerSample & 0xff);
-        wav[35] = (byte) ((bitsPerSample >> 8) & 0xff);
+        h.putInt(offset + 12, 0x20746d66);     // "fmt "
+        h.putInt(offset + 16, 16);             // PCM subchunk size
+        h.putShort(offset + 20, (short) 1);    // audio format PCM
+        h.putShort(offset + 22, (short) channels);
+        h.putInt(offset + 24, sampleRate);
+        h.putInt(offset + 28, byteRate);
+        h.putShort(offset + 32, (short) (channels * 2)); // block align
+        h.putShort(offset + 34, (short) 16);   // bits per sample
 
         // data subchunk
-        wav[36] = 'd';
-        wav[37] = 'a';
-        wav[38] = 't';
-        wav[39] = 'a';
-        wav[40] = (byte) (dataSize & 0xff);
-        wav[41] = (byte) ((dataSize >> 8) & 0xff);
-        wav[42] = (byte) ((dataSize >> 16) & 0xff);
-        wav[43] = (byte) ((dataSize >> 24) & 0xff);
+        h.putInt(offset + 36, 0x61746164);     // "data"
+        h.putInt(offset + 40, dataSize);
+    }
 
-        // PCM 데이터 복사
-        System.arraycopy(pcmBytes, 0, wav, 44, pcmBytes.length);
 
-        return wav;
+    public void registerSession(String sessionId, WebSocketSession session) {
+        String roomId = (String) session.getAttributes()
+                .getOrDefault(RoomHandshakeInterceptor.ROOM_ID, RoomHandshakeInterceptor.DEFAULT_ROOM);
+        String userId = (String) session.getAttributes().get(RoomHandshakeInterceptor.USER_ID);
+        boolean traced = Boolean.TRUE.equals(session.getAttributes().get(RoomHandshakeInterceptor.TRACE));
+        boolean framed = Boolean.TRUE.equals(session.getAttributes().get(RoomHandshakeInterceptor.FRAMED));
+        // UDP 경로는 바인딩이 소켓마다라 재접속 대상에서 뺀다
+        // userId 없이 접속한 연결은 이어받을 때 본인 확인을 할 수 없으므로 토큰을 주지 않는다
+        boolean resumable = framed && resumption.isEnabled() && userId != null
+                && !Boolean.TRUE.equals(session.getAttributes().get(RoomHandshakeInterceptor.UDP));
+        String token = resumable ? (String) session.getAttributes().get(RoomHandshakeInterceptor.RESUME) : null;
+        // 드레인한 노드에서 넘어온 토큰이면 그 방에 새로 넣되 토큰은 그대로 쓴다
+        SessionResumption.Migrated moved = token != null ? resumption.claimMigrated(token, userId) : null;
+        if (moved == null && token != null && resume(sessionId, session, userId, token)) {
+            return;
+        }
+        String joinRoomId = moved != null ? moved.roomId() : roomId;
+        PeerConnection peer = new PeerConnection(session, joinRoomId, userId, nextStreamId.incrementAndGet(),
+                traced, framed, sendQueueLimitBytes, metrics, sender,
+                new ProfileController(degradeAfter, upgradeAfter, holdAfterChange), speakerDetector.newMeter(),
+                coalescer);
+        if (framed && Boolean.TRUE.equals(session.getAttributes().get(RoomHandshakeInterceptor.FEC))) {
+            peer.enableFec(fecGroupSize);
+        }
+        String issued = null;
+        if (moved != null) {
+            issued = token;
+            resumption.restore(token, peer);
+        } else if (resumable) {
+            issued = resumption.register(peer);
+        }
+        if (issued != null) {
+            peer.enableResume(issued, resumption.getBufferFrames());
+        }
+        sessions.put(sessionId, peer);
+        eventLoops.execute(joinRoomId, () -> rooms.computeIfAbsent(joinRoomId, this::openRoom).peers.add(peer));
+        if (moved != null) {
+            metrics.sessionResume("migrated");
+            sendControl(sessionId, resumption.resumedJson(token, 0, 0, true));
+        } else if (issued != null) {
+            sendControl(sessionId, resumption.sessionJson(issued));
+        }
     }
 
+    // 유예 중인(또는 아직 끊긴 줄 모르는) 연결을 새 세션으로 이어받는다. false 면 새 연결로 등록
+    private boolean resume(String sessionId, WebSocketSession session, String userId, String token) {
+        PeerConnection peer = resumption.peek(token);
+        if (peer == null) {
+            metrics.sessionResume("unknown");
+            return false;
+        }
+        // 토큰만으로는 이어받지 못한다: 접속한 userId 가 있고 원래 연결의 userId 와 같아야 한다.
+        // 꺼내기 전에 확인하므로 거절된 시도는 토큰에 손대지 않는다 (유예 만료가 forget 에 실패해 연결이 남는 일이 없다)
+        if (userId == null || !userId.equals(peer.getUserId())) {
+            metrics.sessionResume("rejected");
+            return false;
+        }
+        if (!resumption.claim(token, peer)) { // 그새 유예가 만료됐거나 다른 재접속이 가져갔다
+            metrics.sessionResume("unknown");
+            return false;
+        }
+        String oldId = peer.getSession().getId();
+        if (!sessions.remove(oldId, peer)) { // 막 정상 종료된 연결
+            metrics.sessionResume("unknown");
+            return false;
+        }
+        sessions.put(sessionId, peer);
+        Object since = session.getAttributes().get(RoomHandshakeInterceptor.RESUME_SINCE);
+        long fromTs = since instanceof Long l ? l : 0;
+        eventLoops.execute(peer.getRoomId(), () -> {
+            WebSocketSession old = peer.getSession();
+            int[] replay = peer.reattach(session, fromTs, System.nanoTime() - resumption.getReplayMaxNanos());
+            resumption.restore(token, peer);
+            if (old.isOpen()) { // 클라이언트가 먼저 알아채고 다시 붙은 경우
+                try {
+                    old.close(new CloseStatus(4001, "resumed"));
+                } catch (Exception e) {
+                    log.debug("closing replaced session {}: {}", oldId, e.toString());
+                }
+            }
+            PooledBuffer frame = jsonFrame(FrameCodec.TYPE_CONTROL,
+                    resumption.resumedJson(token, replay[0], replay[1], false));
+            peer.send(frame);
+            frame.release();
+        });
+        metrics.sessionResume("resumed");
+        log.debug("session {} resumed as {}", oldId, sessionId);
+        return true;
+    }
 
-    public void registerSession(String sessionId, WebSocketSession session) {
-        sessions.put(sessionId, session);
+    /**
+     * 비정상 종료: 재접속 토큰이 있는 연결이면 방 자리를 grace-ms 동안 남겨 둔다.
+     * @return false 면 재접속 대상이 아니다 (removeSession 으로 정리할 것)
+     */
+    public boolean suspendSession(String sessionId) {
+        PeerConnection peer = sessions.get(sessionId);
+        if (peer == null || peer.getResumeToken() == null) return false;
+        eventLoops.execute(peer.getRoomId(), () -> {
+            if (sessions.get(sessionId) != peer) return; // 그새 재접속했거나 정리됨
+            peer.suspend(eventLoops.schedule(peer.getRoomId(), resumption.getGraceMs(), () -> expire(sessionId, peer)));
+        });
+        return true;
+    }
+
+    // 유예 만료: 재접속이 토큰을 먼저 가져가지 않았을 때만 정리
+    private void expire(String sessionId, PeerConnection peer) {
+        if (peer.isSuspended() && sessions.get(sessionId) == peer && resumption.forget(peer.getResumeToken(), peer)) {
+            metrics.sessionResume("expired");
+            removeSession(sessionId);
+        }
+    }
+
+    private Room openRoom(String roomId) {
+        Room room = new Room();
+        metrics.openRoom(roomId);
+        if (adaptIntervalMs > 0) {
+            room.adaptTimer = eventLoops.schedule(roomId, adaptIntervalMs, () -> adapt(roomId, room));
+        }
+        if (speakerDetector.isEnabled()) {
+            room.speakerTimer = eventLoops.schedule(roomId, speakerDetector.getIntervalMs(),
+                    () -> detectSpeakers(roomId, room));
+        }
+        return room;
+    }
+
+    // 드레인: 재접속 토큰이 있는 연결의 (토큰, 방, userId)
+    public void exportTo(DrainSnapshot snapshot) {
+        for (PeerConnection peer : sessions.values()) {
+            if (peer.getResumeToken() == null) continue;
+            DrainSnapshot.ResumeState state = new DrainSnapshot.ResumeState();
+            state.setToken(peer.getResumeToken());
+            state.setRoomId(peer.getRoomId());
+            state.setUserId(peer.getUserId());
+            snapshot.getResume().add(state);
+        }
+    }
+
+    /**
+     * 드레인: proto=2 연결에는 CONTROL {"type":"migrate","url":..,"token":..} 로 옮겨 갈 노드를 알리고,
+     * closeDelayMs 뒤 모든 연결을 1012(service restart)로 닫는다. 재접속 토큰이 없는 클라이언트는 닫힌 뒤 스스로 다시 붙는다.
+     * @return 알린 연결 수
+     */
+    public int migrate(String wsUrl, long closeDelayMs) {
+        int notified = 0;
+        for (PeerConnection peer : sessions.values()) {
+            if (peer.isSuspended()) continue;
+            if (peer.getResumeToken() != null && wsUrl != null) {
+                PooledBuffer frame;
+                try {
+                    frame = jsonFrame(FrameCodec.TYPE_CONTROL, JsonUtil.toJson(
+                            Map.of("type", "migrate", "url", wsUrl, "token", peer.getResumeToken())));
+                } catch (Exception e) {
+                    log.warn("migrate notice for {} not sent: {}", peer.getSession().getId(), e.toString());
+                    continue;
+                }
+                eventLoops.execute(peer.getRoomId(), () -> {
+                    peer.send(frame);
+                    frame.release();
+                });
+                notified++;
+            }
+            eventLoops.schedule(peer.getRoomId(), closeDelayMs, () -> {
+                try {
+                    peer.getSession().close(CloseStatus.SERVICE_RESTARTED);
+                } catch (Exception e) {
+                    log.debug("closing {} for drain: {}", peer.getSession().getId(), e.toString());
+                }
+            });
+        }
+        return notified;
     }
 
     public void removeSession(String sessionId) {
-        sessions.remove(sessionId);
+        PeerConnection removed = sessions.remove(sessionId);
+        if (removed == null) return;
+        resumption.forget(removed.getResumeToken(), removed);
+        String roomId = removed.getRoomId();
+        eventLoops.execute(roomId, () -> {
+            removed.close();
+            Room room = rooms.get(roomId);
+            if (room == null || !room.peers.remove(removed)) return;
+            room.speakers.remove(removed);
+            if (room.peers.isEmpty()) {
+                rooms.remove(roomId);
+                if (room.adaptTimer != null) room.adaptTimer.cancel();
+                if (room.speakerTimer != null) room.speakerTimer.cancel();
+                metrics.removeRoom(roomId);
+                latencyTracker.complete(roomId);
+            }
+        });
     }
 
-    // 1:1 중계
+    // 열린 /ws/voip 연결 수 (재접속 유예 중 포함)
+    public int getSessionCount() {
+        return sessions.size();
+    }
+
+    public boolean isTraced(String sessionId) {
+        PeerConnection peer = sessions.get(sessionId);
+        return peer != null && peer.isTraced();
+    }
+
+    public boolean isFramed(String sessionId) {
+        PeerConnection peer = sessions.get(sessionId);
+        return peer != null && peer.isFramed();
+    }
+
+    // 추적 헤더 없는 프레임
     public void forwardAudio(String senderId, byte[] audioBytes) {
-        // 예: 48000Hz, mono
-        byte[] wavBytes = convertPCMToWAV(audioBytes, 48000, 1);
+        forwardAudio(senderId, ByteBuffer.wrap(audioBytes), -1, 0);
+    }
+
+    public void forwardAudio(String senderId, byte[] audioBytes, long seq, long captureTs) {
+        forwardAudio(senderId, ByteBuffer.wrap(audioBytes), seq, captureTs);
+    }
+
+    /**
+     * 1:1 중계 (seq < 0 이면 추적 정보 없는 프레임).
+     * pcm 은 호출이 끝날 때까지만 유효한 view 일 수 있으므로 풀 버퍼에 복사한 뒤 방 루프로 넘긴다.
+     */
+    public void forwardAudio(String senderId, ByteBuffer pcm, long seq, long captureTs) {
+        long ingressNanos = System.nanoTime();
+        long ingressTs = System.currentTimeMillis();
+        PeerConnection sender = sessions.get(senderId);
+        if (sender == null) return;
+        boolean traced = seq >= 0;
+        // 추적 정보가 없으면 서버가 번호를 매긴다 (한 세션의 수신 메시지는 순차 처리)
+        long frameSeq = traced ? seq : sender.nextRelaySeq();
+        long frameTs = traced ? captureTs : ingressTs;
+        int pcmLength = pcm.remaining();
+        PooledBuffer frame = bufferPool.acquire(pcmLength);
+        frame.buffer().put(0, pcm, pcm.position(), pcmLength);
+        eventLoops.execute(sender.getRoomId(),
+                () -> relay(sender, frame, traced, frameSeq, frameTs, ingressNanos, ingressTs));
+    }
+
+    PeerConnection peer(String sessionId) {
+        return sessions.get(sessionId);
+    }
+
+    /**
+     * 방 루프에서 실행: 같은 방의 다른 연결에 프레임을 보낸다. frame 의 참조 하나를 넘겨받아 마지막에 release.
+     * 발신자가 매긴 seq 가 조금 건너뛰었으면 빠진 프레임을 PLC 로 먼저 채워 보낸다.
+     */
+    void relay(PeerConnection sender, PooledBuffer frame, boolean traced, long seq, long captureTs,
+               long ingressNanos, long ingressTs) {
+        String roomId = sender.getRoomId();
+        metrics.frameIn(roomId, frame.length());
 
-        sessions.values().forEach(s -> {
+        // 마지막 연결이 나간 뒤 늦게 도착한 프레임은 지연 집계를 다시 열지 않는다
+        Room room = rooms.get(roomId);
+        if (room == null) {
+            frame.release();
+            return;
+        }
+        if (traced) {
+            latencyTracker.onIngress(roomId, sender.getStreamId(), seq, captureTs, ingressTs);
+        }
+        try {
+            boolean forward = true;
+            if (speakerDetector.isEnabled()) {
+                long now = System.nanoTime();
+                sender.getLevel().add(frame.readView(), now);
+                forward = speakerDetector.shouldForward(room.speakers, sender, now);
+            }
+            if (traced && plcMaxFrames > 0) {
+                // 중계하지 않는 프레임도 기억해 둬야 다시 중계될 때 빈 자리로 보지 않는다
+                if (forward) concealGap(room, sender, seq, captureTs, ingressTs);
+                sender.rememberFrame(frame, seq, captureTs);
+            }
+            if (forward) {
+                fanOut(room, sender, frame.readView(), traced, false, seq, captureTs, ingressNanos, ingressTs);
+            } else {
+                metrics.frameSuppressed();
+            }
+        } finally {
+            frame.release();
+        }
+        metrics.fanOut(System.nanoTime() - ingressNanos);
+    }
+
+    // 직전 프레임과 seq 사이가 plcMaxFrames 이하로 비었으면 그 자리를 채운다 (더 길면 말을 멈춘 것으로 본다)
+    private void concealGap(Room room, PeerConnection sender, long seq, long captureTs, long ingressTs) {
+        PooledBuffer last = sender.getLastFrame();
+        long missing = seq - sender.getLastSeq() - 1;
+        if (last == null || missing <= 0 || missing > plcMaxFrames) return;
+        long step = (captureTs - sender.getLastTs()) / (missing + 1);
+        for (int n = 0; n < missing; n++) {
+            PooledBuffer fill = bufferPool.acquire(last.length());
             try {
-                if (s.isOpen() && !s.getId().equals(senderId)) {
-                    s.sendMessage(new BinaryMessage(wavBytes));
+                Concealer.conceal(last.readView(), n, plcMaxFrames, fill.buffer(), 0);
+                fanOut(room, sender, fill.readView(), false, true, sender.getLastSeq() + 1 + n,
+                        sender.getLastTs() + step * (n + 1), System.nanoTime(), ingressTs);
+            } finally {
+                fill.release();
+            }
+            metrics.frameConcealed();
+        }
+    }
+
+    /**
+     * (수신자 형식, profile) 조합마다 프레임당 한 번만 풀 버퍼에 만들고 수신자 대기열이 각자 retain 한다.
+     * 메시지당 프레임이 여러 개인 profile 은 WAV 수신자만 수신자별 FrameBundle 에 모았다가 보낸다
+     * (proto=2 는 한 프레임씩 대기열에 넣고 PeerConnection 의 FrameCoalescer 가 profile 만큼 묶는다).
+     * 추적 프레임은 relayEgressTs 를 수신자마다 보내는 시점으로 찍어야 해서 공유하지 않고 수신자별로 만든다.
+     */
+    private void fanOut(Room room, PeerConnection sender, ByteBuffer pcm, boolean traced, boolean concealed,
+                        long seq, long captureTs, long ingressNanos, long ingressTs) {
+        String roomId = sender.getRoomId();
+        try {
+            List<PeerConnection> peers = room.peers;
+            for (int i = 0, n = peers.size(); i < n; i++) {
+                PeerConnection p = peers.get(i);
+                if (p == sender || !p.isOpen()) continue;
+
+                StreamProfile profile = p.getProfile();
+                int format = p.isFramed() ? FORMAT_FRAMED : p.isTraced() ? FORMAT_TRACED : FORMAT_WAV;
+                // 추적 헤더(v1)는 메시지당 seq 가 하나라 묶지 않고 샘플레이트만 낮춘다
+                if (profile.framesPerMessage() > 1 && format == FORMAT_WAV) {
+                    // relay 구간은 묶음을 실제로 보낼 때(flush) 기록한다
+                    bundle(room, p, profile, sender, pcm, traced, ingressNanos);
+                } else {
+                    PooledBuffer out = traced
+                            ? encode(room, format, profile, sender, pcm, concealed, seq, captureTs, ingressTs)
+                            : encoded(room, format, profile, sender, pcm, concealed, seq, captureTs, ingressTs);
+                    int length = out.length();
+                    boolean sent;
+                    try {
+                        sent = p.send(out);
+                    } finally {
+                        if (traced) out.release();
+                    }
+                    if (sent) {
+                        metrics.frameOut(roomId, length);
+                    }
+                    if (traced) {
+                        if (sent) latencyTracker.onRelay(roomId, System.nanoTime() - ingressNanos);
+                        else latencyTracker.onRelayDrop(roomId);
+                    }
+                }
+                // 대기열이 가득 차서 버려진 프레임도 parity 에는 넣는다 (수신 측에서 복원할 대상)
+                if (p.isFecEnabled()) {
+                    protect(p, sender, resampled(room, profile, pcm), profile.sampleRate(), seq, captureTs);
                 }
+            }
+        } finally {
+            room.releaseScratch();
+        }
+    }
+
+    // profile 샘플레이트로 줄인 PCM (프레임당 profile 마다 한 번)
+    private ByteBuffer resampled(Room room, StreamProfile profile, ByteBuffer pcm) {
+        if (profile == StreamProfile.HIGH) return pcm;
+        PooledBuffer r = room.resampled[profile.ordinal()];
+        if (r == null) {
+            r = bufferPool.acquire(Resampler.decimatedLength(pcm.remaining(), profile.decimation()));
+            Resampler.decimate(pcm, profile.decimation(), r.buffer(), 0);
+            room.resampled[profile.ordinal()] = r;
+        }
+        return r.readView();
+    }
+
+    // 메시지 하나로 바로 보내는 형식 (프레임당 (형식, profile) 마다 한 번)
+    private PooledBuffer encoded(Room room, int format, StreamProfile profile, PeerConnection sender,
+                                 ByteBuffer pcm, boolean concealed, long seq, long captureTs, long ingressTs) {
+        int slot = format * PROFILES + profile.ordinal();
+        PooledBuffer out = room.encoded[slot];
+        if (out == null) {
+            out = encode(room, format, profile, sender, pcm, concealed, seq, captureTs, ingressTs);
+            room.encoded[slot] = out;
+        }
+        return out;
+    }
+
+    // 새 풀 버퍼에 메시지 하나를 만든다 (relayEgressTs 는 지금 시각)
+    private PooledBuffer encode(Room room, int format, StreamProfile profile, PeerConnection sender,
+                                ByteBuffer pcm, boolean concealed, long seq, long captureTs, long ingressTs) {
+        PooledBuffer out;
+        ByteBuffer audio = resampled(room, profile, pcm);
+        int length = audio.remaining();
+        switch (format) {
+            case FORMAT_FRAMED -> {
+                out = bufferPool.acquire(FRAMED_AUDIO_HEADER + length);
+                writeFramedAudio(out.buffer(), 0, profile, sender, audio, concealed, seq, captureTs, ingressTs);
+            }
+            case FORMAT_TRACED -> {
+                out = bufferPool.acquire(TraceHeader.OUTBOUND_LENGTH + WAV_HEADER_LENGTH + length);
+                byte flags = concealed ? TraceHeader.FLAG_OUTBOUND | TraceHeader.FLAG_CONCEALED : TraceHeader.FLAG_OUTBOUND;
+                TraceHeader.writeOutbound(out.buffer(), flags, seq, captureTs, sender.getStreamId(),
+                        ingressTs, System.currentTimeMillis());
+                writeWAV(out.buffer(), TraceHeader.OUTBOUND_LENGTH, audio, profile.sampleRate(), 1);
+            }
+            default -> {
+                out = bufferPool.acquire(WAV_HEADER_LENGTH + length);
+                writeWAV(out.buffer(), 0, audio, profile.sampleRate(), 1);
+            }
+        }
+        return out;
+    }
+
+    /** v2 오디오 프레임 하나를 쓰고 끝 위치를 돌려준다 */
+    private static int writeFramedAudio(ByteBuffer dst, int offset, StreamProfile profile, PeerConnection sender,
+                                        ByteBuffer audio, boolean concealed, long seq, long captureTs, long ingressTs) {
+        int length = audio.remaining();
+        int flags = concealed ? FRAMED_AUDIO_FLAGS | FrameCodec.FLAG_CONCEALED : FRAMED_AUDIO_FLAGS;
+        int at = FrameCodec.writeHeader(dst, offset, FrameCodec.TYPE_AUDIO, flags,
+                FrameCodec.CODEC_PCM16, sender.getStreamId(), seq, captureTs, length,
+                ingressTs, System.currentTimeMillis());
+        FrameCodec.writeSampleRate(dst, offset, profile.sampleRate());
+        dst.put(at, audio, audio.position(), length);
+        return at + length;
+    }
+
+    /** WAV 수신자의 FrameBundle 에 PCM 을 더하고, framesPerMessage 개가 모이면 WAV 하나로 보낸다 */
+    private void bundle(Room room, PeerConnection p, StreamProfile profile, PeerConnection sender,
+                        ByteBuffer pcm, boolean traced, long ingressNanos) {
+        ByteBuffer audio = resampled(room, profile, pcm);
+        int unit = audio.remaining();
+
+        FrameBundle bundle = p.getBundle(sender.getStreamId());
+        if (bundle != null && (bundle.getProfile() != profile || bundle.remaining() < unit)) {
+            flush(p, bundle);
+            bundle = null;
+        }
+        if (bundle == null) {
+            bundle = new FrameBundle(sender.getStreamId(), profile,
+                    bufferPool.acquire(WAV_HEADER_LENGTH + unit * profile.framesPerMessage()), WAV_HEADER_LENGTH);
+            p.putBundle(bundle);
+        }
+        int at = bundle.getPosition();
+        bundle.getBuffer().buffer().put(at, audio, audio.position(), unit);
+        bundle.appended(at + unit);
+        if (traced) {
+            bundle.traced(ingressNanos);
+        }
+        if (bundle.isFull()) {
+            flush(p, bundle);
+        }
+    }
+
+    // 모은 프레임을 보내고 bundle 을 닫는다. 추적 프레임의 relay 구간은 여기서(실제로 보낼 때) 기록한다
+    private void flush(PeerConnection p, FrameBundle bundle) {
+        p.removeBundle(bundle);
+        PooledBuffer out = bundle.getBuffer();
+        try {
+            if (bundle.getFrames() == 0) return;
+            writeWAVHeader(out.buffer(), 0, bundle.getPosition() - WAV_HEADER_LENGTH,
+                    bundle.getProfile().sampleRate(), 1);
+            out.truncate(bundle.getPosition());
+            boolean sent = p.send(out);
+            if (sent) {
+                metrics.frameOut(p.getRoomId(), out.length());
+            }
+            if (bundle.getTraced() > 0) {
+                long now = System.nanoTime();
+                for (int i = 0; i < bundle.getTraced(); i++) {
+                    if (sent) latencyTracker.onRelay(p.getRoomId(), now - bundle.getTracedIngressNanos(i));
+                    else latencyTracker.onRelayDrop(p.getRoomId());
+                }
+            }
+        } finally {
+            out.release();
+        }
+    }
+
+    // 수신자의 parity 그룹에 프레임을 넣고, 그룹이 차면(또는 넣을 수 없는 프레임이면) parity 를 보낸다
+    private void protect(PeerConnection p, PeerConnection sender, ByteBuffer audio, int sampleRate,
+                         long seq, long timestamp) {
+        if (audio.remaining() > 0xFFFF) return; // 길이를 16bit 로 XOR 한다
+        FecEncoder fec = p.fecEncoder(sender.getStreamId());
+        if (!fec.fits(seq, sampleRate)) {
+            sendParity(p, sender.getStreamId(), fec);
+        }
+        fec.add(seq, timestamp, audio, sampleRate);
+        if (fec.isFull()) {
+            sendParity(p, sender.getStreamId(), fec);
+        }
+    }
+
+    private void sendParity(PeerConnection p, int streamId, FecEncoder fec) {
+        if (fec.isEmpty()) return;
+        int length = fec.parityLength();
+        PooledBuffer out = bufferPool.acquire(FrameCodec.HEADER_LENGTH + length);
+        try {
+            int at = FrameCodec.writeHeader(out.buffer(), 0, FrameCodec.TYPE_FEC, FrameCodec.FLAG_OUTBOUND,
+                    FrameCodec.CODEC_PCM16, streamId, fec.getFirstSeq(), System.currentTimeMillis(), length, 0, 0);
+            FrameCodec.writeSampleRate(out.buffer(), 0, fec.getSampleRate());
+            fec.writeParity(out.buffer(), at);
+            if (p.send(out)) {
+                metrics.fecOut(length);
+            }
+        } finally {
+            out.release();
+        }
+    }
+
+    /**
+     * 방 루프 타이머: 수신자마다 profile 을 다시 정하고, 바뀌었거나 한 주기 동안 새 프레임이 없는
+     * FrameBundle 은 남은 프레임만이라도 보낸다. 덜 찬 FEC 그룹도 같은 기준으로 parity 를 보낸다.
+     */
+    private void adapt(String roomId, Room room) {
+        if (rooms.get(roomId) != room) return; // 방이 닫혔다
+        for (PeerConnection p : room.peers) {
+            StreamProfile before = p.getProfile();
+            StreamProfile after = p.updateProfile();
+            if (after != before) {
+                metrics.profileChanged(after.ordinal() > before.ordinal() ? "down" : "up");
+            }
+            if (!p.getBundles().isEmpty()) {
+                for (FrameBundle bundle : List.copyOf(p.getBundles())) {
+                    if (bundle.getProfile() != after || bundle.markStale()) {
+                        flush(p, bundle);
+                    }
+                }
+            }
+            for (Map.Entry<Integer, FecEncoder> e : p.getFecEncoders()) {
+                if (e.getValue().markStale()) {
+                    sendParity(p, e.getKey(), e.getValue());
+                }
+            }
+        }
+        room.adaptTimer = eventLoops.schedule(roomId, adaptIntervalMs, () -> adapt(roomId, room));
+    }
+
+    // 방 루프 타이머: 음량 순위 / top-k 갱신, active speaker 가 바뀌었으면 이벤트 전송
+    private void detectSpeakers(String roomId, Room room) {
+        if (rooms.get(roomId) != room) return; // 방이 닫혔다
+        Map<String, Object> event = speakerDetector.update(room.speakers, room.peers, System.nanoTime());
+        if (event != null) {
+            metrics.speakerChanged();
+            try {
+                broadcastFramed(room, FrameCodec.TYPE_CONTROL, JsonUtil.toJson(event));
             } catch (Exception e) {
-                e.printStackTrace();
+                log.warn("active speaker event for {} not sent: {}", roomId, e.toString());
             }
+        }
+        room.speakerTimer = eventLoops.schedule(roomId, speakerDetector.getIntervalMs(),
+                () -> detectSpeakers(roomId, room));
+    }
+
+    /** 방의 현재 active speaker 와 음량 순위 (방이 없으면 null) */
+    public Map<String, Object> speakers(String roomId) {
+        return eventLoops.call(roomId, () -> {
+            Room room = rooms.get(roomId);
+            return room == null ? null : speakerDetector.snapshot(room.speakers, "speakers");
         });
     }
-}
\ No newline at end of file
+
+    /** 방의 수신자별 링크 상태 (RTT, profile, 이어 붙이기로 줄인 메시지 / 늘어난 지연). 방이 없으면 null */
+    public Map<String, Object> links(String roomId) {
+        return eventLoops.call(roomId, () -> {
+            Room room = rooms.get(roomId);
+            if (room == null) return null;
+            List<Map<String, Object>> recipients = new ArrayList<>();
+            for (PeerConnection p : room.peers) {
+                recipients.add(p.linkStats());
+            }
+            return Map.of("roomId", roomId, "recipients", recipients);
+        });
+    }
+
+    // AI 처리 결과(JSON)를 방의 proto=2 클라이언트에게 보낸다 (기존 클라이언트는 이 메시지를 모름)
+    public void publishAiResult(String roomId, String json) {
+        eventLoops.execute(roomId, () -> {
+            Room room = rooms.get(roomId);
+            if (room != null) {
+                broadcastFramed(room, FrameCodec.TYPE_AI_RESULT, json);
+            }
+        });
+    }
+
+    // proto=2 클라이언트 한 명에게 CONTROL 프레임 (예: UDP 바인딩 토큰). 다른 프레임과 같은 송신 대기열로 간다
+    public void sendControl(String sessionId, String json) {
+        PeerConnection peer = sessions.get(sessionId);
+        if (peer == null || !peer.isFramed()) return;
+        eventLoops.execute(peer.getRoomId(), () -> {
+            PooledBuffer frame = jsonFrame(FrameCodec.TYPE_CONTROL, json);
+            peer.send(frame);
+            frame.release();
+        });
+    }
+
+    private static PooledBuffer jsonFrame(int type, String json) {
+        return PooledBuffer.wrap(FrameCodec.encode(type, FrameCodec.FLAG_OUTBOUND, FrameCodec.CODEC_NONE,
+                0, 0, System.currentTimeMillis(), ByteBuffer.wrap(json.getBytes(StandardCharsets.UTF_8))));
+    }
+
+    // 방 루프에서: JSON payload 프레임 하나를 방의 proto=2 클라이언트 모두에게
+    private void broadcastFramed(Room room, int type, String json) {
+        PooledBuffer frame = jsonFrame(type, json);
+        for (PeerConnection p : room.peers) {
+            if (p.isFramed() && p.isOpen()) {
+                p.send(frame);
+            }
+        }
+        frame.release();
+    }
+
+    public void frameSkipped(String reason) {
+        metrics.frameSkipped(reason);
+    }
+
+    // 수신 클라이언트의 수신 품질 보고 (다음 profile 조정 주기에 반영)
+    public void onFeedback(String sessionId, ReceiverFeedback feedback) {
+        PeerConnection peer = sessions.get(sessionId);
+        if (peer != null) {
+            eventLoops.execute(peer.getRoomId(), () -> peer.onFeedback(feedback.getLossPct(), feedback.getJitterMs()));
+        }
+    }
+
+    // 서버가 보낸 WebSocket ping 의 응답 (RTT 측정)
+    public void onPong(String sessionId, ByteBuffer payload) {
+        PeerConnection peer = sessions.get(sessionId);
+        if (peer != null) {
+            peer.onPong(payload);
+        }
+    }
+
+    // 수신 클라이언트의 재생 시점 보고
+    public void onPlayout(String sessionId, PlayoutReport report) {
+        PeerConnection peer = sessions.get(sessionId);
+        if (peer != null) {
+            eventLoops.execute(peer.getRoomId(), () -> latencyTracker.onPlayout(peer.getRoomId(), report));
+        }
+    }
+
+    // 방 하나의 루프 전용 상태
+    private static final class Room {
+        final List<PeerConnection> peers = new ArrayList<>();
+        // 프레임 하나를 중계하는 동안만 쓰는 버퍼 ((형식, profile) 별 인코딩 결과 / profile 별 리샘플 결과)
+        final PooledBuffer[] encoded = new PooledBuffer[FORMATS * PROFILES];
+        final PooledBuffer[] resampled = new PooledBuffer[PROFILES];
+        final SpeakerDetector.Speakers speakers = new SpeakerDetector.Speakers();
+        EventLoop.Timer adaptTimer;
+        EventLoop.Timer speakerTimer;
+
+        void releaseScratch() {
+            release(encoded);
+            release(resampled);
+        }
+
+        private static void release(PooledBuffer[] buffers) {
+            for (int i = 0; i < buffers.length; i++) {
+                if (buffers[i] != null) {
+                    buffers[i].release();
+                    buffers[i] = null;
+                }
+            }
+        }
+    }
+}
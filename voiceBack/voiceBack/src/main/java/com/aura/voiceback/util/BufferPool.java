@@ -0,0 +1,114 @@
+package com.aura.voiceback.util;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.lang.ref.Cleaner;
+import java.nio.ByteBuffer;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 오디오 프레임용 direct ByteBuffer 풀.
+ * 크기 등급(512B, 2K, 8K, 32K, 128K)별 공유 큐에서 버퍼를 재사용한다. 128K 를 넘는 요청은 풀 밖에서 heap 으로 할당.
+ * 스레드별 캐시는 두지 않는다 - 중계 프레임은 방 루프에서 acquire 하고 송신 스레드에서 release 하므로 캐시가 맞지 않는다.
+ *
+ * leakDetection 이 켜져 있으면 (테스트용) acquire 위치를 기록해 두고, release 되지 않은 채 GC 된 버퍼를
+ * 경고 로그와 getLeaks() 로 알려준다. 운영에서는 끈다 - acquire 마다 스택을 잡는다.
+ */
+@Slf4j
+public class BufferPool {
+
+    private static final int MIN_SHIFT = 9;    // 512
+    private static final int SHIFT_STEP = 2;   // 등급마다 4배
+    private static final int CLASSES = 5;      // 512 ~ 128K
+    private static final Cleaner CLEANER = Cleaner.create();
+
+    private final int[] classSizes = new int[CLASSES];
+    private final ArrayBlockingQueue<PooledBuffer>[] shared;
+    private final boolean leakDetection;
+
+    private final LongAdder allocated = new LongAdder();
+    private final LongAdder acquired = new LongAdder();
+    private final LongAdder recycled = new LongAdder();
+    private final LongAdder leaks = new LongAdder();
+
+    @SuppressWarnings("unchecked")
+    public BufferPool(int maxPooledPerClass, boolean leakDetection) {
+        this.leakDetection = leakDetection;
+        this.shared = new ArrayBlockingQueue[CLASSES];
+        for (int i = 0; i < CLASSES; i++) {
+            classSizes[i] = 1 << (MIN_SHIFT + i * SHIFT_STEP);
+            shared[i] = new ArrayBlockingQueue<>(maxPooledPerClass);
+        }
+    }
+
+    /** size 바이트짜리 버퍼 (refCnt 1). 다 쓰면 반드시 release() */
+    public PooledBuffer acquire(int size) {
+        int c = sizeClass(size);
+        PooledBuffer b;
+        if (c < 0) {
+            b = new PooledBuffer(null, -1, ByteBuffer.allocate(size));
+        } else {
+            b = shared[c].poll();
+            if (b == null) {
+                allocated.increment();
+                b = new PooledBuffer(this, c, ByteBuffer.allocateDirect(classSizes[c]));
+            }
+            acquired.increment();
+        }
+        b.reset(size);
+        if (leakDetection && c >= 0) {
+            b.leak = new LeakState(new Throwable("buffer of " + size + " bytes acquired here"), leaks);
+            b.leakTracker = new Object();
+            CLEANER.register(b.leakTracker, b.leak);
+        }
+        return b;
+    }
+
+    void recycle(PooledBuffer b) {
+        recycled.increment();
+        if (b.leak != null) {
+            b.leak.released = true;
+            b.leak = null;
+            b.leakTracker = null;
+        }
+        shared[b.sizeClass].offer(b); // 공유 큐가 가득 차면 버림 (GC 가 direct 메모리 회수)
+    }
+
+    private int sizeClass(int size) {
+        for (int i = 0; i < CLASSES; i++) {
+            if (size <= classSizes[i]) return i;
+        }
+        return -1;
+    }
+
+    public long getAllocated() { return allocated.sum(); }
+    // 빌려 간 뒤 아직 돌아오지 않은 풀 버퍼 수
+    public long getOutstanding() { return acquired.sum() - recycled.sum(); }
+    public long getLeaks() { return leaks.sum(); }
+    public boolean isLeakDetection() { return leakDetection; }
+
+    /**
+     * acquire 1회당 하나. PooledBuffer.leakTracker 는 그 버퍼만 참조하므로 버퍼가 release 없이 버려지면 같이 GC 되고,
+     * 그때 Cleaner 가 run() 을 호출한다. 정상 release 된 경우에는 released 가 true 라 아무 일도 없다.
+     * (이 객체가 tracker 를 참조하면 tracker 가 영원히 GC 되지 않으므로 참조하지 않는다)
+     */
+    static final class LeakState implements Runnable {
+        volatile boolean released;
+        private final Throwable site;
+        private final LongAdder leaks;
+
+        LeakState(Throwable site, LongAdder leaks) {
+            this.site = site;
+            this.leaks = leaks;
+        }
+
+        @Override
+        public void run() {
+            if (!released) {
+                leaks.increment();
+                log.warn("LEAK: pooled buffer was garbage-collected without release()", site);
+            }
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package com.aura.voiceback.util;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.PriorityQueue;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 스레드 하나짜리 이벤트 루프. 여러 스레드가 execute() 로 작업을 넣고(MPSC, lock 없음)
+ * 루프 스레드 하나만 순서대로 꺼내 실행한다. 루프에서 실행되는 작업끼리는 동기화가 필요 없다.
+ * 타이머도 같은 스레드에서 실행된다.
+ */
+@Slf4j
+public class EventLoop {
+
+    private final Queue<Runnable> mailbox = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pending = new AtomicInteger();
+    private final PriorityQueue<Timer> timers = new PriorityQueue<>(); // 루프 스레드 전용
+    private final Thread thread;
+    private volatile boolean running = true;
+    private volatile boolean parked;
+    private long timerSeq;
+
+    public EventLoop(String name) {
+        this.thread = new Thread(this::run, name);
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    public void execute(Runnable task) {
+        mailbox.offer(task);
+        pending.incrementAndGet();
+        if (parked) {
+            LockSupport.unpark(thread);
+        }
+    }
+
+    /** delayMs 뒤에 루프 스레드에서 실행. 반환된 Timer 로 취소 가능 (취소하면 힙에서도 빠진다) */
+    public Timer schedule(long delayMs, Runnable task) {
+        Timer timer = new Timer(this, System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(delayMs), task);
+        execute(() -> {
+            if (timer.cancelled) return;
+            timer.seq = timerSeq++;
+            timers.add(timer);
+        });
+        return timer;
+    }
+
+    public boolean inLoop() {
+        return Thread.currentThread() == thread;
+    }
+
+    // 아직 실행되지 않은 작업 수
+    public int getPending() {
+        return pending.get();
+    }
+
+    // 힙에 남은 타이머 수 (루프 스레드에서만 - 테스트용)
+    int getScheduled() {
+        return timers.size();
+    }
+
+    public void shutdown() throws InterruptedException {
+        running = false;
+        LockSupport.unpark(thread);
+        thread.join(TimeUnit.SECONDS.toMillis(5));
+    }
+
+    private void run() {
+        while (running) {
+            Runnable task;
+            while ((task = mailbox.poll()) != null) {
+                pending.decrementAndGet();
+                runSafely(task);
+            }
+            long waitNanos = runTimers();
+            parked = true;
+            // park 직전에 다시 확인: execute() 는 offer 후 parked 를 보므로 깨우기를 놓치지 않는다
+            if (mailbox.isEmpty() && running) {
+                if (waitNanos < 0) LockSupport.park(this);
+                else LockSupport.parkNanos(this, waitNanos);
+            }
+            parked = false;
+        }
+    }
+
+    // 만기된 타이머 실행 후 다음 타이머까지 남은 시간 (없으면 -1)
+    private long runTimers() {
+        Timer next;
+        while ((next = timers.peek()) != null) {
+            long remaining = next.deadline - System.nanoTime();
+            if (remaining > 0) return remaining;
+            timers.poll();
+            if (!next.cancelled) runSafely(next.task);
+        }
+        return -1;
+    }
+
+    private void runSafely(Runnable task) {
+        try {
+            task.run();
+        } catch (Throwable t) {
+            log.error("task failed on {}", thread.getName(), t);
+        }
+    }
+
+    public static final class Timer implements Comparable<Timer> {
+        private final EventLoop loop;
+        private final long deadline;
+        private final Runnable task;
+        private long seq;
+        private volatile boolean cancelled;
+
+        private Timer(EventLoop loop, long deadline, Runnable task) {
+            this.loop = loop;
+            this.deadline = deadline;
+            this.task = task;
+        }
+
+        /** 실행을 막고, 만기까지 힙에 남아 있지 않게 루프에서 바로 뺀다 (방이 닫힐 때마다 타이머가 쌓이지 않게) */
+        public void cancel() {
+            if (cancelled) return;
+            cancelled = true;
+            if (loop.inLoop()) {
+                loop.timers.remove(this);
+            } else {
+                loop.execute(() -> loop.timers.remove(this));
+            }
+        }
+
+        @Override
+        public int compareTo(Timer o) {
+            int c = Long.compare(deadline, o.deadline);
+            return c != 0 ? c : Long.compare(seq, o.seq);
+        }
+    }
+}
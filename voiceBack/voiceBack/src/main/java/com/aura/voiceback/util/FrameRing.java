@@ -0,0 +1,75 @@
+package com.aura.voiceback.util;
+
+import java.util.function.Consumer;
+
+/**
+ * 최근에 보낸 메시지 capacity 개를 보관하는 원형 버퍼 (재접속한 수신자에게 놓친 프레임을 다시 보낼 때).
+ * 칸마다 PooledBuffer 를 retain 해 두고, 가득 차면 가장 오래된 것을 release 하고 덮어쓴다.
+ * 시각은 두 가지: 클라이언트가 마지막으로 받았다고 알려 준 시각과 비교할 timestamp(epoch ms)와 너무 오래된 것을 거를 nanos.
+ * 동기화하지 않는다 (방 루프 전용).
+ */
+public final class FrameRing {
+
+    private final PooledBuffer[] frames;
+    private final long[] timestamps;
+    private final long[] nanos;
+    private int head; // 다음에 쓸 칸
+    private int size;
+
+    public FrameRing(int capacity) {
+        if (capacity <= 0) throw new IllegalArgumentException("capacity must be positive");
+        this.frames = new PooledBuffer[capacity];
+        this.timestamps = new long[capacity];
+        this.nanos = new long[capacity];
+    }
+
+    /** frame 을 retain 해 보관한다 */
+    public void add(PooledBuffer frame, long timestamp, long nowNanos) {
+        PooledBuffer evicted = frames[head];
+        frames[head] = frame.retain();
+        timestamps[head] = timestamp;
+        nanos[head] = nowNanos;
+        head = (head + 1) % frames.length;
+        if (evicted != null) evicted.release();
+        else size++;
+    }
+
+    /**
+     * timestamp 가 fromTs 이상인 것을 오래된 순서로 넘긴다 (같은 ms 에 프레임이 여럿일 수 있어 경계를 포함).
+     * minNanos 보다 먼저 보관된 것은 넘기지 않고 센다.
+     * 넘긴 프레임은 받은 쪽이 따로 retain 해야 한다 (버퍼는 계속 보관).
+     * @return {넘긴 수, 오래돼서 건너뛴 수}
+     */
+    public int[] replay(long fromTs, long minNanos, Consumer<PooledBuffer> out) {
+        int replayed = 0;
+        int skipped = 0;
+        int start = (head - size + frames.length) % frames.length;
+        for (int i = 0; i < size; i++) {
+            int slot = (start + i) % frames.length;
+            if (timestamps[slot] < fromTs) continue;
+            if (nanos[slot] - minNanos < 0) {
+                skipped++;
+            } else {
+                out.accept(frames[slot]);
+                replayed++;
+            }
+        }
+        return new int[]{replayed, skipped};
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /** 보관한 버퍼를 모두 release */
+    public void clear() {
+        for (int i = 0; i < frames.length; i++) {
+            if (frames[i] != null) {
+                frames[i].release();
+                frames[i] = null;
+            }
+        }
+        head = 0;
+        size = 0;
+    }
+}
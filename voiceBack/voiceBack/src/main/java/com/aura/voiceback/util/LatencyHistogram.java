@@ -0,0 +1,71 @@
+package com.aura.voiceback.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 고정 메모리 로그-선형 히스토그램 (HdrHistogram 과 같은 버킷 구조, 유효숫자 약 3%).
+ * 값 단위는 호출하는 쪽이 정한다 (보통 마이크로초). 여러 스레드에서 lock 없이 record 가능.
+ */
+public class LatencyHistogram {
+
+    private static final int SUB_BITS = 5;
+    private static final int SUB = 1 << SUB_BITS; // 2^k 구간당 버킷 수
+
+    private final long maxValue;
+    private final AtomicLongArray buckets;
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong sum = new AtomicLong();
+    private final AtomicLong max = new AtomicLong();
+
+    public LatencyHistogram(long maxValue) {
+        this.maxValue = maxValue;
+        this.buckets = new AtomicLongArray(index(maxValue) + 1);
+    }
+
+    public void record(long value) {
+        long v = Math.max(0, Math.min(value, maxValue));
+        buckets.incrementAndGet(index(v));
+        count.incrementAndGet();
+        sum.addAndGet(v);
+        long m;
+        while (v > (m = max.get()) && !max.compareAndSet(m, v)) {
+            // 다른 스레드가 먼저 갱신했으면 다시 비교
+        }
+    }
+
+    /** @param percentile 0 ~ 100 */
+    public long percentile(double percentile) {
+        long total = count.get();
+        if (total == 0) return 0;
+        long rank = (long) Math.ceil(total * percentile / 100.0);
+        long seen = 0;
+        for (int i = 0; i < buckets.length(); i++) {
+            seen += buckets.get(i);
+            if (seen >= Math.max(1, rank)) {
+                return Math.min(upperBound(i), max.get());
+            }
+        }
+        return max.get();
+    }
+
+    public long getCount() { return count.get(); }
+    public long getMax() { return max.get(); }
+    public double getMean() {
+        long n = count.get();
+        return n == 0 ? 0 : (double) sum.get() / n;
+    }
+
+    static int index(long v) {
+        if (v < SUB) return (int) v;
+        int shift = 63 - Long.numberOfLeadingZeros(v) - SUB_BITS;
+        return (shift + 1) * SUB + (int) ((v >>> shift) - SUB);
+    }
+
+    static long upperBound(int index) {
+        if (index < SUB) return index;
+        int shift = index / SUB - 1;
+        long mantissa = index % SUB + SUB;
+        return ((mantissa + 1) << shift) - 1;
+    }
+}
@@ -0,0 +1,87 @@
+package com.aura.voiceback.util;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * BufferPool 에서 빌린 버퍼 + 참조 카운트.
+ * 한 프레임을 여러 수신자에게 보낼 때 수신자 대기열마다 retain() 하고, 보낸 뒤 release() 한다.
+ * 카운트가 0 이 되면 풀로 돌아가므로 그 뒤에는 buffer() / readView() 를 쓰면 안 된다.
+ */
+public final class PooledBuffer {
+
+    private final BufferPool pool; // null 이면 풀에 속하지 않은 버퍼 (wrap / 큰 프레임)
+    final int sizeClass;
+    private final ByteBuffer buffer;
+    private final AtomicInteger refCnt = new AtomicInteger();
+    private int length;
+    // leak detection 모드에서만 사용
+    BufferPool.LeakState leak;
+    Object leakTracker;
+
+    PooledBuffer(BufferPool pool, int sizeClass, ByteBuffer buffer) {
+        this.pool = pool;
+        this.sizeClass = sizeClass;
+        this.buffer = buffer;
+    }
+
+    /** 이미 있는 byte[] 를 감싼다 (풀로 돌아가지 않음) */
+    public static PooledBuffer wrap(byte[] bytes) {
+        PooledBuffer b = new PooledBuffer(null, -1, ByteBuffer.wrap(bytes));
+        b.reset(bytes.length);
+        return b;
+    }
+
+    void reset(int length) {
+        this.length = length;
+        buffer.clear().limit(length);
+        refCnt.set(1);
+    }
+
+    /** 쓰기용: position 0, limit = 요청한 크기. 절대 위치 put 을 권장 */
+    public ByteBuffer buffer() {
+        return buffer;
+    }
+
+    public int length() {
+        return length;
+    }
+
+    /** 요청 크기보다 적게 채웠을 때 실제 길이로 줄인다 (예: 프레임을 모으다 일찍 보내는 경우) */
+    public PooledBuffer truncate(int length) {
+        if (length < 0 || length > this.length) {
+            throw new IllegalStateException("truncate " + length + " > " + this.length);
+        }
+        this.length = length;
+        buffer.limit(length);
+        return this;
+    }
+
+    /** 읽기용 view (position 0 ~ length). 소비하는 쪽이 position 을 옮겨도 원본에는 영향 없음 */
+    public ByteBuffer readView() {
+        return buffer.duplicate().clear().limit(length);
+    }
+
+    public int refCnt() {
+        return refCnt.get();
+    }
+
+    public PooledBuffer retain() {
+        int r;
+        do {
+            r = refCnt.get();
+            if (r <= 0) throw new IllegalStateException("buffer already released");
+        } while (!refCnt.compareAndSet(r, r + 1));
+        return this;
+    }
+
+    public void release() {
+        int r = refCnt.decrementAndGet();
+        if (r == 0) {
+            if (pool != null) pool.recycle(this);
+        } else if (r < 0) {
+            refCnt.incrementAndGet();
+            throw new IllegalStateException("buffer released more times than retained");
+        }
+    }
+}
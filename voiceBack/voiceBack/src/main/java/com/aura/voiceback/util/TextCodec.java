@@ -0,0 +1,143 @@
+package com.aura.voiceback.util;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * 요약 텍스트 압축 저장 형식. 첫 바이트가 형식 버전이고 나머지가 본문이다.
+ *   0x00 RAW         : UTF-8 그대로 (압축해도 작아지지 않는 짧은 글)
+ *   0x01 DEFLATE_V1  : raw Deflate + 미리 정한 사전 (compression/summary-dict-v1.txt)
+ * 한국어 UTF-8 은 글자당 3바이트라 짧은 요약은 일반 Deflate 로는 거의 줄지 않는다.
+ * 요약에 자주 나오는 표현을 사전으로 넣어 두면 첫 문장부터 back-reference 로 줄일 수 있다.
+ * 사전을 바꿀 때는 새 버전 바이트를 만들고 예전 사전은 읽기용으로 남겨 둬야 한다 (저장된 행을 풀 수 있게).
+ */
+public final class TextCodec {
+
+    public static final byte RAW = 0x00;
+    public static final byte DEFLATE_V1 = 0x01;
+
+    private static final byte[] DICTIONARY_V1 = load("/compression/summary-dict-v1.txt");
+
+    private TextCodec() {
+    }
+
+    public static byte[] encode(String text) {
+        byte[] raw = text.getBytes(StandardCharsets.UTF_8);
+        Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION, true);
+        try {
+            deflater.setDictionary(DICTIONARY_V1);
+            deflater.setInput(raw);
+            deflater.finish();
+            byte[] out = new byte[raw.length + 1];
+            out[0] = DEFLATE_V1;
+            int length = 1;
+            while (!deflater.finished() && length < out.length) {
+                length += deflater.deflate(out, length, out.length - length);
+            }
+            if (deflater.finished() && length < raw.length + 1) {
+                return Arrays.copyOf(out, length);
+            }
+        } finally {
+            deflater.end();
+        }
+        // 압축해도 크기가 같거나 커지면 원문 그대로
+        byte[] out = new byte[raw.length + 1];
+        out[0] = RAW;
+        System.arraycopy(raw, 0, out, 1, raw.length);
+        return out;
+    }
+
+    public static String decode(byte[] data) {
+        if (data.length == 0) return "";
+        return switch (data[0]) {
+            case RAW -> new String(data, 1, data.length - 1, StandardCharsets.UTF_8);
+            case DEFLATE_V1 -> inflate(data, DICTIONARY_V1);
+            default -> throw new IllegalStateException("unknown text format version: " + data[0]);
+        };
+    }
+
+    private static String inflate(byte[] data, byte[] dictionary) {
+        Inflater inflater = new Inflater(true);
+        try {
+            inflater.setDictionary(dictionary); // raw Deflate 는 헤더가 없어 사전을 먼저 넣는다
+            inflater.setInput(data, 1, data.length - 1);
+            ByteArrayOutputStream out = new ByteArrayOutputStream(data.length * 4);
+            byte[] chunk = new byte[Math.max(256, data.length * 4)];
+            boolean padded = false;
+            while (!inflater.finished()) {
+                int n = inflater.inflate(chunk);
+                if (n == 0) {
+                    // nowrap 모드는 끝에 여분 바이트가 하나 필요할 수 있다. 그래도 안 끝나면 잘린 데이터
+                    if (padded || !inflater.needsInput()) throw new IllegalStateException("truncated compressed text");
+                    inflater.setInput(new byte[1]);
+                    padded = true;
+                }
+                out.write(chunk, 0, n);
+            }
+            return out.toString(StandardCharsets.UTF_8);
+        } catch (DataFormatException e) {
+            throw new IllegalStateException("corrupt compressed text", e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    /**
+     * 표본 요약들에서 Deflate 사전을 만든다 (새 사전 버전을 만들 때 쓰는 도구).
+     * 공백으로 나눈 1~3 단어 묶음을 (등장 횟수 - 1) x 바이트 수로 점수를 매겨 maxBytes 까지 고르고,
+     * 점수가 높은 것을 뒤에 둔다 (Deflate 는 가까운 위치를 더 짧게 참조한다).
+     */
+    public static byte[] train(List<String> samples, int maxBytes) {
+        Map<String, Integer> counts = new HashMap<>();
+        for (String sample : samples) {
+            String[] words = sample.split("\\s+");
+            for (int n = 1; n <= 3; n++) {
+                for (int i = 0; i + n <= words.length; i++) {
+                    counts.merge(String.join(" ", Arrays.copyOfRange(words, i, i + n)) + " ", 1, Integer::sum);
+                }
+            }
+        }
+        List<Map.Entry<String, Integer>> ranked = new ArrayList<>(counts.entrySet());
+        ranked.removeIf(e -> e.getValue() < 2 || e.getKey().length() < 3);
+        ranked.sort(Comparator.comparingLong((Map.Entry<String, Integer> e) ->
+                (long) (e.getValue() - 1) * e.getKey().getBytes(StandardCharsets.UTF_8).length).reversed());
+
+        List<byte[]> picked = new ArrayList<>();
+        StringBuilder seen = new StringBuilder();
+        int size = 0;
+        for (Map.Entry<String, Integer> e : ranked) {
+            if (seen.indexOf(e.getKey()) >= 0) continue; // 이미 고른 묶음 안에 들어 있음
+            byte[] bytes = e.getKey().getBytes(StandardCharsets.UTF_8);
+            if (size + bytes.length > maxBytes) continue;
+            picked.add(bytes);
+            seen.append(e.getKey());
+            size += bytes.length;
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream(size);
+        for (int i = picked.size() - 1; i >= 0; i--) {
+            out.writeBytes(picked.get(i));
+        }
+        return out.toByteArray();
+    }
+
+    private static byte[] load(String resource) {
+        try (InputStream in = TextCodec.class.getResourceAsStream(resource)) {
+            if (in == null) throw new IllegalStateException("missing compression dictionary " + resource);
+            return in.readAllBytes();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
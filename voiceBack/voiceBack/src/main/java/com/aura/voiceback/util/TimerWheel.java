@@ -0,0 +1,109 @@
+package com.aura.voiceback.util;
+
+import java.util.function.Consumer;
+
+/**
+ * 해시 타이머 휠. 만료 시각을 tickMs 단위 칸(wheelSize 개, 원형)에 나눠 담고 advance() 는 지나간 칸만 훑는다.
+ * 등록/취소는 O(1) (칸마다 이중 연결 리스트), 한 틱에 보는 것은 그 칸에 든 타이머뿐이다.
+ * 휠 한 바퀴보다 먼 만료는 같은 칸에 들어가 있다가 deadline 이 될 때까지 건너뛴다.
+ * 동기화하지 않는다. 여러 스레드에서 쓰면 호출하는 쪽이 lock 을 잡는다.
+ */
+public class TimerWheel<K> {
+
+    private final long tickMs;
+    private final int mask;
+    private final Timeout<K>[] slots; // 각 칸의 head (빈 sentinel)
+    private long currentTick;         // 마지막으로 처리한 틱
+    private int size;
+
+    @SuppressWarnings("unchecked")
+    public TimerWheel(long tickMs, int wheelSize, long nowMs) {
+        if (tickMs <= 0 || wheelSize <= 0) {
+            throw new IllegalArgumentException("tickMs and wheelSize must be positive");
+        }
+        int n = Integer.highestOneBit(Math.max(1, wheelSize - 1) << 1); // 2 의 거듭제곱
+        this.tickMs = tickMs;
+        this.mask = n - 1;
+        this.slots = new Timeout[n];
+        for (int i = 0; i < n; i++) {
+            Timeout<K> head = new Timeout<>(null, 0);
+            head.prev = head;
+            head.next = head;
+            slots[i] = head;
+        }
+        this.currentTick = nowMs / tickMs;
+    }
+
+    /** deadlineMs 가 지난 뒤 첫 advance() 에서 key 가 만료된다 (최대 tickMs 늦게) */
+    public Timeout<K> schedule(K key, long deadlineMs) {
+        long tick = Math.max(ceilDiv(deadlineMs, tickMs), currentTick + 1);
+        Timeout<K> timeout = new Timeout<>(key, tick);
+        Timeout<K> head = slots[(int) (tick & mask)];
+        timeout.prev = head.prev;
+        timeout.next = head;
+        head.prev.next = timeout;
+        head.prev = timeout;
+        size++;
+        return timeout;
+    }
+
+    public void cancel(Timeout<K> timeout) {
+        if (timeout == null || timeout.next == null) return;
+        unlink(timeout);
+    }
+
+    /** nowMs 까지 만료된 타이머를 꺼내 expired 에 넘긴다. @return 만료된 수 */
+    public int advance(long nowMs, Consumer<K> expired) {
+        long nowTick = nowMs / tickMs;
+        int count = 0;
+        // 한 바퀴 넘게 밀렸으면 모든 칸을 한 번씩만 본다
+        long last = Math.min(nowTick, currentTick + slots.length);
+        for (long t = currentTick + 1; t <= last; t++) {
+            Timeout<K> head = slots[(int) (t & mask)];
+            Timeout<K> node = head.next;
+            while (node != head) {
+                Timeout<K> next = node.next;
+                if (node.deadlineTick <= nowTick) {
+                    unlink(node);
+                    expired.accept(node.key);
+                    count++;
+                }
+                node = next;
+            }
+        }
+        if (nowTick > currentTick) currentTick = nowTick;
+        return count;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private void unlink(Timeout<K> timeout) {
+        timeout.prev.next = timeout.next;
+        timeout.next.prev = timeout.prev;
+        timeout.prev = null;
+        timeout.next = null;
+        size--;
+    }
+
+    private static long ceilDiv(long x, long y) {
+        return -Math.floorDiv(-x, y);
+    }
+
+    public static final class Timeout<K> {
+        private final K key;
+        private final long deadlineTick;
+        private Timeout<K> prev;
+        private Timeout<K> next;
+
+        private Timeout(K key, long deadlineTick) {
+            this.key = key;
+            this.deadlineTick = deadlineTick;
+        }
+
+        public K getKey() {
+            return key;
+        }
+    }
+}
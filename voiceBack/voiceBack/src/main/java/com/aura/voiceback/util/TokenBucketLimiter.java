@@ -0,0 +1,116 @@
+package com.aura.voiceback.util;
+
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 키(IP, email, 전화번호 등)별 토큰 버킷. lock 없이 여러 스레드에서 호출한다.
+ *  - 버킷은 GCRA 형태로 long 하나(tat: 버킷이 가득 차는 시각)만 들고, 요청마다 CAS 한 번으로 토큰을 꺼낸다.
+ *    초당 ratePerSecond 개씩 차고 최대 burst 개까지 쌓이는 토큰 버킷과 같은 결과다.
+ *  - 키는 stripes 개의 ConcurrentHashMap 에 나눠 담아 한 맵이 커지거나 경합이 몰리지 않게 한다.
+ *  - 메모리 상한: 스트라이프가 maxKeys / stripes 에 닿으면 들어온 순서 큐의 앞쪽부터 훑어 이미 가득 찬 버킷(tat <= now)만 버린다.
+ *    가득 찬 버킷은 새 버킷과 구별되지 않으므로 버려도 잃는 것이 없다. 아직 토큰을 덜 채운(최근에 쓴) 버킷은
+ *    절대 버리지 않는다: 그걸 버리면 공격자가 새 키를 쏟아부어 남의 한도를 초기화할 수 있다.
+ *    훑어도 비울 자리가 없으면 새 키는 만들지 않고 거절한다 (getOverflows). 버리지 않은 키는 큐 뒤로 돌려보낸다
+ *    (CLOCK 과 같은 방식). ConcurrentHashMap 반복자로 훑으면 앞쪽 칸이 비어 갈수록 빈 칸을 훑는 비용이 커져서 쓰지 않는다.
+ */
+public class TokenBucketLimiter {
+
+    // 자리가 없을 때 한 번에 훑는 키 수 (이 안의 가득 찬 버킷은 모두 버린다)
+    private static final int EVICTION_SCAN = 32;
+
+    private final long intervalNanos;   // 토큰 하나가 차는 시간
+    private final long toleranceNanos;  // burst 만큼 미리 당겨 쓸 수 있는 시간
+    private final int keysPerStripe;
+    private final int stripeShift;
+    private final Stripe[] stripes;
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder overflows = new LongAdder();
+
+    public TokenBucketLimiter(double ratePerSecond, int burst, int maxKeys, int stripes) {
+        if (ratePerSecond <= 0 || burst < 1) {
+            throw new IllegalArgumentException("rate and burst must be positive");
+        }
+        int n = Integer.highestOneBit(Math.max(1, stripes - 1) << 1); // 2 의 거듭제곱
+        this.intervalNanos = (long) (1_000_000_000L / ratePerSecond);
+        this.toleranceNanos = intervalNanos * (burst - 1);
+        this.keysPerStripe = Math.max(1, maxKeys / n);
+        this.stripeShift = 32 - Integer.numberOfTrailingZeros(n);
+        this.stripes = new Stripe[n];
+        for (int i = 0; i < n; i++) {
+            this.stripes[i] = new Stripe();
+        }
+    }
+
+    /** @return 0 이면 허용, 아니면 다음 토큰까지 남은 시간 (ns). 키 상한에 걸린 새 키는 토큰 하나 간격만큼 기다리게 한다 */
+    public long tryAcquire(String key, long nowNanos) {
+        Stripe stripe = stripes[stripeOf(key)];
+        AtomicLong tat = stripe.buckets.get(key);
+        if (tat == null) {
+            if (stripe.buckets.size() >= keysPerStripe && !evict(stripe, nowNanos)) {
+                overflows.increment();
+                return intervalNanos;
+            }
+            tat = stripe.buckets.computeIfAbsent(key, k -> {
+                stripe.order.add(k);
+                return new AtomicLong(nowNanos);
+            });
+        }
+
+        while (true) {
+            long current = tat.get();
+            long base = Math.max(current, nowNanos);
+            long wait = base - toleranceNanos - nowNanos;
+            if (wait > 0) return wait;
+            if (tat.compareAndSet(current, base + intervalNanos)) return 0;
+        }
+    }
+
+    public int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) size += stripe.buckets.size();
+        return size;
+    }
+
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    /** 활성 버킷만으로 키 상한이 차 있어 새 키를 거절한 횟수 */
+    public long getOverflows() {
+        return overflows.sum();
+    }
+
+    // 큐 앞쪽 EVICTION_SCAN 개 중 가득 찬 버킷을 모두 버린다. @return 하나라도 버렸으면 true
+    private boolean evict(Stripe stripe, long nowNanos) {
+        boolean freed = false;
+        for (int i = 0; i < EVICTION_SCAN; i++) {
+            String key = stripe.order.poll();
+            if (key == null) break;
+            AtomicLong tat = stripe.buckets.get(key);
+            if (tat == null) continue;
+            if (tat.get() <= nowNanos && stripe.buckets.remove(key, tat)) {
+                evictions.increment();
+                freed = true;
+            } else {
+                stripe.order.add(key);
+            }
+        }
+        return freed;
+    }
+
+    // 윗비트로 스트라이프를 고른다 (아랫비트는 스트라이프 안의 ConcurrentHashMap 이 쓴다)
+    int stripeOf(String key) {
+        return (key.hashCode() * 0x9E3779B1) >>> stripeShift;
+    }
+
+    private static final class Stripe {
+        // 키 -> tat
+        final Map<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+        final Queue<String> order = new ConcurrentLinkedQueue<>();
+    }
+}
@@ -0,0 +1,97 @@
+package com.aura.voiceback.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * 비동기 write-behind 버퍼.
+ * 요청 스레드는 offer() 로 큐에 넣기만 하고, 전용 스레드가 batchSize 개가 쌓이거나
+ * flushInterval 이 지날 때마다 묶어서 flusher 에 넘긴다.
+ * 큐가 가득 차면 요청 스레드를 막지 않고 버린다 (dropped 카운트).
+ */
+public class WriteBehindBuffer<T> implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(WriteBehindBuffer.class);
+
+    private final String name;
+    private final BlockingQueue<T> queue;
+    private final int batchSize;
+    private final Consumer<List<T>> flusher;
+    private final ScheduledExecutorService executor;
+    private final AtomicBoolean flushPending = new AtomicBoolean();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+
+    public WriteBehindBuffer(String name, int capacity, int batchSize, long flushIntervalMs,
+                             Consumer<List<T>> flusher) {
+        this.name = name;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.batchSize = batchSize;
+        this.flusher = flusher;
+        this.executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, name + "-writer");
+            t.setDaemon(true);
+            return t;
+        });
+        this.executor.scheduleWithFixedDelay(this::drain, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    public boolean offer(T item) {
+        if (!queue.offer(item)) {
+            dropped.incrementAndGet();
+            return false;
+        }
+        // 크기 임계치 도달 시 타이머를 기다리지 않고 바로 flush 예약 (중복 예약 방지)
+        if (queue.size() >= batchSize && flushPending.compareAndSet(false, true)) {
+            try {
+                executor.execute(() -> {
+                    flushPending.set(false);
+                    drain();
+                });
+            } catch (RuntimeException e) {
+                flushPending.set(false); // 종료 중이면 close() 에서 마저 비운다
+            }
+        }
+        return true;
+    }
+
+    // 큐가 빌 때까지 batchSize 단위로 flush
+    public synchronized void drain() {
+        List<T> batch = new ArrayList<>(batchSize);
+        while (queue.drainTo(batch, batchSize) > 0) {
+            try {
+                flusher.accept(batch);
+            } catch (RuntimeException e) {
+                failed.addAndGet(batch.size());
+                log.error("[{}] batch flush failed ({} rows)", name, batch.size(), e);
+            }
+            batch.clear();
+        }
+    }
+
+    public int size() { return queue.size(); }
+    public long getDropped() { return dropped.get(); }
+    public long getFailed() { return failed.get(); }
+
+    @Override
+    public void close() {
+        executor.shutdown();
+        try {
+            executor.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        drain();
+    }
+}
@@ -0,0 +1,57 @@
+package com.aura.voiceback.websocket;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketExtension;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.security.Principal;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 실제 연결이 없는 WebSocketSession (벤치마크, 시작 워밍업): 보낸 메시지는 바이트 수만 세고 버린다.
+ */
+public class DiscardingWebSocketSession implements WebSocketSession {
+
+    private final String id;
+    private final Map<String, Object> attributes = new ConcurrentHashMap<>();
+    private final LongAdder sentBytes = new LongAdder();
+    private volatile boolean open = true;
+
+    public DiscardingWebSocketSession(String id, String roomId) {
+        this.id = id;
+        attributes.put(RoomHandshakeInterceptor.ROOM_ID, roomId);
+    }
+
+    public long getSentBytes() { return sentBytes.sum(); }
+
+    @Override public String getId() { return id; }
+    @Override public URI getUri() { return URI.create("ws://localhost/ws/voip"); }
+    @Override public HttpHeaders getHandshakeHeaders() { return new HttpHeaders(); }
+    @Override public Map<String, Object> getAttributes() { return attributes; }
+    @Override public Principal getPrincipal() { return null; }
+    @Override public InetSocketAddress getLocalAddress() { return null; }
+    @Override public InetSocketAddress getRemoteAddress() { return null; }
+    @Override public String getAcceptedProtocol() { return null; }
+    @Override public void setTextMessageSizeLimit(int messageSizeLimit) { }
+    @Override public int getTextMessageSizeLimit() { return Integer.MAX_VALUE; }
+    @Override public void setBinaryMessageSizeLimit(int messageSizeLimit) { }
+    @Override public int getBinaryMessageSizeLimit() { return Integer.MAX_VALUE; }
+    @Override public List<WebSocketExtension> getExtensions() { return Collections.emptyList(); }
+
+    @Override
+    public void sendMessage(WebSocketMessage<?> message) {
+        sentBytes.add(message.getPayloadLength());
+    }
+
+    @Override public boolean isOpen() { return open; }
+    @Override public void close() { open = false; }
+    @Override public void close(CloseStatus status) { open = false; }
+}
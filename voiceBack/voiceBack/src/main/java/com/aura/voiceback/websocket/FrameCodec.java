@@ -0,0 +1,108 @@
+package com.aura.voiceback.websocket;
+
+import java.nio.ByteBuffer;
+
+/**
+ * /ws/voip 바이너리 프레임 v2 (?proto=2 로 접속한 클라이언트).
+ * 하나의 소켓에서 오디오 / 제어 메시지 / AI 결과를 같이 보낸다. 모든 값은 big-endian.
+ *
+ *   [0] magic 0xAF   [1] version 2   [2] type   [3] flags
+ *   [4] codec        [5] headerLen   [6..7] sampleRate / 100 (오디오 프레임, 0 이면 48kHz)
+ *   [8..11] streamId   [12..15] seq (uint32)   [16..23] timestamp (epoch ms)   [24..27] payloadLen
+ *   [headerLen ..] payload
+ *
+ * headerLen 은 최소 28. FLAG_RELAY_TS 가 있으면 헤더 뒤에 relayIngressTs, relayEgressTs (각 8 bytes) 가 붙는다.
+ * 모르는 확장 필드가 있어도 headerLen 만큼 건너뛰면 payload 를 읽을 수 있다.
+ * 한 메시지에 프레임을 여러 개 이어 붙일 수 있고, 모르는 type 의 프레임은 payloadLen 만큼 건너뛴다.
+ * 서버는 링크가 나쁜 수신자에게 샘플레이트를 낮추거나(sampleRate 필드) 프레임 여러 개를 한 메시지로 보낸다.
+ */
+public final class FrameCodec {
+
+    public static final byte MAGIC = (byte) 0xAF;
+    public static final byte VERSION = 2;
+    public static final int HEADER_LENGTH = 28;
+    public static final int RELAY_TS_LENGTH = 16;
+
+    // type
+    public static final int TYPE_AUDIO = 1;
+    public static final int TYPE_CONTROL = 2;     // payload: UTF-8 JSON (예: playout 보고)
+    public static final int TYPE_AI_RESULT = 3;   // payload: UTF-8 JSON (서버 -> 클라이언트)
+    public static final int TYPE_FEC = 4;         // payload: XOR parity (media/FecEncoder, 서버 -> fec=1 클라이언트)
+
+    // flags
+    public static final int FLAG_OUTBOUND = 0x01;
+    public static final int FLAG_RELAY_TS = 0x02;
+    public static final int FLAG_CONCEALED = 0x04;  // 서버가 손실 자리를 채운 프레임 (PLC)
+
+    // codec
+    public static final int CODEC_NONE = 0;
+    public static final int CODEC_PCM16 = 1;      // mono 16bit little-endian, 기본 48kHz (sampleRate 필드)
+    public static final int CODEC_WAV = 2;
+
+    public static final int DEFAULT_SAMPLE_RATE = 48000;
+
+    private FrameCodec() {
+    }
+
+    public static int headerLength(int flags) {
+        return (flags & FLAG_RELAY_TS) != 0 ? HEADER_LENGTH + RELAY_TS_LENGTH : HEADER_LENGTH;
+    }
+
+    /**
+     * dst 의 offset 위치에 헤더를 쓴다 (position 은 바꾸지 않음).
+     * @return payload 를 써야 할 위치
+     */
+    public static int writeHeader(ByteBuffer dst, int offset, int type, int flags, int codec, int streamId,
+                                  long seq, long timestamp, int payloadLength,
+                                  long relayIngressTs, long relayEgressTs) {
+        int headerLength = headerLength(flags);
+        dst.put(offset, MAGIC)
+                .put(offset + 1, VERSION)
+                .put(offset + 2, (byte) type)
+                .put(offset + 3, (byte) flags)
+                .put(offset + 4, (byte) codec)
+                .put(offset + 5, (byte) headerLength)
+                .putShort(offset + 6, (short) 0)
+                .putInt(offset + 8, streamId)
+                .putInt(offset + 12, (int) seq)
+                .putLong(offset + 16, timestamp)
+                .putInt(offset + 24, payloadLength);
+        if ((flags & FLAG_RELAY_TS) != 0) {
+            dst.putLong(offset + HEADER_LENGTH, relayIngressTs)
+                    .putLong(offset + HEADER_LENGTH + 8, relayEgressTs);
+        }
+        return offset + headerLength;
+    }
+
+    /** offset ~ limit 에 이어 붙은 프레임 중 relay 시각이 있는 것의 relayEgressTs 를 고쳐 쓴다 (묶어 보낼 때 실제 송신 시각으로) */
+    public static void writeRelayEgressTs(ByteBuffer dst, int offset, int limit, long relayEgressTs) {
+        while (offset + HEADER_LENGTH <= limit) {
+            int headerLength = dst.get(offset + 5) & 0xFF;
+            if ((dst.get(offset + 3) & FLAG_RELAY_TS) != 0) {
+                dst.putLong(offset + HEADER_LENGTH + 8, relayEgressTs);
+            }
+            offset += headerLength + dst.getInt(offset + 24);
+        }
+    }
+
+    /** writeHeader 로 쓴 오디오 프레임에 샘플레이트를 기록 (100Hz 단위, 48kHz 는 0 그대로 둔다) */
+    public static void writeSampleRate(ByteBuffer dst, int offset, int sampleRate) {
+        dst.putShort(offset + 6, sampleRate == DEFAULT_SAMPLE_RATE ? 0 : (short) (sampleRate / 100));
+    }
+
+    public static byte[] encode(int type, int flags, int codec, int streamId, long seq, long timestamp,
+                                ByteBuffer payload) {
+        return encode(type, flags & ~FLAG_RELAY_TS, codec, streamId, seq, timestamp, payload, 0, 0);
+    }
+
+    public static byte[] encode(int type, int flags, int codec, int streamId, long seq, long timestamp,
+                                ByteBuffer payload, long relayIngressTs, long relayEgressTs) {
+        int payloadLength = payload.remaining();
+        byte[] out = new byte[headerLength(flags) + payloadLength];
+        ByteBuffer dst = ByteBuffer.wrap(out);
+        int at = writeHeader(dst, 0, type, flags, codec, streamId, seq, timestamp, payloadLength,
+                relayIngressTs, relayEgressTs);
+        dst.put(at, payload, payload.position(), payloadLength);
+        return out;
+    }
+}
@@ -0,0 +1,71 @@
+package com.aura.voiceback.websocket;
+
+import java.nio.ByteBuffer;
+
+import static com.aura.voiceback.websocket.FrameCodec.*;
+
+/**
+ * v2 프레임 읽기용 flyweight. 버퍼를 복사하지 않고 절대 위치로 헤더 필드를 읽는다.
+ * 메시지 하나에 프레임이 여러 개 있으면 next() 위치로 다시 wrap 한다.
+ *
+ *   FrameView f = new FrameView();
+ *   for (int at = buf.position(); f.wrap(buf, at); at = f.next()) { ... }
+ */
+public final class FrameView {
+
+    private ByteBuffer buf;
+    private int offset;
+    private int headerLength;
+    private int payloadLength;
+
+    public static boolean isPresent(ByteBuffer buf) {
+        int p = buf.position();
+        return buf.remaining() >= HEADER_LENGTH && buf.get(p) == MAGIC && buf.get(p + 1) == VERSION;
+    }
+
+    /**
+     * @return offset 위치에 온전한 v2 프레임이 있으면 true. 잘렸거나 형식이 틀리면 false (예외 없음)
+     */
+    public boolean wrap(ByteBuffer buf, int offset) {
+        this.buf = null;
+        int limit = buf.limit();
+        if (offset < 0 || limit - offset < HEADER_LENGTH) return false;
+        if (buf.get(offset) != MAGIC || buf.get(offset + 1) != VERSION) return false;
+        int hdr = buf.get(offset + 5) & 0xFF;
+        int len = buf.getInt(offset + 24);
+        if (hdr < FrameCodec.headerLength(buf.get(offset + 3)) || len < 0 || len > limit - offset - hdr) return false;
+        this.buf = buf;
+        this.offset = offset;
+        this.headerLength = hdr;
+        this.payloadLength = len;
+        return true;
+    }
+
+    public int type() { return buf.get(offset + 2) & 0xFF; }
+    public int flags() { return buf.get(offset + 3) & 0xFF; }
+    public int codec() { return buf.get(offset + 4) & 0xFF; }
+    public int headerLength() { return headerLength; }
+    public int streamId() { return buf.getInt(offset + 8); }
+    public long seq() { return buf.getInt(offset + 12) & 0xFFFFFFFFL; }
+    public long timestamp() { return buf.getLong(offset + 16); }
+    public int payloadLength() { return payloadLength; }
+
+    public int sampleRate() {
+        int v = buf.getShort(offset + 6) & 0xFFFF;
+        return v == 0 ? DEFAULT_SAMPLE_RATE : v * 100;
+    }
+
+    public boolean hasRelayTimestamps() { return (flags() & FLAG_RELAY_TS) != 0; }
+    public long relayIngressTs() { return buf.getLong(offset + HEADER_LENGTH); }
+    public long relayEgressTs() { return buf.getLong(offset + HEADER_LENGTH + 8); }
+
+    /** payload 영역을 가리키는 view (복사 없음, 원본 버퍼가 살아 있는 동안만 유효) */
+    public ByteBuffer payload() {
+        return buf.slice(offset + headerLength, payloadLength);
+    }
+
+    /** 다음 프레임 시작 위치 */
+    public int next() {
+        return offset + headerLength + payloadLength;
+    }
+}
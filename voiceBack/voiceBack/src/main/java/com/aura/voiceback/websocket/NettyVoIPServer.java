@@ -0,0 +1,123 @@
+package com.aura.voiceback.websocket;
+
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.handler.codec.http.cookie.Cookie;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.core.io.buffer.NettyDataBufferFactory;
+import org.springframework.http.HttpCookie;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.reactive.socket.HandshakeInfo;
+import org.springframework.web.reactive.socket.adapter.ReactorNettyWebSocketSession;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.http.server.HttpServerRequest;
+import reactor.netty.http.server.WebsocketServerSpec;
+import reactor.netty.resources.LoopResources;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * voip.engine=netty 일 때 /ws/voip 를 servlet 컨테이너 대신 Reactor Netty 서버(voip.netty.port)에서 받는다.
+ * 연결마다 스레드를 잡지 않고 Netty 이벤트 루프가 소켓 I/O 를 하며, 송신은 연결별 Flux 로 backpressure 를 받는다.
+ * REST(/auth, /call)는 그대로 servlet 포트에 있으므로 클라이언트(또는 프록시)는 /ws/voip 만 이 포트로 보낸다.
+ */
+@Slf4j
+@Component
+public class NettyVoIPServer implements SmartLifecycle {
+
+    public static final String ENGINE_NETTY = "netty";
+    public static final String ENGINE_SERVLET = "servlet";
+    private static final String PATH = "/ws/voip";
+
+    private final ReactiveVoIPHandler handler;
+    private final boolean enabled;
+    private final String host;
+    private final int port;
+    private final int ioThreads;
+    private final int maxFrameBytes;
+    private final NettyDataBufferFactory bufferFactory = new NettyDataBufferFactory(ByteBufAllocator.DEFAULT);
+    private volatile DisposableServer server;
+    private LoopResources loops;
+
+    public NettyVoIPServer(VoIPWebSocketHandler voipHandler,
+                           @Value("${voip.engine:servlet}") String engine,
+                           @Value("${voip.netty.host:0.0.0.0}") String host,
+                           @Value("${voip.netty.port:8081}") int port,
+                           @Value("${voip.netty.io-threads:0}") int ioThreads,
+                           @Value("${voip.netty.max-frame-bytes:65536}") int maxFrameBytes) {
+        if (!ENGINE_NETTY.equals(engine) && !ENGINE_SERVLET.equals(engine)) {
+            throw new IllegalStateException("알 수 없는 voip.engine: " + engine);
+        }
+        this.handler = new ReactiveVoIPHandler(voipHandler);
+        this.enabled = ENGINE_NETTY.equals(engine);
+        this.host = host;
+        this.port = port;
+        this.ioThreads = ioThreads;
+        this.maxFrameBytes = maxFrameBytes;
+    }
+
+    @Override
+    public void start() {
+        if (!enabled || server != null) return;
+        WebsocketServerSpec spec = WebsocketServerSpec.builder().maxFramePayloadLength(maxFrameBytes).build();
+        HttpServer http = HttpServer.create().host(host).port(port);
+        if (ioThreads > 0) {
+            loops = LoopResources.create("voip-netty", ioThreads, true);
+            http = http.runOn(loops);
+        }
+        server = http.route(routes -> routes.get(PATH, (request, response) -> response.sendWebsocket(
+                        (in, out) -> handler.handle(new ReactorNettyWebSocketSession(in, out,
+                                handshakeInfo(request), bufferFactory, maxFrameBytes)), spec)))
+                .bindNow();
+        log.info("VoIP relay (netty) listening on {}:{}{}", host, server.port(), PATH);
+    }
+
+    private static HandshakeInfo handshakeInfo(HttpServerRequest request) {
+        HttpHeaders headers = new HttpHeaders();
+        request.requestHeaders().forEach(e -> headers.add(e.getKey(), e.getValue()));
+        String authority = headers.getFirst(HttpHeaders.HOST);
+        URI uri = URI.create("ws://" + (authority == null ? "localhost" : authority) + request.uri());
+        // ReactorServerHttpRequest 와 같은 방식으로 쿠키를 옮긴다
+        MultiValueMap<String, HttpCookie> cookies = new LinkedMultiValueMap<>();
+        request.allCookies().forEach((name, values) -> {
+            for (Cookie cookie : values) {
+                cookies.add(name.toString(), new HttpCookie(name.toString(), cookie.value()));
+            }
+        });
+        Map<String, Object> attributes = new HashMap<>();
+        return new HandshakeInfo(uri, headers, cookies, Mono.empty(), null, request.remoteAddress(), attributes, null);
+    }
+
+    @Override
+    public void stop() {
+        DisposableServer s = server;
+        if (s == null) return;
+        server = null;
+        s.disposeNow(Duration.ofSeconds(5));
+        if (loops != null) loops.disposeLater().block(Duration.ofSeconds(5));
+    }
+
+    @Override
+    public boolean isRunning() {
+        return server != null;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /** 실제로 열린 포트 (voip.netty.port=0 이면 임의 포트), 꺼져 있으면 -1 */
+    public int getPort() {
+        DisposableServer s = server;
+        return s == null ? -1 : s.port();
+    }
+}
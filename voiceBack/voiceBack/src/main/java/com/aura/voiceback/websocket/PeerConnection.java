@@ -0,0 +1,494 @@
+package com.aura.voiceback.websocket;
+
+import com.aura.voiceback.media.FecEncoder;
+import com.aura.voiceback.media.FrameBundle;
+import com.aura.voiceback.media.LevelMeter;
+import com.aura.voiceback.media.ProfileController;
+import com.aura.voiceback.media.StreamProfile;
+import com.aura.voiceback.service.FrameCoalescer;
+import com.aura.voiceback.service.VoIPMetrics;
+import com.aura.voiceback.util.EventLoop;
+import com.aura.voiceback.util.FrameRing;
+import com.aura.voiceback.util.PooledBuffer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.PingMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.nio.ByteBuffer;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * /ws/voip 연결 하나 (수신자 단위 송신 대기열 포함).
+ * 프레임은 방 이벤트 루프에서 send() 로 대기열에 넣기만 하고, 실제 WebSocketSession.sendMessage 는
+ * 송신 스레드 풀(sender)에서 연결마다 한 번에 하나씩 비운다. 느린 수신자가 방 루프를 막지 않는다.
+ * 대기열이 상한을 넘으면 새 프레임은 버린다 - 실시간 음성은 늦은 프레임보다 빠진 프레임이 낫다.
+ * 대기열에 들어간 프레임은 retain 해 두고 보낸 뒤(또는 연결 종료 시) release 한다.
+ * netty 엔진 세션(PullingSession)은 송신 스레드 대신 outbound Flux 가 요청한 만큼 poll() 로 직접 꺼내 간다.
+ * proto=2 WebSocket 수신자는 FrameCoalescer 정책으로 쌓인 프레임을 한 메시지로 이어 붙여 보낸다
+ * (RTT 는 ping-interval 마다 보내는 WebSocket ping 의 pong 으로 잰다). profile 의 메시지당 프레임 수만큼 모으는 것도
+ * 여기서 한다 - 방 루프의 FrameBundle 은 WAV 수신자만 쓴다. UDP 로 받는 수신자는 이어 붙이지 않는다.
+ *
+ * 수신 링크 상태(대기열 사용률, 드롭, 전송 시간, 클라이언트가 보고한 손실/지터)를 모아 두고,
+ * 방 루프 타이머가 updateProfile() 로 이 수신자에게 보낼 StreamProfile 을 정한다.
+ * profile / 드롭 수 / 보고 값 / 모으는 중인 프레임(bundles) / FEC 그룹은 방 루프에서만 바꾼다.
+ * 발신자로서는 PLC 용으로 마지막 프레임(lastFrame)을 하나 붙잡아 둔다.
+ *
+ * 재접속(SessionResumption)을 쓰는 연결은 최근 보낸 메시지를 recent 에 보관한다. 소켓이 끊겨 유예 중(suspended)이어도
+ * 방의 수신자로 남아 프레임을 recent 에 계속 쌓고, 새 소켓이 붙으면 reattach() 로 놓친 프레임을 다시 보낸다.
+ */
+public class PeerConnection {
+
+    private static final Logger log = LoggerFactory.getLogger(PeerConnection.class);
+
+    private volatile WebSocketSession session;
+    private final String roomId;
+    private final String userId;
+    private final int streamId;
+    private final boolean traced;
+    private final boolean framed;
+    private final int queueLimitBytes;
+    private final VoIPMetrics metrics;
+    private final Executor sender;
+    private final ProfileController adaptation;
+    private final LevelMeter level;
+    private volatile PullingSession pulling;
+    private final FrameCoalescer coalescer; // proto=2 가 아니거나 꺼져 있으면 null
+    private volatile boolean coalesce;      // 지금 소켓에 이어 붙여 보내는지 (UDP 세션이면 false)
+
+    private final Queue<PooledBuffer> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queuedFrames = new AtomicInteger();
+    private final AtomicInteger queuedBytes = new AtomicInteger();
+    private final AtomicBoolean draining = new AtomicBoolean();
+    // 추적 헤더 없이 보내는 발신자의 프레임 번호 (한 세션의 수신 메시지는 순차 처리)
+    private long relaySeq;
+
+    // 수신 링크 상태 (sendNanosEwma 는 송신 스레드가 쓰고 방 루프가 읽는다)
+    private volatile long sendNanosEwma;
+    private volatile StreamProfile profile = StreamProfile.HIGH;
+    private int dropped;
+    private double reportedLossPct = Double.NaN;
+    private double reportedJitterMs = Double.NaN;
+    // 이어 붙이기 (송신 쪽 - drain 또는 pull - 에서만 쓴다. 한 번에 한 스레드). holdSinceNanos 0 이면 붙잡은 프레임 없음
+    private final PooledBuffer[] batch;
+    private volatile long holdSinceNanos;
+    private final AtomicBoolean wakeArmed = new AtomicBoolean();
+    private long lastPingNanos;
+    private volatile long rttNanos = -1;
+    // 수신자 통계 (송신 쪽이 쓰고 linkStats() 가 읽는다)
+    private volatile long framesSent;
+    private volatile long messagesSent;
+    private volatile long heldMessages;
+    private volatile long heldNanosTotal;
+    private volatile long heldNanosMax;
+    // 발신자 streamId -> 모으는 중인 프레임 (WAV 수신자만)
+    private final Map<Integer, FrameBundle> bundles = new HashMap<>();
+    // fec=1 수신자: 발신자 streamId -> parity 그룹 (groupSize 0 이면 FEC 안 씀)
+    private int fecGroupSize;
+    private final Map<Integer, FecEncoder> fec = new HashMap<>();
+    // 발신자로서 마지막으로 중계한 프레임 (PLC 원본)
+    private PooledBuffer lastFrame;
+    private long lastSeq = -1;
+    private long lastTs;
+    private boolean closed;
+    // 재접속 (방 루프 전용, recent 가 null 이면 재접속 안 함)
+    private FrameRing recent;
+    private String resumeToken;
+    private volatile boolean suspended;
+    private EventLoop.Timer graceTimer;
+
+    public PeerConnection(WebSocketSession session, String roomId, String userId, int streamId,
+                          boolean traced, boolean framed, int queueLimitBytes, VoIPMetrics metrics,
+                          Executor sender, ProfileController adaptation, LevelMeter level, FrameCoalescer coalescer) {
+        this.session = session;
+        this.roomId = roomId;
+        this.userId = userId;
+        this.streamId = streamId;
+        this.traced = traced;
+        this.framed = framed;
+        this.queueLimitBytes = queueLimitBytes;
+        this.metrics = metrics;
+        this.sender = sender;
+        this.adaptation = adaptation;
+        this.level = level;
+        this.coalescer = framed && coalescer != null && coalescer.isEnabled() ? coalescer : null;
+        this.batch = this.coalescer != null ? new PooledBuffer[this.coalescer.getMaxFrames()] : null;
+        useSession(session);
+    }
+
+    private void useSession(WebSocketSession session) {
+        this.session = session;
+        // UDP 는 메시지(패킷)마다 드는 비용이 작고, 이어 붙이면 패킷 하나를 잃을 때 여러 프레임이 같이 빠진다
+        this.coalesce = coalescer != null && !(session instanceof UdpMediaSession);
+        this.pulling = session instanceof PullingSession p ? p : null;
+        if (pulling != null) pulling.attach(this);
+    }
+
+    /** @return false 면 연결이 닫혔거나(유예 중 포함) 대기열이 가득 차서 버려진 것 */
+    public boolean send(PooledBuffer frame) {
+        if (closed) return false; // 닫힌 뒤 recent 에 쌓으면 아무도 release 하지 않는다
+        if (recent != null) {
+            recent.add(frame, relayTs(frame), System.nanoTime());
+        }
+        if (suspended || !session.isOpen()) {
+            return false;
+        }
+        return enqueue(frame);
+    }
+
+    private boolean enqueue(PooledBuffer frame) {
+        int size = frame.length();
+        if (queuedBytes.get() + size > queueLimitBytes) {
+            metrics.frameDropped();
+            dropped++;
+            return false;
+        }
+        queue.add(frame.retain());
+        queuedFrames.incrementAndGet();
+        queuedBytes.addAndGet(size);
+        if (pulling != null) {
+            pulling.framesAvailable();
+        } else if (draining.compareAndSet(false, true)) {
+            sender.execute(this::drain);
+        }
+        return true;
+    }
+
+    private void drain() {
+        do {
+            PooledBuffer message;
+            while ((message = nextMessage()) != null) {
+                long start = System.nanoTime();
+                try {
+                    ByteBuffer ping = nextPing(start);
+                    if (ping != null) session.sendMessage(new PingMessage(ping));
+                    // 블로킹 전송이라 반환 후에는 컨테이너가 버퍼를 더 참조하지 않는다
+                    session.sendMessage(new BinaryMessage(message.readView()));
+                    long took = System.nanoTime() - start;
+                    metrics.recipientSend(took);
+                    sendNanosEwma += (took - sendNanosEwma) / 8;
+                } catch (Exception e) {
+                    metrics.sendFailed();
+                    log.debug("send to {} failed: {}", session.getId(), e.toString());
+                } finally {
+                    message.release();
+                }
+            }
+            draining.set(false);
+            // 플래그를 내린 직후 들어온 프레임은 여기서 다시 잡는다 (붙잡는 중이면 타이머가 깨운다)
+        } while (isReady() && draining.compareAndSet(false, true));
+    }
+
+    /**
+     * PullingSession 용: 다음에 보낼 메시지를 꺼낸다 (없거나 붙잡는 중이면 null). 받은 쪽이 다 쓰고 release 한다.
+     * 소켓에 넘기기까지의 시간은 잴 수 없으므로 sendNanos 대신 대기열 사용률이 링크 상태를 알려 준다.
+     */
+    public PooledBuffer poll() {
+        return nextMessage();
+    }
+
+    /**
+     * 다음 메시지. 이어 붙이기를 쓰면 대기열에 쌓인 프레임을 max-frames / max-bytes 까지 한 버퍼로 합친다.
+     * RTT 가 높아 더 기다려야 하면 null 을 돌려주고, 늦어도 max-delay 에 다시 부르도록 타이머를 건다.
+     */
+    private PooledBuffer nextMessage() {
+        if (!coalesce) {
+            PooledBuffer frame = take();
+            if (frame != null) countSent(1, 0);
+            return frame;
+        }
+        if (queue.isEmpty()) return null;
+        long now = System.nanoTime();
+        long since = holdSinceNanos;
+        long waited = since == 0 ? 0 : now - since;
+        if (coalescer.shouldHold(queuedFrames.get(), queuedBytes.get(), rttNanos, waited, profile.framesPerMessage())) {
+            if (since == 0) holdSinceNanos = now;
+            armWake(coalescer.getMaxDelayNanos() - waited);
+            return null;
+        }
+        holdSinceNanos = 0;
+
+        PooledBuffer first = take();
+        if (first == null) return null; // close() 가 먼저 비웠다
+        int count = 1;
+        int bytes = first.length();
+        batch[0] = first;
+        PooledBuffer next;
+        while (count < batch.length && (next = queue.peek()) != null
+                && bytes + next.length() <= coalescer.getMaxBytes()) {
+            if ((next = take()) == null) break;
+            batch[count++] = next;
+            bytes += next.length();
+        }
+        countSent(count, waited);
+        if (count == 1) {
+            batch[0] = null;
+            return first;
+        }
+        PooledBuffer message = coalescer.getBufferPool().acquire(bytes);
+        ByteBuffer out = message.buffer();
+        int at = 0;
+        for (int i = 0; i < count; i++) {
+            PooledBuffer frame = batch[i];
+            out.put(at, frame.readView(), 0, frame.length());
+            at += frame.length();
+            frame.release();
+            batch[i] = null;
+        }
+        // 이 수신자만의 사본이므로 relayEgressTs 를 실제로 내보내는 지금 시각으로 고친다 (붙잡은 시간은 relay 쪽)
+        FrameCodec.writeRelayEgressTs(out, 0, at, System.currentTimeMillis());
+        metrics.framesCoalesced(count - 1);
+        return message;
+    }
+
+    private PooledBuffer take() {
+        PooledBuffer frame = queue.poll();
+        if (frame != null) {
+            queuedFrames.decrementAndGet();
+            queuedBytes.addAndGet(-frame.length());
+        }
+        return frame;
+    }
+
+    // 지금 보낼 메시지가 있는지 (붙잡는 중이고 아직 기다릴 수 있으면 false)
+    private boolean isReady() {
+        if (queue.isEmpty()) return false;
+        long since = holdSinceNanos;
+        return since == 0 || !coalesce || !coalescer.shouldHold(queuedFrames.get(), queuedBytes.get(), rttNanos,
+                System.nanoTime() - since, profile.framesPerMessage());
+    }
+
+    private void countSent(int frames, long heldNanos) {
+        framesSent += frames;
+        messagesSent++;
+        if (heldNanos > 0) {
+            heldMessages++;
+            heldNanosTotal += heldNanos;
+            if (heldNanos > heldNanosMax) heldNanosMax = heldNanos;
+            metrics.coalesceHeld(heldNanos);
+        }
+    }
+
+    // 붙잡은 프레임을 max-delay 에 보내도록 한 번만 예약한다
+    private void armWake(long remainingNanos) {
+        if (!wakeArmed.compareAndSet(false, true)) return;
+        try {
+            coalescer.wakeAfter(remainingNanos, () -> {
+                wakeArmed.set(false);
+                wake();
+            });
+        } catch (RuntimeException e) {
+            // 종료 중이라 타이머가 없다: 기다리지 않고 지금 보낸다
+            wakeArmed.set(false);
+            holdSinceNanos = System.nanoTime() - coalescer.getMaxDelayNanos();
+        }
+    }
+
+    private void wake() {
+        if (pulling != null) {
+            pulling.framesAvailable();
+        } else if (draining.compareAndSet(false, true)) {
+            sender.execute(this::drain);
+        }
+    }
+
+    /** 송신 쪽에서: RTT 를 잴 때가 되었으면 ping payload (보낸 시각), 아니면 null */
+    public ByteBuffer nextPing(long nowNanos) {
+        if (!coalesce || nowNanos - lastPingNanos < coalescer.getPingIntervalNanos()) return null;
+        lastPingNanos = nowNanos;
+        return ByteBuffer.allocate(Long.BYTES).putLong(0, nowNanos);
+    }
+
+    /** pong 수신: ping 에 담아 보낸 시각으로 RTT 를 잰다 (EWMA) */
+    public void onPong(ByteBuffer payload) {
+        if (payload.remaining() != Long.BYTES) return;
+        long rtt = System.nanoTime() - payload.getLong(payload.position());
+        if (rtt <= 0 || rtt > 10_000_000_000L) return; // 우리가 보낸 ping 이 아니다
+        long previous = rttNanos;
+        rttNanos = previous < 0 ? rtt : previous + (rtt - previous) / 4;
+    }
+
+    /** 수신자 링크 통계: 이어 붙이기로 줄인 메시지 수와 그 대가로 늘어난 지연 */
+    public Map<String, Object> linkStats() {
+        long frames = framesSent;
+        long messages = messagesSent;
+        long held = heldMessages;
+        long rtt = rttNanos;
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("sessionId", getId());
+        stats.put("userId", userId);
+        stats.put("profile", profile.name());
+        stats.put("rttMs", rtt < 0 ? null : rtt / 1e6);
+        stats.put("coalescing", coalesce);
+        stats.put("holding", coalesce && (coalescer.isRttHigh(rtt) || profile.framesPerMessage() > 1));
+        stats.put("suspended", suspended);
+        stats.put("queuedFrames", queuedFrames.get());
+        stats.put("framesSent", frames);
+        stats.put("messagesSent", messages);
+        stats.put("messagesSaved", frames - messages);
+        stats.put("heldMessages", held);
+        stats.put("addedDelayAvgMs", held == 0 ? 0.0 : heldNanosTotal / 1e6 / held);
+        stats.put("addedDelayMaxMs", heldNanosMax / 1e6);
+        return stats;
+    }
+
+    // 클라이언트 수신 보고 (다음 updateProfile 에서 한 번 쓰고 지운다)
+    public void onFeedback(Double lossPct, Double jitterMs) {
+        if (lossPct != null) reportedLossPct = lossPct;
+        if (jitterMs != null) reportedJitterMs = jitterMs;
+    }
+
+    /** 지난 주기의 신호로 profile 을 다시 정한다 */
+    public StreamProfile updateProfile() {
+        profile = adaptation.update((double) queuedBytes.get() / queueLimitBytes, dropped,
+                sendNanosEwma / 1_000_000.0, reportedLossPct, reportedJitterMs);
+        dropped = 0;
+        reportedLossPct = Double.NaN;
+        reportedJitterMs = Double.NaN;
+        return profile;
+    }
+
+    public FrameBundle getBundle(int streamId) {
+        return bundles.get(streamId);
+    }
+
+    public void putBundle(FrameBundle bundle) {
+        bundles.put(bundle.getStreamId(), bundle);
+    }
+
+    public void removeBundle(FrameBundle bundle) {
+        bundles.remove(bundle.getStreamId(), bundle);
+    }
+
+    public Collection<FrameBundle> getBundles() {
+        return bundles.values();
+    }
+
+    public void enableFec(int groupSize) {
+        this.fecGroupSize = groupSize;
+    }
+
+    public boolean isFecEnabled() {
+        return fecGroupSize > 0;
+    }
+
+    public FecEncoder fecEncoder(int streamId) {
+        return fec.computeIfAbsent(streamId, id -> new FecEncoder(fecGroupSize));
+    }
+
+    public Collection<Map.Entry<Integer, FecEncoder>> getFecEncoders() {
+        return fec.entrySet();
+    }
+
+    /** 발신자의 마지막 프레임을 기억한다 (frame 은 retain, 이전 것은 release) */
+    public void rememberFrame(PooledBuffer frame, long seq, long timestamp) {
+        if (closed) return; // 닫힌 뒤에 도착한 중계 작업
+        PooledBuffer previous = lastFrame;
+        lastFrame = frame.retain();
+        lastSeq = seq;
+        lastTs = timestamp;
+        if (previous != null) previous.release();
+    }
+
+    public PooledBuffer getLastFrame() { return lastFrame; }
+    public long getLastSeq() { return lastSeq; }
+    public long getLastTs() { return lastTs; }
+
+    /** 재접속 토큰을 묶고 최근 bufferFrames 개 메시지를 보관하기 시작한다 (방에 넣기 전에) */
+    public void enableResume(String token, int bufferFrames) {
+        this.resumeToken = token;
+        this.recent = new FrameRing(bufferFrames);
+    }
+
+    /** 소켓이 끊겼다: 유예 동안 수신자로 남아 recent 에만 쌓는다 */
+    public void suspend(EventLoop.Timer graceTimer) {
+        this.suspended = true;
+        this.graceTimer = graceTimer;
+    }
+
+    /**
+     * 새 소켓으로 이어받는다. 옛 소켓으로 못 보낸 대기열은 버리고(recent 에 있다) recent 중 fromTs 이후 것을 다시 보낸다.
+     * minNanos 보다 오래된 것은 건너뛴다.
+     * @return {다시 보낸 수, 건너뛴 수}
+     */
+    public int[] reattach(WebSocketSession newSession, long fromTs, long minNanos) {
+        if (graceTimer != null) {
+            graceTimer.cancel();
+            graceTimer = null;
+        }
+        PooledBuffer frame;
+        while ((frame = take()) != null) {
+            frame.release();
+        }
+        holdSinceNanos = 0;
+        lastPingNanos = 0;
+        rttNanos = -1;
+        useSession(newSession);
+        suspended = false;
+        return recent.replay(fromTs, minNanos, this::enqueue);
+    }
+
+    // v2 프레임이면 relayIngressTs (클라이언트가 since 로 돌려주는 값), 아니면 지금 시각
+    private static long relayTs(PooledBuffer frame) {
+        ByteBuffer b = frame.buffer();
+        if (frame.length() >= FrameCodec.HEADER_LENGTH + FrameCodec.RELAY_TS_LENGTH && b.get(0) == FrameCodec.MAGIC
+                && (b.get(3) & FrameCodec.FLAG_RELAY_TS) != 0) {
+            return b.getLong(FrameCodec.HEADER_LENGTH);
+        }
+        return System.currentTimeMillis();
+    }
+
+    public String getResumeToken() { return resumeToken; }
+    public boolean isSuspended() { return suspended; }
+
+    // 연결 종료 후 남은 프레임 반환
+    public void close() {
+        closed = true;
+        if (graceTimer != null) {
+            graceTimer.cancel();
+            graceTimer = null;
+        }
+        if (recent != null) {
+            recent.clear();
+        }
+        for (FrameBundle bundle : bundles.values()) {
+            bundle.getBuffer().release();
+        }
+        bundles.clear();
+        if (lastFrame != null) {
+            lastFrame.release();
+            lastFrame = null;
+        }
+        PooledBuffer frame;
+        while ((frame = take()) != null) {
+            frame.release();
+        }
+    }
+
+    public String getId() { return session.getId(); }
+    public String getRoomId() { return roomId; }
+    public String getUserId() { return userId; }
+    public int getStreamId() { return streamId; }
+    // trace=1 로 접속: 추적 헤더를 보내고 받는다
+    public boolean isTraced() { return traced; }
+    // proto=2 로 접속: FrameCodec v2 프레임을 보내고 받는다
+    public boolean isFramed() { return framed; }
+    public long nextRelaySeq() { return relaySeq++; }
+    public StreamProfile getProfile() { return profile; }
+    // 발신자로서의 음량 (방 루프 전용)
+    public LevelMeter getLevel() { return level; }
+    // 유예 중인 연결도 방의 수신자로 본다 (프레임이 recent 에 쌓인다)
+    public boolean isOpen() { return suspended || session.isOpen(); }
+    public WebSocketSession getSession() { return session; }
+    public int getQueuedFrames() { return queuedFrames.get(); }
+    public int getQueuedBytes() { return queuedBytes.get(); }
+}
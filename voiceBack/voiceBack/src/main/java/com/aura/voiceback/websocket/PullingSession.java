@@ -0,0 +1,16 @@
+package com.aura.voiceback.websocket;
+
+/**
+ * 송신 대기열을 스스로 당겨 가는 세션 (netty 엔진).
+ * PeerConnection 은 송신 스레드 풀에서 sendMessage 를 부르는 대신 프레임이 들어왔다고 알리기만 하고,
+ * 세션은 네트워크가 더 받을 수 있을 때 PeerConnection.poll() 로 꺼내 간다.
+ * 소켓이 밀리면 프레임은 PeerConnection 대기열에 남으므로 상한 / 드롭 / profile 조정은 servlet 엔진과 똑같이 동작한다.
+ */
+public interface PullingSession {
+
+    /** PeerConnection 을 만들 때 한 번 불린다 */
+    void attach(PeerConnection peer);
+
+    /** 대기열에 프레임이 들어왔다 (방 루프에서 호출, 막히면 안 된다) */
+    void framesAvailable();
+}
@@ -0,0 +1,90 @@
+package com.aura.voiceback.websocket;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.web.reactive.socket.WebSocketHandler;
+import org.springframework.web.reactive.socket.WebSocketMessage;
+import org.springframework.web.reactive.socket.WebSocketSession;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.PongMessage;
+import org.springframework.web.socket.TextMessage;
+import reactor.core.publisher.Mono;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * netty 엔진의 /ws/voip. 수신 메시지를 servlet 메시지 모양으로 바꿔 VoIPWebSocketHandler 에 그대로 넘긴다
+ * (형식 판별, 제어 메시지, 방 라우팅은 servlet 엔진과 같은 코드).
+ * 수신 처리는 Netty 이벤트 루프에서 돈다. forwardAudio 가 풀 버퍼에 복사하고 방 루프로 넘기기만 하므로 막히지 않는다.
+ */
+@Slf4j
+public class ReactiveVoIPHandler implements WebSocketHandler {
+
+    private final VoIPWebSocketHandler delegate;
+
+    public ReactiveVoIPHandler(VoIPWebSocketHandler delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public Mono<Void> handle(WebSocketSession session) {
+        ReactiveVoIPSession adapter = new ReactiveVoIPSession(session);
+        try {
+            delegate.afterConnectionEstablished(adapter);
+        } catch (Exception e) {
+            return Mono.error(e);
+        }
+        // close frame 없이 끊기면(네트워크 단절) 1005 로 남는다 -> 재접속 대기
+        AtomicReference<CloseStatus> closeStatus = new AtomicReference<>(CloseStatus.NO_CLOSE_FRAME);
+        session.closeStatus().subscribe(status -> closeStatus.set(new CloseStatus(status.getCode(), status.getReason())));
+        // 클라이언트가 끊으면 수신이 끝나고, 그때 송신 스트림도 닫는다
+        Mono<Void> input = session.receive()
+                .doOnNext(message -> dispatch(adapter, message))
+                .then()
+                .doFinally(signal -> adapter.complete());
+        Mono<Void> output = session.send(adapter.outbound());
+        return Mono.when(input, output)
+                .doFinally(signal -> closed(adapter, closeStatus.get()));
+    }
+
+    private void dispatch(ReactiveVoIPSession adapter, WebSocketMessage message) {
+        try {
+            switch (message.getType()) {
+                case BINARY -> {
+                    DataBuffer payload = message.getPayload();
+                    try (DataBuffer.ByteBufferIterator buffers = payload.readableByteBuffers()) {
+                        ByteBuffer first = buffers.next();
+                        if (!buffers.hasNext()) {
+                            // 보통은 한 조각: 복사하지 않고 view 를 넘긴다 (forwardAudio 가 풀 버퍼로 복사)
+                            delegate.handleMessage(adapter, new BinaryMessage(first));
+                        } else {
+                            ByteBuffer joined = ByteBuffer.allocate(payload.readableByteCount());
+                            payload.toByteBuffer(joined);
+                            delegate.handleMessage(adapter, new BinaryMessage(joined));
+                        }
+                    }
+                }
+                case TEXT -> delegate.handleMessage(adapter, new TextMessage(message.getPayloadAsText()));
+                case PONG -> {
+                    // RTT 측정용 ping 의 응답
+                    ByteBuffer payload = ByteBuffer.allocate(message.getPayload().readableByteCount());
+                    message.getPayload().toByteBuffer(payload);
+                    delegate.handleMessage(adapter, new PongMessage(payload));
+                }
+                default -> { } // ping 은 Reactor Netty 가 응답한다
+            }
+        } catch (Exception e) {
+            log.debug("message from {} failed: {}", adapter.getId(), e.toString());
+        }
+    }
+
+    private void closed(ReactiveVoIPSession adapter, CloseStatus status) {
+        try {
+            delegate.afterConnectionClosed(adapter, status);
+        } catch (Exception e) {
+            log.debug("close of {} failed: {}", adapter.getId(), e.toString());
+        }
+    }
+}
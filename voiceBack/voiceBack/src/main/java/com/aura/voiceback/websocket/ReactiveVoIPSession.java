@@ -0,0 +1,132 @@
+package com.aura.voiceback.websocket;
+
+import com.aura.voiceback.util.PooledBuffer;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.reactive.socket.HandshakeInfo;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketExtension;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.FluxSink;
+
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.security.Principal;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * netty 엔진의 연결 하나. reactive WebSocketSession 을 servlet WebSocketSession 모양으로 감싸
+ * VoIPWebSocketHandler / VoIPService 의 방 라우팅을 그대로 쓴다.
+ * 송신은 outbound() Flux 하나로 한다: 소켓 쪽 요청(demand)만큼만 PeerConnection 대기열에서 프레임(과 RTT ping)을 꺼내
+ * Netty 버퍼에 복사하고 풀 버퍼는 바로 release 한다. Reactor Netty 는 채널이 쓰기 불가(소켓 버퍼 가득)이면
+ * 요청을 멈추므로, 느린 수신자의 프레임은 대기열에 쌓였다가 상한에서 드롭된다.
+ */
+public class ReactiveVoIPSession implements WebSocketSession, PullingSession {
+
+    private final org.springframework.web.reactive.socket.WebSocketSession session;
+    private final HandshakeInfo handshake;
+    private final Map<String, Object> attributes = new ConcurrentHashMap<>();
+    // pull() 을 한 스레드만 돌게 한다 (방 루프의 framesAvailable 과 Netty 의 request 가 겹칠 수 있다)
+    private final AtomicInteger wip = new AtomicInteger();
+    private volatile PeerConnection peer;
+    private volatile FluxSink<org.springframework.web.reactive.socket.WebSocketMessage> sink;
+    private int textLimit = Integer.MAX_VALUE;
+    private int binaryLimit = Integer.MAX_VALUE;
+
+    public ReactiveVoIPSession(org.springframework.web.reactive.socket.WebSocketSession session) {
+        this.session = session;
+        this.handshake = session.getHandshakeInfo();
+        RoomHandshakeInterceptor.copyQueryParams(handshake.getUri(), attributes);
+    }
+
+    /** session.send() 에 넘길 송신 스트림. complete() 로 끝난다 */
+    public Flux<org.springframework.web.reactive.socket.WebSocketMessage> outbound() {
+        return Flux.create(s -> {
+            sink = s;
+            s.onRequest(n -> pull());
+        });
+    }
+
+    public void complete() {
+        FluxSink<?> s = sink;
+        if (s != null) s.complete();
+    }
+
+    @Override
+    public void attach(PeerConnection peer) {
+        this.peer = peer;
+    }
+
+    @Override
+    public void framesAvailable() {
+        pull();
+    }
+
+    private void pull() {
+        if (wip.getAndIncrement() != 0) return;
+        int missed = 1;
+        do {
+            FluxSink<org.springframework.web.reactive.socket.WebSocketMessage> s = sink;
+            PeerConnection p = peer;
+            if (s != null && p != null) {
+                while (s.requestedFromDownstream() > 0 && !s.isCancelled()) {
+                    PooledBuffer frame = p.poll();
+                    if (frame == null) break;
+                    // ping 도 요청 하나를 쓴다. 프레임까지 보낼 몫이 없으면 ping 은 다음 요청 때로 미룬다
+                    if (s.requestedFromDownstream() > 1) {
+                        ByteBuffer ping = p.nextPing(System.nanoTime());
+                        if (ping != null) {
+                            s.next(session.pingMessage(factory -> factory.wrap(ping)));
+                        }
+                    }
+                    try {
+                        ByteBuffer view = frame.readView();
+                        DataBuffer out = session.bufferFactory().allocateBuffer(view.remaining());
+                        out.write(view);
+                        s.next(new org.springframework.web.reactive.socket.WebSocketMessage(
+                                org.springframework.web.reactive.socket.WebSocketMessage.Type.BINARY, out));
+                    } finally {
+                        frame.release();
+                    }
+                }
+            }
+            missed = wip.addAndGet(-missed);
+        } while (missed != 0);
+    }
+
+    @Override public String getId() { return session.getId(); }
+    @Override public URI getUri() { return handshake.getUri(); }
+    @Override public HttpHeaders getHandshakeHeaders() { return handshake.getHeaders(); }
+    @Override public Map<String, Object> getAttributes() { return attributes; }
+    @Override public Principal getPrincipal() { return null; }
+    @Override public InetSocketAddress getLocalAddress() { return null; }
+    @Override public InetSocketAddress getRemoteAddress() { return handshake.getRemoteAddress(); }
+    @Override public String getAcceptedProtocol() { return handshake.getSubProtocol(); }
+    @Override public void setTextMessageSizeLimit(int messageSizeLimit) { textLimit = messageSizeLimit; }
+    @Override public int getTextMessageSizeLimit() { return textLimit; }
+    @Override public void setBinaryMessageSizeLimit(int messageSizeLimit) { binaryLimit = messageSizeLimit; }
+    @Override public int getBinaryMessageSizeLimit() { return binaryLimit; }
+    @Override public List<WebSocketExtension> getExtensions() { return Collections.emptyList(); }
+
+    // 송신은 PeerConnection 대기열 -> outbound() 로만 한다
+    @Override
+    public void sendMessage(WebSocketMessage<?> message) {
+        throw new IllegalStateException("netty 엔진 세션은 PeerConnection 대기열로만 보낸다");
+    }
+
+    @Override public boolean isOpen() { return session.isOpen(); }
+    @Override public void close() { close(CloseStatus.NORMAL); }
+
+    @Override
+    public void close(CloseStatus status) {
+        session.close(new org.springframework.web.reactive.socket.CloseStatus(status.getCode(), status.getReason()))
+                .subscribe();
+    }
+}
@@ -0,0 +1,65 @@
+package com.aura.voiceback.websocket;
+
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.server.HandshakeInterceptor;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.net.URI;
+import java.util.Map;
+
+/**
+ * /ws/voip?roomId=...&userId=...&trace=1&proto=2&fec=1&udp=1&resume=...&since=... 쿼리 파라미터를 세션 attribute 로 옮긴다.
+ * roomId 가 없으면 기본 방(lobby)으로 취급.
+ */
+public class RoomHandshakeInterceptor implements HandshakeInterceptor {
+
+    public static final String ROOM_ID = "roomId";
+    public static final String USER_ID = "userId";
+    public static final String TRACE = "trace";
+    public static final String FRAMED = "framed"; // proto=2: FrameCodec v2 프레임 사용
+    public static final String FEC = "fec";       // fec=1: proto=2 수신자에게 XOR parity 프레임도 보낸다
+    public static final String UDP = "udp";       // udp=1: proto=2 오디오를 UDP 로 주고받는다 (UdpMediaServer)
+    public static final String RESUME = "resume"; // resume=<token>: 끊긴 proto=2 연결을 이어받는다 (SessionResumption)
+    public static final String RESUME_SINCE = "since"; // since=<마지막으로 받은 프레임의 relayIngressTs>
+    public static final String DEFAULT_ROOM = "lobby";
+
+    @Override
+    public boolean beforeHandshake(ServerHttpRequest request, ServerHttpResponse response,
+                                   WebSocketHandler wsHandler, Map<String, Object> attributes) {
+        copyQueryParams(request.getURI(), attributes);
+        return true;
+    }
+
+    // netty 엔진(ReactiveVoIPHandler)도 같은 규칙으로 옮긴다
+    public static void copyQueryParams(URI uri, Map<String, Object> attributes) {
+        MultiValueMap<String, String> params = UriComponentsBuilder.fromUri(uri).build().getQueryParams();
+        String roomId = params.getFirst(ROOM_ID);
+        attributes.put(ROOM_ID, roomId == null || roomId.isBlank() ? DEFAULT_ROOM : roomId);
+        String userId = params.getFirst(USER_ID);
+        if (userId != null) {
+            attributes.put(USER_ID, userId);
+        }
+        attributes.put(TRACE, "1".equals(params.getFirst(TRACE)));
+        attributes.put(FRAMED, "2".equals(params.getFirst("proto")));
+        attributes.put(FEC, "1".equals(params.getFirst(FEC)));
+        attributes.put(UDP, "1".equals(params.getFirst(UDP)));
+        String resume = params.getFirst(RESUME);
+        if (resume != null && !resume.isBlank()) {
+            attributes.put(RESUME, resume);
+            String since = params.getFirst(RESUME_SINCE);
+            try {
+                attributes.put(RESUME_SINCE, since == null ? 0L : Long.parseLong(since));
+            } catch (NumberFormatException e) {
+                attributes.put(RESUME_SINCE, 0L);
+            }
+        }
+    }
+
+    @Override
+    public void afterHandshake(ServerHttpRequest request, ServerHttpResponse response,
+                               WebSocketHandler wsHandler, Exception exception) {
+    }
+}
@@ -0,0 +1,69 @@
+package com.aura.voiceback.websocket;
+
+import java.nio.ByteBuffer;
+
+/**
+ * 지연 추적용 오디오 프레임 헤더 (/ws/voip?trace=1 로 접속한 클라이언트만 사용).
+ *
+ * 클라이언트 -> 서버 (16 bytes, big-endian) + PCM
+ *   [0] magic 0xAF  [1] version 1  [2] flags  [3] reserved
+ *   [4..7] seq (uint32)  [8..15] captureTs (epoch ms)
+ *
+ * 서버 -> 클라이언트 (36 bytes) + WAV
+ *   위 16 bytes (flags 에 OUTBOUND 표시) 뒤에
+ *   flags 에 CONCEALED 가 있으면 서버가 손실 자리를 채운 프레임 (PLC)
+ *   [16..19] streamId (발신자 식별)  [20..27] relayIngressTs (epoch ms)  [28..35] relayEgressTs (epoch ms)
+ *
+ * 클라이언트는 재생 시점에 텍스트 메시지로 되돌려 보낸다:
+ *   {"type":"playout","streamId":1,"seq":42,"captureTs":...,"playoutTs":...}
+ */
+public final class TraceHeader {
+
+    public static final byte MAGIC = (byte) 0xAF;
+    public static final byte VERSION = 1;
+    public static final byte FLAG_OUTBOUND = 0x01;
+    public static final byte FLAG_CONCEALED = 0x02;
+    public static final int INBOUND_LENGTH = 16;
+    public static final int OUTBOUND_LENGTH = 36;
+
+    private TraceHeader() {
+    }
+
+    public static boolean isPresent(ByteBuffer buf) {
+        int p = buf.position();
+        return buf.remaining() >= INBOUND_LENGTH && buf.get(p) == MAGIC && buf.get(p + 1) == VERSION;
+    }
+
+    /** uint32 seq (buffer position 은 바꾸지 않는다) */
+    public static long seq(ByteBuffer buf) {
+        return buf.getInt(buf.position() + 4) & 0xFFFFFFFFL;
+    }
+
+    public static long captureTs(ByteBuffer buf) {
+        return buf.getLong(buf.position() + 8);
+    }
+
+    public static void writeOutbound(byte[] dst, long seq, long captureTs, int streamId,
+                                     long relayIngressTs, long relayEgressTs) {
+        writeOutbound(ByteBuffer.wrap(dst), seq, captureTs, streamId, relayIngressTs, relayEgressTs);
+    }
+
+    public static void writeOutbound(ByteBuffer dst, long seq, long captureTs, int streamId,
+                                     long relayIngressTs, long relayEgressTs) {
+        writeOutbound(dst, FLAG_OUTBOUND, seq, captureTs, streamId, relayIngressTs, relayEgressTs);
+    }
+
+    /** dst 의 0 번 위치부터 절대 위치로 쓴다 (position 은 바꾸지 않음) */
+    public static void writeOutbound(ByteBuffer dst, byte flags, long seq, long captureTs, int streamId,
+                                     long relayIngressTs, long relayEgressTs) {
+        dst.put(0, MAGIC)
+                .put(1, VERSION)
+                .put(2, flags)
+                .put(3, (byte) 0)
+                .putInt(4, (int) seq)
+                .putLong(8, captureTs)
+                .putInt(16, streamId)
+                .putLong(20, relayIngressTs)
+                .putLong(28, relayEgressTs);
+    }
+}
@@ -0,0 +1,308 @@
+package com.aura.voiceback.websocket;
+
+import com.aura.voiceback.util.JsonUtil;
+import com.fasterxml.jackson.databind.JsonNode;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * UDP 미디어 경로 (voip.udp.enabled=true). TCP 인 WebSocket 은 패킷 하나가 빠지면 뒤 프레임이 모두 늦어지므로
+ * 오디오만 UDP 로 주고받을 수 있게 한다. 시그널링(방 참가, 토큰, CONTROL)은 그대로 /ws/voip 와 CallController.
+ *
+ * 바인딩: ?proto=2&udp=1 로 접속하면 서버가 CONTROL {"type":"udp","token":..,"port":..} 를 보낸다.
+ *  1. 클라이언트가 그 토큰을 담은 CONTROL {"type":"bind","token":..} 을 UDP 로 보내면, 서버는 보낸 주소로
+ *     {"type":"challenge","nonce":..} 를 보낸다 (nonce = HMAC(서버 키, 토큰 + 주소) 라 서버는 상태를 들고 있지 않는다).
+ *  2. 같은 주소에서 {"type":"bind","token":..,"nonce":..} 로 되돌려 보내면 그 주소를 방 멤버에 묶고 {"type":"bound"} 로 답한다.
+ *     그 주소에서 실제로 받는 쪽만 nonce 를 알 수 있으므로, 출발지를 위조해 남의 주소로 미디어를 돌리지 못한다.
+ * 토큰은 한 번 묶으면 폐기한다. 이후 그 주소에서 온 패킷만 받고, 주소가 바뀌면(NAT 재바인딩) 클라이언트가
+ * WebSocket 으로 CONTROL {"type":"udp"} 를 보내 새 토큰을 받아 다시 묶는다 (새로 묶기 전까지는 이전 주소를 쓴다).
+ *
+ * 패킷 = v2 프레임(FrameCodec) 하나 이상. 오디오 seq 가 이미 받은 것보다 뒤지면(늦게 왔거나 중복) 버린다 - 그 자리는 이미 PLC 로 채웠다.
+ * 수신은 non-blocking selector 스레드 하나가 받아 VoIPWebSocketHandler 로 넘기고(방 루프에서 fan-out),
+ * 송신은 송신 스레드가 non-blocking send 로 바로 보낸다. 소켓 버퍼가 가득하면 그 패킷은 버린다.
+ * 메트릭: voip.udp.packets{direction=in|out, result=ok|late|unbound|malformed|dropped}
+ */
+@Slf4j
+@Component
+public class UdpMediaServer implements SmartLifecycle {
+
+    private static final int MAX_PACKET = 65507;
+    private static final String HMAC = "HmacSHA256";
+
+    private final boolean enabled;
+    private final String host;
+    private final int port;
+    private final SecureRandom random = new SecureRandom();
+    // challenge nonce 용. selector 스레드에서만 쓴다
+    private final Mac nonceMac;
+    private final Map<String, UdpMediaSession> byToken = new ConcurrentHashMap<>();
+    private final Map<SocketAddress, UdpMediaSession> byAddress = new ConcurrentHashMap<>();
+    private final Counter inOk, inLate, inUnbound, inMalformed, outOk, outDropped;
+    private volatile DatagramChannel channel;
+    private Selector selector;
+    private Thread loop;
+
+    public UdpMediaServer(MeterRegistry registry,
+                          @Value("${voip.udp.enabled:false}") boolean enabled,
+                          @Value("${voip.udp.host:0.0.0.0}") String host,
+                          @Value("${voip.udp.port:5004}") int port) {
+        this.enabled = enabled;
+        this.host = host;
+        this.port = port;
+        this.inOk = counter(registry, "in", "ok");
+        this.inLate = counter(registry, "in", "late");
+        this.inUnbound = counter(registry, "in", "unbound");
+        this.inMalformed = counter(registry, "in", "malformed");
+        this.outOk = counter(registry, "out", "ok");
+        this.outDropped = counter(registry, "out", "dropped");
+        byte[] key = new byte[32];
+        random.nextBytes(key);
+        try {
+            this.nonceMac = Mac.getInstance(HMAC);
+            this.nonceMac.init(new SecretKeySpec(key, HMAC));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(HMAC + " 을 쓸 수 없다", e);
+        }
+    }
+
+    private static Counter counter(MeterRegistry registry, String direction, String result) {
+        return Counter.builder("voip.udp.packets")
+                .description("UDP media packets")
+                .tag("direction", direction)
+                .tag("result", result)
+                .register(registry);
+    }
+
+    /**
+     * udp=1 로 접속한 proto=2 세션이면 UdpMediaSession 으로 감싸 토큰을 발급한다. 아니면 그대로 돌려준다.
+     * netty 엔진 세션(PullingSession)은 송신 대기열을 직접 비우므로 감싸지 않는다.
+     */
+    public WebSocketSession open(WebSocketSession session, VoIPWebSocketHandler inbound) {
+        Map<String, Object> attributes = session.getAttributes();
+        if (channel == null || session instanceof PullingSession
+                || !Boolean.TRUE.equals(attributes.get(RoomHandshakeInterceptor.FRAMED))
+                || !Boolean.TRUE.equals(attributes.get(RoomHandshakeInterceptor.UDP))) {
+            return session;
+        }
+        String token = newToken();
+        UdpMediaSession udp = new UdpMediaSession(session, this, inbound, token);
+        byToken.put(token, udp);
+        return udp;
+    }
+
+    /**
+     * WebSocket 으로 새 토큰을 요청받았을 때 (주소가 바뀌어 다시 묶어야 할 때). 이전 토큰은 폐기하고,
+     * 이미 묶인 주소는 새 토큰으로 다시 묶을 때까지 그대로 쓴다. @return 클라이언트에 보낼 새 offer
+     */
+    public String reoffer(UdpMediaSession udp) {
+        byToken.remove(udp.getToken(), udp);
+        String token = newToken();
+        udp.setToken(token);
+        byToken.put(token, udp);
+        return udp.offer();
+    }
+
+    private String newToken() {
+        byte[] bytes = new byte[16];
+        random.nextBytes(bytes);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    public void close(WebSocketSession session) {
+        if (!(session instanceof UdpMediaSession udp)) return;
+        byToken.remove(udp.getToken(), udp);
+        InetSocketAddress address = udp.getAddress();
+        if (address != null) byAddress.remove(address, udp);
+    }
+
+    /** 송신 스레드에서 호출 (non-blocking) */
+    void send(ByteBuffer payload, InetSocketAddress to) throws IOException {
+        DatagramChannel ch = channel;
+        if (ch == null || ch.send(payload.duplicate(), to) == 0) {
+            outDropped.increment();
+        } else {
+            outOk.increment();
+        }
+    }
+
+    @Override
+    public void start() {
+        if (!enabled || channel != null) return;
+        try {
+            selector = Selector.open();
+            DatagramChannel ch = DatagramChannel.open();
+            ch.configureBlocking(false);
+            ch.bind(new InetSocketAddress(host, port));
+            ch.register(selector, SelectionKey.OP_READ);
+            channel = ch;
+        } catch (IOException e) {
+            throw new IllegalStateException("UDP 미디어 포트를 열 수 없다: " + host + ":" + port, e);
+        }
+        loop = new Thread(this::run, "voip-udp");
+        loop.setDaemon(true);
+        loop.start();
+        log.info("VoIP UDP media listening on {}:{}", host, getPort());
+    }
+
+    private void run() {
+        ByteBuffer buf = ByteBuffer.allocateDirect(MAX_PACKET);
+        while (channel != null) {
+            try {
+                if (selector.select() == 0) continue;
+                selector.selectedKeys().clear();
+                SocketAddress from;
+                // 한 번 깨어나면 쌓인 패킷을 모두 읽는다
+                while ((from = channel.receive(buf.clear())) != null) {
+                    onPacket(buf.flip(), from);
+                }
+            } catch (IOException e) {
+                if (channel != null) log.warn("[udp] receive failed", e);
+            } catch (RuntimeException e) {
+                log.debug("[udp] packet handling failed: {}", e.toString());
+            }
+        }
+    }
+
+    private void onPacket(ByteBuffer packet, SocketAddress from) {
+        FrameView frame = new FrameView();
+        if (!frame.wrap(packet, packet.position())) {
+            inMalformed.increment();
+            return;
+        }
+        UdpMediaSession udp = byAddress.get(from);
+        if (frame.type() == FrameCodec.TYPE_CONTROL && bind(frame, from)) {
+            return;
+        }
+        if (udp == null || !udp.isOpen()) {
+            inUnbound.increment();
+            return;
+        }
+        // 패킷 안의 첫 오디오 프레임 seq 로 늦게 온 패킷을 거른다
+        if (frame.type() == FrameCodec.TYPE_AUDIO && !udp.advance(frame.seq())) {
+            inLate.increment();
+            return;
+        }
+        inOk.increment();
+        try {
+            udp.getInbound().handleMessage(udp, new BinaryMessage(packet));
+        } catch (Exception e) {
+            log.debug("[udp] message from {} failed: {}", udp.getId(), e.toString());
+        }
+    }
+
+    // {"type":"bind"} 면 challenge 를 보내거나 (nonce 없음 / 틀림) 주소를 묶고 {"type":"bound"} 로 답한다. 바인드 요청이 아니면 false
+    private boolean bind(FrameView frame, SocketAddress from) {
+        JsonNode json;
+        try {
+            json = JsonUtil.fromJson(StandardCharsets.UTF_8.decode(frame.payload()).toString(), JsonNode.class);
+        } catch (Exception e) {
+            return false;
+        }
+        if (!"bind".equals(json.path("type").asText())) return false;
+        String token = json.path("token").asText();
+        UdpMediaSession udp = byToken.get(token);
+        if (udp == null || !udp.isOpen() || !(from instanceof InetSocketAddress address)) {
+            inUnbound.increment();
+            return true;
+        }
+        String nonce = nonce(token, address);
+        if (!MessageDigest.isEqual(nonce.getBytes(StandardCharsets.US_ASCII),
+                json.path("nonce").asText().getBytes(StandardCharsets.US_ASCII))) {
+            // 1 단계: 이 주소가 정말 보낸 쪽인지 확인하도록 nonce 를 그 주소로 보낸다
+            sendControl("{\"type\":\"challenge\",\"nonce\":\"" + nonce + "\"}", address);
+            return true;
+        }
+        // 2 단계: 토큰을 폐기하고 묶는다 (같은 토큰으로 다른 주소가 다시 묶지 못한다)
+        if (!byToken.remove(token, udp)) {
+            inUnbound.increment();
+            return true;
+        }
+        InetSocketAddress previous = udp.getAddress();
+        if (!address.equals(previous)) {
+            if (previous != null) byAddress.remove(previous, udp);
+            byAddress.put(address, udp);
+            udp.setAddress(address);
+            log.debug("[udp] {} bound to {}", udp.getId(), address);
+        }
+        sendControl("{\"type\":\"bound\"}", address);
+        return true;
+    }
+
+    private String nonce(String token, InetSocketAddress address) {
+        nonceMac.update(token.getBytes(StandardCharsets.US_ASCII));
+        nonceMac.update(address.getAddress().getAddress());
+        nonceMac.update((byte) (address.getPort() >>> 8));
+        nonceMac.update((byte) address.getPort());
+        byte[] mac = nonceMac.doFinal();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(Arrays.copyOf(mac, 16));
+    }
+
+    private void sendControl(String json, InetSocketAddress to) {
+        byte[] packet = FrameCodec.encode(FrameCodec.TYPE_CONTROL, FrameCodec.FLAG_OUTBOUND, FrameCodec.CODEC_NONE, 0, 0,
+                System.currentTimeMillis(), ByteBuffer.wrap(json.getBytes(StandardCharsets.UTF_8)));
+        try {
+            send(ByteBuffer.wrap(packet), to);
+        } catch (IOException e) {
+            log.debug("[udp] control to {} failed: {}", to, e.toString());
+        }
+    }
+
+    @Override
+    public void stop() {
+        DatagramChannel ch = channel;
+        if (ch == null) return;
+        channel = null;
+        try {
+            selector.wakeup();
+            loop.join(5000);
+            ch.close();
+            selector.close();
+        } catch (IOException e) {
+            log.debug("[udp] close failed: {}", e.toString());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        byToken.clear();
+        byAddress.clear();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return channel != null;
+    }
+
+    /** 실제로 열린 포트 (voip.udp.port=0 이면 임의 포트), 꺼져 있으면 -1 */
+    public int getPort() {
+        DatagramChannel ch = channel;
+        try {
+            return ch == null ? -1 : ((InetSocketAddress) ch.getLocalAddress()).getPort();
+        } catch (IOException e) {
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.aura.voiceback.websocket;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketExtension;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.security.Principal;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * ?proto=2&udp=1 연결. /ws/voip 세션을 감싸 VoIPService 에 등록되고, 송신 스레드가 보내는 메시지 중
+ * 오디오 / FEC 프레임은 UDP 주소가 묶여 있으면 UdpMediaServer 로 보내고 나머지(CONTROL, AI 결과)는 WebSocket 으로 보낸다.
+ * 묶이기 전에는 오디오도 WebSocket 으로 가므로 UDP 가 막힌 네트워크에서도 통화는 된다.
+ * 수신은 UdpMediaServer 의 selector 스레드가 이 세션 이름으로 VoIPWebSocketHandler 에 넘긴다.
+ */
+public class UdpMediaSession implements WebSocketSession {
+
+    private final WebSocketSession webSocket;
+    private final UdpMediaServer server;
+    private final VoIPWebSocketHandler inbound;
+    // 바인딩 토큰. 묶이면 폐기되고, WebSocket 으로 새로 요청하면 바뀐다
+    private volatile String token;
+    private volatile InetSocketAddress address;
+    // UDP 로 받은 마지막 오디오 seq (selector 스레드 전용, 늦게 온 / 중복 패킷 거르기)
+    private long highestSeq = -1;
+
+    UdpMediaSession(WebSocketSession webSocket, UdpMediaServer server, VoIPWebSocketHandler inbound, String token) {
+        this.webSocket = webSocket;
+        this.server = server;
+        this.inbound = inbound;
+        this.token = token;
+    }
+
+    /** 클라이언트에게 WebSocket CONTROL 로 알려 줄 바인딩 정보 */
+    public String offer() {
+        return "{\"type\":\"udp\",\"token\":\"" + token + "\",\"port\":" + server.getPort() + "}";
+    }
+
+    @Override
+    public void sendMessage(WebSocketMessage<?> message) throws IOException {
+        InetSocketAddress to = address;
+        if (to != null && message instanceof BinaryMessage binary && isMedia(binary.getPayload())) {
+            server.send(binary.getPayload(), to);
+            return;
+        }
+        webSocket.sendMessage(message);
+    }
+
+    private static boolean isMedia(ByteBuffer payload) {
+        if (!FrameView.isPresent(payload)) return false;
+        int type = payload.get(payload.position() + 2);
+        return type == FrameCodec.TYPE_AUDIO || type == FrameCodec.TYPE_FEC;
+    }
+
+    String getToken() { return token; }
+    void setToken(String token) { this.token = token; }
+    VoIPWebSocketHandler getInbound() { return inbound; }
+    InetSocketAddress getAddress() { return address; }
+    void setAddress(InetSocketAddress address) { this.address = address; }
+
+    /** seq 가 지금까지 받은 것보다 앞서면 기록하고 true (uint32 wrap 고려) */
+    boolean advance(long seq) {
+        if (highestSeq >= 0 && (int) (seq - highestSeq) <= 0) return false;
+        highestSeq = seq & 0xFFFFFFFFL;
+        return true;
+    }
+
+    public boolean isBound() { return address != null; }
+    public WebSocketSession getWebSocket() { return webSocket; }
+
+    @Override public String getId() { return webSocket.getId(); }
+    @Override public URI getUri() { return webSocket.getUri(); }
+    @Override public HttpHeaders getHandshakeHeaders() { return webSocket.getHandshakeHeaders(); }
+    @Override public Map<String, Object> getAttributes() { return webSocket.getAttributes(); }
+    @Override public Principal getPrincipal() { return webSocket.getPrincipal(); }
+    @Override public InetSocketAddress getLocalAddress() { return webSocket.getLocalAddress(); }
+    @Override public InetSocketAddress getRemoteAddress() { return webSocket.getRemoteAddress(); }
+    @Override public String getAcceptedProtocol() { return webSocket.getAcceptedProtocol(); }
+    @Override public void setTextMessageSizeLimit(int limit) { webSocket.setTextMessageSizeLimit(limit); }
+    @Override public int getTextMessageSizeLimit() { return webSocket.getTextMessageSizeLimit(); }
+    @Override public void setBinaryMessageSizeLimit(int limit) { webSocket.setBinaryMessageSizeLimit(limit); }
+    @Override public int getBinaryMessageSizeLimit() { return webSocket.getBinaryMessageSizeLimit(); }
+    @Override public List<WebSocketExtension> getExtensions() { return webSocket.getExtensions(); }
+    @Override public boolean isOpen() { return webSocket.isOpen(); }
+    @Override public void close() throws IOException { webSocket.close(); }
+    @Override public void close(CloseStatus status) throws IOException { webSocket.close(status); }
+}
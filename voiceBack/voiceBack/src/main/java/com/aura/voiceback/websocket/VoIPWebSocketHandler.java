@@ -1,36 +1,144 @@
 package com.aura.voiceback.websocket;
 
+import com.aura.voiceback.dto.PlayoutReport;
+import com.aura.voiceback.dto.ReceiverFeedback;
 import com.aura.voiceback.service.VoIPService;
+import com.aura.voiceback.util.JsonUtil;
+import com.fasterxml.jackson.databind.JsonNode;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 import org.springframework.web.socket.*;
 import org.springframework.web.socket.handler.AbstractWebSocketHandler;
 
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
+
+@Slf4j
 @Component
 public class VoIPWebSocketHandler extends AbstractWebSocketHandler {
 
     private final VoIPService voipService;
+    private final UdpMediaServer udpMedia;
+    // udp=1 세션: 세션ID -> VoIPService 에 등록한 UdpMediaSession
+    private final Map<String, WebSocketSession> udpSessions = new ConcurrentHashMap<>();
 
-    public VoIPWebSocketHandler(VoIPService voipService) {
+    @Autowired
+    public VoIPWebSocketHandler(VoIPService voipService, UdpMediaServer udpMedia) {
         this.voipService = voipService;
+        this.udpMedia = udpMedia;
+    }
+
+    // UDP 경로 없이 (시작 워밍업, 테스트)
+    public VoIPWebSocketHandler(VoIPService voipService) {
+        this(voipService, null);
     }
 
     @Override
     public void afterConnectionEstablished(WebSocketSession session) throws Exception {
-        voipService.registerSession(session.getId(), session);
-        System.out.println("✅ WebSocket connected: " + session.getId());
+        WebSocketSession relay = udpMedia == null ? session : udpMedia.open(session, this);
+        voipService.registerSession(session.getId(), relay);
+        if (relay instanceof UdpMediaSession udp) {
+            udpSessions.put(session.getId(), udp);
+            voipService.sendControl(session.getId(), udp.offer());
+        }
+        log.debug("WebSocket connected: {}", session.getId());
     }
 
     @Override
     protected void handleBinaryMessage(WebSocketSession session, BinaryMessage message) throws Exception {
-        byte[] audioBytes = message.getPayload().array();
-        // 여기서 다른 세션으로 브로드캐스트
-        voipService.forwardAudio(session.getId(), audioBytes);
+        ByteBuffer payload = message.getPayload();
+        if (voipService.isFramed(session.getId()) && FrameView.isPresent(payload)) {
+            handleFrames(session, payload);
+            return;
+        }
+        if (voipService.isTraced(session.getId()) && TraceHeader.isPresent(payload)) {
+            long seq = TraceHeader.seq(payload);
+            long captureTs = TraceHeader.captureTs(payload);
+            ByteBuffer audio = payload.slice(payload.position() + TraceHeader.INBOUND_LENGTH,
+                    payload.remaining() - TraceHeader.INBOUND_LENGTH);
+            voipService.forwardAudio(session.getId(), audio, seq, captureTs);
+            return;
+        }
+
+        // 여기서 다른 세션으로 브로드캐스트 (payload 를 복사하지 않고 그대로 넘긴다)
+        voipService.forwardAudio(session.getId(), payload, -1, 0);
+    }
+
+    // proto=2: 한 메시지에 이어 붙은 프레임을 차례로 처리. 모르는 type 은 건너뛴다
+    private void handleFrames(WebSocketSession session, ByteBuffer payload) {
+        FrameView frame = new FrameView();
+        int at = payload.position();
+        for (; frame.wrap(payload, at); at = frame.next()) {
+            switch (frame.type()) {
+                case FrameCodec.TYPE_AUDIO -> {
+                    if (frame.codec() != FrameCodec.CODEC_PCM16) {
+                        voipService.frameSkipped("codec");
+                    } else if (frame.sampleRate() != FrameCodec.DEFAULT_SAMPLE_RATE) {
+                        // 서버는 48kHz 입력만 중계한다 (낮춘 샘플레이트는 서버 -> 클라이언트 방향에만 쓴다)
+                        voipService.frameSkipped("rate");
+                    } else {
+                        voipService.forwardAudio(session.getId(), frame.payload(), frame.seq(), frame.timestamp());
+                    }
+                }
+                case FrameCodec.TYPE_CONTROL ->
+                        handleControl(session, StandardCharsets.UTF_8.decode(frame.payload()).toString());
+                default -> voipService.frameSkipped("type");
+            }
+        }
+        if (at != payload.limit()) {
+            voipService.frameSkipped("malformed");
+            log.debug("malformed frame from {} at offset {} of {}", session.getId(), at, payload.limit());
+        }
+    }
+
+    // PeerConnection 이 RTT 를 재려고 보낸 ping 의 응답
+    @Override
+    protected void handlePongMessage(WebSocketSession session, PongMessage message) throws Exception {
+        voipService.onPong(session.getId(), message.getPayload());
+    }
+
+    @Override
+    protected void handleTextMessage(WebSocketSession session, TextMessage message) throws Exception {
+        handleControl(session, message.getPayload());
+    }
+
+    private void handleControl(WebSocketSession session, String json) {
+        try {
+            String type = JsonUtil.fromJson(json, JsonNode.class).path("type").asText();
+            switch (type) {
+                case "playout" -> voipService.onPlayout(session.getId(), JsonUtil.fromJson(json, PlayoutReport.class));
+                case "feedback" -> voipService.onFeedback(session.getId(), JsonUtil.fromJson(json, ReceiverFeedback.class));
+                case "udp" -> reofferUdp(session);
+                default -> log.debug("ignored control message type '{}' from {}", type, session.getId());
+            }
+        } catch (Exception e) {
+            log.debug("ignored control message from {}: {}", session.getId(), e.toString());
+        }
+    }
+
+    // UDP 주소를 다시 묶을 새 토큰. WebSocket 으로 온 요청만 받는다 (UDP 로 온 CONTROL 도 여기로 오므로 거른다)
+    private void reofferUdp(WebSocketSession session) {
+        if (session instanceof UdpMediaSession) return;
+        if (udpSessions.get(session.getId()) instanceof UdpMediaSession udp) {
+            voipService.sendControl(session.getId(), udpMedia.reoffer(udp));
+        }
     }
 
     @Override
     public void afterConnectionClosed(WebSocketSession session, CloseStatus status) throws Exception {
+        WebSocketSession udp = udpSessions.remove(session.getId());
+        if (udp != null) udpMedia.close(udp);
+        // 비정상 종료면 재접속을 기다린다 (정상 종료 / 페이지 이탈은 바로 정리)
+        boolean abnormal = !CloseStatus.NORMAL.equalsCode(status) && !CloseStatus.GOING_AWAY.equalsCode(status);
+        if (abnormal && voipService.suspendSession(session.getId())) {
+            log.debug("WebSocket dropped, holding for resume: {} ({})", session.getId(), status);
+            return;
+        }
         voipService.removeSession(session.getId());
-        System.out.println("⚠️ WebSocket disconnected: " + session.getId());
+        log.debug("WebSocket disconnected: {} ({})", session.getId(), status);
     }
 }
@@ -0,0 +1,5 @@
+package com.aura.voiceback.benchmark;
+
+/** 기본 설정 (IDENTITY, 배치/2차 캐시 없음) */
+class DefaultPersistenceThroughputBenchmark extends PersistenceThroughputBenchmark {
+}
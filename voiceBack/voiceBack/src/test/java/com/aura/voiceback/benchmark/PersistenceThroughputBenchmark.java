@@ -0,0 +1,115 @@
+package com.aura.voiceback.benchmark;
+
+import com.aura.voiceback.controller.AuthController;
+import com.aura.voiceback.dto.LoginRequest;
+import com.aura.voiceback.dto.RegisterRequest;
+import com.aura.voiceback.dto.SummaryRequest;
+import com.aura.voiceback.service.SummaryService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * register / login / summary 저장 처리량 측정 (./gradlew benchmarkTest).
+ * H2 MariaDB 호환 모드 인메모리 DB 를 사용하고, BCrypt 비용은 영속성 계층 비교가 묻히지 않도록 최소(4)로 낮춘다.
+ * 기본 설정과 prod 프로필을 각각 서브클래스에서 실행해 결과를 비교한다.
+ */
+@Tag("benchmark")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=jdbc:h2:mem:bench;MODE=MariaDB;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.show-sql=false",
+        "jwt.secret=ThisIsASecretKeyForJwtTokenExample1234567890",
+        "kakao-rest-api-key=bench",
+        "kakao-login-redirect-url=http://localhost/login",
+        "kakao-link-redirect-url=http://localhost/link",
+        "spring.mail.username=bench",
+        "spring.mail.password=bench",
+        "security.bcrypt-strength=4",
+        "voip.buffer-pool.leak-detection=true",
+        "rate-limit.enabled=false"
+})
+abstract class PersistenceThroughputBenchmark {
+
+    private static final int WARMUP = 300;
+    private static final int OPS = 2000;
+
+    @Autowired
+    private AuthController authController;
+
+    @Autowired
+    private SummaryService summaryService;
+
+    @Test
+    void throughput() throws Exception {
+        String label = getClass().getSimpleName();
+
+        run(0, WARMUP);
+        long registerNs = time(() -> register(WARMUP, OPS));
+        long loginNs = time(() -> login(WARMUP, OPS));
+        long summaryNs = time(() -> saveSummary(WARMUP, OPS));
+
+        System.out.printf("[%s] register %.0f ops/s, login %.0f ops/s, summary-save %.0f ops/s%n",
+                label, opsPerSec(registerNs), opsPerSec(loginNs), opsPerSec(summaryNs));
+    }
+
+    private void run(int from, int count) throws Exception {
+        register(from, count);
+        login(from, count);
+        saveSummary(from, count);
+    }
+
+    private void register(int from, int count) throws Exception {
+        for (int i = from; i < from + count; i++) {
+            RegisterRequest req = new RegisterRequest();
+            req.setName("user" + i);
+            req.setEmail(email(i));
+            req.setPhone(String.format("010%08d", i));
+            req.setPassword("password");
+            assertEquals(200, authController.register(req).getStatusCode().value());
+        }
+    }
+
+    private void login(int from, int count) {
+        for (int i = from; i < from + count; i++) {
+            LoginRequest req = new LoginRequest();
+            req.setEmail(email(i));
+            req.setPassword("password");
+            authController.login(req, new MockHttpServletRequest());
+        }
+    }
+
+    private void saveSummary(int from, int count) {
+        for (int i = from; i < from + count; i++) {
+            SummaryRequest req = new SummaryRequest();
+            req.setSummaryText("통화 요약 " + i + ": 상대방이 안전계좌 이체를 요구함");
+            summaryService.saveSummary(email(i), req);
+        }
+    }
+
+    private static String email(int i) {
+        return "bench" + i + "@aura.test";
+    }
+
+    private static long time(ThrowingRunnable r) throws Exception {
+        long start = System.nanoTime();
+        r.run();
+        return System.nanoTime() - start;
+    }
+
+    private static double opsPerSec(long nanos) {
+        return OPS / (nanos / 1_000_000_000.0);
+    }
+
+    @FunctionalInterface
+    private interface ThrowingRunnable {
+        void run() throws Exception;
+    }
+}
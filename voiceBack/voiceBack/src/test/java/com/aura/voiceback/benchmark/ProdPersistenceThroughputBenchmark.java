@@ -0,0 +1,8 @@
+package com.aura.voiceback.benchmark;
+
+import org.springframework.test.context.ActiveProfiles;
+
+/** prod 프로필 (pooled 시퀀스, JDBC 배치, 2차/쿼리 캐시) */
+@ActiveProfiles("prod")
+class ProdPersistenceThroughputBenchmark extends PersistenceThroughputBenchmark {
+}
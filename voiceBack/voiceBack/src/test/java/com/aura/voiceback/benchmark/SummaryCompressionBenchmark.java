@@ -0,0 +1,150 @@
+package com.aura.voiceback.benchmark;
+
+import com.aura.voiceback.controller.AuthController;
+import com.aura.voiceback.dto.RegisterRequest;
+import com.aura.voiceback.dto.SummaryResponse;
+import com.aura.voiceback.service.SummaryCompressionMigrator;
+import com.aura.voiceback.service.SummaryService;
+import com.aura.voiceback.util.TextCodec;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 요약 압축 저장 효과 (./gradlew benchmarkTest).
+ * 압축 이전 형식으로 요약을 넣고 (summary_data 없음) 저장 크기 / 목록 조회 시간을 잰 뒤,
+ * SummaryCompressionMigrator 로 옮기고 다시 잰다. 요약 본문은 통화 요약 문장 + 일상 대화 문장을 섞어 만든다.
+ */
+@Tag("benchmark")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=jdbc:h2:mem:summarycompression;MODE=MariaDB;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.show-sql=false",
+        "jwt.secret=ThisIsASecretKeyForJwtTokenExample1234567890",
+        "kakao-rest-api-key=bench",
+        "kakao-login-redirect-url=http://localhost/login",
+        "kakao-link-redirect-url=http://localhost/link",
+        "spring.mail.username=bench",
+        "spring.mail.password=bench",
+        "security.bcrypt-strength=4",
+        "summary.compression.migrate-pause-ms=0"
+})
+class SummaryCompressionBenchmark {
+
+    private static final int ROWS = 300;
+    private static final int READS = 50;
+    private static final String EMAIL = "history@aura.test";
+    private static final String[] SENTENCES = {
+            "상대방이 검찰 수사관이라며 사용자의 계좌가 범죄에 연루되었다고 말했습니다.",
+            "예금을 안전계좌로 이체하라고 요구했습니다.",
+            "원격제어 앱 설치를 요구했습니다.",
+            "상대방이 금융감독원 직원을 사칭하며 개인정보를 요구했습니다.",
+            "저금리 대환대출을 해 주겠다며 수수료 선입금을 요구했습니다.",
+            "보이스피싱이 의심됩니다. 통화를 끊고 해당 기관의 대표번호로 직접 확인하세요.",
+            "다음 주 화요일 오후 세 시에 강남역 근처 카페에서 만나기로 했습니다.",
+            "프로젝트 발표 자료는 목요일까지 공유 폴더에 올리기로 했습니다.",
+            "어머니 병원 진료 예약을 금요일 오전으로 옮겼다고 이야기했습니다.",
+            "주말에 가족 모임이 있어서 장 볼 목록을 정리했습니다.",
+            "택배가 아직 도착하지 않아 판매자에게 문의하기로 했습니다.",
+            "아이 학원 상담 일정과 수강료에 대해 이야기를 나눴습니다.",
+            "위험 신호는 없었습니다.",
+    };
+
+    @Autowired
+    private AuthController authController;
+
+    @Autowired
+    private SummaryService summaryService;
+
+    @Autowired
+    private SummaryCompressionMigrator migrator;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void storageAndReadLatency() {
+        RegisterRequest req = new RegisterRequest();
+        req.setName("history");
+        req.setEmail(EMAIL);
+        req.setPhone("01099990000");
+        req.setPassword("password");
+        authController.register(req);
+        Integer userId = jdbcTemplate.queryForObject("SELECT id FROM users WHERE email = ?", Integer.class, EMAIL);
+
+        // 압축 이전 형식 (summary_text 에 전체)
+        Random random = new Random(1);
+        for (int i = 0; i < ROWS; i++) {
+            jdbcTemplate.update("INSERT INTO summary (user_id, date_time, summary_text) VALUES (?, ?, ?)",
+                    userId, LocalDateTime.now(), summary(random, 3 + random.nextInt(40)));
+        }
+        List<SummaryResponse> before = summaryService.getSummaries(EMAIL, true);
+        long rawBytes = storedBytes();
+        double rawListMs = timeMs(() -> summaryService.getSummaries(EMAIL, true));
+
+        long migrated = migrator.migrate();
+        long compressedBytes = storedBytes();
+        double previewListMs = timeMs(() -> summaryService.getSummaries(EMAIL, false));
+        double fullListMs = timeMs(() -> summaryService.getSummaries(EMAIL, true));
+        Long oneId = before.get(ROWS / 2).getId();
+        double oneMs = timeMs(() -> summaryService.getSummary(EMAIL, oneId));
+
+        List<SummaryResponse> after = summaryService.getSummaries(EMAIL, true);
+        for (int i = 0; i < ROWS; i++) {
+            assertEquals(before.get(i).getSummaryText(), after.get(i).getSummaryText());
+        }
+        assertTrue(migrated > 0);
+        assertEquals(0, migrator.migrate()); // 다시 돌려도 옮길 행 없음
+
+        // 세그먼트 단위(한 발화) 압축률 참고. 사전에 없는 일상 대화 문장만
+        long segmentRaw = 0;
+        long segmentCompressed = 0;
+        for (String s : List.of(SENTENCES).subList(6, 12)) {
+            segmentRaw += s.getBytes(StandardCharsets.UTF_8).length;
+            segmentCompressed += TextCodec.encode(s).length;
+        }
+
+        System.out.printf("[summary-compression] rows %d (migrated %d), stored bytes %d -> %d (%.1f%%)%n",
+                ROWS, migrated, rawBytes, compressedBytes, 100.0 * compressedBytes / rawBytes);
+        System.out.printf("[summary-compression] list full(raw) %.2f ms | list preview %.2f ms | list full(compressed) %.2f ms | one full %.3f ms%n",
+                rawListMs, previewListMs, fullListMs, oneMs);
+        System.out.printf("[summary-compression] single-utterance segments (not in dictionary) %d -> %d bytes (%.1f%%)%n",
+                segmentRaw, segmentCompressed, 100.0 * segmentCompressed / segmentRaw);
+    }
+
+    private long storedBytes() {
+        return jdbcTemplate.queryForObject(
+                "SELECT COALESCE(SUM(OCTET_LENGTH(summary_text)), 0) + COALESCE(SUM(OCTET_LENGTH(summary_data)), 0) FROM summary",
+                Long.class);
+    }
+
+    private static String summary(Random random, int sentences) {
+        StringBuilder sb = new StringBuilder("통화 요약: ");
+        for (int i = 0; i < sentences; i++) {
+            sb.append(SENTENCES[random.nextInt(SENTENCES.length)]).append(' ');
+            if (random.nextInt(4) == 0) sb.append(random.nextInt(900) + 100).append("만원 ");
+        }
+        return sb.toString().strip();
+    }
+
+    private static double timeMs(Supplier<?> read) {
+        for (int i = 0; i < 5; i++) read.get();
+        long start = System.nanoTime();
+        for (int i = 0; i < READS; i++) read.get();
+        return (System.nanoTime() - start) / 1e6 / READS;
+    }
+}
@@ -0,0 +1,112 @@
+package com.aura.voiceback.benchmark;
+
+import com.aura.voiceback.controller.AuthController;
+import com.aura.voiceback.dto.RegisterRequest;
+import com.aura.voiceback.service.TranscriptService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 통화 자막 저장 비교 (./gradlew benchmarkTest).
+ *   update-per-segment : 세그먼트마다 summary_text 에 이어 붙이는 UPDATE (자막이 길수록 한 번에 쓰는 양이 커진다)
+ *   append-batched     : TranscriptService (버퍼 + transcript_segment 배치 INSERT), 종료 후 요약까지
+ * 두 방식 모두 세그먼트를 다 쓰고 DB 에 반영될 때까지의 시간을 잰다.
+ */
+@Tag("benchmark")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=jdbc:h2:mem:transcript;MODE=MariaDB;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.show-sql=false",
+        "jwt.secret=ThisIsASecretKeyForJwtTokenExample1234567890",
+        "kakao-rest-api-key=bench",
+        "kakao-login-redirect-url=http://localhost/login",
+        "kakao-link-redirect-url=http://localhost/link",
+        "spring.mail.username=bench",
+        "spring.mail.password=bench",
+        "security.bcrypt-strength=4"
+})
+class TranscriptPersistenceBenchmark {
+
+    private static final int CALLS = 10;
+    private static final int SEGMENTS_PER_CALL = 1000;
+    private static final String LINE = "상대방이 검찰 수사관이라며 안전계좌로 이체하라고 요구했습니다 ";
+
+    @Autowired
+    private AuthController authController;
+
+    @Autowired
+    private TranscriptService transcriptService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void throughput() throws Exception {
+        for (int u = 0; u < 2; u++) {
+            RegisterRequest req = new RegisterRequest();
+            req.setName("speaker" + u);
+            req.setEmail(email(u));
+            req.setPhone(String.format("010%08d", 90_000 + u));
+            req.setPassword("password");
+            authController.register(req);
+        }
+        Integer userId = jdbcTemplate.queryForObject("SELECT id FROM users WHERE email = ?", Integer.class, email(0));
+
+        // 세그먼트마다 UPDATE
+        long start = System.nanoTime();
+        for (int c = 0; c < CALLS; c++) {
+            jdbcTemplate.update("INSERT INTO summary (user_id, date_time, summary_text) VALUES (?, ?, '')",
+                    userId, LocalDateTime.now());
+            Long id = jdbcTemplate.queryForObject("SELECT max(id) FROM summary", Long.class);
+            for (int i = 0; i < SEGMENTS_PER_CALL; i++) {
+                jdbcTemplate.update("UPDATE summary SET summary_text = CONCAT(summary_text, ?) WHERE id = ?",
+                        email(i % 2) + ": " + LINE + i + "\n", id);
+            }
+        }
+        long updateNs = System.nanoTime() - start;
+
+        // 버퍼 + 배치 INSERT, 종료 후 요약
+        start = System.nanoTime();
+        for (int c = 0; c < CALLS; c++) {
+            for (int i = 0; i < SEGMENTS_PER_CALL; i++) {
+                assertTrue(transcriptService.append("call-" + c, email(i % 2), LINE + i, i * 2000L, i * 2000L + 1800));
+            }
+        }
+        long appendNs = System.nanoTime() - start;
+        for (int c = 0; c < CALLS; c++) {
+            transcriptService.finish("call-" + c);
+        }
+        while (count("SELECT count(*) FROM summary WHERE call_id IS NOT NULL") < CALLS * 2L) {
+            Thread.sleep(5);
+        }
+        long batchedNs = System.nanoTime() - start;
+
+        assertEquals((long) CALLS * SEGMENTS_PER_CALL, count("SELECT count(*) FROM transcript_segment"));
+        assertEquals(SEGMENTS_PER_CALL, transcriptService.getTranscript("call-3").size());
+        assertFalse(transcriptService.append("call-3", email(0), "late", null, null), "finished call must reject late segments");
+
+        int total = CALLS * SEGMENTS_PER_CALL;
+        System.out.printf("[transcript] update-per-segment %.0f seg/s | append-batched: append %.0f seg/s, persisted+summarized %.0f seg/s%n",
+                total / (updateNs / 1e9), total / (appendNs / 1e9), total / (batchedNs / 1e9));
+    }
+
+    private long count(String sql) {
+        return jdbcTemplate.queryForObject(sql, Long.class);
+    }
+
+    private static String email(int i) {
+        return "speaker" + i + "@aura.test";
+    }
+}
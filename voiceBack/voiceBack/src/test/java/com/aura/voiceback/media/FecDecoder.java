@@ -0,0 +1,129 @@
+package com.aura.voiceback.media;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 수신 측 XOR parity 복원 (FecEncoder 의 짝). 서버는 복원하지 않으므로 테스트에만 두는
+ * proto=2&fec=1 클라이언트용 참고 구현 - 클라이언트는 이 규칙대로 구현한다.
+ * 발신자(streamId)별로 최근 프레임을 보관하다가, parity 그룹에서 딱 한 프레임만 빠졌으면 복원해서 sink 로 넘긴다.
+ * parity 가 프레임보다 먼저 와도 되도록 아직 복원할 수 없는 parity 는 잠시 보관한다. 스레드 하나에서만 쓴다.
+ */
+public final class FecDecoder {
+
+    public interface Sink {
+        void recovered(int streamId, long seq, long timestamp, int sampleRate, ByteBuffer pcm);
+    }
+
+    private static final int HISTORY = 64;
+    private static final int MAX_PENDING_PARITY = 8;
+
+    private final Sink sink;
+    private final Map<Integer, Stream> streams = new HashMap<>();
+
+    public FecDecoder(Sink sink) {
+        this.sink = sink;
+    }
+
+    public void onAudio(int streamId, long seq, long timestamp, ByteBuffer pcm) {
+        Stream stream = stream(streamId);
+        stream.remember(seq, timestamp, pcm);
+        stream.retry(streamId);
+    }
+
+    /** @param payload parity 프레임 payload (FecEncoder 형식) */
+    public void onParity(int streamId, long firstSeq, int sampleRate, ByteBuffer payload) {
+        if (payload.remaining() < FecEncoder.HEADER_LENGTH) return;
+        byte[] copy = new byte[payload.remaining()];
+        payload.duplicate().get(copy);
+        Stream stream = stream(streamId);
+        Parity parity = new Parity(firstSeq, sampleRate, ByteBuffer.wrap(copy));
+        if (!stream.tryRecover(streamId, parity)) {
+            stream.pending.add(parity);
+            if (stream.pending.size() > MAX_PENDING_PARITY) stream.pending.remove(0);
+        }
+    }
+
+    private Stream stream(int streamId) {
+        return streams.computeIfAbsent(streamId, id -> new Stream());
+    }
+
+    private record Parity(long firstSeq, int sampleRate, ByteBuffer data) {
+        int groupSize() { return data.get(0) & 0xFF; }
+        int mask() { return data.get(1) & 0xFF; }
+    }
+
+    private final class Stream {
+        final long[] seqs = new long[HISTORY];
+        final long[] timestamps = new long[HISTORY];
+        final byte[][] frames = new byte[HISTORY][];
+        final List<Parity> pending = new ArrayList<>();
+
+        Stream() {
+            Arrays.fill(seqs, -1);
+        }
+
+        void remember(long seq, long timestamp, ByteBuffer pcm) {
+            int slot = (int) Math.floorMod(seq, (long) HISTORY);
+            byte[] copy = new byte[pcm.remaining()];
+            pcm.duplicate().get(copy);
+            seqs[slot] = seq;
+            timestamps[slot] = timestamp;
+            frames[slot] = copy;
+        }
+
+        byte[] frame(long seq) {
+            int slot = (int) Math.floorMod(seq, (long) HISTORY);
+            return seqs[slot] == seq ? frames[slot] : null;
+        }
+
+        void retry(int streamId) {
+            for (Iterator<Parity> it = pending.iterator(); it.hasNext(); ) {
+                Parity parity = it.next();
+                if (tryRecover(streamId, parity)) it.remove();
+            }
+        }
+
+        /** @return true 면 이 parity 는 더 쓸 일이 없다 (복원했거나 빠진 프레임이 없음) */
+        boolean tryRecover(int streamId, Parity parity) {
+            long missing = -1;
+            int missingCount = 0;
+            for (int i = 0; i < parity.groupSize(); i++) {
+                if ((parity.mask() & (1 << i)) == 0) continue;
+                long seq = parity.firstSeq() + i;
+                if (frame(seq) == null) {
+                    missing = seq;
+                    missingCount++;
+                }
+            }
+            if (missingCount == 0) return true;
+            if (missingCount > 1) return false;
+
+            ByteBuffer data = parity.data();
+            int length = data.getShort(2) & 0xFFFF;
+            long timestamp = data.getLong(4);
+            byte[] pcm = new byte[data.limit() - FecEncoder.HEADER_LENGTH];
+            data.get(FecEncoder.HEADER_LENGTH, pcm);
+            for (int i = 0; i < parity.groupSize(); i++) {
+                long seq = parity.firstSeq() + i;
+                if ((parity.mask() & (1 << i)) == 0 || seq == missing) continue;
+                byte[] other = frame(seq);
+                length ^= other.length;
+                timestamp ^= timestamps[(int) Math.floorMod(seq, (long) HISTORY)];
+                for (int k = 0; k < other.length && k < pcm.length; k++) {
+                    pcm[k] ^= other[k];
+                }
+            }
+            if (length > pcm.length) return true; // 손상된 parity
+            ByteBuffer recovered = ByteBuffer.wrap(pcm, 0, length);
+            remember(missing, timestamp, recovered);
+            sink.recovered(streamId, missing, timestamp, parity.sampleRate(), recovered);
+            return true;
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.aura.voiceback.media;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 음량 측정: dBFS 값, 창(window) 평균으로 부드럽게 바뀌는지, 프레임이 끊긴 뒤 stale 시간까지만 음량을 유지하는지 확인
+ */
+class LevelMeterTest {
+
+    private static final long STALE = TimeUnit.MILLISECONDS.toNanos(300);
+    private static final long FRAME = TimeUnit.MILLISECONDS.toNanos(20);
+
+    @Test
+    void emptyMeterIsSilent() {
+        assertEquals(LevelMeter.SILENCE_DBFS, new LevelMeter(4).dbfs(0, STALE));
+    }
+
+    @Test
+    void constantHalfScaleIsAboutMinusSixDb() {
+        LevelMeter meter = new LevelMeter(4);
+        meter.add(pcm(16384), 0);
+        assertEquals(-6.02, meter.dbfs(0, STALE), 0.01);
+
+        LevelMeter zero = new LevelMeter(4);
+        zero.add(pcm(0), 0);
+        assertEquals(LevelMeter.SILENCE_DBFS, zero.dbfs(0, STALE));
+    }
+
+    @Test
+    void levelIsSmoothedOverTheWindow() {
+        LevelMeter meter = new LevelMeter(4);
+        long now = 0;
+        for (int i = 0; i < 4; i++, now += FRAME) meter.add(pcm(16384), now);
+        double loud = meter.dbfs(now, STALE);
+
+        // 무음 한 프레임으로는 1/4 만 줄어든다
+        meter.add(pcm(0), now);
+        assertEquals(loud + 10 * Math.log10(0.75), meter.dbfs(now, STALE), 0.01);
+        meter.add(pcm(0), now += FRAME);
+        meter.add(pcm(0), now += FRAME);
+        assertTrue(meter.dbfs(now, STALE) < loud - 5);
+        // 창 전체가 무음이 되어야 무음
+        meter.add(pcm(0), now += FRAME);
+        assertEquals(LevelMeter.SILENCE_DBFS, meter.dbfs(now, STALE));
+    }
+
+    @Test
+    void levelHoldsUntilFramesStopForStaleTime() {
+        LevelMeter meter = new LevelMeter(4);
+        meter.add(pcm(8000), 0);
+        double level = meter.dbfs(0, STALE);
+        assertEquals(level, meter.dbfs(STALE, STALE));
+        assertEquals(LevelMeter.SILENCE_DBFS, meter.dbfs(STALE + 1, STALE));
+    }
+
+    // 48kHz 20ms, 모든 샘플이 amplitude
+    private static ByteBuffer pcm(int amplitude) {
+        ByteBuffer b = ByteBuffer.allocate(1920).order(ByteOrder.LITTLE_ENDIAN);
+        while (b.hasRemaining()) b.putShort((short) amplitude);
+        return b.flip();
+    }
+}
@@ -0,0 +1,87 @@
+package com.aura.voiceback.media;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * profile 상태 기계: 내릴 때 / 올릴 때의 연속 판정 수, BAD 와 GOOD 사이 구간의 초기화,
+ * 바꾼 뒤 hold 주기, 보고가 없는(NaN) 항목 처리 확인
+ */
+class ProfileControllerTest {
+
+    private static final double NONE = Double.NaN;
+
+    @Test
+    void degradesAfterConsecutiveBadAndHolds() {
+        ProfileController c = new ProfileController(2, 3, 2);
+        assertEquals(StreamProfile.HIGH, bad(c));
+        assertEquals(StreamProfile.MEDIUM, bad(c));
+        // 바꾼 뒤 2 주기는 판정하지 않는다
+        assertEquals(StreamProfile.MEDIUM, bad(c));
+        assertEquals(StreamProfile.MEDIUM, bad(c));
+        assertEquals(StreamProfile.MEDIUM, bad(c));
+        assertEquals(StreamProfile.LOW, bad(c));
+    }
+
+    @Test
+    void upgradeNeedsLongerGoodStreak() {
+        ProfileController c = new ProfileController(1, 3, 0);
+        assertEquals(StreamProfile.MEDIUM, bad(c));
+        assertEquals(StreamProfile.MEDIUM, good(c));
+        assertEquals(StreamProfile.MEDIUM, good(c));
+        assertEquals(StreamProfile.HIGH, good(c));
+        assertEquals(StreamProfile.HIGH, good(c)); // 맨 위
+    }
+
+    @Test
+    void signalsBetweenThresholdsResetBothStreaks() {
+        ProfileController c = new ProfileController(2, 2, 0);
+        bad(c);
+        // 손실 3%: BAD(5%) 도 GOOD(1%) 도 아니다
+        assertEquals(StreamProfile.HIGH, c.update(0, 0, 0, 3, NONE));
+        assertEquals(StreamProfile.HIGH, bad(c));
+        assertEquals(StreamProfile.MEDIUM, bad(c));
+
+        good(c);
+        assertEquals(StreamProfile.MEDIUM, c.update(0.1, 0, 0, NONE, NONE)); // 대기열 10%: 중간
+        assertEquals(StreamProfile.MEDIUM, good(c));
+        assertEquals(StreamProfile.HIGH, good(c));
+    }
+
+    @Test
+    void eachServerSignalCanMarkTheLinkBad() {
+        assertEquals(StreamProfile.MEDIUM, new ProfileController(1, 1, 0).update(0, 1, 0, NONE, NONE));
+        assertEquals(StreamProfile.MEDIUM, new ProfileController(1, 1, 0)
+                .update(ProfileController.BAD_QUEUE_FILL, 0, 0, NONE, NONE));
+        assertEquals(StreamProfile.MEDIUM, new ProfileController(1, 1, 0)
+                .update(0, 0, ProfileController.BAD_SEND_MS, NONE, NONE));
+        assertEquals(StreamProfile.MEDIUM, new ProfileController(1, 1, 0)
+                .update(0, 0, 0, NONE, ProfileController.BAD_JITTER_MS));
+    }
+
+    @Test
+    void missingReportsDoNotBlockUpgrade() {
+        ProfileController c = new ProfileController(1, 1, 0);
+        bad(c);
+        // 클라이언트가 보고하지 않아도 서버 신호가 좋으면 GOOD
+        assertEquals(StreamProfile.HIGH, c.update(0, 0, 1, NONE, NONE));
+    }
+
+    @Test
+    void staysWithinProfileRange() {
+        ProfileController c = new ProfileController(1, 1, 0);
+        for (int i = 0; i < 10; i++) bad(c);
+        assertEquals(StreamProfile.MINIMAL, c.getProfile());
+        for (int i = 0; i < 10; i++) good(c);
+        assertEquals(StreamProfile.HIGH, c.getProfile());
+    }
+
+    private static StreamProfile bad(ProfileController c) {
+        return c.update(0, 0, 0, 10, NONE);
+    }
+
+    private static StreamProfile good(ProfileController c) {
+        return c.update(0, 0, 1, 0, 5);
+    }
+}
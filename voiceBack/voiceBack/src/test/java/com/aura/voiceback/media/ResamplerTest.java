@@ -0,0 +1,72 @@
+package com.aura.voiceback.media;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 다운샘플링: 출력 길이, 평균값, 프레임 단위로 나눠 줄여도 한 번에 줄인 것과 같은지(경계에서 끊기지 않는지) 확인
+ */
+class ResamplerTest {
+
+    private static final int FRAME_BYTES = 1920; // 48kHz 20ms
+
+    @Test
+    void outputLengthFollowsProfile() {
+        for (StreamProfile profile : StreamProfile.values()) {
+            int expected = FRAME_BYTES * profile.sampleRate() / StreamProfile.SOURCE_RATE;
+            assertEquals(expected, Resampler.decimatedLength(FRAME_BYTES, profile.decimation()), profile.name());
+            ByteBuffer out = ByteBuffer.allocate(expected);
+            assertEquals(expected, Resampler.decimate(pcm(0, 960), profile.decimation(), out, 0));
+        }
+        // 끝에 factor 개가 안 되는 샘플은 버린다
+        assertEquals(640, Resampler.decimatedLength(FRAME_BYTES + 4, 3));
+    }
+
+    @Test
+    void averagesEachGroupOfSamples() {
+        ByteBuffer in = samples(100, 200, 300, 400, -600, -200);
+        ByteBuffer out = ByteBuffer.allocate(8).order(ByteOrder.LITTLE_ENDIAN);
+        assertEquals(6, Resampler.decimate(in, 2, out, 2));
+        assertEquals(150, out.getShort(2));
+        assertEquals(350, out.getShort(4));
+        assertEquals(-400, out.getShort(6));
+        assertEquals(0, in.position());
+        assertEquals(0, out.position());
+    }
+
+    @Test
+    void framesDecimatedSeparatelyMatchOneContinuousPass() {
+        int frames = 5;
+        ByteBuffer whole = pcm(0, 960 * frames);
+        for (int factor : new int[]{2, 3, 6}) {
+            ByteBuffer expected = ByteBuffer.allocate(Resampler.decimatedLength(whole.remaining(), factor));
+            Resampler.decimate(whole, factor, expected, 0);
+
+            int frameOut = Resampler.decimatedLength(FRAME_BYTES, factor);
+            ByteBuffer joined = ByteBuffer.allocate(frameOut * frames);
+            for (int f = 0; f < frames; f++) {
+                Resampler.decimate(pcm(960 * f, 960), factor, joined, f * frameOut);
+            }
+            assertEquals(expected, joined, "factor " + factor);
+        }
+    }
+
+    // 1kHz 사인파 (48kHz 기준 start 번째 샘플부터 count 개)
+    private static ByteBuffer pcm(int start, int count) {
+        ByteBuffer b = ByteBuffer.allocate(count * 2).order(ByteOrder.LITTLE_ENDIAN);
+        for (int i = 0; i < count; i++) {
+            b.putShort((short) (8000 * Math.sin(2 * Math.PI * 1000 * (start + i) / 48000.0)));
+        }
+        return b.flip();
+    }
+
+    private static ByteBuffer samples(int... values) {
+        ByteBuffer b = ByteBuffer.allocate(values.length * 2).order(ByteOrder.LITTLE_ENDIAN);
+        for (int v : values) b.putShort((short) v);
+        return b.flip();
+    }
+}
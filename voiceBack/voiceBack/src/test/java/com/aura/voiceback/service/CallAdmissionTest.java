@@ -0,0 +1,99 @@
+package com.aura.voiceback.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 통화 허용: CPU / egress 표본과 소켓 수가 예산을 넘으면 새 통화를 거절하고 내려가면 다시 받는지,
+ * 방 인원 예산은 참가만 막는지, 결과가 메트릭에 남는지 확인
+ */
+class CallAdmissionTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final AtomicLong cpuNanos = new AtomicLong();
+    private final AtomicLong egress = new AtomicLong();
+    private final AtomicInteger sockets = new AtomicInteger();
+    // 2 코어, CPU 50%, egress 1MB/s, 소켓 10, 방 3명
+    private final CallAdmission admission = new CallAdmission(new VoIPMetrics(registry), cpuNanos::get, egress::get,
+            sockets::get, 2, true, 0, 0.5, 1_000_000, 10, 3, "http://other:8080");
+
+    @Test
+    void rejectsWhileOverBudgetAndRecovers() {
+        admission.sample(SECOND);
+        assertTrue(admission.admitCall().admitted());
+
+        // 1초 동안 중계 스레드가 1.5 코어를 쓴다 (2 코어의 75%)
+        cpuNanos.addAndGet(3 * SECOND / 2);
+        admission.sample(2 * SECOND);
+        assertEquals("cpu", admission.admitCall().reason());
+        assertEquals(false, admission.status().get("accepting"));
+
+        cpuNanos.addAndGet(SECOND / 2);
+        egress.addAndGet(2_000_000);
+        admission.sample(3 * SECOND);
+        assertEquals("egress", admission.admitCall().reason());
+
+        egress.addAndGet(500_000);
+        admission.sample(4 * SECOND);
+        sockets.set(10);
+        assertEquals("sockets", admission.admitCall().reason());
+
+        sockets.set(9);
+        assertTrue(admission.admitCall().admitted());
+        assertEquals(2.0, count("admitted"));
+        assertEquals(1.0, count("cpu"));
+        assertEquals(1.0, count("egress"));
+        assertEquals(1.0, count("sockets"));
+    }
+
+    @Test
+    void fullRoomRejectsOnlyJoins() {
+        admission.sample(SECOND);
+        assertTrue(admission.admitJoin(2).admitted());
+        CallAdmission.Decision full = admission.admitJoin(3);
+        assertFalse(full.admitted());
+        assertTrue(full.roomFull());
+        assertTrue(admission.admitCall().admitted());
+
+        CallAdmission off = new CallAdmission(new VoIPMetrics(registry), cpuNanos::get, egress::get,
+                sockets::get, 2, false, 0, 0.5, 1, 1, 1, "");
+        sockets.set(100);
+        assertTrue(off.admitJoin(100).admitted());
+    }
+
+    @Test
+    void relayThreadCpuCountsOnlyRelayThreads() throws Exception {
+        CallAdmission.RelayThreadCpu cpu = new CallAdmission.RelayThreadCpu(ManagementFactory.getThreadMXBean());
+        assertTrue(CallAdmission.RelayThreadCpu.isRelayThread("room-loop-0"));
+        assertTrue(CallAdmission.RelayThreadCpu.isRelayThread("voip-sender-3"));
+        assertFalse(CallAdmission.RelayThreadCpu.isRelayThread("http-nio-8080-exec-1"));
+
+        long before = cpu.getAsLong();
+        Thread busy = new Thread(() -> {
+            long end = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(100);
+            while (System.nanoTime() < end) Thread.onSpinWait();
+        }, "room-loop-test");
+        busy.start();
+        busy.join(50);
+        long during = cpu.getAsLong();
+        busy.join();
+        long after = cpu.getAsLong();
+        assertTrue(during >= before);
+        // 끝난 스레드가 빠져도 누적값은 줄지 않는다
+        assertTrue(after >= during);
+        assertTrue(cpu.getAsLong() >= after);
+    }
+
+    private double count(String result) {
+        return registry.get("voip.admission").tag("result", result).counter().count();
+    }
+}
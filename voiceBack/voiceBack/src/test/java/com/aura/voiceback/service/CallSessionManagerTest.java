@@ -0,0 +1,72 @@
+package com.aura.voiceback.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 방 참가/퇴장: 같은 사용자의 동시 요청 중 JOINED / 참가 시각은 한 번만 나오는지 (이력이 두 번 남지 않게),
+ * 여러 사용자가 동시에 들어와도 인원 한도를 넘지 않는지
+ */
+class CallSessionManagerTest {
+
+    private final RoomEventLoops eventLoops = new RoomEventLoops(2);
+    private final CallSessionManager manager = new CallSessionManager(eventLoops);
+    private final ExecutorService clients = Executors.newFixedThreadPool(8);
+
+    @AfterEach
+    void stop() throws InterruptedException {
+        clients.shutdownNow();
+        eventLoops.shutdown();
+    }
+
+    @Test
+    void concurrentJoinsAndLeavesCountOnce() throws Exception {
+        String roomId = manager.createRoom("host", "room");
+
+        List<CallSessionManager.JoinResult> joins = all(() -> manager.joinRoom("bob", roomId));
+        assertEquals(1, joins.stream().filter(r -> r == CallSessionManager.JoinResult.JOINED).count());
+        assertEquals(31, joins.stream().filter(r -> r == CallSessionManager.JoinResult.ALREADY_JOINED).count());
+
+        List<CallSessionManager.LeaveResult> leaves = all(() -> manager.leaveRoom("bob", roomId));
+        assertEquals(1, leaves.stream().filter(r -> r.joinedAt() != null).count());
+        assertTrue(leaves.stream().allMatch(CallSessionManager.LeaveResult::roomExists));
+
+        CallSessionManager.LeaveResult last = manager.leaveRoom("host", roomId);
+        assertFalse(last.roomExists());
+        assertNotNull(last.joinedAt());
+        assertNull(manager.getRoom(roomId));
+        assertEquals(CallSessionManager.JoinResult.NOT_FOUND, manager.joinRoom("bob", roomId));
+    }
+
+    @Test
+    void concurrentJoinsNeverExceedTheAdmissionLimit() throws Exception {
+        String roomId = manager.createRoom("host", "room");
+        AtomicInteger next = new AtomicInteger();
+
+        List<CallSessionManager.JoinResult> joins = all(() ->
+                manager.joinRoom("user" + next.incrementAndGet(), roomId, participants -> participants < 4));
+        assertEquals(3, joins.stream().filter(r -> r == CallSessionManager.JoinResult.JOINED).count());
+        assertEquals(29, joins.stream().filter(r -> r == CallSessionManager.JoinResult.FULL).count());
+        assertEquals(4, manager.getRoom(roomId).getParticipants().size());
+        // 이미 들어온 사용자는 한도와 상관없이 ALREADY_JOINED
+        assertEquals(CallSessionManager.JoinResult.ALREADY_JOINED, manager.joinRoom("host", roomId, participants -> false));
+    }
+
+    private <T> List<T> all(Callable<T> call) throws Exception {
+        List<Future<T>> futures = new ArrayList<>();
+        for (int i = 0; i < 32; i++) futures.add(clients.submit(call));
+        List<T> results = new ArrayList<>();
+        for (Future<T> f : futures) results.add(f.get());
+        return results;
+    }
+}
@@ -0,0 +1,176 @@
+package com.aura.voiceback.service;
+
+import com.aura.voiceback.dto.DrainSnapshot;
+import com.aura.voiceback.util.BufferPool;
+import com.aura.voiceback.util.JsonUtil;
+import com.aura.voiceback.websocket.FrameCodec;
+import com.aura.voiceback.websocket.FrameView;
+import com.aura.voiceback.websocket.RoomHandshakeInterceptor;
+import com.fasterxml.jackson.databind.JsonNode;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+
+/**
+ * 드레인: 한 노드의 방 참가자 / 1:1 통화 / 재접속 토큰을 스냅샷(JSON)으로 다른 노드에 넘기고,
+ * 옛 노드의 proto=2 클라이언트가 migrate 안내를 받아 새 노드에 토큰으로 붙으면 같은 방에 들어가는지 확인.
+ * 두 노드는 같은 JVM 안의 독립된 인스턴스 (HTTP 전송은 빼고 JSON 직렬화까지)
+ */
+class DrainMigrationTest {
+
+    private final Node a = new Node();
+    private final Node b = new Node();
+
+    @AfterEach
+    void stop() throws InterruptedException {
+        a.eventLoops.shutdown();
+        b.eventLoops.shutdown();
+    }
+
+    @Test
+    void roomsAndTokensMoveToTheNextNode() throws Exception {
+        String roomId = a.calls.createRoom("alice", "standup");
+        a.calls.joinRoom("bob", roomId);
+        String callId = a.calls.createSession("carol", "dave");
+        long aliceJoined = a.calls.getRoom(roomId).getJoinedAt("alice");
+
+        WebSocketSession alice = session("a1", roomId, "alice", null);
+        List<byte[]> aliceOut = capture(alice);
+        a.voip.registerSession("a1", alice);
+        a.sync(roomId);
+        String token = control(aliceOut.get(0)).path("token").asText();
+
+        String json = JsonUtil.toJson(a.drain.snapshot());
+        Map<String, Object> loaded = b.drain.load(JsonUtil.fromJson(json, DrainSnapshot.class));
+        assertEquals(Map.of("rooms", 1, "calls", 1, "tokens", 1), loaded);
+        assertEquals(1, a.voip.migrate("ws://next:8080/ws/voip", 50));
+        a.sync(roomId);
+
+        JsonNode migrate = control(aliceOut.get(1));
+        assertEquals("migrate", migrate.path("type").asText());
+        assertEquals("ws://next:8080/ws/voip", migrate.path("url").asText());
+        assertEquals(token, migrate.path("token").asText());
+        verify(alice, timeout(2000)).close(CloseStatus.SERVICE_RESTARTED);
+
+        // 다음 노드: 방 참가자와 참가 시각, 1:1 통화가 그대로
+        CallSessionManager.Room moved = b.calls.getRoom(roomId);
+        assertNotNull(moved);
+        assertEquals("standup", moved.getName());
+        assertEquals(2, moved.getParticipants().size());
+        assertEquals(aliceJoined, moved.getJoinedAt("alice"));
+        assertEquals("carol", b.calls.getSession(callId).callerId);
+
+        // 토큰으로 붙으면 (roomId 없이 접속해도) 같은 방, 같은 토큰
+        WebSocketSession again = session("b1", null, "alice", token);
+        List<byte[]> againOut = capture(again);
+        b.voip.registerSession("b1", again);
+        b.sync(roomId);
+        JsonNode resumed = control(againOut.get(0));
+        assertEquals("resumed", resumed.path("type").asText());
+        assertTrue(resumed.path("migrated").asBoolean());
+        assertEquals(token, resumed.path("token").asText());
+        assertNotNull(b.voip.links(roomId));
+        assertEquals(1.0, b.registry.get("voip.resume").tag("result", "migrated").counter().count());
+
+        // 다른 사용자는 같은 토큰으로 방을 가져가지 못한다 (한 번 쓴 토큰은 새 노드의 일반 토큰이 됨)
+        WebSocketSession stranger = session("b2", null, "mallory", token);
+        List<byte[]> strangerOut = capture(stranger);
+        b.voip.registerSession("b2", stranger);
+        b.sync(RoomHandshakeInterceptor.DEFAULT_ROOM);
+        assertEquals("session", control(strangerOut.get(0)).path("type").asText());
+    }
+
+    @Test
+    void drainRefusesTrafficEvenWithoutPeer() {
+        String roomId = a.calls.createRoom("alice", "standup");
+        Map<String, Object> result = a.drain.drain(null, null);
+
+        assertTrue(a.drain.isDraining());
+        assertEquals(false, result.get("imported"));
+        assertEquals(1, result.get("rooms"));
+        verify(a.events).publishEvent(argThat(e -> e instanceof AvailabilityChangeEvent<?> change
+                && change.getState() == ReadinessState.REFUSING_TRAFFIC));
+        assertNotNull(a.calls.getRoom(roomId));
+        assertTrue(a.drain.isAuthorized("drain-secret"));
+        assertFalse(a.drain.isAuthorized("wrong"));
+        assertFalse(a.drain.isAuthorized(null));
+        // secret 을 설정하지 않은 노드는 아무 요청도 받지 않는다
+        DrainService open = new DrainService(a.calls, a.voip, a.resumption, a.events, "", "", 50, 1000);
+        assertFalse(open.isAuthorized(""));
+        assertFalse(open.isAuthorized(null));
+    }
+
+    private static class Node {
+        final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        final RoomEventLoops eventLoops = new RoomEventLoops(1);
+        final CallSessionManager calls = new CallSessionManager(eventLoops);
+        final SessionResumption resumption = new SessionResumption(true, 5000, 8, 500);
+        final VoIPService voip = new VoIPService(VoIPService.Options.builder()
+                .metrics(new VoIPMetrics(registry))
+                .latencyTracker(new CallLatencyTracker(10))
+                .bufferPool(new BufferPool(64, false))
+                .eventLoops(eventLoops)
+                .sender(Runnable::run)
+                .resumption(resumption)
+                .build());
+        final ApplicationEventPublisher events = mock(ApplicationEventPublisher.class);
+        final DrainService drain = new DrainService(calls, voip, resumption, events, "", "drain-secret", 50, 1000);
+
+        void sync(String roomId) {
+            eventLoops.call(roomId, () -> null);
+        }
+    }
+
+    private static JsonNode control(byte[] message) throws Exception {
+        FrameView frame = new FrameView();
+        assertTrue(frame.wrap(ByteBuffer.wrap(message), 0));
+        assertEquals(FrameCodec.TYPE_CONTROL, frame.type());
+        return JsonUtil.fromJson(StandardCharsets.UTF_8.decode(frame.payload()).toString(), JsonNode.class);
+    }
+
+    private static WebSocketSession session(String id, String roomId, String userId, String resume) {
+        Map<String, Object> attributes = new HashMap<>();
+        attributes.put(RoomHandshakeInterceptor.ROOM_ID, roomId != null ? roomId : RoomHandshakeInterceptor.DEFAULT_ROOM);
+        attributes.put(RoomHandshakeInterceptor.USER_ID, userId);
+        attributes.put(RoomHandshakeInterceptor.FRAMED, true);
+        if (resume != null) {
+            attributes.put(RoomHandshakeInterceptor.RESUME, resume);
+            attributes.put(RoomHandshakeInterceptor.RESUME_SINCE, 0L);
+        }
+        WebSocketSession session = mock(WebSocketSession.class);
+        when(session.getId()).thenReturn(id);
+        when(session.isOpen()).thenReturn(true);
+        when(session.getAttributes()).thenReturn(attributes);
+        return session;
+    }
+
+    private static List<byte[]> capture(WebSocketSession session) throws Exception {
+        List<byte[]> sent = new CopyOnWriteArrayList<>();
+        doAnswer(inv -> {
+            ByteBuffer payload = inv.<BinaryMessage>getArgument(0).getPayload();
+            byte[] bytes = new byte[payload.remaining()];
+            payload.duplicate().get(bytes);
+            sent.add(bytes);
+            return null;
+        }).when(session).sendMessage(any());
+        return sent;
+    }
+}
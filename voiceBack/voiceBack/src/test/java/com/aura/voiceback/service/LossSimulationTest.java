@@ -0,0 +1,172 @@
+package com.aura.voiceback.service;
+
+import com.aura.voiceback.media.FecDecoder;
+import com.aura.voiceback.util.BufferPool;
+import com.aura.voiceback.websocket.FrameCodec;
+import com.aura.voiceback.websocket.FrameView;
+import com.aura.voiceback.websocket.RoomHandshakeInterceptor;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * 손실 시뮬레이션: 발신자 -> 서버 구간과 서버 -> 수신자 구간에 같은 확률로 무작위 손실을 넣고,
+ * 수신자가 소리를 못 내는 20ms 자리(audible gap) 비율을 잰다.
+ *   none    : PLC / FEC 없음
+ *   fec     : XOR parity (그룹 4) 만 - 서버 -> 수신자 손실만 복원 가능
+ *   fec+plc : 서버 PLC 가 발신 구간 손실을 채우고, 그 결과를 FEC 로 보호
+ * 실제 중계 경로(VoIPService)를 그대로 거치고, 수신 측은 FecDecoder 로 복원한다.
+ * 기본 test 는 한 손실률만 짧게 확인하고, 손실률별 표는 benchmarkTest 에서 (@Tag("benchmark")).
+ */
+class LossSimulationTest {
+
+    private static final int PCM_BYTES = 1920; // 48kHz 20ms
+    private static final double[] LOSS = {0.01, 0.02, 0.05, 0.10};
+
+    @Test
+    void fecAndPlcReduceAudibleGaps() throws Exception {
+        double none = run(0.05, 1000, false, false).gapRate();
+        double fec = run(0.05, 1000, true, false).gapRate();
+        double both = run(0.05, 1000, true, true).gapRate();
+        assertTrue(fec < none, "fec " + fec + " vs none " + none);
+        assertTrue(both < none / 3, "fec+plc " + both + " vs none " + none);
+    }
+
+    @Test
+    @Tag("benchmark")
+    void lossSweep() throws Exception {
+        System.out.println("loss%  mode      real  recovered  concealed  gap%");
+        for (double loss : LOSS) {
+            Result none = run(loss, 5000, false, false);
+            Result fec = run(loss, 5000, true, false);
+            Result both = run(loss, 5000, true, true);
+            for (Result r : List.of(none, fec, both)) System.out.println(r);
+            assertTrue(fec.gapRate() < none.gapRate(), "fec should help at " + loss);
+            assertTrue(both.gapRate() < none.gapRate() / 3, "fec+plc should cut gaps at " + loss);
+            if (loss <= 0.02) {
+                assertTrue(both.gapRate() < 0.005, "gap rate at " + loss + " was " + both.gapRate());
+            }
+        }
+    }
+
+    record Result(double loss, String mode, int real, int recovered, int concealed, double gapRate) {
+        @Override
+        public String toString() {
+            return String.format("%5.1f  %-8s %5d  %9d  %9d  %5.2f", loss * 100, mode, real, recovered, concealed,
+                    gapRate * 100);
+        }
+    }
+
+    private Result run(double loss, int frames, boolean fec, boolean plc) throws Exception {
+        BufferPool pool = new BufferPool(64, true);
+        RoomEventLoops eventLoops = new RoomEventLoops(1);
+        VoIPService service = new VoIPService(VoIPService.Options.builder()
+                .metrics(new VoIPMetrics(new SimpleMeterRegistry()))
+                .latencyTracker(new CallLatencyTracker(10))
+                .bufferPool(pool)
+                .eventLoops(eventLoops)
+                .sender(Runnable::run)
+                .sendQueueLimitBytes(1 << 24)
+                .plcMaxFrames(plc ? 3 : 0)
+                .build());
+
+        List<byte[]> delivered = new ArrayList<>();
+        service.registerSession("sender", session("sender", false));
+        service.registerSession("receiver", capture(session("receiver", fec), delivered));
+
+        Random upstream = new Random(42);
+        for (int seq = 0; seq < frames; seq++) {
+            if (upstream.nextDouble() < loss) continue;
+            service.forwardAudio("sender", pcm(seq), seq, 1_000_000L + seq * 20L);
+        }
+        eventLoops.call("room", () -> null);
+
+        // 서버 -> 수신자 구간 손실 후 수신 측 처리
+        boolean[] played = new boolean[frames];
+        int[] counts = new int[3]; // real, recovered, concealed
+        FecDecoder decoder = new FecDecoder((streamId, seq, ts, rate, recovered) -> {
+            byte[] bytes = new byte[recovered.remaining()];
+            recovered.duplicate().get(bytes);
+            // PLC 를 켜면 서버가 채운 프레임도 복원될 수 있으므로 PLC 없을 때만 원본과 비교
+            if (!plc) assertArrayEquals(pcm((int) seq), bytes);
+            if (!played[(int) seq]) counts[1]++;
+            played[(int) seq] = true;
+        });
+        Random downstream = new Random(7);
+        FrameView frame = new FrameView();
+        for (byte[] message : delivered) {
+            if (downstream.nextDouble() < loss) continue;
+            ByteBuffer buf = ByteBuffer.wrap(message);
+            for (int at = 0; frame.wrap(buf, at); at = frame.next()) {
+                if (frame.type() == FrameCodec.TYPE_AUDIO) {
+                    boolean concealed = (frame.flags() & FrameCodec.FLAG_CONCEALED) != 0;
+                    if (!played[(int) frame.seq()]) counts[concealed ? 2 : 0]++;
+                    played[(int) frame.seq()] = true;
+                    decoder.onAudio(frame.streamId(), frame.seq(), frame.timestamp(), frame.payload());
+                } else if (frame.type() == FrameCodec.TYPE_FEC) {
+                    decoder.onParity(frame.streamId(), frame.seq(), frame.sampleRate(), frame.payload());
+                }
+            }
+        }
+
+        service.removeSession("receiver");
+        service.removeSession("sender");
+        eventLoops.call("room", () -> null);
+        eventLoops.shutdown();
+        assertEquals(0, pool.getOutstanding());
+
+        int gaps = 0;
+        for (boolean p : played) if (!p) gaps++;
+        return new Result(loss, fec && plc ? "fec+plc" : fec ? "fec" : "none", counts[0], counts[1], counts[2],
+                (double) gaps / frames);
+    }
+
+    // seq 마다 다른 내용 (복원 결과 비교용)
+    private static byte[] pcm(int seq) {
+        ByteBuffer b = ByteBuffer.allocate(PCM_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        for (int i = 0; i < PCM_BYTES / 2; i++) {
+            b.putShort((short) (8000 * Math.sin(2 * Math.PI * 440 * (seq * 960 + i) / 48000.0)));
+        }
+        return b.array();
+    }
+
+    private static WebSocketSession capture(WebSocketSession session, List<byte[]> out) throws Exception {
+        doAnswer(inv -> {
+            ByteBuffer payload = inv.<BinaryMessage>getArgument(0).getPayload();
+            byte[] bytes = new byte[payload.remaining()];
+            payload.duplicate().get(bytes);
+            out.add(bytes);
+            return null;
+        }).when(session).sendMessage(any());
+        return session;
+    }
+
+    private static WebSocketSession session(String id, boolean fec) {
+        Map<String, Object> attributes = new HashMap<>();
+        attributes.put(RoomHandshakeInterceptor.ROOM_ID, "room");
+        attributes.put(RoomHandshakeInterceptor.TRACE, false);
+        attributes.put(RoomHandshakeInterceptor.FRAMED, true);
+        attributes.put(RoomHandshakeInterceptor.FEC, fec);
+        WebSocketSession session = mock(WebSocketSession.class);
+        when(session.getId()).thenReturn(id);
+        when(session.isOpen()).thenReturn(true);
+        when(session.getAttributes()).thenReturn(attributes);
+        return session;
+    }
+}
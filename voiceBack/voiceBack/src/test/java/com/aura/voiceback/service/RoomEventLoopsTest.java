@@ -0,0 +1,86 @@
+package com.aura.voiceback.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 방 루프: 같은 방의 작업은 같은 루프에서 순서대로, call 은 루프 안에서 바로 실행되고
+ * 루프가 밀리면 시간 안에 포기하면서 작업도 실행하지 않는지 확인
+ */
+class RoomEventLoopsTest {
+
+    private final RoomEventLoops loops = new RoomEventLoops(2, 100);
+
+    @AfterEach
+    void stop() throws InterruptedException {
+        loops.shutdown();
+    }
+
+    @Test
+    void sameRoomKeepsOrderOnOneLoop() {
+        assertSame(loops.loopFor("room-1"), loops.loopFor("room-1"));
+        List<Integer> order = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            int n = i;
+            loops.execute("room-1", () -> order.add(n));
+        }
+        List<Integer> seen = loops.call("room-1", () -> new ArrayList<>(order));
+        assertEquals(500, seen.size());
+        for (int i = 0; i < 500; i++) assertEquals(i, seen.get(i));
+    }
+
+    @Test
+    void callInsideTheLoopRunsInline() {
+        assertEquals("inner", loops.call("room-1", () -> loops.call("room-1", () -> "inner")));
+    }
+
+    @Test
+    void callPropagatesTaskFailure() {
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> loops.call("room-1", () -> { throw new IllegalArgumentException("bad"); }));
+        assertEquals("bad", e.getMessage());
+    }
+
+    @Test
+    void callGivesUpOnABlockedLoopWithoutRunningTheTask() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        loops.execute("room-1", () -> {
+            try {
+                release.await(); // 느린 작업이 루프를 잡고 있다
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        AtomicBoolean ran = new AtomicBoolean();
+        long start = System.nanoTime();
+        assertThrows(RoomEventLoops.RoomBusyException.class, () -> loops.call("room-1", () -> {
+            ran.set(true);
+            return null;
+        }));
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(1));
+
+        release.countDown();
+        assertEquals("after", loops.call("room-1", () -> "after"));
+        assertFalse(ran.get());
+    }
+
+    @Test
+    void scheduledTimerRunsOnTheRoomLoop() throws Exception {
+        CountDownLatch fired = new CountDownLatch(1);
+        AtomicBoolean onLoop = new AtomicBoolean();
+        loops.schedule("room-1", 10, () -> {
+            onLoop.set(loops.loopFor("room-1").inLoop());
+            fired.countDown();
+        });
+        assertTrue(fired.await(2, TimeUnit.SECONDS));
+        assertTrue(onLoop.get());
+    }
+}
@@ -0,0 +1,232 @@
+package com.aura.voiceback.service;
+
+import com.aura.voiceback.util.BufferPool;
+import com.aura.voiceback.util.JsonUtil;
+import com.aura.voiceback.websocket.FrameCodec;
+import com.aura.voiceback.websocket.FrameView;
+import com.aura.voiceback.websocket.RoomHandshakeInterceptor;
+import com.fasterxml.jackson.databind.JsonNode;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * 재접속: 끊긴 proto=2 수신자가 토큰으로 다시 붙으면 방 자리를 이어받아 since 이후 놓친 프레임을 다시 받는지,
+ * 유예가 지나면 토큰이 무효가 되어 새 연결로 등록되는지, 다른 사용자의 시도가 유예 만료를 막지 않는지,
+ * 보관한 풀 버퍼가 모두 반환되는지 확인
+ */
+class SessionResumptionTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final BufferPool pool = new BufferPool(64, true);
+    private final RoomEventLoops eventLoops = new RoomEventLoops(1);
+
+    @AfterEach
+    void stop() throws InterruptedException {
+        eventLoops.shutdown();
+    }
+
+    @Test
+    void resumedRecipientGetsMissedFramesAndKeepsItsStream() throws Exception {
+        VoIPService service = service(new SessionResumption(true, 5000, 8, 500));
+        service.registerSession("sender", session("sender", "s", false, null, 0));
+        WebSocketSession first = session("r1", "u", true, null, 0);
+        List<byte[]> firstOut = capture(first);
+        service.registerSession("r1", first);
+        sync();
+
+        JsonNode hello = control(firstOut.get(0));
+        assertEquals("session", hello.path("type").asText());
+        String token = hello.path("token").asText();
+
+        for (long seq = 1; seq <= 3; seq++) send(service, seq);
+        sync();
+        FrameView last = frame(firstOut.get(3));
+        assertEquals(3, last.seq());
+        long lastTs = last.relayIngressTs();
+        int streamId = last.streamId();
+
+        // 소켓이 끊긴 동안 4~6 이 중계된다
+        Thread.sleep(5);
+        when(first.isOpen()).thenReturn(false);
+        assertTrue(service.suspendSession("r1"));
+        sync();
+        for (long seq = 4; seq <= 6; seq++) send(service, seq);
+        sync();
+        assertEquals(4, firstOut.size());
+
+        WebSocketSession second = session("r2", "u", true, token, lastTs + 1);
+        List<byte[]> secondOut = capture(second);
+        service.registerSession("r2", second);
+        sync();
+        send(service, 7);
+        sync();
+
+        // 놓친 4~6 을 다시 받고, 알림 뒤에는 평소처럼 받는다
+        assertEquals(5, secondOut.size());
+        for (int i = 0; i < 3; i++) {
+            assertEquals(4 + i, frame(secondOut.get(i)).seq());
+        }
+        JsonNode resumed = control(secondOut.get(3));
+        assertEquals("resumed", resumed.path("type").asText());
+        assertEquals(3, resumed.path("replayed").asInt());
+        assertEquals(0, resumed.path("skipped").asInt());
+        FrameView live = frame(secondOut.get(4));
+        assertEquals(7, live.seq());
+        assertEquals(streamId, live.streamId());
+        assertTrue(service.isFramed("r2"));
+        assertFalse(service.isFramed("r1"));
+        assertEquals(1, count("resumed"));
+
+        service.removeSession("r2");
+        service.removeSession("sender");
+        sync();
+        assertNull(service.links("room"));
+        assertEquals(0, pool.getOutstanding());
+        assertEquals(0, pool.getLeaks());
+    }
+
+    @Test
+    void expiredTokenRegistersAFreshConnection() throws Exception {
+        VoIPService service = service(new SessionResumption(true, 50, 8, 500));
+        WebSocketSession first = session("r1", "u", true, null, 0);
+        List<byte[]> firstOut = capture(first);
+        service.registerSession("r1", first);
+        sync();
+        String token = control(firstOut.get(0)).path("token").asText();
+
+        when(first.isOpen()).thenReturn(false);
+        assertTrue(service.suspendSession("r1"));
+        Thread.sleep(300);
+        sync();
+        assertFalse(service.isFramed("r1"));
+        assertNull(service.links("room"));
+        assertEquals(1, count("expired"));
+
+        WebSocketSession second = session("r2", "u", true, token, 0);
+        List<byte[]> secondOut = capture(second);
+        service.registerSession("r2", second);
+        sync();
+        JsonNode hello = control(secondOut.get(0));
+        assertEquals("session", hello.path("type").asText());
+        assertNotEquals(token, hello.path("token").asText());
+        assertEquals(1, count("unknown"));
+
+        // 재접속 대상이 아닌 연결은 바로 정리한다
+        WebSocketSession wav = session("wav", "w", false, null, 0);
+        service.registerSession("wav", wav);
+        assertFalse(service.suspendSession("wav"));
+
+        service.removeSession("r2");
+        service.removeSession("wav");
+        sync();
+        assertEquals(0, pool.getOutstanding());
+    }
+
+    @Test
+    void rejectedResumeLeavesTheTokenAndTheGraceTimerAlone() throws Exception {
+        VoIPService service = service(new SessionResumption(true, 50, 8, 500));
+        WebSocketSession first = session("r1", "u", true, null, 0);
+        List<byte[]> firstOut = capture(first);
+        service.registerSession("r1", first);
+        sync();
+        String token = control(firstOut.get(0)).path("token").asText();
+        when(first.isOpen()).thenReturn(false);
+        assertTrue(service.suspendSession("r1"));
+
+        // 다른 사용자가 토큰을 써 본다: 새 연결로 등록되고, 원래 연결은 유예 중 그대로
+        WebSocketSession stranger = session("x", "mallory", true, token, 0);
+        List<byte[]> strangerOut = capture(stranger);
+        service.registerSession("x", stranger);
+        sync();
+        assertEquals("session", control(strangerOut.get(0)).path("type").asText());
+        assertEquals(1, count("rejected"));
+
+        // 유예가 끝나면 원래 연결은 정리된다 (거절된 시도가 토큰을 꺼냈다 되돌리는 사이에 만료를 놓치지 않는다)
+        Thread.sleep(300);
+        sync();
+        assertEquals(1, count("expired"));
+        assertFalse(service.isFramed("r1"));
+
+        service.removeSession("x");
+        sync();
+        assertNull(service.links("room"));
+        assertEquals(0, pool.getOutstanding());
+    }
+
+    private VoIPService service(SessionResumption resumption) {
+        return new VoIPService(VoIPService.Options.builder()
+                .metrics(new VoIPMetrics(registry))
+                .latencyTracker(new CallLatencyTracker(10))
+                .bufferPool(pool)
+                .eventLoops(eventLoops)
+                .sender(Runnable::run)
+                .resumption(resumption)
+                .build());
+    }
+
+    private void send(VoIPService service, long seq) {
+        service.forwardAudio("sender", ByteBuffer.allocate(960), seq, System.currentTimeMillis());
+    }
+
+    private void sync() {
+        eventLoops.call("room", () -> null);
+    }
+
+    private double count(String result) {
+        return registry.get("voip.resume").tag("result", result).counter().count();
+    }
+
+    private static FrameView frame(byte[] message) {
+        FrameView frame = new FrameView();
+        assertTrue(frame.wrap(ByteBuffer.wrap(message), 0));
+        return frame;
+    }
+
+    private static JsonNode control(byte[] message) throws Exception {
+        FrameView frame = frame(message);
+        assertEquals(FrameCodec.TYPE_CONTROL, frame.type());
+        return JsonUtil.fromJson(StandardCharsets.UTF_8.decode(frame.payload()).toString(), JsonNode.class);
+    }
+
+    private static WebSocketSession session(String id, String userId, boolean framed, String resume, long since) {
+        Map<String, Object> attributes = new HashMap<>();
+        attributes.put(RoomHandshakeInterceptor.ROOM_ID, "room");
+        attributes.put(RoomHandshakeInterceptor.USER_ID, userId);
+        attributes.put(RoomHandshakeInterceptor.FRAMED, framed);
+        if (resume != null) {
+            attributes.put(RoomHandshakeInterceptor.RESUME, resume);
+            attributes.put(RoomHandshakeInterceptor.RESUME_SINCE, since);
+        }
+        WebSocketSession session = mock(WebSocketSession.class);
+        when(session.getId()).thenReturn(id);
+        when(session.isOpen()).thenReturn(true);
+        when(session.getAttributes()).thenReturn(attributes);
+        return session;
+    }
+
+    private static List<byte[]> capture(WebSocketSession session) throws Exception {
+        List<byte[]> sent = new CopyOnWriteArrayList<>();
+        doAnswer(inv -> {
+            ByteBuffer payload = inv.<BinaryMessage>getArgument(0).getPayload();
+            byte[] bytes = new byte[payload.remaining()];
+            payload.duplicate().get(bytes);
+            sent.add(bytes);
+            return null;
+        }).when(session).sendMessage(any());
+        return sent;
+    }
+}
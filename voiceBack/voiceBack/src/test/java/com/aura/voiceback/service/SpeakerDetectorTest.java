@@ -0,0 +1,133 @@
+package com.aura.voiceback.service;
+
+import com.aura.voiceback.media.LevelMeter;
+import com.aura.voiceback.media.ProfileController;
+import com.aura.voiceback.websocket.PeerConnection;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * 화자 감지: 큰 방에서 top-k 만 중계하고 순위 밖이라도 충분히 커지면 바로 중계하는지,
+ * active speaker 는 hold 동안 1위를 지켜야 바뀌고 이벤트 간격을 지키는지 확인
+ */
+class SpeakerDetectorTest {
+
+    private static final long MS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final VoIPMetrics metrics = new VoIPMetrics(new SimpleMeterRegistry());
+    // top-k 2, 3 명 넘는 방부터 제한, hold 200ms, 이벤트 간격 500ms
+    private final SpeakerDetector detector = new SpeakerDetector(100, 5, -50, 500, 200, 2, 3);
+
+    @Test
+    void largeRoomForwardsOnlyTopK() {
+        List<PeerConnection> peers = new ArrayList<>();
+        int[] amplitudes = {200, 8000, 50, 4000, 1000};
+        for (int i = 0; i < amplitudes.length; i++) {
+            peers.add(speaking(i + 1, amplitudes[i], 0));
+        }
+        SpeakerDetector.Speakers speakers = new SpeakerDetector.Speakers();
+        detector.update(speakers, peers, 0);
+
+        assertTrue(detector.shouldForward(speakers, peers.get(1), 0));
+        assertTrue(detector.shouldForward(speakers, peers.get(3), 0));
+        assertFalse(detector.shouldForward(speakers, peers.get(0), 0));
+        assertFalse(detector.shouldForward(speakers, peers.get(4), 0));
+
+        Map<String, Object> snapshot = detector.snapshot(speakers, "speakers");
+        List<?> ranking = (List<?>) snapshot.get("speakers");
+        assertEquals(2, ((Map<?, ?>) ranking.get(0)).get("streamId"));
+        assertEquals(4, ((Map<?, ?>) ranking.get(1)).get("streamId"));
+        assertEquals(false, ((Map<?, ?>) ranking.get(2)).get("forwarded"));
+
+        // 순위 밖 발신자가 k 번째보다 6dB 넘게 커지면 다음 주기를 기다리지 않는다
+        PeerConnection rising = peers.get(4);
+        for (int i = 0; i < 5; i++) rising.getLevel().add(pcm(16000), 20 * MS);
+        assertTrue(detector.shouldForward(speakers, rising, 20 * MS));
+    }
+
+    @Test
+    void smallRoomForwardsEveryone() {
+        List<PeerConnection> peers = List.of(speaking(1, 8000, 0), speaking(2, 10, 0), speaking(3, 0, 0));
+        SpeakerDetector.Speakers speakers = new SpeakerDetector.Speakers();
+        detector.update(speakers, peers, 0);
+        for (PeerConnection p : peers) assertTrue(detector.shouldForward(speakers, p, 0));
+    }
+
+    @Test
+    void activeSpeakerChangesAfterHoldAndEventInterval() {
+        PeerConnection a = speaking(1, 8000, 0);
+        PeerConnection b = speaking(2, 100, 0);
+        List<PeerConnection> peers = List.of(a, b);
+        SpeakerDetector.Speakers speakers = new SpeakerDetector.Speakers();
+
+        assertNull(detector.update(speakers, peers, 0));            // 후보가 된다
+        keepSpeaking(a, 8000, 100 * MS);
+        assertNull(detector.update(speakers, peers, 100 * MS));     // hold 200ms 전
+        keepSpeaking(a, 8000, 200 * MS);
+        Map<String, Object> event = detector.update(speakers, peers, 200 * MS);
+        assertNotNull(event);
+        assertEquals(1, event.get("streamId"));
+        keepSpeaking(a, 8000, 250 * MS);
+        assertNull(detector.update(speakers, peers, 250 * MS));     // 이미 active
+
+        // b 가 더 커진다: hold 는 채웠어도 직전 이벤트에서 500ms 가 지나야 바뀐다
+        keepSpeaking(a, 100, 300 * MS);
+        keepSpeaking(b, 8000, 300 * MS);
+        assertNull(detector.update(speakers, peers, 300 * MS));
+        keepSpeaking(a, 100, 600 * MS);
+        keepSpeaking(b, 8000, 600 * MS);
+        assertNull(detector.update(speakers, peers, 600 * MS));
+        keepSpeaking(a, 100, 700 * MS);
+        keepSpeaking(b, 8000, 700 * MS);
+        event = detector.update(speakers, peers, 700 * MS);
+        assertNotNull(event);
+        assertEquals(2, event.get("streamId"));
+    }
+
+    @Test
+    void quietRoomKeepsTheLastActiveSpeaker() {
+        PeerConnection a = speaking(1, 8000, 0);
+        List<PeerConnection> peers = List.of(a, speaking(2, 0, 0));
+        SpeakerDetector.Speakers speakers = new SpeakerDetector.Speakers();
+        detector.update(speakers, peers, 0);
+        keepSpeaking(a, 8000, 200 * MS);
+        assertNotNull(detector.update(speakers, peers, 200 * MS));
+
+        // 모두 말을 멈추면(stale) 이벤트 없이 a 를 유지
+        assertNull(detector.update(speakers, peers, 2000 * MS));
+        assertEquals(1, detector.snapshot(speakers, "speakers").get("streamId"));
+    }
+
+    private PeerConnection speaking(int streamId, int amplitude, long nowNanos) {
+        WebSocketSession session = mock(WebSocketSession.class);
+        when(session.getId()).thenReturn("s" + streamId);
+        when(session.isOpen()).thenReturn(true);
+        PeerConnection peer = new PeerConnection(session, "room", "u" + streamId, streamId, false, true, 1 << 20,
+                metrics, Runnable::run, new ProfileController(2, 10, 4), detector.newMeter(), null);
+        keepSpeaking(peer, amplitude, nowNanos);
+        return peer;
+    }
+
+    // 창(5 프레임)을 이 음량으로 채운다
+    private static void keepSpeaking(PeerConnection peer, int amplitude, long nowNanos) {
+        LevelMeter level = peer.getLevel();
+        for (int i = 0; i < 5; i++) level.add(pcm(amplitude), nowNanos);
+    }
+
+    private static ByteBuffer pcm(int amplitude) {
+        ByteBuffer b = ByteBuffer.allocate(1920).order(ByteOrder.LITTLE_ENDIAN);
+        while (b.hasRemaining()) b.putShort((short) amplitude);
+        return b.flip();
+    }
+}
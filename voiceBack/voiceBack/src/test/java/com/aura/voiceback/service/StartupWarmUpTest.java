@@ -0,0 +1,37 @@
+package com.aura.voiceback.service;
+
+import com.aura.voiceback.util.JwtTokenProvider;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 워밍업이 max-ms 안에 끝나고 자기 방 루프 스레드를 남기지 않는지 확인 (포트가 없으면 HTTP 부분은 건너뛴다)
+ */
+class StartupWarmUpTest {
+
+    @Test
+    void stopsWithinTimeLimitAndCleansUp() throws Exception {
+        StartupWarmUp warmUp = new StartupWarmUp(new SpeakerDetector(100, 15, -50, 500, 200, 3, 8),
+                new JwtTokenProvider("ThisIsASecretKeyForJwtTokenExample1234567890", 60_000), new MockEnvironment(),
+                true, 500, 0.05, 2);
+
+        long start = System.nanoTime();
+        warmUp.run(null);
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        // 한 라운드가 마감을 조금 넘길 수 있다
+        assertTrue(elapsedMs < 10_000, "took " + elapsedMs + " ms");
+        Thread.sleep(100);
+        assertFalse(Thread.getAllStackTraces().keySet().stream()
+                .anyMatch(t -> t.isAlive() && t.getName().startsWith("room-loop-")), "room loop thread left running");
+    }
+
+    @Test
+    void disabledDoesNothing() throws Exception {
+        StartupWarmUp warmUp = new StartupWarmUp(null, null, new MockEnvironment(), false, 500, 0.05, 2);
+        warmUp.run(null);
+    }
+}
@@ -0,0 +1,166 @@
+package com.aura.voiceback.service;
+
+import com.aura.voiceback.entity.TranscriptSegment;
+import com.aura.voiceback.repository.TranscriptSegmentRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * 통화 자막: seq 가 DB 의 다음 번호부터 이어지는지, finish 뒤 자막은 거절되고 요약은 한 번만인지,
+ * 종료 신호 없이 idle 이 되면 요약되는지, 동시에 append / finish 가 와도 받은 자막이 요약에서 빠지지 않는지 확인
+ */
+class TranscriptServiceTest {
+
+    private static final long NEVER = TimeUnit.MINUTES.toMillis(10);
+    private static final int APPENDS_PER_SPEAKER = 500;
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final TranscriptSegmentRepository repository = mock(TranscriptSegmentRepository.class);
+    private final SummaryGenerator summaryGenerator = mock(SummaryGenerator.class);
+    private final SummaryService summaryService = mock(SummaryService.class);
+    // INSERT 배치로 저장된 행 (요약은 repository 조회로 이걸 읽는다)
+    private final List<TranscriptSegment> stored = new CopyOnWriteArrayList<>();
+    private TranscriptService service;
+
+    @AfterEach
+    void stop() {
+        if (service != null) service.shutdown();
+    }
+
+    @Test
+    void appendContinuesSeqFromDbAndDropsBlankText() {
+        service = service(NEVER);
+        when(repository.findMaxSeq("call")).thenReturn(4);
+
+        assertTrue(service.append("call", "a@aura.test", "  hello  ", 0L, 900L));
+        assertTrue(service.append("call", "b@aura.test", "hi", null, null));
+        assertFalse(service.append("call", "a@aura.test", "   ", null, null));
+        assertFalse(service.append("call", null, "no speaker", null, null));
+        service.shutdown(); // 남은 버퍼 flush
+
+        assertEquals(List.of(5, 6), stored.stream().map(TranscriptSegment::getSeq).toList());
+        assertEquals("hello", stored.get(0).getText());
+        verify(repository, times(1)).findMaxSeq("call");
+    }
+
+    @Test
+    void finishSummarizesOnceAndRejectsLateSegments() {
+        service = service(NEVER);
+        service.append("call", "a@aura.test", "first", null, null);
+        service.append("call", "b@aura.test", "second", null, null);
+
+        service.finish("call");
+        service.finish("call");
+        assertFalse(service.append("call", "a@aura.test", "late", null, null));
+
+        verify(summaryService, timeout(2000)).saveCallSummary(eq("call"),
+                eq(Set.of("a@aura.test", "b@aura.test")), eq("summary"));
+        service.shutdown();
+        verify(summaryService, times(1)).saveCallSummary(anyString(), anyCollection(), anyString());
+        assertEquals(2, stored.size());
+    }
+
+    @Test
+    void finishWithoutSegmentsStillRejectsLaterOnes() {
+        service = service(NEVER);
+        service.finish("empty");
+        assertFalse(service.append("empty", "a@aura.test", "late", null, null));
+        service.shutdown();
+        verifyNoInteractions(summaryGenerator, summaryService);
+        verify(repository, never()).findMaxSeq(anyString());
+    }
+
+    @Test
+    void idleTranscriptIsSummarizedWithoutEndSignal() {
+        service = service(50);
+        service.append("idle", "a@aura.test", "anyone there", null, null);
+
+        // 스윕은 최소 1초 간격
+        verify(summaryService, timeout(5000)).saveCallSummary(eq("idle"), anyCollection(), eq("summary"));
+        assertFalse(service.append("idle", "a@aura.test", "late", null, null));
+    }
+
+    @Test
+    void concurrentAppendAndFinishNeverLoseAcceptedSegments() throws Exception {
+        ExecutorService clients = Executors.newFixedThreadPool(5);
+        try {
+            for (int round = 0; round < 20; round++) {
+                stored.clear();
+                reset(summaryService, summaryGenerator);
+                service = service(NEVER);
+                // 요약 입력은 "화자: 자막" 한 줄씩이므로 줄 수가 요약이 본 세그먼트 수
+                List<Integer> summarizedLines = new CopyOnWriteArrayList<>();
+                when(summaryGenerator.summarize(anyString())).thenAnswer(inv -> {
+                    summarizedLines.add(inv.<String>getArgument(0).split("\n").length);
+                    return "summary";
+                });
+                String callId = "race-" + round;
+                // 하나라도 받은 뒤에 finish (아무것도 없으면 요약이 없다)
+                CountDownLatch firstAccepted = new CountDownLatch(1);
+                List<Future<Integer>> accepted = new ArrayList<>();
+                for (int i = 0; i < 4; i++) {
+                    String speaker = "user" + i + "@aura.test";
+                    accepted.add(clients.submit(() -> {
+                        int n = 0;
+                        // finish 이후로는 전부 거절되어야 하므로, 거절이 나오면 멈춘다
+                        while (n < APPENDS_PER_SPEAKER && service.append(callId, speaker, "line", null, null)) {
+                            n++;
+                            firstAccepted.countDown();
+                        }
+                        return n;
+                    }));
+                }
+                Future<?> finisher = clients.submit(() -> {
+                    firstAccepted.await();
+                    service.finish(callId);
+                    return null;
+                });
+                finisher.get(5, TimeUnit.SECONDS);
+                int total = 0;
+                for (Future<Integer> f : accepted) total += f.get(5, TimeUnit.SECONDS);
+                // 요약 작업까지 끝낸다 (남은 버퍼도 flush)
+                service.shutdown();
+
+                // 요약은 받은 자막을 전부 본다 (finish 뒤에 버퍼에 들어가 빠지는 자막이 없다)
+                verify(summaryService, times(1)).saveCallSummary(eq(callId), anyCollection(), eq("summary"));
+                assertEquals(List.of(total), summarizedLines, "round " + round);
+                assertEquals(total, stored.size());
+                assertEquals(total, stored.stream().map(TranscriptSegment::getSeq).distinct().count());
+            }
+        } finally {
+            clients.shutdownNow();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private TranscriptService service(long idleTimeoutMs) {
+        when(jdbcTemplate.batchUpdate(anyString(), anyCollection(), anyInt(), any(ParameterizedPreparedStatementSetter.class)))
+                .thenAnswer(inv -> {
+                    stored.addAll((Collection<TranscriptSegment>) inv.getArgument(1));
+                    return new int[0][];
+                });
+        when(repository.findByCallIdOrderBySeqAscIdAsc(anyString()))
+                .thenAnswer(inv -> stored.stream().filter(s -> s.getCallId().equals(inv.getArgument(0))).toList());
+        when(summaryGenerator.summarize(anyString())).thenReturn("summary");
+        // 버퍼가 가득 차 거절되는 일이 없도록 충분히 크게
+        return new TranscriptService(jdbcTemplate, repository, summaryGenerator, summaryService,
+                1_000_000, 200, NEVER, idleTimeoutMs);
+    }
+}
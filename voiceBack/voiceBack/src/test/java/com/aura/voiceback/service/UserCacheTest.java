@@ -0,0 +1,99 @@
+package com.aura.voiceback.service;
+
+import com.aura.voiceback.entity.User;
+import com.aura.voiceback.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * 사용자 캐시: email / id 조회가 DB 를 한 번만 타는지, email 변경 뒤 옛 email 로 찾지 못하는지,
+ * 조회 중에 무효화가 끼어들면 옛 User 가 남지 않는지 확인
+ */
+class UserCacheTest {
+
+    private final UserRepository repository = mock(UserRepository.class);
+    private final UserCache cache = new UserCache(repository, 100, 300);
+
+    @Test
+    void cachesByEmailAndId() {
+        User user = user(1, "a@aura.test", "A");
+        when(repository.findByEmail("a@aura.test")).thenReturn(Optional.of(user));
+
+        assertSame(user, cache.findByEmail("a@aura.test").orElseThrow());
+        assertSame(user, cache.findByEmail("a@aura.test").orElseThrow());
+        assertSame(user, cache.findById(1).orElseThrow());
+        verify(repository, times(1)).findByEmail("a@aura.test");
+        verify(repository, never()).findById(any());
+    }
+
+    @Test
+    void oldEmailMissesAfterChange() {
+        when(repository.findByEmail("old@aura.test")).thenReturn(Optional.of(user(1, "old@aura.test", "A")));
+        cache.findByEmail("old@aura.test");
+
+        // /auth/update 로 email 변경
+        when(repository.findByEmail("old@aura.test")).thenReturn(Optional.empty());
+        when(repository.findByEmail("new@aura.test")).thenReturn(Optional.of(user(1, "new@aura.test", "A")));
+        cache.invalidate(1, "old@aura.test");
+
+        assertTrue(cache.findByEmail("old@aura.test").isEmpty());
+        assertEquals("new@aura.test", cache.findByEmail("new@aura.test").orElseThrow().getEmail());
+        assertEquals("new@aura.test", cache.findById(1).orElseThrow().getEmail());
+    }
+
+    @Test
+    void invalidationDuringLoadIsNotLost() {
+        User stale = user(1, "a@aura.test", "before");
+        User fresh = user(1, "a@aura.test", "after");
+        // DB 에서 읽은 직후 다른 요청이 수정하고 무효화한다
+        when(repository.findByEmail("a@aura.test")).thenAnswer(inv -> {
+            cache.invalidate(1, "a@aura.test");
+            return Optional.of(stale);
+        }).thenReturn(Optional.of(fresh));
+
+        assertEquals("before", cache.findByEmail("a@aura.test").orElseThrow().getName());
+        assertEquals("after", cache.findByEmail("a@aura.test").orElseThrow().getName());
+        assertEquals("after", cache.findById(1).orElseThrow().getName());
+    }
+
+    @Test
+    void concurrentReadersNeverKeepAStaleUser() throws Exception {
+        AtomicReference<User> db = new AtomicReference<>(user(1, "a@aura.test", "0"));
+        when(repository.findByEmail(anyString())).thenAnswer(inv -> Optional.of(db.get()));
+        ExecutorService readers = Executors.newFixedThreadPool(4);
+        AtomicBoolean running = new AtomicBoolean(true);
+        try {
+            Future<?>[] loops = new Future<?>[4];
+            for (int i = 0; i < loops.length; i++) {
+                loops[i] = readers.submit(() -> {
+                    while (running.get()) cache.findByEmail("a@aura.test");
+                });
+            }
+            for (int version = 1; version <= 2000; version++) {
+                db.set(user(1, "a@aura.test", String.valueOf(version)));
+                cache.invalidate(1, "a@aura.test");
+            }
+            running.set(false);
+            for (Future<?> loop : loops) loop.get(5, TimeUnit.SECONDS);
+        } finally {
+            readers.shutdownNow();
+        }
+        assertEquals("2000", cache.findByEmail("a@aura.test").orElseThrow().getName());
+        assertEquals("2000", cache.findById(1).orElseThrow().getName());
+    }
+
+    private static User user(int id, String email, String name) {
+        return User.builder().id(id).email(email).name(name).phone("010").password("x").build();
+    }
+}
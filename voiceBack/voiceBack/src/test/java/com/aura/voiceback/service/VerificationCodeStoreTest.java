@@ -0,0 +1,122 @@
+package com.aura.voiceback.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static com.aura.voiceback.service.VerificationCodeStore.PASSWORD_RESET;
+import static com.aura.voiceback.service.VerificationCodeStore.Result.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class VerificationCodeStoreTest {
+
+    private static final byte[] HASH = {1, 2, 3};
+
+    @Test
+    void codeIsSingleUseAndCaseInsensitive() {
+        VerificationCodeStore store = memoryStore(100, 5);
+        String code = store.issue(PASSWORD_RESET, "User@Aura.test");
+        assertTrue(code.matches("\\d{6}"));
+
+        assertEquals(OK, store.verify(PASSWORD_RESET, " user@aura.test ", code));
+        assertEquals(EXPIRED, store.verify(PASSWORD_RESET, "user@aura.test", code));
+        store.shutdown();
+    }
+
+    @Test
+    void reissueInvalidatesPreviousCode() {
+        VerificationCodeStore store = memoryStore(100, 5);
+        String first = store.issue(PASSWORD_RESET, "a@aura.test");
+        String second = store.issue(PASSWORD_RESET, "a@aura.test");
+        if (!first.equals(second)) {
+            assertEquals(INVALID, store.verify(PASSWORD_RESET, "a@aura.test", first));
+        }
+        assertEquals(OK, store.verify(PASSWORD_RESET, "a@aura.test", second));
+        store.shutdown();
+    }
+
+    @Test
+    void locksCodeAfterMaxAttempts() {
+        VerificationCodeStore store = memoryStore(100, 3);
+        String code = store.issue(PASSWORD_RESET, "a@aura.test");
+        String wrong = code.equals("000000") ? "000001" : "000000";
+        for (int i = 0; i < 3; i++) {
+            assertEquals(INVALID, store.verify(PASSWORD_RESET, "a@aura.test", wrong));
+        }
+        // 맞는 코드여도 이미 시도 초과
+        assertEquals(TOO_MANY_ATTEMPTS, store.verify(PASSWORD_RESET, "a@aura.test", code));
+        store.shutdown();
+    }
+
+    @Test
+    void memoryStaysBoundedUnderFlood() {
+        MemoryVerificationCodeBackend backend = new MemoryVerificationCodeBackend(1000, 1000, 600_000, 0);
+        for (int i = 0; i < 200_000; i++) {
+            backend.put("password-reset:user" + i + "@aura.test", HASH, 600_000);
+        }
+        assertEquals(1000, backend.size());
+        assertEquals(199_000, backend.getEvictions());
+        // 가장 최근 것이 남는다
+        assertNotNull(backend.attempt("password-reset:user199999@aura.test", 5, 1));
+        assertNull(backend.attempt("password-reset:user0@aura.test", 5, 1));
+        assertEquals(1000, backend.expire(600_000));
+        assertEquals(0, backend.size());
+    }
+
+    @Test
+    void memoryExpiresByTtl() {
+        MemoryVerificationCodeBackend backend = new MemoryVerificationCodeBackend(100, 1000, 60_000, 0);
+        backend.put("k", HASH, 60_000);
+        assertEquals(0, backend.expire(59_000));
+        assertArrayEquals(HASH, backend.attempt("k", 5, 59_500).codeHash());
+        assertNull(backend.attempt("k", 5, 60_000)); // 타이머가 돌기 전에도 만료된 코드는 안 보임
+        assertEquals(1, backend.expire(60_000));
+        assertEquals(0, backend.size());
+    }
+
+    @Test
+    void jdbcBackendSharesCodesAcrossInstances() throws Exception {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:verification;MODE=MariaDB;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1", "sa", "");
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute(verificationCodeDdl());
+
+        // 인스턴스 둘이 같은 테이블을 본다
+        VerificationCodeBackend a = new JdbcVerificationCodeBackend(jdbcTemplate);
+        VerificationCodeBackend b = new JdbcVerificationCodeBackend(jdbcTemplate);
+        a.put("k", HASH, 10_000);
+        a.put("k", HASH, 20_000); // 다시 발급해도 한 행
+        assertEquals(1, b.size());
+
+        assertArrayEquals(HASH, b.attempt("k", 2, 1).codeHash());
+        assertFalse(b.attempt("k", 2, 1).exhausted());
+        assertTrue(a.attempt("k", 2, 1).exhausted());
+        assertNull(a.attempt("k", 2, 20_000));
+
+        a.put("k", HASH, 20_000); // 다시 발급하면 시도 횟수 초기화
+        assertNotNull(b.attempt("k", 2, 1).codeHash());
+        assertFalse(a.remove("k", new byte[]{9}));
+        assertTrue(a.remove("k", HASH));
+        assertFalse(b.remove("k", HASH)); // 한 번만 쓸 수 있다
+
+        a.put("old", HASH, 5);
+        a.put("new", HASH, 50);
+        assertEquals(1, b.expire(10));
+        assertEquals(1, a.size());
+    }
+
+    private static VerificationCodeStore memoryStore(int maxEntries, int maxAttempts) {
+        return new VerificationCodeStore(null, new SimpleMeterRegistry(), "memory", 600, maxAttempts, maxEntries, 1000, 60);
+    }
+
+    // DB.sql 의 verification_code 정의를 그대로 쓴다
+    private static String verificationCodeDdl() throws Exception {
+        String sql = Files.readString(Path.of("DB.sql"));
+        int start = sql.indexOf("CREATE TABLE verification_code");
+        return sql.substring(start, sql.indexOf(';', start));
+    }
+}
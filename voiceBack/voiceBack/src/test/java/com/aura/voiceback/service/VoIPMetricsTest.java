@@ -0,0 +1,58 @@
+package com.aura.voiceback.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 방별 미터: room 태그는 열린 방에만, max-room-tags 개까지만 붙고 나머지는 other 로 합쳐지는지,
+ * 닫힌 방에 늦게 온 프레임이 미터를 되살리지 않는지 확인
+ */
+class VoIPMetricsTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final VoIPMetrics metrics = new VoIPMetrics(registry, 2);
+
+    @Test
+    void roomTagsAreBounded() {
+        metrics.openRoom("a");
+        metrics.openRoom("b");
+        metrics.openRoom("c"); // 한도 초과
+        metrics.frameIn("a", 100);
+        metrics.frameIn("c", 100);
+        metrics.frameIn("never-opened", 100);
+        metrics.frameOut("b", 100);
+
+        assertEquals(1.0, framesIn("a"));
+        assertEquals(2.0, framesIn("other"));
+        assertEquals(1.0, registry.get("voip.frames.out").tag("room", "b").counter().count());
+        assertNull(registry.find("voip.frames.in").tag("room", "c").counter());
+        assertNull(registry.find("voip.frames.in").tag("room", "never-opened").counter());
+        assertEquals(300.0, registry.get("voip.bytes.in").counter().count());
+    }
+
+    @Test
+    void closedRoomIsNotRecreatedAndFreesItsSlot() {
+        metrics.openRoom("a");
+        metrics.openRoom("b");
+        metrics.removeRoom("a");
+        metrics.frameIn("a", 10); // 닫힌 뒤 늦게 온 프레임
+        assertNull(registry.find("voip.frames.in").tag("room", "a").counter());
+        assertEquals(1.0, framesIn("other"));
+
+        metrics.openRoom("c");
+        metrics.frameIn("c", 10);
+        assertEquals(1.0, framesIn("c"));
+        metrics.removeRoom("c");
+        metrics.removeRoom("c"); // 두 번 닫아도 슬롯은 한 번만 돌려준다
+        metrics.openRoom("d");
+        metrics.openRoom("e");
+        assertNotNull(registry.find("voip.frames.in").tag("room", "d").counter());
+        assertNull(registry.find("voip.frames.in").tag("room", "e").counter());
+    }
+
+    private double framesIn(String room) {
+        return registry.get("voip.frames.in").tag("room", room).counter().count();
+    }
+}
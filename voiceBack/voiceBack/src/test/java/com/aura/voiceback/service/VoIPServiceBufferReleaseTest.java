@@ -0,0 +1,194 @@
+package com.aura.voiceback.service;
+
+import com.aura.voiceback.dto.ReceiverFeedback;
+import com.aura.voiceback.media.StreamProfile;
+import com.aura.voiceback.util.BufferPool;
+import com.aura.voiceback.util.PooledBuffer;
+import com.aura.voiceback.websocket.PeerConnection;
+import com.aura.voiceback.websocket.RoomHandshakeInterceptor;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * 중계 경로에서 빌린 풀 버퍼가 모든 수신자 형식 / 전송 실패 / 연결 종료 후에도 반환되는지,
+ * 프레임이 같은 방에만 전달되는지, 낮춘 profile(리샘플 + 프레임 묶음)에서도 반환되는지,
+ * 방이 닫힌 뒤 늦게 온 추적 프레임이 지연 집계를 다시 열지 않는지 확인
+ */
+class VoIPServiceBufferReleaseTest {
+
+    @Test
+    void everyRelayedFrameIsReturnedToThePool() throws Exception {
+        BufferPool pool = new BufferPool(64, true);
+        RoomEventLoops eventLoops = new RoomEventLoops(2);
+        VoIPService service = new VoIPService(options(pool, eventLoops).build());
+
+        service.registerSession("sender", session("sender", false, false));
+        service.registerSession("wav", session("wav", false, false));
+        service.registerSession("traced", session("traced", true, false));
+        service.registerSession("framed", session("framed", false, true));
+        WebSocketSession failing = session("failing", false, false);
+        doThrow(new IOException("broken pipe")).when(failing).sendMessage(any());
+        service.registerSession("failing", failing);
+        WebSocketSession otherRoom = session("other", false, false);
+        otherRoom.getAttributes().put(RoomHandshakeInterceptor.ROOM_ID, "another-room");
+        service.registerSession("other", otherRoom);
+
+        byte[] pcm = new byte[1920];
+        for (int i = 0; i < 100; i++) {
+            service.forwardAudio("sender", pcm);
+            service.forwardAudio("sender", pcm, i, System.currentTimeMillis());
+        }
+        service.removeSession("failing");
+        eventLoops.call("room", () -> null); // 방 루프의 작업이 모두 끝날 때까지
+        eventLoops.shutdown();
+
+        assertEquals(0, pool.getOutstanding());
+        assertEquals(0, pool.getLeaks());
+        verify(failing, times(200)).sendMessage(any(BinaryMessage.class));
+        verify(otherRoom, never()).sendMessage(any());
+    }
+
+    @Test
+    void degradedRecipientsGetResampledBundlesAndBuffersAreReturned() throws Exception {
+        BufferPool pool = new BufferPool(64, true);
+        RoomEventLoops eventLoops = new RoomEventLoops(1);
+        // proto=2 의 profile 묶음은 FrameCoalescer 가 한다
+        FrameCoalescer coalescer = new FrameCoalescer(pool, true, 5, 16384, 40, 150, 1000);
+        VoIPService service = new VoIPService(options(pool, eventLoops)
+                .adaptIntervalMs(10)
+                .degradeAfter(1)
+                .upgradeAfter(1000)
+                .holdAfterChange(0)
+                .coalescer(coalescer)
+                .build());
+
+        service.registerSession("sender", session("sender", false, false));
+        WebSocketSession wav = session("wav", false, false);
+        WebSocketSession framed = session("framed", false, true);
+        WebSocketSession good = session("good", false, false);
+        List<byte[]> wavOut = capture(wav);
+        List<byte[]> framedOut = capture(framed);
+        List<byte[]> goodOut = capture(good);
+        service.registerSession("wav", wav);
+        service.registerSession("framed", framed);
+        service.registerSession("good", good);
+
+        // 손실 보고가 계속 오면 한 단계씩 MINIMAL 까지 내려간다. 보고가 없는 수신자는 HIGH 그대로
+        ReceiverFeedback lossy = new ReceiverFeedback();
+        lossy.setLossPct(30.0);
+        for (int i = 0; i < 200 && (service.peer("wav").getProfile() != StreamProfile.MINIMAL
+                || service.peer("framed").getProfile() != StreamProfile.MINIMAL); i++) {
+            service.onFeedback("wav", lossy);
+            service.onFeedback("framed", lossy);
+            Thread.sleep(15);
+        }
+        assertEquals(StreamProfile.MINIMAL, service.peer("wav").getProfile());
+        assertEquals(StreamProfile.HIGH, service.peer("good").getProfile());
+
+        byte[] pcm = new byte[1920]; // 48kHz 20ms
+        for (int i = 0; i < 30; i++) {
+            service.forwardAudio("sender", pcm);
+        }
+        eventLoops.call("room", () -> null);
+
+        // 8kHz 로 줄인 20ms(320 bytes) 3개를 WAV 하나로
+        byte[] last = wavOut.get(wavOut.size() - 1);
+        ByteBuffer h = ByteBuffer.wrap(last).order(ByteOrder.LITTLE_ENDIAN);
+        assertEquals(8000, h.getInt(24));
+        assertEquals(960, h.getInt(40));
+        // v2 는 송신 대기열에서 프레임 3개를 한 메시지에 이어 붙이고 헤더에 샘플레이트를 적는다
+        byte[] bundled = framedOut.get(framedOut.size() - 1);
+        assertEquals(3 * (44 + 320), bundled.length);
+        assertEquals(80, ByteBuffer.wrap(bundled).getShort(6));
+        assertTrue(goodOut.stream().skip(goodOut.size() - 30).allMatch(m -> m.length == 44 + 1920));
+
+        service.removeSession("wav");
+        service.removeSession("framed");
+        service.removeSession("good");
+        service.removeSession("sender");
+        eventLoops.call("room", () -> null);
+        eventLoops.shutdown();
+        coalescer.shutdown();
+
+        assertEquals(0, pool.getOutstanding());
+        assertEquals(0, pool.getLeaks());
+    }
+
+    @Test
+    void lateTracedFrameDoesNotReopenClosedRoomTrace() throws Exception {
+        BufferPool pool = new BufferPool(64, true);
+        RoomEventLoops eventLoops = new RoomEventLoops(1);
+        CallLatencyTracker tracker = new CallLatencyTracker(10);
+        VoIPService service = new VoIPService(options(pool, eventLoops).latencyTracker(tracker).build());
+
+        service.registerSession("sender", session("sender", true, false));
+        service.forwardAudio("sender", new byte[1920], 0, System.currentTimeMillis());
+        PeerConnection sender = service.peer("sender");
+        service.removeSession("sender");
+        eventLoops.call("room", () -> null);
+        assertEquals(false, tracker.report("room").get("active"));
+
+        // 방이 닫힌 뒤 방 루프에 도착한 추적 프레임
+        PooledBuffer late = pool.acquire(1920);
+        long now = System.currentTimeMillis();
+        eventLoops.call("room", () -> {
+            service.relay(sender, late, true, 1, now, System.nanoTime(), now);
+            return null;
+        });
+        eventLoops.shutdown();
+
+        assertEquals(false, tracker.report("room").get("active"));
+        assertEquals(0, pool.getOutstanding());
+    }
+
+    // 보낸 메시지 내용을 복사해 둔다 (풀 버퍼는 전송 후 재사용되므로)
+    private static VoIPService.Options.OptionsBuilder options(BufferPool pool, RoomEventLoops eventLoops) {
+        return VoIPService.Options.builder()
+                .metrics(new VoIPMetrics(new SimpleMeterRegistry()))
+                .latencyTracker(new CallLatencyTracker(10))
+                .bufferPool(pool)
+                .eventLoops(eventLoops)
+                .sender(Runnable::run);
+    }
+
+    private static List<byte[]> capture(WebSocketSession session) throws IOException {
+        List<byte[]> out = new ArrayList<>();
+        doAnswer(inv -> {
+            ByteBuffer payload = inv.<BinaryMessage>getArgument(0).getPayload();
+            byte[] bytes = new byte[payload.remaining()];
+            payload.duplicate().get(bytes);
+            synchronized (out) {
+                out.add(bytes);
+            }
+            return null;
+        }).when(session).sendMessage(any());
+        return out;
+    }
+
+    private static WebSocketSession session(String id, boolean traced, boolean framed) {
+        Map<String, Object> attributes = new HashMap<>();
+        attributes.put(RoomHandshakeInterceptor.ROOM_ID, "room");
+        attributes.put(RoomHandshakeInterceptor.TRACE, traced);
+        attributes.put(RoomHandshakeInterceptor.FRAMED, framed);
+        WebSocketSession session = mock(WebSocketSession.class);
+        when(session.getId()).thenReturn(id);
+        when(session.isOpen()).thenReturn(true);
+        when(session.getAttributes()).thenReturn(attributes);
+        return session;
+    }
+}
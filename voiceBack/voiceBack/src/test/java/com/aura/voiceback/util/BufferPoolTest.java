@@ -0,0 +1,78 @@
+package com.aura.voiceback.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BufferPoolTest {
+
+    @Test
+    void reusesBuffersWithinSizeClass() {
+        BufferPool pool = new BufferPool(16, false);
+        PooledBuffer first = pool.acquire(1964);
+        assertTrue(first.buffer().isDirect());
+        assertEquals(1964, first.length());
+        first.release();
+
+        PooledBuffer second = pool.acquire(1000); // 같은 2K 등급
+        assertSame(first, second);
+        assertEquals(1000, second.readView().remaining());
+        second.release();
+
+        assertEquals(1, pool.getAllocated());
+        assertEquals(0, pool.getOutstanding());
+    }
+
+    @Test
+    void refCountFollowsFanOut() {
+        BufferPool pool = new BufferPool(16, false);
+        PooledBuffer frame = pool.acquire(7724);
+        for (int i = 0; i < 3; i++) frame.retain(); // 수신자 대기열 3개
+        for (int i = 0; i < 3; i++) frame.release();
+        assertEquals(1, pool.getOutstanding());
+        frame.release();
+        assertEquals(0, pool.getOutstanding());
+
+        assertThrows(IllegalStateException.class, frame::release);
+        assertThrows(IllegalStateException.class, frame::retain);
+    }
+
+    @Test
+    void oversizedRequestsBypassThePool() {
+        BufferPool pool = new BufferPool(16, false);
+        PooledBuffer big = pool.acquire(200_000);
+        assertFalse(big.buffer().isDirect());
+        big.release();
+        assertEquals(0, pool.getAllocated());
+        assertEquals(0, pool.getOutstanding());
+    }
+
+    @Test
+    void buffersRecycledOnAnotherThreadAreReused() throws Exception {
+        BufferPool pool = new BufferPool(16, false); // 방 루프에서 acquire, 송신 스레드에서 release
+        PooledBuffer frame = pool.acquire(100);
+        Thread t = new Thread(frame::release);
+        t.start();
+        t.join();
+        assertSame(frame, pool.acquire(100));
+    }
+
+    @Test
+    void leakDetectionReportsBuffersDroppedWithoutRelease() throws Exception {
+        BufferPool pool = new BufferPool(16, true);
+        pool.acquire(512).release(); // 정상 반환은 leak 아님
+        leakOne(pool);
+
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (pool.getLeaks() == 0 && System.currentTimeMillis() < deadline) {
+            System.gc();
+            Thread.sleep(20);
+        }
+        assertEquals(1, pool.getLeaks());
+        assertEquals(1, pool.getOutstanding());
+    }
+
+    private static void leakOne(BufferPool pool) {
+        pool.acquire(2048).buffer().put(0, (byte) 1);
+    }
+}
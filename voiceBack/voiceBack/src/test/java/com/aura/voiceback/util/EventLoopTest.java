@@ -0,0 +1,105 @@
+package com.aura.voiceback.util;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 이벤트 루프: 넣은 순서대로 한 스레드에서 실행되는지, 타이머가 만기 순서로 돌고 취소하면 힙에서도 빠지는지,
+ * 실패한 작업이 루프를 멈추지 않는지, shutdown 뒤 스레드가 끝나는지 확인
+ */
+class EventLoopTest {
+
+    private final EventLoop loop = new EventLoop("test-loop");
+
+    @AfterEach
+    void stop() throws InterruptedException {
+        loop.shutdown();
+    }
+
+    @Test
+    void tasksRunInSubmissionOrderOnTheLoopThread() throws Exception {
+        List<Integer> order = new ArrayList<>(); // 루프 스레드만 쓴다
+        AtomicInteger offLoop = new AtomicInteger();
+        for (int i = 0; i < 1000; i++) {
+            int n = i;
+            loop.execute(() -> {
+                if (!loop.inLoop()) offLoop.incrementAndGet();
+                order.add(n);
+            });
+        }
+        onLoop(() -> null);
+        assertEquals(0, offLoop.get());
+        for (int i = 0; i < 1000; i++) assertEquals(i, order.get(i));
+        assertEquals(0, loop.getPending());
+        assertFalse(loop.inLoop());
+    }
+
+    @Test
+    void failingTaskDoesNotStopTheLoop() throws Exception {
+        loop.execute(() -> {
+            throw new IllegalStateException("boom");
+        });
+        assertEquals("alive", onLoop(() -> "alive"));
+    }
+
+    @Test
+    void timersFireInDeadlineOrder() throws Exception {
+        List<String> fired = new CopyOnWriteArrayList<>();
+        CountDownLatch done = new CountDownLatch(3);
+        loop.schedule(60, () -> { fired.add("c"); done.countDown(); });
+        loop.schedule(20, () -> { fired.add("a"); done.countDown(); });
+        loop.schedule(20, () -> { fired.add("b"); done.countDown(); }); // 같은 만기면 등록 순서
+        assertTrue(done.await(2, TimeUnit.SECONDS));
+        assertEquals(List.of("a", "b", "c"), fired);
+        assertEquals(0, (int) onLoop(loop::getScheduled));
+    }
+
+    @Test
+    void cancelledTimersDoNotRunAndLeaveTheHeap() throws Exception {
+        AtomicInteger ran = new AtomicInteger();
+        List<EventLoop.Timer> timers = new ArrayList<>();
+        for (int i = 0; i < 100; i++) timers.add(loop.schedule(60_000, ran::incrementAndGet));
+        assertEquals(100, (int) onLoop(loop::getScheduled));
+
+        timers.forEach(EventLoop.Timer::cancel);
+        assertEquals(0, (int) onLoop(loop::getScheduled));
+
+        // 루프 안에서 등록 직후 취소해도 마찬가지
+        assertEquals(0, (int) onLoop(() -> {
+            loop.schedule(0, ran::incrementAndGet).cancel();
+            return loop.getScheduled();
+        }));
+        Thread.sleep(20);
+        onLoop(() -> null);
+        assertEquals(0, ran.get());
+    }
+
+    @Test
+    void shutdownStopsTheThread() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        loop.execute(started::countDown);
+        assertTrue(started.await(2, TimeUnit.SECONDS));
+        loop.shutdown();
+
+        AtomicInteger ran = new AtomicInteger();
+        loop.execute(ran::incrementAndGet);
+        Thread.sleep(20);
+        assertEquals(0, ran.get());
+    }
+
+    private <T> T onLoop(java.util.function.Supplier<T> task) throws Exception {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        loop.execute(() -> result.complete(task.get()));
+        return result.get(2, TimeUnit.SECONDS);
+    }
+}
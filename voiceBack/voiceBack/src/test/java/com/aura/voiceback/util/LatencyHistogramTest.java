@@ -0,0 +1,91 @@
+package com.aura.voiceback.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 로그-선형 히스토그램: 분위수가 유효숫자(약 3%) 안에 들어오는지, 범위 밖 값은 잘리는지,
+ * 여러 스레드에서 record 해도 개수가 맞는지 확인
+ */
+class LatencyHistogramTest {
+
+    @Test
+    void emptyHistogramReportsZero() {
+        LatencyHistogram h = new LatencyHistogram(1_000_000);
+        assertEquals(0, h.getCount());
+        assertEquals(0, h.percentile(99));
+        assertEquals(0.0, h.getMean());
+    }
+
+    @Test
+    void percentilesAreWithinPrecision() {
+        LatencyHistogram h = new LatencyHistogram(10_000_000);
+        for (int v = 1; v <= 100_000; v++) h.record(v);
+
+        assertEquals(100_000, h.getCount());
+        assertEquals(100_000, h.getMax());
+        assertEquals(50_000.5, h.getMean(), 0.001);
+        for (double p : new double[]{1, 50, 90, 99, 99.9}) {
+            double expected = p * 1000;
+            assertEquals(expected, h.percentile(p), expected * 0.035, "p" + p);
+        }
+        assertEquals(100_000, h.percentile(100));
+    }
+
+    @Test
+    void smallValuesAreExact() {
+        LatencyHistogram h = new LatencyHistogram(1000);
+        h.record(3);
+        h.record(7);
+        h.record(7);
+        assertEquals(3, h.percentile(1));
+        assertEquals(7, h.percentile(50));
+        assertEquals(7, h.getMax());
+    }
+
+    @Test
+    void outOfRangeValuesAreClamped() {
+        LatencyHistogram h = new LatencyHistogram(1000);
+        h.record(-5);
+        h.record(5000);
+        assertEquals(2, h.getCount());
+        assertEquals(0, h.percentile(50));
+        assertEquals(1000, h.getMax());
+        assertEquals(1000, h.percentile(100));
+    }
+
+    @Test
+    void bucketBoundsCoverEveryValue() {
+        for (long v = 0; v < 1 << 20; v += 7) {
+            int i = LatencyHistogram.index(v);
+            assertTrue(LatencyHistogram.upperBound(i) >= v);
+            assertTrue(i == 0 || LatencyHistogram.upperBound(i - 1) < v);
+        }
+    }
+
+    @Test
+    void concurrentRecordsAreNotLost() throws Exception {
+        LatencyHistogram h = new LatencyHistogram(1_000_000);
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            Future<?>[] writers = new Future<?>[4];
+            for (int t = 0; t < writers.length; t++) {
+                int offset = t;
+                writers[t] = pool.submit(() -> {
+                    for (int i = 0; i < 50_000; i++) h.record(i % 1000 + offset);
+                });
+            }
+            for (Future<?> w : writers) w.get(10, TimeUnit.SECONDS);
+        } finally {
+            pool.shutdownNow();
+        }
+        assertEquals(200_000, h.getCount());
+        assertEquals(1002, h.getMax());
+    }
+}
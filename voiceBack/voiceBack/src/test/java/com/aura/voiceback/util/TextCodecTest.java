@@ -0,0 +1,57 @@
+package com.aura.voiceback.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TextCodecTest {
+
+    private static final String SUMMARY = "상대방이 서울중앙지검 수사관이라며 사용자의 계좌가 범죄에 연루되어 동결된다고 말했습니다. "
+            + "예금을 안전계좌로 이체하라고 요구했고, 원격제어 앱 설치를 요구했습니다. "
+            + "보이스피싱이 의심됩니다. 통화를 끊고 해당 기관의 대표번호로 직접 확인하세요.";
+
+    @Test
+    void roundTripsKoreanSummary() {
+        byte[] data = TextCodec.encode(SUMMARY);
+        assertEquals(TextCodec.DEFLATE_V1, data[0]);
+        assertEquals(SUMMARY, TextCodec.decode(data));
+        // 사전 덕분에 한 문단짜리 요약도 절반 이하
+        assertTrue(data.length < SUMMARY.getBytes(StandardCharsets.UTF_8).length / 2, "size " + data.length);
+    }
+
+    @Test
+    void keepsIncompressibleTextRaw() {
+        String text = "x";
+        byte[] data = TextCodec.encode(text);
+        assertEquals(TextCodec.RAW, data[0]);
+        assertEquals(text, TextCodec.decode(data));
+        assertEquals("", TextCodec.decode(TextCodec.encode("")));
+    }
+
+    @Test
+    void roundTripsLongText() {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 2000; i++) sb.append(i).append(": ").append(SUMMARY).append('\n');
+        String text = sb.toString();
+        assertEquals(text, TextCodec.decode(TextCodec.encode(text)));
+    }
+
+    @Test
+    void rejectsUnknownVersionAndCorruptData() {
+        assertThrows(IllegalStateException.class, () -> TextCodec.decode(new byte[]{0x7f, 1, 2}));
+        byte[] data = TextCodec.encode(SUMMARY);
+        byte[] truncated = Arrays.copyOf(data, data.length / 2);
+        assertThrows(IllegalStateException.class, () -> TextCodec.decode(truncated));
+    }
+
+    @Test
+    void trainsDictionaryFromSamples() {
+        byte[] dictionary = TextCodec.train(List.of(SUMMARY, SUMMARY + " 추가 문장", "다른 요약 " + SUMMARY), 256);
+        assertTrue(dictionary.length > 0 && dictionary.length <= 256);
+        assertTrue(new String(dictionary, StandardCharsets.UTF_8).contains("안전계좌로"));
+    }
+}
@@ -0,0 +1,63 @@
+package com.aura.voiceback.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimerWheelTest {
+
+    @Test
+    void expiresOnlyAfterDeadline() {
+        TimerWheel<String> wheel = new TimerWheel<>(100, 8, 0);
+        wheel.schedule("a", 250);
+        wheel.schedule("b", 1000);
+        List<String> expired = new ArrayList<>();
+
+        assertEquals(0, wheel.advance(200, expired::add));
+        assertEquals(1, wheel.advance(300, expired::add));
+        assertEquals(List.of("a"), expired);
+        assertEquals(1, wheel.size());
+        assertEquals(1, wheel.advance(1000, expired::add));
+        assertEquals(List.of("a", "b"), expired);
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void keepsTimersBeyondOneRotation() {
+        TimerWheel<String> wheel = new TimerWheel<>(10, 4, 0); // 한 바퀴 40ms
+        wheel.schedule("far", 125);
+        List<String> expired = new ArrayList<>();
+        for (long now = 10; now < 130; now += 10) {
+            wheel.advance(now, expired::add);
+            assertEquals(now >= 130 ? List.of("far") : List.of(), expired, "at " + now);
+        }
+        wheel.advance(130, expired::add);
+        assertEquals(List.of("far"), expired);
+    }
+
+    @Test
+    void catchesUpAfterLongPause() {
+        TimerWheel<Integer> wheel = new TimerWheel<>(10, 16, 0);
+        for (int i = 0; i < 1000; i++) wheel.schedule(i, 10 + i * 7L);
+        List<Integer> expired = new ArrayList<>();
+        assertEquals(1000, wheel.advance(1_000_000, expired::add));
+        assertEquals(1000, expired.size());
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void cancelledTimersNeverFire() {
+        TimerWheel<String> wheel = new TimerWheel<>(10, 16, 0);
+        TimerWheel.Timeout<String> a = wheel.schedule("a", 50);
+        wheel.schedule("b", 50);
+        wheel.cancel(a);
+        wheel.cancel(a); // 두 번 취소해도 무방
+        List<String> expired = new ArrayList<>();
+        wheel.advance(100, expired::add);
+        assertEquals(List.of("b"), expired);
+        assertEquals(0, wheel.size());
+    }
+}
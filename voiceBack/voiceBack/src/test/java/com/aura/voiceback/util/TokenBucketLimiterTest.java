@@ -0,0 +1,129 @@
+package com.aura.voiceback.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenBucketLimiterTest {
+
+    private static final long SECOND = 1_000_000_000L;
+
+    @Test
+    void allowsBurstThenRefillsAtRate() {
+        TokenBucketLimiter limiter = new TokenBucketLimiter(1, 3, 1000, 4); // 초당 1개, 최대 3개
+        long now = 0;
+        for (int i = 0; i < 3; i++) assertEquals(0, limiter.tryAcquire("ip:a", now));
+        long wait = limiter.tryAcquire("ip:a", now);
+        assertEquals(SECOND, wait);
+
+        assertEquals(0, limiter.tryAcquire("ip:a", now + wait));
+        assertTrue(limiter.tryAcquire("ip:a", now + wait) > 0);
+        // 다른 키는 따로 센다
+        assertEquals(0, limiter.tryAcquire("ip:b", now));
+        // 오래 쉬어도 burst 이상은 쌓이지 않는다
+        long later = now + 100 * SECOND;
+        for (int i = 0; i < 3; i++) assertEquals(0, limiter.tryAcquire("ip:a", later));
+        assertTrue(limiter.tryAcquire("ip:a", later) > 0);
+    }
+
+    @Test
+    void rejectedRequestsDoNotConsumeTokens() {
+        TokenBucketLimiter limiter = new TokenBucketLimiter(1, 1, 1000, 4);
+        assertEquals(0, limiter.tryAcquire("k", 0));
+        for (int i = 0; i < 1000; i++) assertTrue(limiter.tryAcquire("k", SECOND / 2) > 0);
+        assertEquals(0, limiter.tryAcquire("k", SECOND));
+    }
+
+    @Test
+    void staysWithinKeyBound() {
+        TokenBucketLimiter limiter = new TokenBucketLimiter(1, 5, 1024, 16);
+        // 키마다 1초 간격: 앞의 키는 한 번만 써서 1초 뒤면 가득 차 버릴 수 있다
+        for (int i = 0; i < 100_000; i++) {
+            assertEquals(0, limiter.tryAcquire("ip:" + i, i * SECOND));
+        }
+        assertTrue(limiter.size() <= 1024, "size " + limiter.size());
+        assertTrue(limiter.getEvictions() >= 100_000 - 1024);
+        assertEquals(0, limiter.getOverflows());
+    }
+
+    @Test
+    void activeBucketsAreNeverEvictedByNewKeys() {
+        TokenBucketLimiter limiter = new TokenBucketLimiter(1, 3, 16, 2); // 스트라이프당 8개
+        int stripe = limiter.stripeOf("victim");
+        List<String> keys = new ArrayList<>();
+        for (int i = 0; keys.size() < 200; i++) {
+            if (limiter.stripeOf("k" + i) == stripe) keys.add("k" + i);
+        }
+        // victim 은 0초에 한도를 다 썼다
+        for (int i = 0; i < 3; i++) assertEquals(0, limiter.tryAcquire("victim", 0));
+        assertTrue(limiter.tryAcquire("victim", 0) > 0);
+        // 같은 스트라이프를 새 키로 채우고 더 쏟아붓는다 (모두 방금 쓴 활성 버킷)
+        for (String key : keys) limiter.tryAcquire(key, 0);
+
+        assertEquals(0, limiter.getEvictions());
+        assertEquals(200 - 7, limiter.getOverflows());
+        assertTrue(limiter.tryAcquire(keys.get(199), 0) > 0); // 자리가 없는 새 키는 거절
+        // victim 의 한도는 그대로 (버킷이 새로 만들어졌다면 다시 3개가 허용된다)
+        assertTrue(limiter.tryAcquire("victim", 0) > 0);
+
+        // 버킷이 가득 차고 나면 (3초) 자리가 난다
+        assertEquals(0, limiter.tryAcquire(keys.get(199), 3 * SECOND));
+        assertTrue(limiter.getEvictions() > 0);
+    }
+
+    @Test
+    void prefersEvictingRefilledBuckets() {
+        TokenBucketLimiter limiter = new TokenBucketLimiter(1, 5, 16, 2); // 스트라이프당 8개
+        int stripe = limiter.stripeOf("hot");
+        List<String> keys = new ArrayList<>();
+        for (int i = 0; keys.size() < 14; i++) {
+            if (limiter.stripeOf("k" + i) == stripe) keys.add("k" + i);
+        }
+        // hot: 0초에 5개를 다 써서 5초에야 가득 찬다 (마지막 접근은 가장 오래됨)
+        for (int i = 0; i < 6; i++) limiter.tryAcquire("hot", 0);
+        // 1초에 한 번씩만 쓴 키 7개: 2초면 가득 찬다
+        for (String key : keys.subList(0, 7)) assertEquals(0, limiter.tryAcquire(key, SECOND));
+        // 3초에 새 키 7개 -> 가득 찬 버킷만 버리고, 아직 덜 찬 hot 은 남는다
+        for (String key : keys.subList(7, 14)) assertEquals(0, limiter.tryAcquire(key, 3 * SECOND));
+        assertEquals(7, limiter.getEvictions());
+
+        int allowed = 0;
+        for (int i = 0; i < 5; i++) {
+            if (limiter.tryAcquire("hot", 3 * SECOND) == 0) allowed++;
+        }
+        assertEquals(3, allowed); // 새 버킷이었다면 5
+    }
+
+    @Test
+    void concurrentCallersNeverExceedBurst() throws Exception {
+        TokenBucketLimiter limiter = new TokenBucketLimiter(1e-3, 50, 1000, 4);
+        int threads = 8;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger allowed = new AtomicInteger();
+        for (int t = 0; t < threads; t++) {
+            pool.execute(() -> {
+                try {
+                    start.await();
+                    for (int i = 0; i < 1000; i++) {
+                        if (limiter.tryAcquire("ip:shared", 0) == 0) allowed.incrementAndGet();
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+        }
+        start.countDown();
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+        assertEquals(50, allowed.get());
+    }
+}
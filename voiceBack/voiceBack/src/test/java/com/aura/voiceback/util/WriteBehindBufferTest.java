@@ -0,0 +1,102 @@
+package com.aura.voiceback.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WriteBehindBufferTest {
+
+    private static final long NEVER = TimeUnit.MINUTES.toMillis(10);
+
+    @Test
+    void flushesWhenBatchSizeIsReached() throws Exception {
+        List<List<Integer>> batches = new CopyOnWriteArrayList<>();
+        CountDownLatch flushed = new CountDownLatch(1);
+        try (WriteBehindBuffer<Integer> buffer = new WriteBehindBuffer<>("test", 100, 3, NEVER, batch -> {
+            batches.add(new ArrayList<>(batch));
+            flushed.countDown();
+        })) {
+            buffer.offer(1);
+            buffer.offer(2);
+            assertTrue(batches.isEmpty());
+            buffer.offer(3);
+            // 타이머(10분)를 기다리지 않고 바로
+            assertTrue(flushed.await(2, TimeUnit.SECONDS));
+            assertEquals(List.of(List.of(1, 2, 3)), batches);
+        }
+    }
+
+    @Test
+    void flushesOnIntervalBelowBatchSize() throws Exception {
+        List<Integer> rows = new CopyOnWriteArrayList<>();
+        CountDownLatch flushed = new CountDownLatch(1);
+        try (WriteBehindBuffer<Integer> buffer = new WriteBehindBuffer<>("test", 100, 100, 20, batch -> {
+            rows.addAll(batch);
+            flushed.countDown();
+        })) {
+            buffer.offer(7);
+            assertTrue(flushed.await(2, TimeUnit.SECONDS));
+            assertEquals(List.of(7), rows);
+            assertEquals(0, buffer.size());
+        }
+    }
+
+    @Test
+    void dropsInsteadOfBlockingWhenFull() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        List<Integer> rows = new CopyOnWriteArrayList<>();
+        WriteBehindBuffer<Integer> buffer = new WriteBehindBuffer<>("test", 2, 1, NEVER, batch -> {
+            try {
+                release.await(); // 느린 DB
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            rows.addAll(batch);
+        });
+        buffer.offer(1); // writer 가 꺼내 가서 막힌다
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(2);
+        while (buffer.size() > 0 && System.nanoTime() < deadline) Thread.sleep(1);
+
+        assertTrue(buffer.offer(2));
+        assertTrue(buffer.offer(3));
+        assertFalse(buffer.offer(4));
+        assertEquals(1, buffer.getDropped());
+
+        release.countDown();
+        buffer.close();
+        assertEquals(List.of(1, 2, 3), rows);
+    }
+
+    @Test
+    void failedBatchIsCountedAndLaterBatchesStillFlush() {
+        List<Integer> rows = new ArrayList<>();
+        WriteBehindBuffer<Integer> buffer = new WriteBehindBuffer<>("test", 100, 2, NEVER, batch -> {
+            if (batch.contains(-1)) throw new IllegalStateException("db down");
+            rows.addAll(batch);
+        });
+        buffer.close(); // writer 스레드 없이 drain() 으로만 확인
+
+        buffer.offer(-1);
+        buffer.offer(1);
+        buffer.offer(2);
+        buffer.drain();
+        assertEquals(2, buffer.getFailed());
+        assertEquals(List.of(2), rows);
+    }
+
+    @Test
+    void closeFlushesWhatIsLeft() {
+        List<Integer> rows = new CopyOnWriteArrayList<>();
+        WriteBehindBuffer<Integer> buffer = new WriteBehindBuffer<>("test", 100, 50, NEVER, rows::addAll);
+        for (int i = 0; i < 10; i++) buffer.offer(i);
+        buffer.close();
+        assertEquals(10, rows.size());
+        assertEquals(0, buffer.size());
+    }
+}
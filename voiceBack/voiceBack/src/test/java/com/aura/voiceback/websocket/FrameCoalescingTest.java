@@ -0,0 +1,198 @@
+package com.aura.voiceback.websocket;
+
+import com.aura.voiceback.media.LevelMeter;
+import com.aura.voiceback.media.ProfileController;
+import com.aura.voiceback.media.StreamProfile;
+import com.aura.voiceback.service.FrameCoalescer;
+import com.aura.voiceback.service.VoIPMetrics;
+import com.aura.voiceback.util.BufferPool;
+import com.aura.voiceback.util.PooledBuffer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * 수신자 송신 대기열 이어 붙이기: 쌓인 프레임은 기다리지 않고 한 메시지로 가는지(proto=2 만),
+ * RTT 가 높으면 프레임 하나를 max-delay 까지 붙잡았다가 보내는지, profile 의 메시지당 프레임 수만큼 묶는지,
+ * 통계 / 풀 버퍼 반환이 맞는지 확인
+ */
+class FrameCoalescingTest {
+
+    private final BufferPool pool = new BufferPool(64, true);
+    private final VoIPMetrics metrics = new VoIPMetrics(new SimpleMeterRegistry());
+    private final FrameCoalescer coalescer = new FrameCoalescer(pool, true, 3, 16384, 40, 150, 1000);
+    // 붙잡았던 프레임은 coalescer 타이머가 이 송신 스레드로 보낸다. 풀 반환을 확인하기 전에 멈춰서 기다린다
+    private final ExecutorService sender = Executors.newSingleThreadExecutor();
+
+    @AfterEach
+    void stop() {
+        sender.shutdownNow();
+        coalescer.shutdown();
+    }
+
+    @Test
+    void queuedFramesGoOutAsOneMessage() throws Exception {
+        List<Runnable> pending = new ArrayList<>();
+        Executor later = pending::add;
+        BlockingQueue<byte[]> framedOut = new LinkedBlockingQueue<>();
+        BlockingQueue<byte[]> wavOut = new LinkedBlockingQueue<>();
+        PeerConnection framed = peer(session("framed", framedOut), true, later);
+        PeerConnection wav = peer(session("wav", wavOut), false, later);
+
+        // 송신 스레드가 밀린 동안 4 프레임이 쌓인다
+        for (long seq = 1; seq <= 4; seq++) {
+            send(framed, seq);
+            send(wav, seq);
+        }
+        while (!pending.isEmpty()) pending.remove(0).run();
+
+        // max-frames 3: 3 + 1
+        assertEquals(List.of(1L, 2L, 3L), seqs(framedOut.poll()));
+        assertEquals(List.of(4L), seqs(framedOut.poll()));
+        assertNull(framedOut.poll());
+        // proto=2 가 아닌 수신자는 프레임마다 한 메시지
+        assertEquals(4, wavOut.size());
+
+        Map<String, Object> stats = framed.linkStats();
+        assertEquals(4L, stats.get("framesSent"));
+        assertEquals(2L, stats.get("messagesSent"));
+        assertEquals(2L, stats.get("messagesSaved"));
+        assertEquals(0L, stats.get("heldMessages"));
+        assertEquals(0L, wav.linkStats().get("messagesSaved"));
+
+        framed.close();
+        wav.close();
+        assertEquals(0, pool.getOutstanding());
+    }
+
+    @Test
+    void highRttRecipientWaitsUpToMaxDelay() throws Exception {
+        BlockingQueue<byte[]> out = new LinkedBlockingQueue<>();
+        PeerConnection peer = peer(session("far", out), true, sender);
+
+        // 200ms 전에 보낸 ping 의 pong
+        peer.onPong(ByteBuffer.allocate(Long.BYTES).putLong(0, System.nanoTime() - 200_000_000L));
+        assertEquals(true, peer.linkStats().get("holding"));
+
+        long start = System.nanoTime();
+        send(peer, 1);
+        send(peer, 2);
+        assertTrue(out.isEmpty(), "frame was not held");
+
+        byte[] message = out.poll(2, TimeUnit.SECONDS);
+        long waitedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        assertNotNull(message, "held frames were never sent");
+        assertEquals(List.of(1L, 2L), seqs(message));
+        assertTrue(waitedMs >= 35, "sent after " + waitedMs + "ms");
+
+        // 한 메시지를 다 채우면 기다리지 않는다
+        for (long seq = 3; seq <= 5; seq++) send(peer, seq);
+        assertEquals(List.of(3L, 4L, 5L), seqs(out.poll(1, TimeUnit.SECONDS)));
+
+        Map<String, Object> stats = peer.linkStats();
+        assertEquals(5L, stats.get("framesSent"));
+        assertEquals(3L, stats.get("messagesSaved"));
+        assertTrue((long) stats.get("heldMessages") >= 1);
+        double maxDelayMs = (double) stats.get("addedDelayMaxMs");
+        assertTrue(maxDelayMs >= 35 && maxDelayMs < 1000, "max added delay " + maxDelayMs);
+
+        peer.close();
+        assertReleased();
+    }
+
+    @Test
+    void degradedProfileIsBundledOnTheSendQueue() throws Exception {
+        BlockingQueue<byte[]> out = new LinkedBlockingQueue<>();
+        PeerConnection peer = peer(session("low", out), true, sender, new ProfileController(1, 10, 0));
+        peer.onFeedback(30.0, null);
+        peer.updateProfile();
+        peer.onFeedback(30.0, null);
+        assertEquals(StreamProfile.LOW, peer.updateProfile()); // 메시지당 2 프레임
+
+        send(peer, 1);
+        assertTrue(out.isEmpty(), "first frame of a LOW bundle was not held");
+        send(peer, 2);
+        byte[] message = out.poll(1, TimeUnit.SECONDS);
+        assertEquals(List.of(1L, 2L), seqs(message));
+        // 이 수신자만의 사본이라 relayEgressTs 를 보낸 시각으로 다시 찍는다
+        assertTrue(ByteBuffer.wrap(message).getLong(FrameCodec.HEADER_LENGTH + 8) > 0);
+
+        // 짝이 오지 않으면 max-delay x (2 - 1) 뒤에 혼자라도 보낸다
+        send(peer, 3);
+        assertEquals(List.of(3L), seqs(out.poll(1, TimeUnit.SECONDS)));
+
+        peer.close();
+        assertReleased();
+    }
+
+    // 메시지는 sendMessage 가 반환된 뒤에 송신 스레드가 풀에 돌려준다: 송신 스레드를 끝까지 비운 뒤에 센다
+    private void assertReleased() throws InterruptedException {
+        sender.shutdown();
+        assertTrue(sender.awaitTermination(5, TimeUnit.SECONDS), "sender still busy");
+        assertEquals(0, pool.getOutstanding());
+    }
+
+    private PeerConnection peer(WebSocketSession session, boolean framed, Executor sender) {
+        return peer(session, framed, sender, new ProfileController(2, 10, 4));
+    }
+
+    private PeerConnection peer(WebSocketSession session, boolean framed, Executor sender, ProfileController adaptation) {
+        return new PeerConnection(session, "room", session.getId(), 1, false, framed, 1 << 20, metrics, sender,
+                adaptation, new LevelMeter(15), coalescer);
+    }
+
+    private void send(PeerConnection peer, long seq) {
+        byte[] bytes = FrameCodec.encode(FrameCodec.TYPE_AUDIO, FrameCodec.FLAG_OUTBOUND | FrameCodec.FLAG_RELAY_TS,
+                FrameCodec.CODEC_PCM16, 7, seq, seq * 20, ByteBuffer.allocate(960), seq * 20, 0);
+        PooledBuffer frame = pool.acquire(bytes.length);
+        frame.buffer().put(0, bytes);
+        peer.send(frame);
+        frame.release();
+    }
+
+    private static List<Long> seqs(byte[] message) {
+        assertNotNull(message);
+        List<Long> seqs = new ArrayList<>();
+        ByteBuffer payload = ByteBuffer.wrap(message);
+        FrameView frame = new FrameView();
+        int at = 0;
+        for (; frame.wrap(payload, at); at = frame.next()) {
+            seqs.add(frame.seq());
+        }
+        assertEquals(message.length, at, "trailing bytes after frames");
+        return seqs;
+    }
+
+    private static WebSocketSession session(String id, BlockingQueue<byte[]> sent) throws Exception {
+        WebSocketSession session = mock(WebSocketSession.class);
+        when(session.getId()).thenReturn(id);
+        when(session.isOpen()).thenReturn(true);
+        doAnswer(inv -> {
+            if (inv.getArgument(0) instanceof BinaryMessage binary) {
+                ByteBuffer payload = binary.getPayload();
+                byte[] bytes = new byte[payload.remaining()];
+                payload.duplicate().get(bytes);
+                sent.add(bytes);
+            }
+            return null;
+        }).when(session).sendMessage(any());
+        return session;
+    }
+}
@@ -0,0 +1,153 @@
+package com.aura.voiceback.websocket;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * FrameCodec / FrameView 왕복 + 깨진 입력 퍼징 (시드 고정이라 실패하면 같은 입력으로 재현된다)
+ */
+class FrameCodecFuzzTest {
+
+    private static final long SEED = 0x5EED_AF02L;
+    private static final int ROUNDS = 5000;
+
+    private record Frame(int type, int flags, int codec, int streamId, long seq, long timestamp,
+                         byte[] payload, long ingress, long egress) {
+    }
+
+    @Test
+    void roundTripOfRandomBundles() {
+        Random random = new Random(SEED);
+        for (int round = 0; round < ROUNDS; round++) {
+            List<Frame> frames = new ArrayList<>();
+            int count = 1 + random.nextInt(4);
+            for (int i = 0; i < count; i++) frames.add(randomFrame(random));
+
+            // 앞에 쓰레기 바이트를 두고 position 을 옮겨서 절대 위치 계산도 확인
+            int prefix = random.nextInt(8);
+            ByteBuffer buf = bundle(frames, prefix);
+            buf.position(prefix);
+
+            FrameView view = new FrameView();
+            int at = buf.position();
+            int i = 0;
+            for (; view.wrap(buf, at); at = view.next(), i++) {
+                Frame f = frames.get(i);
+                assertEquals(f.type, view.type(), "round " + round);
+                assertEquals(f.flags, view.flags());
+                assertEquals(f.codec, view.codec());
+                assertEquals(f.streamId, view.streamId());
+                assertEquals(f.seq, view.seq());
+                assertEquals(f.timestamp, view.timestamp());
+                assertEquals(f.payload.length, view.payloadLength());
+                assertEquals(ByteBuffer.wrap(f.payload), view.payload());
+                if (view.hasRelayTimestamps()) {
+                    assertEquals(f.ingress, view.relayIngressTs());
+                    assertEquals(f.egress, view.relayEgressTs());
+                }
+            }
+            assertEquals(frames.size(), i);
+            assertEquals(buf.limit(), at);
+            assertEquals(prefix, buf.position(), "wrap must not move the buffer position");
+        }
+    }
+
+    @Test
+    void unknownTypesAreSkipped() {
+        Random random = new Random(SEED);
+        Frame audio1 = new Frame(FrameCodec.TYPE_AUDIO, 0, FrameCodec.CODEC_PCM16, 1, 1, 10, new byte[320], 0, 0);
+        Frame unknown = new Frame(0x7E, 0, 0, 9, 0, 0, new byte[77], 0, 0);
+        Frame audio2 = new Frame(FrameCodec.TYPE_AUDIO, 0, FrameCodec.CODEC_PCM16, 1, 2, 30, new byte[320], 0, 0);
+        random.nextBytes(unknown.payload);
+        // 헤더 확장(headerLen > 28)을 가진 미래 버전 프레임도 headerLen 만큼 건너뛰어야 한다
+        ByteBuffer buf = bundle(List.of(audio1, unknown, audio2), 0);
+        int extendedAt = FrameCodec.HEADER_LENGTH + 320;
+        ByteBuffer extended = ByteBuffer.allocate(buf.limit() + 12);
+        extended.put(buf.array(), 0, extendedAt + FrameCodec.HEADER_LENGTH)
+                .put(new byte[12])
+                .put(buf.array(), extendedAt + FrameCodec.HEADER_LENGTH, buf.limit() - extendedAt - FrameCodec.HEADER_LENGTH)
+                .flip();
+        extended.put(extendedAt + 5, (byte) (FrameCodec.HEADER_LENGTH + 12));
+
+        List<Long> audioSeqs = new ArrayList<>();
+        FrameView view = new FrameView();
+        int at = 0;
+        for (; view.wrap(extended, at); at = view.next()) {
+            if (view.type() == FrameCodec.TYPE_AUDIO) audioSeqs.add(view.seq());
+            else assertArrayEquals(unknown.payload, toArray(view.payload()));
+        }
+        assertEquals(List.of(1L, 2L), audioSeqs);
+        assertEquals(extended.limit(), at);
+    }
+
+    @Test
+    void corruptedInputNeverThrowsOrReadsOutOfBounds() {
+        Random random = new Random(SEED);
+        FrameView view = new FrameView();
+        for (int round = 0; round < ROUNDS * 4; round++) {
+            ByteBuffer buf;
+            if (random.nextBoolean()) {
+                // 정상 프레임을 자르거나 바이트 몇 개를 바꾼다
+                ByteBuffer valid = bundle(List.of(randomFrame(random), randomFrame(random)), 0);
+                byte[] bytes = Arrays.copyOf(valid.array(), random.nextInt(valid.limit() + 1));
+                for (int k = random.nextInt(4); k > 0 && bytes.length > 0; k--) {
+                    bytes[random.nextInt(bytes.length)] = (byte) random.nextInt(256);
+                }
+                buf = ByteBuffer.wrap(bytes);
+            } else {
+                byte[] bytes = new byte[random.nextInt(128)];
+                random.nextBytes(bytes);
+                if (bytes.length > 1) {
+                    bytes[0] = FrameCodec.MAGIC;
+                    bytes[1] = FrameCodec.VERSION;
+                }
+                buf = ByteBuffer.wrap(bytes);
+            }
+
+            int at = 0;
+            int frames = 0;
+            while (view.wrap(buf, at)) {
+                assertTrue(view.next() > at, "next() must advance");
+                assertTrue(view.next() <= buf.limit());
+                view.payload(); // 범위를 벗어나면 예외
+                at = view.next();
+                assertTrue(++frames <= buf.limit() / FrameCodec.HEADER_LENGTH);
+            }
+        }
+    }
+
+    private static Frame randomFrame(Random random) {
+        int flags = random.nextInt(4);
+        byte[] payload = new byte[random.nextInt(10) == 0 ? 0 : random.nextInt(4096)];
+        random.nextBytes(payload);
+        return new Frame(1 + random.nextInt(255), flags, random.nextInt(256), random.nextInt(),
+                random.nextLong() & 0xFFFFFFFFL, random.nextLong(), payload, random.nextLong(), random.nextLong());
+    }
+
+    private static ByteBuffer bundle(List<Frame> frames, int prefix) {
+        int size = prefix;
+        for (Frame f : frames) size += FrameCodec.headerLength(f.flags) + f.payload.length;
+        ByteBuffer buf = ByteBuffer.allocate(size);
+        int at = prefix;
+        for (Frame f : frames) {
+            byte[] encoded = FrameCodec.encode(f.type, f.flags, f.codec, f.streamId, f.seq, f.timestamp,
+                    ByteBuffer.wrap(f.payload), f.ingress, f.egress);
+            buf.put(at, encoded);
+            at += encoded.length;
+        }
+        return buf;
+    }
+
+    private static byte[] toArray(ByteBuffer view) {
+        byte[] out = new byte[view.remaining()];
+        view.duplicate().get(out);
+        return out;
+    }
+}
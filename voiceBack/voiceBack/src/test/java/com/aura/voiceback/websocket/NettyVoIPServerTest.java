@@ -0,0 +1,137 @@
+package com.aura.voiceback.websocket;
+
+import com.aura.voiceback.service.CallLatencyTracker;
+import com.aura.voiceback.service.FrameCoalescer;
+import com.aura.voiceback.service.RoomEventLoops;
+import com.aura.voiceback.service.SessionResumption;
+import com.aura.voiceback.service.SpeakerDetector;
+import com.aura.voiceback.service.VoIPMetrics;
+import com.aura.voiceback.service.VoIPService;
+import com.aura.voiceback.util.BufferPool;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.WebSocket;
+import java.nio.ByteBuffer;
+import java.util.concurrent.Executors;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * netty 엔진: 실제 소켓으로 붙은 두 클라이언트 사이에 servlet 엔진과 같은 형식(WAV)으로 중계되는지,
+ * 다른 방으로는 가지 않는지, 연결이 끊긴 뒤 풀 버퍼가 모두 돌아오는지 확인
+ */
+class NettyVoIPServerTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private BufferPool pool;
+    private RoomEventLoops eventLoops;
+    private VoIPService voip;
+    private NettyVoIPServer server;
+    private final HttpClient http = HttpClient.newHttpClient();
+
+    @BeforeEach
+    void start() {
+        pool = new BufferPool(64, true);
+        eventLoops = new RoomEventLoops(1);
+        voip = new VoIPService(VoIPService.Options.builder()
+                .metrics(new VoIPMetrics(registry))
+                .latencyTracker(new CallLatencyTracker(10))
+                .bufferPool(pool)
+                .eventLoops(eventLoops)
+                .sender(Executors.newSingleThreadExecutor())
+                .speakerDetector(new SpeakerDetector(0, 15, -50, 500, 200, 0, 0))
+                .build());
+        server = new NettyVoIPServer(new VoIPWebSocketHandler(voip),
+                NettyVoIPServer.ENGINE_NETTY, "127.0.0.1", 0, 1, 65536);
+        server.start();
+    }
+
+    @AfterEach
+    void stop() throws InterruptedException {
+        server.stop();
+        voip.shutdown();
+        eventLoops.shutdown();
+    }
+
+    @Test
+    void relaysBetweenSocketsOfTheSameRoom() throws Exception {
+        Client sender = connect("room-a");
+        Client receiver = connect("room-a");
+        Client other = connect("room-b");
+        awaitSessions(3);
+
+        byte[] pcm = new byte[1920];
+        for (int i = 0; i < pcm.length; i++) pcm[i] = (byte) i;
+        sender.ws.sendBinary(ByteBuffer.wrap(pcm), true).join();
+
+        byte[] wav = receiver.messages.poll(5, TimeUnit.SECONDS);
+        assertNotNull(wav, "receiver got nothing");
+        assertEquals(44 + pcm.length, wav.length);
+        assertEquals('R', wav[0]);
+        byte[] body = new byte[pcm.length];
+        System.arraycopy(wav, 44, body, 0, pcm.length);
+        assertArrayEquals(pcm, body);
+        assertNull(other.messages.poll(200, TimeUnit.MILLISECONDS), "frame leaked into another room");
+        assertNull(sender.messages.poll(0, TimeUnit.MILLISECONDS), "sender got its own frame");
+
+        for (Client c : new Client[]{sender, receiver, other}) {
+            c.ws.sendClose(WebSocket.NORMAL_CLOSURE, "done").join();
+        }
+        awaitSessions(0);
+        eventLoops.call("room-a", () -> null);
+        eventLoops.call("room-b", () -> null);
+        assertEquals(0, pool.getOutstanding());
+    }
+
+    private Client connect(String roomId) {
+        Client client = new Client();
+        URI uri = URI.create("ws://127.0.0.1:" + server.getPort() + "/ws/voip?roomId=" + roomId);
+        client.ws = http.newWebSocketBuilder().buildAsync(uri, client).join();
+        return client;
+    }
+
+    private void awaitSessions(int expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (sockets() != expected && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(expected, sockets());
+    }
+
+    private int sockets() {
+        return (int) registry.get("voip.sockets.active").gauge().value();
+    }
+
+    private static final class Client implements WebSocket.Listener {
+
+        final BlockingQueue<byte[]> messages = new LinkedBlockingQueue<>();
+        private final ByteArrayOutputStream partial = new ByteArrayOutputStream();
+        WebSocket ws;
+
+        @Override
+        public CompletionStage<?> onBinary(WebSocket webSocket, ByteBuffer data, boolean last) {
+            byte[] bytes = new byte[data.remaining()];
+            data.get(bytes);
+            partial.writeBytes(bytes);
+            if (last) {
+                messages.add(partial.toByteArray());
+                partial.reset();
+            }
+            webSocket.request(1);
+            return null;
+        }
+    }
+}
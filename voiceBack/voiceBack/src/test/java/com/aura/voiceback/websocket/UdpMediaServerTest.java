@@ -0,0 +1,273 @@
+package com.aura.voiceback.websocket;
+
+import com.aura.voiceback.service.CallLatencyTracker;
+import com.aura.voiceback.service.FrameCoalescer;
+import com.aura.voiceback.service.RoomEventLoops;
+import com.aura.voiceback.service.SessionResumption;
+import com.aura.voiceback.service.SpeakerDetector;
+import com.aura.voiceback.service.VoIPMetrics;
+import com.aura.voiceback.service.VoIPService;
+import com.aura.voiceback.util.BufferPool;
+import com.aura.voiceback.util.JsonUtil;
+import com.fasterxml.jackson.databind.JsonNode;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.net.SocketTimeoutException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * UDP 미디어 경로를 localhost 에서 끝까지: WebSocket 으로 받은 토큰과 challenge nonce 로 UDP 주소를 묶고,
+ * UDP 발신자의 오디오가 UDP 수신자(UDP)와 WebSocket 수신자(WebSocket)에게 같은 seq 로 가는지,
+ * 늦게 온 / 묶이지 않은 주소의 패킷은 버려지는지, 연결이 끊기면 바인딩이 풀리는지,
+ * 쓴 토큰으로는 다른 주소가 다시 묶지 못하고 WebSocket 으로 받은 새 토큰으로만 다시 묶이는지 확인
+ */
+class UdpMediaServerTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private RoomEventLoops eventLoops;
+    private VoIPService voip;
+    private UdpMediaServer server;
+    private VoIPWebSocketHandler handler;
+    private final List<DatagramSocket> sockets = new ArrayList<>();
+
+    @BeforeEach
+    void start() {
+        eventLoops = new RoomEventLoops(1);
+        voip = new VoIPService(VoIPService.Options.builder()
+                .metrics(new VoIPMetrics(registry))
+                .latencyTracker(new CallLatencyTracker(10))
+                .bufferPool(new BufferPool(64, false))
+                .eventLoops(eventLoops)
+                .sender(Executors.newSingleThreadExecutor())
+                .speakerDetector(new SpeakerDetector(0, 15, -50, 500, 200, 0, 0))
+                .build());
+        server = new UdpMediaServer(registry, true, "127.0.0.1", 0);
+        server.start();
+        handler = new VoIPWebSocketHandler(voip, server);
+    }
+
+    @AfterEach
+    void stop() throws InterruptedException {
+        sockets.forEach(DatagramSocket::close);
+        server.stop();
+        voip.shutdown();
+        eventLoops.shutdown();
+    }
+
+    @Test
+    void relaysAudioBetweenUdpAndWebSocketMembers() throws Exception {
+        BlockingQueue<byte[]> toA = new LinkedBlockingQueue<>();
+        BlockingQueue<byte[]> toB = new LinkedBlockingQueue<>();
+        BlockingQueue<byte[]> toC = new LinkedBlockingQueue<>();
+        WebSocketSession a = session("a", true, toA);
+        WebSocketSession b = session("b", true, toB);
+        WebSocketSession c = session("c", false, toC);
+        handler.afterConnectionEstablished(a);
+        handler.afterConnectionEstablished(b);
+        handler.afterConnectionEstablished(c);
+
+        DatagramSocket udpA = bind(offer(toA));
+        DatagramSocket udpB = bind(offer(toB));
+
+        byte[] pcm = new byte[960];
+        for (int i = 0; i < pcm.length; i++) pcm[i] = (byte) i;
+        for (long seq : new long[]{1, 2, 3, 2}) { // 마지막 2 는 늦게 온 중복
+            send(udpA, FrameCodec.encode(FrameCodec.TYPE_AUDIO, 0, FrameCodec.CODEC_PCM16, 0, seq, seq * 20,
+                    ByteBuffer.wrap(pcm)));
+        }
+
+        // UDP 수신자는 UDP 로, WebSocket 수신자는 WebSocket 으로 같은 순서 / 같은 seq
+        FrameView frame = new FrameView();
+        for (long expected = 1; expected <= 3; expected++) {
+            assertTrue(frame.wrap(ByteBuffer.wrap(receive(udpB)), 0));
+            assertEquals(FrameCodec.TYPE_AUDIO, frame.type());
+            assertEquals(expected, frame.seq());
+            assertEquals(pcm.length, frame.payload().remaining());
+
+            byte[] ws = toC.poll(5, TimeUnit.SECONDS);
+            assertNotNull(ws, "WebSocket member got nothing");
+            assertTrue(frame.wrap(ByteBuffer.wrap(ws), 0));
+            assertEquals(expected, frame.seq());
+        }
+        assertNull(tryReceive(udpB, 300), "late duplicate was relayed");
+        assertTrue(toB.isEmpty(), "bound member also got audio over WebSocket");
+        assertEquals(1, count("in", "late"));
+
+        // 묶이지 않은 주소에서 온 오디오는 버린다
+        DatagramSocket stranger = socket();
+        send(stranger, FrameCodec.encode(FrameCodec.TYPE_AUDIO, 0, FrameCodec.CODEC_PCM16, 0, 9, 0, ByteBuffer.wrap(pcm)));
+        assertNull(tryReceive(udpB, 300));
+        assertEquals(1, count("in", "unbound"));
+
+        // 끊긴 세션의 주소는 더 이상 받지 않는다
+        handler.afterConnectionClosed(a, CloseStatus.NORMAL);
+        send(udpA, FrameCodec.encode(FrameCodec.TYPE_AUDIO, 0, FrameCodec.CODEC_PCM16, 0, 10, 0, ByteBuffer.wrap(pcm)));
+        assertNull(tryReceive(udpB, 300));
+        assertEquals(2, count("in", "unbound"));
+    }
+
+    @Test
+    void usedTokenCannotRebindAndNewTokenComesOverWebSocket() throws Exception {
+        BlockingQueue<byte[]> toA = new LinkedBlockingQueue<>();
+        BlockingQueue<byte[]> toB = new LinkedBlockingQueue<>();
+        WebSocketSession a = session("a", true, toA);
+        WebSocketSession b = session("b", true, toB);
+        handler.afterConnectionEstablished(a);
+        handler.afterConnectionEstablished(b);
+        JsonNode offerA = offer(toA);
+        DatagramSocket udpA = bind(offerA);
+        DatagramSocket udpB = bind(offer(toB));
+
+        // 토큰을 엿본 다른 주소: challenge 없이도, 받은 challenge 를 되돌려 보내도 이미 쓴 토큰이라 묶이지 않는다
+        DatagramSocket attacker = socket();
+        send(attacker, control("{\"type\":\"bind\",\"token\":\"" + offerA.path("token").asText() + "\"}"));
+        assertNull(tryReceive(attacker, 300), "used token was challenged");
+        assertEquals(1, count("in", "unbound"));
+
+        byte[] pcm = new byte[960];
+        send(udpB, FrameCodec.encode(FrameCodec.TYPE_AUDIO, 0, FrameCodec.CODEC_PCM16, 0, 1, 20, ByteBuffer.wrap(pcm)));
+        assertNotNull(tryReceive(udpA, 5000), "bound member lost its media");
+
+        // 주소가 바뀐 A: WebSocket 으로 새 토큰을 받아 새 주소에서 다시 묶는다
+        handler.handleMessage(a, new TextMessage("{\"type\":\"udp\"}"));
+        JsonNode fresh = offer(toA);
+        assertNotEquals(offerA.path("token").asText(), fresh.path("token").asText());
+        DatagramSocket moved = bind(fresh);
+        send(udpB, FrameCodec.encode(FrameCodec.TYPE_AUDIO, 0, FrameCodec.CODEC_PCM16, 0, 2, 40, ByteBuffer.wrap(pcm)));
+        assertNotNull(tryReceive(moved, 5000), "rebound member got nothing");
+        assertNull(tryReceive(udpA, 300), "old address still gets media");
+    }
+
+    @Test
+    void bindWithoutEchoedNonceDoesNotBind() throws Exception {
+        BlockingQueue<byte[]> toA = new LinkedBlockingQueue<>();
+        handler.afterConnectionEstablished(session("a", true, toA));
+        String token = offer(toA).path("token").asText();
+
+        // 출발지를 위조한 쪽은 challenge 를 받지 못하므로 틀린 nonce 를 보낼 수밖에 없다
+        DatagramSocket spoofed = socket();
+        send(spoofed, control("{\"type\":\"bind\",\"token\":\"" + token + "\",\"nonce\":\"guess\"}"));
+        JsonNode challenge = controlJson(receive(spoofed));
+        assertEquals("challenge", challenge.path("type").asText());
+        // 다른 주소로 받은 nonce 도 이 주소에는 맞지 않는다
+        DatagramSocket other = socket();
+        send(other, control("{\"type\":\"bind\",\"token\":\"" + token + "\",\"nonce\":\""
+                + challenge.path("nonce").asText() + "\"}"));
+        assertEquals("challenge", controlJson(receive(other)).path("type").asText());
+
+        // 토큰은 아직 쓰이지 않았으므로 제대로 답한 주소는 묶인다
+        send(spoofed, control("{\"type\":\"bind\",\"token\":\"" + token + "\",\"nonce\":\""
+                + challenge.path("nonce").asText() + "\"}"));
+        assertEquals("bound", controlJson(receive(spoofed)).path("type").asText());
+    }
+
+    // WebSocket 으로 온 CONTROL {"type":"udp"} 에서 토큰과 포트
+    private JsonNode offer(BlockingQueue<byte[]> ws) throws Exception {
+        byte[] message = ws.poll(5, TimeUnit.SECONDS);
+        assertNotNull(message, "no udp offer over WebSocket");
+        JsonNode json = controlJson(message);
+        assertEquals("udp", json.path("type").asText());
+        assertEquals(server.getPort(), json.path("port").asInt());
+        return json;
+    }
+
+    // bind -> challenge -> nonce 를 담아 다시 bind -> bound
+    private DatagramSocket bind(JsonNode offer) throws Exception {
+        DatagramSocket socket = socket();
+        String token = offer.path("token").asText();
+        send(socket, control("{\"type\":\"bind\",\"token\":\"" + token + "\"}"));
+        JsonNode challenge = controlJson(receive(socket));
+        assertEquals("challenge", challenge.path("type").asText());
+        send(socket, control("{\"type\":\"bind\",\"token\":\"" + token + "\",\"nonce\":\""
+                + challenge.path("nonce").asText() + "\"}"));
+        assertEquals("bound", controlJson(receive(socket)).path("type").asText());
+        return socket;
+    }
+
+    private static byte[] control(String json) {
+        return FrameCodec.encode(FrameCodec.TYPE_CONTROL, 0, FrameCodec.CODEC_NONE, 0, 0, 0,
+                ByteBuffer.wrap(json.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static JsonNode controlJson(byte[] message) throws Exception {
+        FrameView frame = new FrameView();
+        assertTrue(frame.wrap(ByteBuffer.wrap(message), 0));
+        assertEquals(FrameCodec.TYPE_CONTROL, frame.type());
+        return JsonUtil.fromJson(StandardCharsets.UTF_8.decode(frame.payload()).toString(), JsonNode.class);
+    }
+
+    private DatagramSocket socket() throws Exception {
+        DatagramSocket socket = new DatagramSocket(0, InetAddress.getLoopbackAddress());
+        sockets.add(socket);
+        return socket;
+    }
+
+    private void send(DatagramSocket socket, byte[] packet) throws Exception {
+        socket.send(new DatagramPacket(packet, packet.length, InetAddress.getLoopbackAddress(), server.getPort()));
+    }
+
+    private static byte[] receive(DatagramSocket socket) throws Exception {
+        byte[] packet = tryReceive(socket, 5000);
+        assertNotNull(packet, "nothing received over UDP");
+        return packet;
+    }
+
+    private static byte[] tryReceive(DatagramSocket socket, int timeoutMs) throws Exception {
+        DatagramPacket packet = new DatagramPacket(new byte[65536], 65536);
+        socket.setSoTimeout(timeoutMs);
+        try {
+            socket.receive(packet);
+        } catch (SocketTimeoutException e) {
+            return null;
+        }
+        byte[] out = new byte[packet.getLength()];
+        System.arraycopy(packet.getData(), 0, out, 0, out.length);
+        return out;
+    }
+
+    private double count(String direction, String result) {
+        return registry.get("voip.udp.packets").tag("direction", direction).tag("result", result).counter().count();
+    }
+
+    private static WebSocketSession session(String id, boolean udp, BlockingQueue<byte[]> sent) throws Exception {
+        Map<String, Object> attributes = new HashMap<>();
+        attributes.put(RoomHandshakeInterceptor.ROOM_ID, "room");
+        attributes.put(RoomHandshakeInterceptor.FRAMED, true);
+        attributes.put(RoomHandshakeInterceptor.UDP, udp);
+        WebSocketSession session = mock(WebSocketSession.class);
+        when(session.getId()).thenReturn(id);
+        when(session.isOpen()).thenReturn(true);
+        when(session.getAttributes()).thenReturn(attributes);
+        doAnswer(inv -> {
+            ByteBuffer payload = inv.<BinaryMessage>getArgument(0).getPayload();
+            byte[] bytes = new byte[payload.remaining()];
+            payload.duplicate().get(bytes);
+            sent.add(bytes);
+            return null;
+        }).when(session).sendMessage(any());
+        return session;
+    }
+}